@@ -1,7 +1,10 @@
 package com.example.gestionrepositorios.config;
 
+import com.example.gestionrepositorios.ejecutor.IEjecutorRepositorios;
+import com.example.gestionrepositorios.ejecutor.impl.EjecutorRepositoriosActor;
 import com.example.gestionrepositorios.repositorio.IRepositorioProyecto;
 import com.example.gestionrepositorios.repositorio.impl.RepositorioProyectoImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Scope;
@@ -33,4 +36,17 @@ public class ConfiguracionApp {
         System.out.println("INFO: Definiendo bean 'repositorioTemporal' (Prototype)...");
         return new RepositorioProyectoImpl();
     }
+
+    /**
+     * Define el ejecutor que serializa las operaciones de cada repositorio.
+     * Todos los repositorios comparten el mismo pool de hilos; cada uno dispone
+     * de un buzón acotado que bloquea a quien envía cuando se llena.
+     */
+    @Bean(destroyMethod = "cerrar")
+    public IEjecutorRepositorios ejecutorRepositorios(
+            @Value("${repositorios.ejecutor.hilos:4}") int hilos,
+            @Value("${repositorios.ejecutor.capacidad-buzon:1024}") int capacidadBuzon) {
+        System.out.println("INFO: Definiendo bean 'ejecutorRepositorios' con " + hilos + " hilos...");
+        return new EjecutorRepositoriosActor(hilos, capacidadBuzon);
+    }
 }
@@ -0,0 +1,45 @@
+package com.example.gestionrepositorios.ejecutor;
+
+import com.example.gestionrepositorios.repositorio.IRepositorioProyecto;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Contrato para un ejecutor que serializa las operaciones de cada repositorio.
+ * Las operaciones enviadas a un mismo repositorio se ejecutan en orden de llegada,
+ * mientras que repositorios distintos avanzan en paralelo sobre un pool compartido.
+ */
+public interface IEjecutorRepositorios {
+
+    /**
+     * Encola una operación en el buzón del repositorio. Si el buzón está lleno,
+     * el hilo llamante se bloquea hasta que haya espacio (contrapresión).
+     * @param repositorio Repositorio destino de la operación.
+     * @param operacion Descripción de la operación a ejecutar.
+     * @return Un futuro que se completa cuando la operación se ha ejecutado.
+     */
+    CompletableFuture<Void> enviar(IRepositorioProyecto repositorio, String operacion);
+
+    /**
+     * Intenta encolar una operación sin bloquear.
+     * @param repositorio Repositorio destino de la operación.
+     * @param operacion Descripción de la operación a ejecutar.
+     * @return {@code true} si la operación fue aceptada, {@code false} si el buzón estaba lleno.
+     */
+    boolean intentarEnviar(IRepositorioProyecto repositorio, String operacion);
+
+    /**
+     * Devuelve un futuro que se completa cuando todas las operaciones encoladas
+     * hasta este momento en el buzón del repositorio se han ejecutado.
+     * @param idRepositorio El ID del repositorio.
+     */
+    CompletableFuture<Void> vaciar(String idRepositorio);
+
+    /**
+     * Espera a que se ejecuten todas las operaciones encoladas en todos los buzones.
+     * @param limite Tiempo máximo de espera.
+     * @return {@code true} si todos los buzones se vaciaron dentro del límite.
+     */
+    boolean esperarVaciado(Duration limite) throws InterruptedException;
+}
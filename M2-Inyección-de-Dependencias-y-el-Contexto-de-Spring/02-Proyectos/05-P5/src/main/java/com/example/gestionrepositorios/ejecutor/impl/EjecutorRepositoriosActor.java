@@ -0,0 +1,264 @@
+package com.example.gestionrepositorios.ejecutor.impl;
+
+import com.example.gestionrepositorios.ejecutor.IEjecutorRepositorios;
+import com.example.gestionrepositorios.repositorio.IRepositorioProyecto;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ejecutor de estilo "actor": cada repositorio tiene un buzón acotado que se drena
+ * en serie sobre un pool de hilos compartido. Un buzón solo ocupa un hilo mientras
+ * tiene trabajo pendiente, por lo que miles de repositorios pueden convivir con pocos hilos.
+ * <p>
+ * El buzón no reserva memoria por adelantado: su cola enlazada crece con las operaciones pendientes y
+ * un semáforo limita cuántas puede haber. Cuando un buzón se vacía y nadie está encolando en él, se
+ * retira del mapa; el próximo envío a ese repositorio crea uno nuevo.
+ */
+public class EjecutorRepositoriosActor implements IEjecutorRepositorios {
+
+    // Máximo de operaciones que un buzón ejecuta antes de ceder el hilo a otros buzones.
+    private static final int RAFAGA_MAXIMA = 64;
+
+    private final ExecutorService pool;
+    private final int capacidadBuzon;
+    private final ConcurrentHashMap<String, Buzon> buzones = new ConcurrentHashMap<>();
+
+    public EjecutorRepositoriosActor(int hilos, int capacidadBuzon) {
+        if (hilos <= 0 || capacidadBuzon <= 0) {
+            throw new IllegalArgumentException("El número de hilos y la capacidad del buzón deben ser positivos");
+        }
+        this.capacidadBuzon = capacidadBuzon;
+        AtomicInteger contadorHilos = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "ejecutor-repo-" + contadorHilos.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> enviar(IRepositorioProyecto repositorio, String operacion) {
+        Tarea tarea = new Tarea(repositorio, operacion);
+        Buzon buzon = reservarBuzon(repositorio.obtenerIdRepositorio());
+        try {
+            buzon.encolar(tarea);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tarea.futuro.completeExceptionally(e);
+        } finally {
+            buzon.soltar();
+        }
+        return tarea.futuro;
+    }
+
+    @Override
+    public boolean intentarEnviar(IRepositorioProyecto repositorio, String operacion) {
+        Buzon buzon = reservarBuzon(repositorio.obtenerIdRepositorio());
+        try {
+            return buzon.intentarEncolar(new Tarea(repositorio, operacion));
+        } finally {
+            buzon.soltar();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> vaciar(String idRepositorio) {
+        Buzon buzon = buzones.get(idRepositorio);
+        return buzon == null ? CompletableFuture.completedFuture(null) : buzon.vaciar();
+    }
+
+    @Override
+    public boolean esperarVaciado(Duration limite) throws InterruptedException {
+        CompletableFuture<?>[] esperas = buzones.values().stream()
+                .map(Buzon::vaciar)
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(esperas).get(limite.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            // Los buzones nunca completan sus esperas con error.
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Número de buzones vivos: uno por repositorio con operaciones pendientes o recientes.
+     */
+    public int numeroDeBuzones() {
+        return buzones.size();
+    }
+
+    /**
+     * Detiene el pool compartido. Pensado para usarse como destroyMethod del bean.
+     */
+    public void cerrar() throws InterruptedException {
+        pool.shutdown();
+        if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Obtiene (o crea) el buzón del repositorio y lo marca en uso para que no se retire mientras se
+     * encola en él. Hay que llamar a {@link Buzon#soltar()} después.
+     */
+    private Buzon reservarBuzon(String idRepositorio) {
+        return buzones.compute(idRepositorio, (id, buzon) -> {
+            Buzon reservado = buzon == null ? new Buzon(id, capacidadBuzon) : buzon;
+            reservado.usuarios.incrementAndGet();
+            return reservado;
+        });
+    }
+
+    private static final class Tarea {
+        private final IRepositorioProyecto repositorio;
+        private final String operacion;
+        private final CompletableFuture<Void> futuro = new CompletableFuture<>();
+
+        private Tarea(IRepositorioProyecto repositorio, String operacion) {
+            this.repositorio = repositorio;
+            this.operacion = operacion;
+        }
+
+        private void ejecutar() {
+            try {
+                repositorio.ejecutarOperacion(operacion);
+                futuro.complete(null);
+            } catch (RuntimeException e) {
+                futuro.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Espera registrada por {@link #vaciar(String)}: se completa cuando el buzón
+     * ha ejecutado al menos {@code objetivo} operaciones.
+     */
+    private record Espera(long objetivo, CompletableFuture<Void> futuro) {
+    }
+
+    private final class Buzon implements Runnable {
+        private final String idRepositorio;
+        private final ConcurrentLinkedQueue<Tarea> cola = new ConcurrentLinkedQueue<>();
+        // Huecos libres del buzón: limita las operaciones pendientes sin reservar un array.
+        private final Semaphore huecos;
+        // Productores que tienen el buzón reservado; mientras haya alguno no se retira.
+        private final AtomicInteger usuarios = new AtomicInteger();
+        private final AtomicBoolean programado = new AtomicBoolean(false);
+        private final AtomicLong encoladas = new AtomicLong();
+        private final ConcurrentLinkedQueue<Espera> esperas = new ConcurrentLinkedQueue<>();
+        // Solo lo escribe el hilo que drena el buzón; volatile para que lo lean los demás.
+        private volatile long ejecutadas;
+
+        private Buzon(String idRepositorio, int capacidad) {
+            this.idRepositorio = idRepositorio;
+            this.huecos = new Semaphore(capacidad);
+        }
+
+        private void encolar(Tarea tarea) throws InterruptedException {
+            huecos.acquire();
+            agregar(tarea);
+        }
+
+        private boolean intentarEncolar(Tarea tarea) {
+            if (!huecos.tryAcquire()) {
+                return false;
+            }
+            agregar(tarea);
+            return true;
+        }
+
+        private void agregar(Tarea tarea) {
+            cola.add(tarea);
+            encoladas.incrementAndGet();
+            programar();
+        }
+
+        private void soltar() {
+            usuarios.decrementAndGet();
+            retirarSiInactivo();
+        }
+
+        /**
+         * Quita el buzón del mapa si no tiene trabajo ni productores. Se comprueba dentro de
+         * {@code computeIfPresent} para que ningún productor pueda reservarlo a la vez. Las esperas
+         * que queden ya están cumplidas: todo lo encolado se ha ejecutado.
+         */
+        private void retirarSiInactivo() {
+            if (usuarios.get() == 0 && cola.isEmpty() && !programado.get()) {
+                buzones.computeIfPresent(idRepositorio, (id, buzon) ->
+                        buzon == this && usuarios.get() == 0 && cola.isEmpty() && !programado.get() ? null : buzon);
+            }
+        }
+
+        private CompletableFuture<Void> vaciar() {
+            // La cola es FIFO: cuando se hayan ejecutado 'objetivo' tareas, todas las
+            // encoladas antes de esta llamada habrán terminado.
+            long objetivo = encoladas.get();
+            if (ejecutadas >= objetivo) {
+                return CompletableFuture.completedFuture(null);
+            }
+            Espera espera = new Espera(objetivo, new CompletableFuture<>());
+            esperas.add(espera);
+            // Volvemos a comprobar por si el drenado terminó mientras registrábamos la espera.
+            if (ejecutadas >= objetivo) {
+                espera.futuro().complete(null);
+            }
+            return espera.futuro();
+        }
+
+        private void programar() {
+            if (programado.compareAndSet(false, true)) {
+                pool.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Tarea tarea;
+                int procesadas = 0;
+                while (procesadas < RAFAGA_MAXIMA && (tarea = cola.poll()) != null) {
+                    huecos.release();
+                    tarea.ejecutar();
+                    ejecutadas++;
+                    procesadas++;
+                }
+                liberarEsperas();
+            } finally {
+                programado.set(false);
+                // Si llegaron tareas mientras liberábamos el buzón, se reprograma.
+                if (!cola.isEmpty()) {
+                    programar();
+                } else {
+                    retirarSiInactivo();
+                }
+            }
+        }
+
+        private void liberarEsperas() {
+            long hechas = ejecutadas;
+            esperas.removeIf(espera -> {
+                if (espera.objetivo() > hechas) {
+                    return false;
+                }
+                espera.futuro().complete(null);
+                return true;
+            });
+        }
+    }
+}
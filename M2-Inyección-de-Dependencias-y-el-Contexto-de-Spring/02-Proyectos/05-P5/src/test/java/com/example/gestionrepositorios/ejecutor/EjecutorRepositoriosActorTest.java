@@ -0,0 +1,170 @@
+package com.example.gestionrepositorios.ejecutor;
+
+import com.example.gestionrepositorios.ejecutor.impl.EjecutorRepositoriosActor;
+import com.example.gestionrepositorios.repositorio.IRepositorioProyecto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EjecutorRepositoriosActorTest {
+
+    private EjecutorRepositoriosActor ejecutor;
+
+    @AfterEach
+    void cerrar() throws InterruptedException {
+        if (ejecutor != null) {
+            ejecutor.cerrar();
+        }
+    }
+
+    @Test
+    void lasOperacionesDeUnMismoRepositorioSeEjecutanEnOrden() throws Exception {
+        ejecutor = new EjecutorRepositoriosActor(8, 16);
+        List<RepositorioRegistrador> repositorios = crearRepositorios(50);
+        int operacionesPorRepositorio = 200;
+
+        // Varios productores envían a la vez, pero cada repositorio recibe sus operaciones
+        // desde un único productor, por lo que el orden de envío está bien definido.
+        ExecutorService productores = Executors.newFixedThreadPool(4);
+        for (RepositorioRegistrador repositorio : repositorios) {
+            productores.execute(() -> {
+                for (int i = 0; i < operacionesPorRepositorio; i++) {
+                    ejecutor.enviar(repositorio, String.valueOf(i));
+                }
+            });
+        }
+        productores.shutdown();
+        assertTrue(productores.awaitTermination(30, TimeUnit.SECONDS));
+        assertTrue(ejecutor.esperarVaciado(Duration.ofSeconds(30)));
+
+        for (RepositorioRegistrador repositorio : repositorios) {
+            List<String> recibidas = repositorio.operaciones();
+            assertEquals(operacionesPorRepositorio, recibidas.size());
+            for (int i = 0; i < operacionesPorRepositorio; i++) {
+                assertEquals(String.valueOf(i), recibidas.get(i));
+            }
+        }
+    }
+
+    @Test
+    void unBuzonLlenoRechazaEnviosSinBloquear() throws Exception {
+        ejecutor = new EjecutorRepositoriosActor(1, 2);
+        CountDownLatch liberar = new CountDownLatch(1);
+        IRepositorioProyecto lento = new IRepositorioProyecto() {
+            @Override
+            public String obtenerIdRepositorio() {
+                return "Repo-lento";
+            }
+
+            @Override
+            public void ejecutarOperacion(String operacion) {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        // La primera operación ocupa el único hilo; las siguientes llenan el buzón.
+        ejecutor.enviar(lento, "bloqueante");
+        int aceptadas = 0;
+        while (ejecutor.intentarEnviar(lento, "relleno")) {
+            aceptadas++;
+        }
+        assertTrue(aceptadas >= 1 && aceptadas <= 2);
+        assertFalse(ejecutor.intentarEnviar(lento, "rechazada"));
+
+        liberar.countDown();
+        ejecutor.vaciar("Repo-lento").get(5, TimeUnit.SECONDS);
+        assertTrue(ejecutor.intentarEnviar(lento, "aceptada"));
+    }
+
+    @Test
+    void losBuzonesVaciosSeRetiranYSeRecreanAlVolverAEnviar() throws Exception {
+        ejecutor = new EjecutorRepositoriosActor(2, 1024);
+        List<RepositorioRegistrador> repositorios = crearRepositorios(10_000);
+        for (RepositorioRegistrador repositorio : repositorios) {
+            ejecutor.enviar(repositorio, "primera");
+        }
+        assertTrue(ejecutor.esperarVaciado(Duration.ofSeconds(30)));
+        esperarSinBuzones();
+
+        ejecutor.enviar(repositorios.get(0), "segunda").get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("primera", "segunda"), repositorios.get(0).operaciones());
+        esperarSinBuzones();
+    }
+
+    private void esperarSinBuzones() throws InterruptedException {
+        // El hilo que drena un buzón lo retira justo después de completar sus futuros.
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ejecutor.numeroDeBuzones() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, ejecutor.numeroDeBuzones());
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkEscaladoHasta10kRepositorios() throws Exception {
+        int operacionesTotales = 200_000;
+        for (int numeroRepositorios : new int[]{10, 100, 1_000, 10_000}) {
+            ejecutor = new EjecutorRepositoriosActor(Runtime.getRuntime().availableProcessors(), 256);
+            List<RepositorioRegistrador> repositorios = crearRepositorios(numeroRepositorios);
+
+            long inicio = System.nanoTime();
+            for (int i = 0; i < operacionesTotales; i++) {
+                ejecutor.enviar(repositorios.get(i % numeroRepositorios), "op");
+            }
+            assertTrue(ejecutor.esperarVaciado(Duration.ofSeconds(60)));
+            long nanos = System.nanoTime() - inicio;
+
+            System.out.printf("BENCHMARK: %,6d repositorios -> %,d ops en %d ms (%,.0f ops/s)%n",
+                    numeroRepositorios, operacionesTotales, nanos / 1_000_000,
+                    operacionesTotales / (nanos / 1e9));
+            ejecutor.cerrar();
+            ejecutor = null;
+        }
+    }
+
+    private static List<RepositorioRegistrador> crearRepositorios(int cantidad) {
+        List<RepositorioRegistrador> repositorios = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            repositorios.add(new RepositorioRegistrador("Repo-" + i));
+        }
+        return repositorios;
+    }
+
+    /**
+     * Repositorio de prueba que guarda las operaciones recibidas. No se sincroniza
+     * porque el ejecutor garantiza que un repositorio nunca se usa desde dos hilos a la vez.
+     */
+    private record RepositorioRegistrador(String id, List<String> operaciones) implements IRepositorioProyecto {
+
+        RepositorioRegistrador(String id) {
+            this(id, new ArrayList<>());
+        }
+
+        @Override
+        public String obtenerIdRepositorio() {
+            return id;
+        }
+
+        @Override
+        public void ejecutarOperacion(String operacion) {
+            operaciones.add(operacion);
+        }
+    }
+}
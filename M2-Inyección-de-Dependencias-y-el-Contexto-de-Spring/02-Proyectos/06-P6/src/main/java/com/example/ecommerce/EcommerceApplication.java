@@ -2,6 +2,7 @@ package com.example.ecommerce;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.core.metrics.jfr.FlightRecorderApplicationStartup;
 
 @SpringBootApplication
 public class EcommerceApplication {
@@ -9,7 +10,13 @@ public class EcommerceApplication {
     public static void main(String[] args) {
         // SpringApplication.run inicia el contexto de Spring, que escaneará,
         // creará y configurará todos los beans definidos.
-        SpringApplication.run(EcommerceApplication.class, args);
+        SpringApplication aplicacion = new SpringApplication(EcommerceApplication.class);
+        // Con -Decommerce.perfilado.jfr=true, Spring publica sus propios pasos de arranque como eventos JFR,
+        // que complementan los eventos por bean del PerfiladorArranqueBeans.
+        if (Boolean.getBoolean("ecommerce.perfilado.jfr")) {
+            aplicacion.setApplicationStartup(new FlightRecorderApplicationStartup());
+        }
+        aplicacion.run(args);
         System.out.println("\n--- La aplicación ha finalizado su inicialización. Revisa los logs para ver el ciclo" +
                 "de vida de los beans.");
     }
@@ -0,0 +1,38 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.EcommerceApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Modo de arranque paralelo: los singletons independientes se inicializan a la vez
+ * sobre un executor acotado en lugar de uno detrás de otro.
+ * Se activa con la propiedad {@code ecommerce.arranque.paralelo=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.arranque.paralelo", havingValue = "true")
+public class ConfiguracionArranqueParalelo {
+
+    @Bean
+    public static InicializadorEnSegundoPlanFactory inicializadorEnSegundoPlanFactory() {
+        return new InicializadorEnSegundoPlanFactory(EcommerceApplication.class.getPackageName());
+    }
+
+    /**
+     * Executor que Spring usa para los beans marcados con inicialización en segundo plano.
+     * El nombre 'bootstrapExecutor' es obligatorio: es el que busca el contenedor.
+     */
+    @Bean(name = ConfigurableApplicationContext.BOOTSTRAP_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor bootstrapExecutor(Environment entorno) {
+        int hilos = entorno.getProperty("ecommerce.arranque.hilos", Integer.class, 4);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setThreadNamePrefix("arranque-");
+        return executor;
+    }
+}
@@ -1,8 +1,14 @@
 package com.example.ecommerce.config;
 
 import com.example.ecommerce.modelo.Producto;
+import com.example.ecommerce.perfilado.PerfiladorArranqueBeans;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+
+import java.nio.file.Path;
 
 /**
  * Clase de configuración principal Spring.
@@ -34,6 +40,17 @@ public class ConfiguracionEcommerce {
         return new ConfiguradorSkuProductoFactory();
     }
 
+    /**
+     * Asignación masiva de SKU desde fichero. Solo se registra si se configura la ubicación del fichero.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ecommerce.sku.fichero-asignaciones")
+    public static ConfiguradorSkuMasivoFactory configuradorSkuMasivoFactory(Environment entorno,
+                                                                            ResourceLoader cargadorRecursos) {
+        String ubicacion = entorno.getRequiredProperty("ecommerce.sku.fichero-asignaciones");
+        return new ConfiguradorSkuMasivoFactory(cargadorRecursos.getResource(ubicacion));
+    }
+
     @Bean
     public static AuditorProductoPostProcesador auditorProductoPostProcesador() {
         return new AuditorProductoPostProcesador();
@@ -43,4 +60,16 @@ public class ConfiguracionEcommerce {
     public static LogDetalladoProductoPostProcesador logDetalladoProductoPostProcesador() {
         return new LogDetalladoProductoPostProcesador();
     }
+
+    /**
+     * Perfilador del arranque: mide todos los beans y genera un informe al refrescar el contexto.
+     * Recibe el Environment como parámetro porque, al ser un método static, no puede usar @Value en campos.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ecommerce.perfilado.habilitado", havingValue = "true")
+    public static PerfiladorArranqueBeans perfiladorArranqueBeans(Environment entorno) {
+        long umbralMs = entorno.getProperty("ecommerce.perfilado.umbral-lento-ms", Long.class, 10L);
+        String informe = entorno.getProperty("ecommerce.perfilado.fichero-informe", "");
+        return new PerfiladorArranqueBeans(umbralMs, informe.isBlank() ? null : Path.of(informe));
+    }
 }
@@ -0,0 +1,142 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.modelo.Producto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Asigna en bloque los SKU de los beans {@link Producto} a partir de un fichero de asignaciones
+ * con líneas {@code nombreBean,SKU} (las líneas vacías y las que empiezan por '#' se ignoran).
+ * <p>
+ * A diferencia de {@link ConfiguradorSkuProductoFactory}, que busca un único bean por nombre,
+ * este post-procesador recorre las definiciones una sola vez, indexa las de tipo {@code Producto}
+ * (o una subclase) y aplica todas las asignaciones. El tipo sale de la clase del bean o del tipo de
+ * retorno de su método {@code @Bean}; cada nombre de clase se carga una sola vez. Solo cuando los
+ * metadatos no bastan (sin clase, o un {@code FactoryBean}) se pregunta a la factoría por el tipo.
+ */
+public class ConfiguradorSkuMasivoFactory implements BeanFactoryPostProcessor, Ordered {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfiguradorSkuMasivoFactory.class);
+
+    private final Resource ficheroAsignaciones;
+
+    public ConfiguradorSkuMasivoFactory(Resource ficheroAsignaciones) {
+        this.ficheroAsignaciones = ficheroAsignaciones;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        long inicio = System.nanoTime();
+        Map<String, String> asignaciones = leerAsignaciones();
+        Map<String, BeanDefinition> productos = indexarDefinicionesDeProducto(beanFactory);
+
+        int aplicadas = 0;
+        for (Map.Entry<String, String> asignacion : asignaciones.entrySet()) {
+            BeanDefinition definicion = productos.get(asignacion.getKey());
+            if (definicion == null) {
+                LOG.warn("⚠️ La asignación de SKU para '{}' no corresponde a ningún bean Producto.", asignacion.getKey());
+                continue;
+            }
+            definicion.getPropertyValues().addPropertyValue(new PropertyValue("sku", asignacion.getValue()));
+            aplicadas++;
+        }
+        LOG.info("✅ ConfiguradorSkuMasivoFactory: {} SKU asignados sobre {} definiciones de Producto en {} ms.",
+                aplicadas, productos.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Recorre una sola vez las definiciones registradas y devuelve las de tipo Producto por nombre.
+     */
+    static Map<String, BeanDefinition> indexarDefinicionesDeProducto(ConfigurableListableBeanFactory beanFactory) {
+        String[] nombres = beanFactory.getBeanDefinitionNames();
+        Map<String, BeanDefinition> productos = new HashMap<>(nombres.length * 4 / 3 + 1);
+        // Resultado por nombre de clase: null si la clase no basta para decidir.
+        Map<String, Boolean> porClase = new HashMap<>();
+        for (String nombre : nombres) {
+            BeanDefinition definicion = beanFactory.getBeanDefinition(nombre);
+            if (!definicion.isAbstract() && esProducto(beanFactory, nombre, definicion, porClase)) {
+                productos.put(nombre, definicion);
+            }
+        }
+        return productos;
+    }
+
+    private static boolean esProducto(ConfigurableListableBeanFactory beanFactory, String nombre,
+                                      BeanDefinition definicion, Map<String, Boolean> porClase) {
+        // Los métodos @Bean no tienen clase propia: se usa el tipo de retorno de sus metadatos.
+        String tipo = definicion.getBeanClassName();
+        if (definicion instanceof AnnotatedBeanDefinition anotada && anotada.getFactoryMethodMetadata() != null) {
+            tipo = anotada.getFactoryMethodMetadata().getReturnTypeName();
+        } else if (definicion.getFactoryMethodName() != null) {
+            tipo = null;
+        }
+        Boolean resultado = tipo == null ? null
+                : porClase.computeIfAbsent(tipo, clase -> esSubtipoDeProducto(beanFactory, clase));
+        if (resultado != null) {
+            return resultado;
+        }
+        // Sin metadatos suficientes: se resuelve el tipo sin inicializar FactoryBeans.
+        Class<?> resuelto = beanFactory.getType(nombre, false);
+        return resuelto != null && Producto.class.isAssignableFrom(resuelto);
+    }
+
+    /**
+     * @return Si la clase es Producto o una subclase, o null si no puede decidirse con la clase sola.
+     */
+    private static Boolean esSubtipoDeProducto(ConfigurableListableBeanFactory beanFactory, String nombreClase) {
+        try {
+            Class<?> clase = ClassUtils.forName(nombreClase, beanFactory.getBeanClassLoader());
+            if (FactoryBean.class.isAssignableFrom(clase)) {
+                return null;
+            }
+            return Producto.class.isAssignableFrom(clase);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private Map<String, String> leerAsignaciones() {
+        Map<String, String> asignaciones = new HashMap<>();
+        try (BufferedReader lector = new BufferedReader(
+                new InputStreamReader(ficheroAsignaciones.getInputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                linea = linea.strip();
+                if (linea.isEmpty() || linea.startsWith("#")) {
+                    continue;
+                }
+                int coma = linea.indexOf(',');
+                if (coma <= 0 || coma == linea.length() - 1) {
+                    throw new IllegalStateException("Línea de asignación de SKU inválida: '" + linea + "'");
+                }
+                asignaciones.put(linea.substring(0, coma).strip(), linea.substring(coma + 1).strip());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el fichero de asignaciones de SKU " + ficheroAsignaciones, e);
+        }
+        return asignaciones;
+    }
+
+    @Override
+    public int getOrder() {
+        // Después de ConfiguradorSkuProductoFactory: las asignaciones del fichero prevalecen sobre el SKU por defecto.
+        return 2;
+    }
+}
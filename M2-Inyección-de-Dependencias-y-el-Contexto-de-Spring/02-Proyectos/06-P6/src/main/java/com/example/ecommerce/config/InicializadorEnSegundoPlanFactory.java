@@ -0,0 +1,224 @@
+package com.example.ecommerce.config;
+
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Marca para inicialización en segundo plano (Spring 6.2, {@code AbstractBeanDefinition#setBackgroundInit})
+ * los singletons sin dependencias entre sí, para que se creen en paralelo sobre el
+ * {@code bootstrapExecutor} en lugar de uno detrás de otro.
+ * <p>
+ * Spring no permite que el hilo principal pida un bean marcado para segundo plano, así que un bean
+ * solo se marca si no tiene dependencias en ninguna de las dos direcciones:
+ * <ul>
+ *     <li>No recibe nada: se declara con un método {@code @Bean} sin parámetros, o su clase solo
+ *     tiene el constructor sin argumentos y ningún miembro con {@code @Autowired}, {@code @Value},
+ *     {@code @Inject} o {@code @Resource}.</li>
+ *     <li>Nadie lo pide: su tipo no encaja con ningún punto de inyección de otro bean de la
+ *     aplicación (incluidos los genéricos de {@code List<T>}, {@code ObjectProvider<T>}...) y
+ *     ningún bean lo nombra en su {@code @DependsOn}.</li>
+ * </ul>
+ * Un bean con {@code @DependsOn} sí puede marcarse: Spring crea sus dependencias declaradas en el
+ * hilo principal antes de enviarlo al executor. Solo se analizan las clases del paquete base de la
+ * aplicación; los beans de la autoconfiguración de Spring Boot siguen en el hilo principal.
+ * <p>
+ * Como los {@code BeanPostProcessor} ya están registrados (y ordenados) antes de crear cualquier
+ * singleton, cada bean en segundo plano recorre la misma cadena de post-procesadores, en el mismo orden.
+ */
+public class InicializadorEnSegundoPlanFactory implements BeanFactoryPostProcessor, Ordered {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InicializadorEnSegundoPlanFactory.class);
+
+    // Por nombre, para no exigir que jakarta.inject esté en el classpath.
+    private static final Set<String> ANOTACIONES_DE_INYECCION = Set.of(
+            Autowired.class.getName(), Value.class.getName(), Resource.class.getName(), "jakarta.inject.Inject");
+
+    private final String paqueteBase;
+
+    /**
+     * @param paqueteBase Paquete raíz de las clases cuyos beans pueden inicializarse en segundo plano.
+     */
+    public InicializadorEnSegundoPlanFactory(String paqueteBase) {
+        this.paqueteBase = paqueteBase.endsWith(".") ? paqueteBase : paqueteBase + ".";
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        Map<String, Analisis> analisis = new LinkedHashMap<>();
+        Set<String> nombradosEnDependsOn = new HashSet<>();
+        List<Class<?>> tiposSolicitados = new ArrayList<>();
+
+        for (String nombre : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definicion = beanFactory.getBeanDefinition(nombre);
+            if (definicion.getDependsOn() != null) {
+                nombradosEnDependsOn.addAll(Arrays.asList(definicion.getDependsOn()));
+            }
+            Analisis resultado = analizar(beanFactory, definicion);
+            if (resultado != null) {
+                analisis.put(nombre, resultado);
+                tiposSolicitados.addAll(resultado.tiposSolicitados());
+            }
+        }
+
+        List<String> marcados = new ArrayList<>();
+        analisis.forEach((nombre, resultado) -> {
+            BeanDefinition definicion = beanFactory.getBeanDefinition(nombre);
+            if (resultado.tiposSolicitados().isEmpty()
+                    && esCandidato(definicion)
+                    && !nombradosEnDependsOn.contains(nombre)
+                    && tiposSolicitados.stream().noneMatch(tipo -> tipo.isAssignableFrom(resultado.tipo()))) {
+                ((AbstractBeanDefinition) definicion).setBackgroundInit(true);
+                marcados.add(nombre);
+            }
+        });
+        LOG.info("🧵 InicializadorEnSegundoPlanFactory: {} beans independientes se inicializarán en paralelo: {}",
+                marcados.size(), marcados);
+    }
+
+    private static boolean esCandidato(BeanDefinition definicion) {
+        if (!(definicion instanceof AbstractBeanDefinition) || !definicion.isSingleton() || definicion.isLazyInit()
+                || definicion.isAbstract() || definicion.getRole() != BeanDefinition.ROLE_APPLICATION) {
+            return false;
+        }
+        return !(definicion instanceof AnnotatedBeanDefinition anotada
+                && anotada.getFactoryMethodMetadata() == null
+                && anotada.getMetadata().hasAnnotation(Configuration.class.getName()));
+    }
+
+    /**
+     * Obtiene el tipo del bean y los tipos que pide por inyección, o {@code null} si el bean
+     * no pertenece a la aplicación o no puede analizarse.
+     */
+    private Analisis analizar(ConfigurableListableBeanFactory beanFactory, BeanDefinition definicion) {
+        try {
+            if (definicion.getFactoryMethodName() != null) {
+                String claseFactoria = definicion.getFactoryBeanName() != null
+                        ? beanFactory.getBeanDefinition(definicion.getFactoryBeanName()).getBeanClassName()
+                        : definicion.getBeanClassName();
+                Class<?> clase = resolverClase(beanFactory, claseFactoria);
+                return clase == null ? null : analizarMetodoFactoria(clase, definicion.getFactoryMethodName());
+            }
+            Class<?> clase = resolverClase(beanFactory, definicion.getBeanClassName());
+            return clase == null ? null : analizarClase(clase);
+        } catch (ClassNotFoundException | LinkageError e) {
+            // Ante la duda, el bean se queda en el hilo principal.
+            return null;
+        }
+    }
+
+    private static Analisis analizarMetodoFactoria(Class<?> clase, String nombreMetodo) {
+        List<Class<?>> solicitados = new ArrayList<>();
+        List<Class<?>> tiposRetorno = new ArrayList<>();
+        // Se revisan todas las sobrecargas, porque aún no se sabe cuál usará Spring.
+        ReflectionUtils.doWithMethods(clase, metodo -> {
+            tiposRetorno.add(metodo.getReturnType());
+            agregarParametros(metodo, solicitados);
+        }, metodo -> metodo.getName().equals(nombreMetodo));
+        if (tiposRetorno.size() != 1 || esInfraestructura(tiposRetorno.get(0))) {
+            return null;
+        }
+        return new Analisis(tiposRetorno.get(0), solicitados);
+    }
+
+    private static Analisis analizarClase(Class<?> clase) {
+        if (esInfraestructura(clase)) {
+            return null;
+        }
+        List<Class<?>> solicitados = new ArrayList<>();
+        for (Constructor<?> constructor : clase.getDeclaredConstructors()) {
+            agregarParametros(constructor, solicitados);
+        }
+        ReflectionUtils.doWithFields(clase, campo -> {
+            if (tieneAnotacionDeInyeccion(campo)) {
+                agregarTipos(ResolvableType.forField(campo), solicitados);
+            }
+        });
+        ReflectionUtils.doWithMethods(clase, metodo -> {
+            if (tieneAnotacionDeInyeccion(metodo)) {
+                agregarParametros(metodo, solicitados);
+            }
+        }, ReflectionUtils.USER_DECLARED_METHODS);
+        return new Analisis(clase, solicitados);
+    }
+
+    private static void agregarParametros(Executable ejecutable, List<Class<?>> solicitados) {
+        for (int i = 0; i < ejecutable.getParameterCount(); i++) {
+            agregarTipos(ResolvableType.forMethodParameter(MethodParameter.forExecutable(ejecutable, i)), solicitados);
+        }
+    }
+
+    /**
+     * Añade el tipo y, recursivamente, sus genéricos: un {@code List<Producto>} también pide {@code Producto}.
+     */
+    private static void agregarTipos(ResolvableType tipo, List<Class<?>> solicitados) {
+        Class<?> resuelto = tipo.resolve();
+        if (resuelto != null) {
+            solicitados.add(resuelto);
+        }
+        if (tipo.isArray()) {
+            agregarTipos(tipo.getComponentType(), solicitados);
+        }
+        for (ResolvableType generico : tipo.getGenerics()) {
+            agregarTipos(generico, solicitados);
+        }
+    }
+
+    private static boolean tieneAnotacionDeInyeccion(AccessibleObject miembro) {
+        return Arrays.stream(miembro.getAnnotations())
+                .anyMatch(anotacion -> ANOTACIONES_DE_INYECCION.contains(anotacion.annotationType().getName()));
+    }
+
+    private static boolean esInfraestructura(Class<?> clase) {
+        return BeanPostProcessor.class.isAssignableFrom(clase)
+                || BeanFactoryPostProcessor.class.isAssignableFrom(clase)
+                || FactoryBean.class.isAssignableFrom(clase);
+    }
+
+    private Class<?> resolverClase(ConfigurableListableBeanFactory beanFactory, String nombreClase)
+            throws ClassNotFoundException {
+        if (nombreClase == null || !nombreClase.startsWith(paqueteBase)) {
+            return null;
+        }
+        // Las clases @Configuration llegan ya mejoradas por CGLIB: se analiza la clase original.
+        return ClassUtils.getUserClass(ClassUtils.forName(nombreClase, beanFactory.getBeanClassLoader()));
+    }
+
+    @Override
+    public int getOrder() {
+        // Se ejecuta al final: las definiciones ya han sido ajustadas por el resto de post-procesadores.
+        return LOWEST_PRECEDENCE;
+    }
+
+    /**
+     * Tipo de un bean y tipos que solicita por inyección.
+     */
+    private record Analisis(Class<?> tipo, List<Class<?>> tiposSolicitados) {
+    }
+}
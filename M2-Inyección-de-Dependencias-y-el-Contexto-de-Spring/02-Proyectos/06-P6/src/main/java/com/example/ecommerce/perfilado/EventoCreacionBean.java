@@ -0,0 +1,40 @@
+package com.example.ecommerce.perfilado;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR emitido por {@link PerfiladorArranqueBeans} al terminar la creación de cada bean.
+ * La duración del evento cubre desde la instanciación hasta el final de la inicialización.
+ */
+@Name("com.example.ecommerce.CreacionBean")
+@Label("Creación de Bean")
+@Category({"Spring", "Arranque"})
+@Description("Instanciación e inicialización de un bean durante el refresco del contexto")
+class EventoCreacionBean extends jdk.jfr.Event {
+
+    @Label("Nombre del bean")
+    String nombreBean;
+
+    @Label("Clase del bean")
+    String claseBean;
+
+    @Label("Bean que lo solicitó")
+    String solicitadoPor;
+
+    @Label("Instanciación")
+    @Timespan(Timespan.NANOSECONDS)
+    long instanciacion;
+
+    @Label("Inicialización")
+    @Timespan(Timespan.NANOSECONDS)
+    long inicializacion;
+
+    @Label("Tiempo propio")
+    @Description("Tiempo total menos el empleado en crear sus dependencias")
+    @Timespan(Timespan.NANOSECONDS)
+    long tiempoPropio;
+}
@@ -0,0 +1,102 @@
+package com.example.ecommerce.perfilado;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Informe de arranque construido a partir de los {@link RegistroBean} medidos.
+ * Contiene la línea de tiempo (ordenada por instante de inicio), el ranking de beans por tiempo
+ * propio y, para cada bean lento, la cadena de dependencias que explica su tiempo total.
+ */
+public class InformeArranque {
+
+    private static final double NANOS_POR_MS = 1_000_000.0;
+
+    private final List<RegistroBean> lineaDeTiempo;
+    private final long umbralLentoNanos;
+    private final Map<String, RegistroBean> porNombre = new HashMap<>();
+    private final Map<String, List<RegistroBean>> dependenciasAnidadas = new HashMap<>();
+
+    InformeArranque(List<RegistroBean> registros, long umbralLentoMs) {
+        this.lineaDeTiempo = new ArrayList<>(registros);
+        this.lineaDeTiempo.sort(Comparator.comparingLong(RegistroBean::getInicio));
+        this.umbralLentoNanos = umbralLentoMs * 1_000_000L;
+        for (RegistroBean registro : lineaDeTiempo) {
+            porNombre.put(registro.getNombre(), registro);
+            if (registro.getSolicitadoPor() != null) {
+                dependenciasAnidadas.computeIfAbsent(registro.getSolicitadoPor(), k -> new ArrayList<>()).add(registro);
+            }
+        }
+    }
+
+    /**
+     * Beans en el orden en que empezó su creación.
+     */
+    public List<RegistroBean> getLineaDeTiempo() {
+        return lineaDeTiempo;
+    }
+
+    /**
+     * Beans cuyo tiempo total supera el umbral, del más lento al más rápido.
+     */
+    public List<RegistroBean> getBeansLentos() {
+        return lineaDeTiempo.stream()
+                .filter(registro -> registro.getNanosTotales() >= umbralLentoNanos)
+                .sorted(Comparator.comparingLong(RegistroBean::getNanosTotales).reversed())
+                .toList();
+    }
+
+    /**
+     * Cadena de dependencias detrás de un bean: en cada paso se baja a la dependencia, creada
+     * durante la creación del bean anterior, que más tiempo tardó. El primer elemento es el propio bean.
+     */
+    public List<RegistroBean> cadenaDeDependencias(String nombreBean) {
+        List<RegistroBean> cadena = new ArrayList<>();
+        RegistroBean actual = porNombre.get(nombreBean);
+        while (actual != null) {
+            cadena.add(actual);
+            actual = dependenciasAnidadas.getOrDefault(actual.getNombre(), List.of()).stream()
+                    .max(Comparator.comparingLong(RegistroBean::getNanosTotales))
+                    .orElse(null);
+        }
+        return cadena;
+    }
+
+    /**
+     * Representación en texto del informe, lista para el log o para un fichero.
+     */
+    public String formatear() {
+        StringBuilder texto = new StringBuilder();
+        long origen = lineaDeTiempo.isEmpty() ? 0 : lineaDeTiempo.get(0).getInicio();
+        long totalPropio = lineaDeTiempo.stream().mapToLong(RegistroBean::getNanosPropios).sum();
+
+        texto.append(String.format("=== Línea de tiempo de arranque: %d beans, %.1f ms de tiempo propio acumulado ===%n",
+                lineaDeTiempo.size(), totalPropio / NANOS_POR_MS));
+        texto.append(String.format("%10s %10s %10s %10s %10s  %s%n",
+                "inicio", "total", "propio", "instanc.", "inicializ.", "bean [clase] (hilo)"));
+        for (RegistroBean registro : lineaDeTiempo) {
+            texto.append(String.format("%10.1f %10.1f %10.1f %10.1f %10.1f  %s%s [%s] (%s)%n",
+                    (registro.getInicio() - origen) / NANOS_POR_MS,
+                    registro.getNanosTotales() / NANOS_POR_MS,
+                    registro.getNanosPropios() / NANOS_POR_MS,
+                    registro.getNanosInstanciacion() / NANOS_POR_MS,
+                    registro.getNanosInicializacion() / NANOS_POR_MS,
+                    "  ".repeat(registro.getProfundidad()),
+                    registro.getNombre(), registro.getClase(), registro.getHilo()));
+        }
+
+        List<RegistroBean> lentos = getBeansLentos();
+        texto.append(String.format("%n=== Beans lentos (>= %d ms): %d ===%n", umbralLentoNanos / 1_000_000, lentos.size()));
+        for (RegistroBean lento : lentos) {
+            List<String> pasos = cadenaDeDependencias(lento.getNombre()).stream()
+                    .map(paso -> String.format("%s (total %.1f ms, propio %.1f ms)", paso.getNombre(),
+                            paso.getNanosTotales() / NANOS_POR_MS, paso.getNanosPropios() / NANOS_POR_MS))
+                    .toList();
+            texto.append(String.join(" -> ", pasos)).append(System.lineSeparator());
+        }
+        return texto.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.ecommerce.perfilado;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.PriorityOrdered;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mide la instanciación y la inicialización de TODOS los beans del contexto.
+ * <p>
+ * Al ser {@link PriorityOrdered} con la máxima prioridad, sus ganchos "antes" son los primeros
+ * de la cadena, por lo que la inicialización medida incluye a los demás post-procesadores
+ * "antes" y los métodos de inicialización ({@code @PostConstruct}, {@code afterPropertiesSet}...).
+ * Por cada bean se emite un {@link EventoCreacionBean} de JFR y, al terminar el refresco del
+ * contexto, se genera un {@link InformeArranque} que se registra en el log y, opcionalmente, en un fichero.
+ * <p>
+ * Los beans se anidan en una pila por hilo: si la creación de A provoca la de B, el tiempo de B
+ * se descuenta del tiempo propio de A y B aparece en la cadena de dependencias de A.
+ */
+public class PerfiladorArranqueBeans implements InstantiationAwareBeanPostProcessor, PriorityOrdered,
+        ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PerfiladorArranqueBeans.class);
+
+    private final long umbralLentoMs;
+    private final Path ficheroInforme;
+
+    private final ConcurrentHashMap<String, RegistroBean> registros = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<Marco>> pila = ThreadLocal.withInitial(ArrayDeque::new);
+    private final AtomicBoolean informeGenerado = new AtomicBoolean(false);
+
+    /**
+     * @param umbralLentoMs  Tiempo total a partir del cual un bean se considera lento.
+     * @param ficheroInforme Fichero donde escribir el informe, o {@code null} para solo registrarlo en el log.
+     */
+    public PerfiladorArranqueBeans(long umbralLentoMs, Path ficheroInforme) {
+        this.umbralLentoMs = umbralLentoMs;
+        this.ficheroInforme = ficheroInforme;
+    }
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+        Deque<Marco> marcos = pila.get();
+        Marco padre = marcos.peek();
+        EventoCreacionBean evento = new EventoCreacionBean();
+        evento.begin();
+        RegistroBean registro = new RegistroBean(beanName, beanClass.getName(),
+                padre == null ? null : padre.registro.getNombre(), marcos.size(), System.nanoTime());
+        marcos.push(new Marco(registro, evento));
+        // Devolver null indica a Spring que siga con la instanciación normal.
+        return null;
+    }
+
+    @Override
+    public boolean postProcessAfterInstantiation(Object bean, String beanName) throws BeansException {
+        Marco marco = marcoActual(beanName);
+        if (marco != null) {
+            marco.registro.marcarFinInstanciacion(System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        Marco marco = marcoActual(beanName);
+        if (marco != null) {
+            marco.registro.marcarInicioInicializacion(System.nanoTime());
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        Deque<Marco> marcos = pila.get();
+        if (marcoActual(beanName) == null) {
+            // Bean creado fuera de createBean (p. ej. initializeBean sobre una instancia externa).
+            return bean;
+        }
+        // Se descartan marcos huérfanos de creaciones que fallaron a mitad de camino.
+        Marco marco = marcos.pop();
+        while (!marco.registro.getNombre().equals(beanName)) {
+            marco = marcos.pop();
+        }
+        RegistroBean registro = marco.registro;
+        registro.marcarFin(System.nanoTime());
+        Marco padre = marcos.peek();
+        if (padre != null) {
+            padre.registro.sumarTiempoDependencias(registro.getNanosTotales());
+        }
+        if (marcos.isEmpty()) {
+            pila.remove();
+        }
+        // Solo se conserva la primera creación: las siguientes (prototype) no forman parte del arranque.
+        registros.putIfAbsent(beanName, registro);
+        emitirEvento(marco.evento, registro);
+        return bean;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent evento) {
+        if (!informeGenerado.compareAndSet(false, true)) {
+            return;
+        }
+        String informe = generarInforme().formatear();
+        LOG.info("⏱️ Informe de arranque de beans:\n{}", informe);
+        if (ficheroInforme != null) {
+            try {
+                if (ficheroInforme.getParent() != null) {
+                    Files.createDirectories(ficheroInforme.getParent());
+                }
+                Files.writeString(ficheroInforme, informe);
+                LOG.info("⏱️ Informe de arranque escrito en '{}'", ficheroInforme.toAbsolutePath());
+            } catch (IOException e) {
+                LOG.warn("⚠️ No se pudo escribir el informe de arranque en '{}': {}", ficheroInforme, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Genera el informe con los beans medidos hasta el momento.
+     */
+    public InformeArranque generarInforme() {
+        return new InformeArranque(new ArrayList<>(registros.values()), umbralLentoMs);
+    }
+
+    /**
+     * Registros de todos los beans medidos hasta el momento, sin orden definido.
+     */
+    public List<RegistroBean> obtenerRegistros() {
+        return new ArrayList<>(registros.values());
+    }
+
+    @Override
+    public int getOrder() {
+        // Primero de la cadena para que sus ganchos "antes" envuelvan al resto de post-procesadores.
+        return HIGHEST_PRECEDENCE;
+    }
+
+    private Marco marcoActual(String beanName) {
+        for (Marco marco : pila.get()) {
+            if (marco.registro.getNombre().equals(beanName)) {
+                return marco;
+            }
+        }
+        return null;
+    }
+
+    private static void emitirEvento(EventoCreacionBean evento, RegistroBean registro) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.nombreBean = registro.getNombre();
+            evento.claseBean = registro.getClase();
+            evento.solicitadoPor = registro.getSolicitadoPor();
+            evento.instanciacion = registro.getNanosInstanciacion();
+            evento.inicializacion = registro.getNanosInicializacion();
+            evento.tiempoPropio = registro.getNanosPropios();
+            evento.commit();
+        }
+    }
+
+    private record Marco(RegistroBean registro, EventoCreacionBean evento) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.ecommerce.perfilado;
+
+/**
+ * Tiempos medidos para la creación de un bean. Los instantes son {@code System.nanoTime()};
+ * el hilo que crea el bean es el único que escribe en el registro.
+ */
+public class RegistroBean {
+
+    private final String nombre;
+    private final String clase;
+    private final String solicitadoPor;
+    private final int profundidad;
+    private final String hilo;
+
+    private long inicio;
+    private long finInstanciacion;
+    private long inicioInicializacion;
+    private long fin;
+    // Tiempo que se pasó creando dependencias anidadas mientras este bean estaba en curso.
+    private long tiempoDependencias;
+
+    RegistroBean(String nombre, String clase, String solicitadoPor, int profundidad, long inicio) {
+        this.nombre = nombre;
+        this.clase = clase;
+        this.solicitadoPor = solicitadoPor;
+        this.profundidad = profundidad;
+        this.hilo = Thread.currentThread().getName();
+        this.inicio = inicio;
+        this.finInstanciacion = inicio;
+        this.inicioInicializacion = inicio;
+    }
+
+    void marcarFinInstanciacion(long instante) {
+        this.finInstanciacion = instante;
+    }
+
+    void marcarInicioInicializacion(long instante) {
+        this.inicioInicializacion = instante;
+    }
+
+    void marcarFin(long instante) {
+        this.fin = instante;
+    }
+
+    void sumarTiempoDependencias(long nanos) {
+        this.tiempoDependencias += nanos;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getClase() {
+        return clase;
+    }
+
+    /**
+     * Bean cuya creación provocó la de éste, o {@code null} si se creó desde el nivel superior.
+     */
+    public String getSolicitadoPor() {
+        return solicitadoPor;
+    }
+
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    public String getHilo() {
+        return hilo;
+    }
+
+    public long getInicio() {
+        return inicio;
+    }
+
+    public long getNanosInstanciacion() {
+        return finInstanciacion - inicio;
+    }
+
+    public long getNanosInicializacion() {
+        return fin - inicioInicializacion;
+    }
+
+    public long getNanosTotales() {
+        return fin - inicio;
+    }
+
+    public long getNanosPropios() {
+        return Math.max(0, getNanosTotales() - tiempoDependencias);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.modelo.Producto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConfiguradorSkuMasivoFactoryTest {
+
+    @Test
+    void asignaLosSkuDelFicheroALosProductosDeclaradosConBean() {
+        Resource fichero = new ByteArrayResource("""
+                # comentario
+                productoPrincipal,SKU-FICHERO-1
+
+                accesorioProducto,SKU-FICHERO-2
+                beanInexistente,SKU-IGNORADO
+                """.getBytes(StandardCharsets.UTF_8));
+
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+            // Se registra como bean (no con addBeanFactoryPostProcessor) para que se respete su getOrder().
+            contexto.registerBean(ConfiguradorSkuMasivoFactory.class, () -> new ConfiguradorSkuMasivoFactory(fichero));
+            contexto.register(ConfiguracionEcommerce.class);
+            contexto.refresh();
+
+            // El fichero prevalece sobre el SKU por defecto de ConfiguradorSkuProductoFactory.
+            assertEquals("SKU-FICHERO-1", contexto.getBean("productoPrincipal", Producto.class).getSku());
+            assertEquals("SKU-FICHERO-2", contexto.getBean("accesorioProducto", Producto.class).getSku());
+        }
+    }
+
+    @Test
+    void asignaLosSkuASubclasesDeProducto() {
+        Resource fichero = new ByteArrayResource("porClase,SKU-CLASE\nporMetodo,SKU-METODO\n".getBytes(StandardCharsets.UTF_8));
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+            contexto.registerBean("porClase", ProductoDigital.class);
+            contexto.register(ConfiguracionSubtipos.class);
+            contexto.addBeanFactoryPostProcessor(new ConfiguradorSkuMasivoFactory(fichero));
+            contexto.refresh();
+
+            assertEquals("SKU-CLASE", contexto.getBean("porClase", Producto.class).getSku());
+            assertEquals("SKU-METODO", contexto.getBean("porMetodo", Producto.class).getSku());
+        }
+    }
+
+    @Test
+    void ignoraLasDefinicionesQueNoSonProducto() {
+        Resource fichero = new ByteArrayResource("otroBean,SKU-1\n".getBytes(StandardCharsets.UTF_8));
+        try (GenericApplicationContext contexto = new GenericApplicationContext()) {
+            contexto.registerBeanDefinition("otroBean", new RootBeanDefinition(StringBuilder.class));
+            contexto.addBeanFactoryPostProcessor(new ConfiguradorSkuMasivoFactory(fichero));
+            contexto.refresh();
+
+            assertNull(contexto.getBeanFactory().getBeanDefinition("otroBean").getPropertyValues().getPropertyValue("sku"));
+        }
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkRefrescoCon10kDefiniciones() {
+        int definiciones = 10_000;
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < definiciones; i++) {
+            csv.append("producto").append(i).append(",SKU-").append(i).append('\n');
+        }
+        Resource fichero = new ByteArrayResource(csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        // Calentamiento de ambas variantes antes de medir.
+        for (int i = 0; i < 3; i++) {
+            refrescar(definiciones, new ConfiguradorSkuPorNombre(fichero));
+            refrescar(definiciones, new ConfiguradorSkuMasivoFactory(fichero));
+        }
+        long porNombre = refrescar(definiciones, new ConfiguradorSkuPorNombre(fichero));
+        long masivo = refrescar(definiciones, new ConfiguradorSkuMasivoFactory(fichero));
+
+        System.out.printf("BENCHMARK: refresco con %,d definiciones -> por nombre %d ms, masivo %d ms%n",
+                definiciones, porNombre / 1_000_000, masivo / 1_000_000);
+    }
+
+    private static long refrescar(int definiciones, BeanFactoryPostProcessor configurador) {
+        try (GenericApplicationContext contexto = new GenericApplicationContext()) {
+            for (int i = 0; i < definiciones; i++) {
+                RootBeanDefinition definicion = new RootBeanDefinition(Producto.class);
+                definicion.getPropertyValues().add("id", "PROD-" + i);
+                contexto.registerBeanDefinition("producto" + i, definicion);
+            }
+            contexto.addBeanFactoryPostProcessor(configurador);
+            long inicio = System.nanoTime();
+            contexto.refresh();
+            long nanos = System.nanoTime() - inicio;
+            assertEquals("SKU-" + (definiciones - 1),
+                    contexto.getBean("producto" + (definiciones - 1), Producto.class).getSku());
+            return nanos;
+        }
+    }
+
+    public static class ProductoDigital extends Producto {
+    }
+
+    @Configuration
+    static class ConfiguracionSubtipos {
+        @Bean
+        ProductoDigital porMetodo() {
+            return new ProductoDigital();
+        }
+    }
+
+    /**
+     * Variante de referencia que replica el enfoque de ConfiguradorSkuProductoFactory
+     * para cada asignación: búsqueda por nombre, comprobación de tipo y mutación.
+     */
+    private static final class ConfiguradorSkuPorNombre implements BeanFactoryPostProcessor {
+        private final Resource fichero;
+
+        private ConfiguradorSkuPorNombre(Resource fichero) {
+            this.fichero = fichero;
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            try {
+                for (String linea : fichero.getContentAsString(StandardCharsets.UTF_8).split("\n")) {
+                    String[] partes = linea.split(",");
+                    if (beanFactory.containsBeanDefinition(partes[0])
+                            && beanFactory.isTypeMatch(partes[0], Producto.class)) {
+                        BeanDefinition definicion = beanFactory.getBeanDefinition(partes[0]);
+                        definicion.getPropertyValues().add("sku", partes[1]);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.ecommerce.config;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InicializadorEnSegundoPlanFactoryTest {
+
+    private static final int BEANS_LENTOS = 16;
+    private static final long ESPERA_MS = 50;
+
+    // Instantes de inicio y fin de la inicialización de cada bean, en nanos.
+    private static final Map<String, long[]> TIEMPOS = new ConcurrentHashMap<>();
+    private static final Map<String, String> HILOS = new ConcurrentHashMap<>();
+    private static final ConcurrentLinkedQueue<String> LLAMADAS_POST_PROCESADORES = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void respetaDependsOnYElOrdenDeLosPostProcesadores() {
+        arrancar(true);
+
+        // 'dependiente' empieza cuando 'preparacion' ya ha terminado de inicializarse.
+        assertTrue(TIEMPOS.get("dependiente")[0] >= TIEMPOS.get("preparacion")[1]);
+        // Los beans independientes se han creado fuera del hilo principal...
+        for (int i = 0; i < BEANS_LENTOS; i++) {
+            assertTrue(HILOS.get("lento" + i).startsWith("arranque-"), "lento" + i);
+        }
+        // ...pero un bean con dependencias inyectadas, el bean que éste pide y el nombrado
+        // en un @DependsOn siguen en el hilo principal.
+        assertFalse(HILOS.get("consumidor").startsWith("arranque-"));
+        assertFalse(HILOS.get("catalogo").startsWith("arranque-"));
+        assertFalse(HILOS.get("preparacion").startsWith("arranque-"));
+
+        // ...y a la vez: el tramo de inicialización de algún bean independiente se solapa con el de otro.
+        assertTrue(haySolapamiento(), "Ningún par de beans independientes se inicializó a la vez");
+
+        // Para cada bean, el post-procesador de orden 1 siempre va antes que el de orden 2.
+        List<String> llamadas = new ArrayList<>(LLAMADAS_POST_PROCESADORES);
+        for (String bean : TIEMPOS.keySet()) {
+            assertTrue(llamadas.indexOf("1:" + bean) < llamadas.indexOf("2:" + bean), bean);
+        }
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkArranqueParaleloFrenteASerie() {
+        long serie = arrancar(false);
+        long paralelo = arrancar(true);
+
+        System.out.printf("BENCHMARK: %d beans de %d ms -> refresco en serie %d ms, en paralelo %d ms%n",
+                BEANS_LENTOS + 4, ESPERA_MS, serie / 1_000_000, paralelo / 1_000_000);
+    }
+
+    @Test
+    void enSerieTodoSeInicializaEnElHiloPrincipalSinSolapamiento() {
+        arrancar(false);
+
+        HILOS.forEach((bean, hilo) -> assertFalse(hilo.startsWith("arranque-"), bean));
+        assertFalse(haySolapamiento());
+    }
+
+    private static boolean haySolapamiento() {
+        List<long[]> tramos = new ArrayList<>();
+        for (int i = 0; i < BEANS_LENTOS; i++) {
+            tramos.add(TIEMPOS.get("lento" + i));
+        }
+        tramos.sort((a, b) -> Long.compare(a[0], b[0]));
+        for (int i = 1; i < tramos.size(); i++) {
+            if (tramos.get(i)[0] < tramos.get(i - 1)[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long arrancar(boolean paralelo) {
+        TIEMPOS.clear();
+        HILOS.clear();
+        LLAMADAS_POST_PROCESADORES.clear();
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+            contexto.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                    "ecommerce.arranque.paralelo", String.valueOf(paralelo),
+                    "ecommerce.arranque.hilos", "8")));
+            contexto.register(ConfiguracionArranqueParalelo.class, ConfiguracionLenta.class);
+            for (int i = 0; i < BEANS_LENTOS; i++) {
+                contexto.registerBean("lento" + i, ServicioLento.class);
+            }
+            long inicio = System.nanoTime();
+            contexto.refresh();
+            return System.nanoTime() - inicio;
+        }
+    }
+
+    @Configuration
+    static class ConfiguracionLenta {
+
+        @Bean
+        @DependsOn("preparacion")
+        ServicioLento dependiente() {
+            return new ServicioLento();
+        }
+
+        @Bean
+        ServicioLento preparacion() {
+            return new ServicioLento();
+        }
+
+        @Bean
+        Catalogo catalogo() {
+            return new Catalogo();
+        }
+
+        @Bean
+        ServicioLento consumidor(Catalogo catalogo) {
+            return new ServicioLento();
+        }
+
+        @Bean
+        static PostProcesadorRegistrador postProcesadorUno() {
+            return new PostProcesadorRegistrador(1);
+        }
+
+        @Bean
+        static PostProcesadorRegistrador postProcesadorDos() {
+            return new PostProcesadorRegistrador(2);
+        }
+    }
+
+    static class Catalogo extends ServicioLento {
+    }
+
+    static class ServicioLento implements BeanNameAware, InitializingBean {
+        private String nombre;
+
+        @Override
+        public void setBeanName(String nombre) {
+            this.nombre = nombre;
+        }
+
+        @Override
+        public void afterPropertiesSet() throws InterruptedException {
+            long inicio = System.nanoTime();
+            HILOS.put(nombre, Thread.currentThread().getName());
+            Thread.sleep(ESPERA_MS);
+            TIEMPOS.put(nombre, new long[]{inicio, System.nanoTime()});
+        }
+    }
+
+    static class PostProcesadorRegistrador implements BeanPostProcessor, Ordered {
+        private final int orden;
+
+        PostProcesadorRegistrador(int orden) {
+            this.orden = orden;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof ServicioLento) {
+                LLAMADAS_POST_PROCESADORES.add(orden + ":" + beanName);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return orden;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.ecommerce.perfilado;
+
+import jakarta.annotation.PostConstruct;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PerfiladorArranqueBeansTest {
+
+    @Test
+    void mideCadaBeanYExplicaLaCadenaDeDependenciasDeLosLentos(@TempDir Path directorio) throws Exception {
+        Path fichero = directorio.resolve("informe.txt");
+        PerfiladorArranqueBeans perfilador = new PerfiladorArranqueBeans(30, fichero);
+
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+            contexto.getBeanFactory().registerSingleton("perfilador", perfilador);
+            contexto.getBeanFactory().addBeanPostProcessor(perfilador);
+            contexto.register(ConfiguracionLenta.class);
+            contexto.refresh();
+        }
+
+        InformeArranque informe = perfilador.generarInforme();
+        List<String> cadena = informe.cadenaDeDependencias("pedidos").stream().map(RegistroBean::getNombre).toList();
+        assertEquals(List.of("pedidos", "inventario", "catalogo"), cadena);
+
+        RegistroBean pedidos = informe.cadenaDeDependencias("pedidos").get(0);
+        RegistroBean catalogo = informe.cadenaDeDependencias("pedidos").get(2);
+        // 'pedidos' tarda en total lo de toda la cadena, pero su tiempo propio solo incluye su inicialización.
+        assertTrue(pedidos.getNanosTotales() >= 120_000_000L);
+        assertTrue(pedidos.getNanosPropios() < pedidos.getNanosTotales() - 80_000_000L);
+        assertTrue(catalogo.getNanosInicializacion() >= 60_000_000L);
+        assertEquals("pedidos", informe.getBeansLentos().get(0).getNombre());
+
+        String texto = Files.readString(fichero);
+        assertTrue(texto.contains("pedidos (total"));
+        assertTrue(texto.contains("-> inventario (total"));
+    }
+
+    @Test
+    void emiteUnEventoJfrPorBean(@TempDir Path directorio) throws Exception {
+        Path grabacion = directorio.resolve("arranque.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.ecommerce.CreacionBean").withoutThreshold();
+            recording.start();
+            PerfiladorArranqueBeans perfilador = new PerfiladorArranqueBeans(30, null);
+            try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+                contexto.getBeanFactory().addBeanPostProcessor(perfilador);
+                contexto.register(ConfiguracionLenta.class);
+                contexto.refresh();
+            }
+            recording.stop();
+            recording.dump(grabacion);
+        }
+
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(grabacion);
+        assertTrue(eventos.stream().anyMatch(evento -> "catalogo".equals(evento.getString("nombreBean"))
+                && evento.getDuration().toMillis() >= 60));
+    }
+
+    @Configuration
+    static class ConfiguracionLenta {
+
+        // Se declaran en orden inverso para que la creación de 'pedidos' arrastre a las demás.
+        @Bean
+        Servicio pedidos(Servicio inventario) {
+            return new Servicio(30);
+        }
+
+        @Bean
+        Servicio inventario(Servicio catalogo) {
+            return new Servicio(30);
+        }
+
+        @Bean
+        Servicio catalogo() {
+            return new Servicio(60);
+        }
+    }
+
+    static class Servicio {
+        private final long esperaMs;
+
+        Servicio(long esperaMs) {
+            this.esperaMs = esperaMs;
+        }
+
+        @PostConstruct
+        void inicializar() throws InterruptedException {
+            Thread.sleep(esperaMs);
+        }
+    }
+}
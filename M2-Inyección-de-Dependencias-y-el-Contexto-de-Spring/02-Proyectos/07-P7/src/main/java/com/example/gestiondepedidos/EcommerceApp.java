@@ -7,33 +7,56 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.aot.AotApplicationContextInitializer;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.SpringProperties;
+import org.springframework.util.ClassUtils;
 
 /**
  * Clase principal para demostrar la creación y gestión de un ApplicationContext
  * de forma programática
+ * <p>
+ * El modo de arranque se elige con la propiedad de sistema {@code gestiondepedidos.arranque}:
+ * <ul>
+ *     <li>{@code indice} (por defecto): escanea el paquete, pero Spring usa el índice de componentes
+ *     {@code META-INF/spring.components} generado al compilar por spring-context-indexer, sin recorrer el classpath.</li>
+ *     <li>{@code escaneo}: ignora el índice y recorre el classpath leyendo cada clase.</li>
+ *     <li>{@code aot}: no escanea; registra los beans con el inicializador generado en tiempo de
+ *     compilación por {@link com.example.gestiondepedidos.aot.EcommerceAotProcessor} (perfil Maven {@code aot}).</li>
+ * </ul>
  */
 
 public class EcommerceApp {
 
     private static final Logger LOG = LoggerFactory.getLogger(EcommerceApp.class);
 
+    public static final String SERVICE_PACKAGE = "com.example.gestiondepedidos.service";
+    public static final String STARTUP_MODE_PROPERTY = "gestiondepedidos.arranque";
+    static final String AOT_INITIALIZER = EcommerceApp.class.getName() + "__ApplicationContextInitializer";
+
     public static void main(String[] args) {
+        String startupMode = System.getProperty(STARTUP_MODE_PROPERTY, "indice");
+        long startupStart = System.nanoTime();
+
         // --- 1. Crear un nuevo ApplicationContext (programáticamente) ---
-        LOG.info("Intentando crear un nuevo ApplicationContext...");
-        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        LOG.info("Intentando crear un nuevo ApplicationContext en modo '{}'...", startupMode);
+        GenericApplicationContext context = createContext(startupMode);
         LOG.info("Contexto creado con ID '{}'", context.getId());
         LOG.info("Contexto activo antes de configurar el escaneo: {}", context.isActive());
 
         // --- 2. Configurar el Contexto para Escanear Beans ---
         // Decimos al contexto dónde buscar los beans (nuestro OrderServiceImpl)
         // Concepto: Configuración del Contexto y Escaneo de Beans.
-        context.scan("com.example.gestiondepedidos.service"); // Escanear el paquete donde esta OrderServiceImpl
+        if (context instanceof AnnotationConfigApplicationContext annotationContext) {
+            annotationContext.scan(SERVICE_PACKAGE); // Escanear el paquete donde esta OrderServiceImpl
+        }
         context.refresh(); // Importante refrescar el contexto después de configurar el escaneo
                            // (Esto no está explícitamente en las fuentes para scan(),
                            // pero es una practica estándar para que el contexto procese
                            // las definiciones de beans después de un scan programático).
-        LOG.info("Contexto configurado para escanear com.example.gestiondepedidos.service ");
+        LOG.info(describeStartupMode(startupMode));
         LOG.info("Contexto activo después de configurar el escaneo: {}" ,context.isActive());
+        LOG.info("Contexto arrancado en modo '{}' en {} ms", startupMode, (System.nanoTime() - startupStart) / 1_000_000);
 
 
         // --- 3. Recuperar y Usar el Bean ---
@@ -46,8 +69,9 @@ public class EcommerceApp {
             // Usar el Servicio
             LOG.info("Utilizando el OrderService...");
             Order newOrder = orderService.createOrder("Juan Perez", 75.50);
-            Order retrieveOrder = orderService.getOrderById(1L);
-            LOG.info("Pedido recuperado por ID (1L): {}", retrieveOrder);
+            // Se busca por el ID asignado, que no tiene por qué ser 1 (almacén persistente, IDs Snowflake...).
+            Order retrieveOrder = orderService.getOrderById(newOrder.getId());
+            LOG.info("Pedido recuperado por ID ({}): {}", newOrder.getId(), retrieveOrder);
         } catch (Exception e) {
             LOG.error("Error al recuperar el bean o usar el bean OrderService: {}", e.getMessage());
         } finally {
@@ -61,4 +85,46 @@ public class EcommerceApp {
         }
     }
 
+    /**
+     * Crea el contexto según el modo de arranque. En los modos de escaneo e índice el contexto
+     * aún debe escanear el paquete de servicios; en modo AOT ya trae registradas sus definiciones.
+     */
+    static GenericApplicationContext createContext(String startupMode) {
+        switch (startupMode) {
+            case "indice":
+                return new AnnotationConfigApplicationContext();
+            case "escaneo":
+                // Debe fijarse antes de que Spring cargue el índice por primera vez.
+                SpringProperties.setFlag("spring.index.ignore");
+                return new AnnotationConfigApplicationContext();
+            case "aot":
+                return createAotContext(AOT_INITIALIZER);
+            default:
+                throw new IllegalArgumentException("Modo de arranque desconocido: '" + startupMode
+                        + "' (valores válidos: indice, escaneo, aot)");
+        }
+    }
+
+    /**
+     * Crea un contexto con las definiciones que registra el inicializador generado por AOT.
+     */
+    static GenericApplicationContext createAotContext(String initializerClass) {
+        if (!ClassUtils.isPresent(initializerClass, EcommerceApp.class.getClassLoader())) {
+            throw new IllegalStateException("El modo de arranque 'aot' necesita la clase generada "
+                    + initializerClass + ", que no está en el classpath: compila con 'mvn -Paot package' "
+                    + "o usa el modo 'indice' o 'escaneo'");
+        }
+        GenericApplicationContext context = new GenericApplicationContext();
+        AotApplicationContextInitializer.forInitializerClasses(initializerClass).initialize(context);
+        return context;
+    }
+
+    private static String describeStartupMode(String startupMode) {
+        return switch (startupMode) {
+            case "indice" -> "Contexto configurado para escanear " + SERVICE_PACKAGE
+                    + " usando el índice META-INF/spring.components";
+            case "escaneo" -> "Contexto configurado para escanear " + SERVICE_PACKAGE + " recorriendo el classpath";
+            default -> "Contexto configurado sin escaneo, con las definiciones del inicializador AOT";
+        };
+    }
 }
@@ -0,0 +1,52 @@
+package com.example.gestiondepedidos.aot;
+
+import com.example.gestiondepedidos.EcommerceApp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.aot.ContextAotProcessor;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.javapoet.ClassName;
+
+import java.nio.file.Path;
+
+/**
+ * Genera en tiempo de compilación las registraciones de beans de EcommerceApp (Spring AOT).
+ * Prepara el mismo contexto que la aplicación (escaneo del paquete de servicios), lo procesa sin
+ * instanciar los beans y escribe el código fuente de {@code EcommerceApp__ApplicationContextInitializer},
+ * que en modo {@code aot} sustituye al escaneo por reflexión.
+ * <p>
+ * Lo invoca el perfil Maven {@code aot} con los argumentos:
+ * {@code <sources> <resources> <classes> <groupId> <artifactId>}.
+ */
+public class EcommerceAotProcessor extends ContextAotProcessor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EcommerceAotProcessor.class);
+
+    public EcommerceAotProcessor(Settings settings) {
+        super(EcommerceApp.class, settings);
+    }
+
+    @Override
+    protected GenericApplicationContext prepareApplicationContext(Class<?> applicationClass) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.scan(EcommerceApp.SERVICE_PACKAGE);
+        return context;
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 5) {
+            throw new IllegalArgumentException(
+                    "Uso: EcommerceAotProcessor <sources> <resources> <classes> <groupId> <artifactId>");
+        }
+        Settings settings = Settings.builder()
+                .sourceOutput(Path.of(args[0]))
+                .resourceOutput(Path.of(args[1]))
+                .classOutput(Path.of(args[2]))
+                .groupId(args[3])
+                .artifactId(args[4])
+                .build();
+        ClassName initializer = new EcommerceAotProcessor(settings).process();
+        LOG.info("Inicializador AOT generado: {}", initializer);
+    }
+}
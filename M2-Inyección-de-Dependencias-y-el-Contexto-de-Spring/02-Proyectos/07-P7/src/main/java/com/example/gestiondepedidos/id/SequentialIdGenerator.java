@@ -0,0 +1,24 @@
+package com.example.gestiondepedidos.id;
+
+import com.example.gestiondepedidos.interfaces.IIdGenerator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IDs consecutivos 1, 2, 3... dentro de una única instancia de la aplicación.
+ * incrementAndGet garantiza que dos hilos nunca obtienen el mismo ID.
+ */
+public class SequentialIdGenerator implements IIdGenerator {
+
+    private final AtomicLong lastId = new AtomicLong();
+
+    @Override
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    @Override
+    public void observe(long id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+}
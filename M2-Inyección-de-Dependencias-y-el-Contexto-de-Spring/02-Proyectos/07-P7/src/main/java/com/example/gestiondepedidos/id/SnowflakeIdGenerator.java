@@ -0,0 +1,106 @@
+package com.example.gestiondepedidos.id;
+
+import com.example.gestiondepedidos.interfaces.IIdGenerator;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de IDs de 64 bits al estilo Snowflake, para varias instancias sin coordinación entre ellas:
+ * <pre>
+ *  0 | 41 bits: milisegundos desde {@link #EPOCH} | 10 bits: nodo | 12 bits: secuencia en el milisegundo
+ * </pre>
+ * Cada instancia usa un nodo distinto (0-1023), así que dos nodos nunca generan el mismo ID, y dentro de un
+ * nodo los IDs son crecientes. El último milisegundo y la secuencia se guardan juntos en un AtomicLong y se
+ * avanzan con compareAndSet, sin bloqueos. Si se agotan los 4096 IDs de un milisegundo, se espera al siguiente.
+ * <p>
+ * Si el reloj retrocede respecto al último ID generado (u observado de este mismo nodo), se lanza una
+ * IllegalStateException en lugar de arriesgarse a repetir IDs.
+ */
+public class SnowflakeIdGenerator implements IIdGenerator {
+
+    public static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_TIMESTAMP = (1L << 41) - 1;
+
+    private final long node;
+    private final Clock clock;
+    private final long epochMillis = EPOCH.toEpochMilli();
+    // (milisegundo << SEQUENCE_BITS) | secuencia del último ID entregado.
+    private final AtomicLong lastState = new AtomicLong();
+
+    public SnowflakeIdGenerator(int node) {
+        this(node, Clock.systemUTC());
+    }
+
+    public SnowflakeIdGenerator(int node, Clock clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            // El estado se lee antes que el reloj: así cualquier milisegundo guardado por otro hilo procede de una
+            // lectura anterior a la nuestra, y un "now" menor solo puede deberse a que el reloj ha retrocedido.
+            long last = lastState.get();
+            long now = currentTimestamp();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if (now == lastTimestamp) {
+                if ((last & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                    // Secuencia agotada en este milisegundo: se espera al siguiente.
+                    Thread.onSpinWait();
+                    continue;
+                }
+                next = last + 1;
+            } else {
+                throw new IllegalStateException("El reloj ha retrocedido " + (lastTimestamp - now)
+                        + " ms respecto al último ID del nodo " + node + "; se rechaza generar IDs para no repetirlos");
+            }
+            if (lastState.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                        | (node << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Los IDs de este mismo nodo fijan el punto de partida: tras un reinicio con el reloj atrasado
+     * respecto a los pedidos ya guardados se detecta el retroceso en lugar de repetir IDs.
+     */
+    @Override
+    public void observe(long id) {
+        if (nodeOf(id) == node) {
+            long state = ((id >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS) | (id & SEQUENCE_MASK);
+            lastState.accumulateAndGet(state, Math::max);
+        }
+    }
+
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH.toEpochMilli();
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+
+    private long currentTimestamp() {
+        long timestamp = clock.millis() - epochMillis;
+        if (timestamp < 0 || timestamp > MAX_TIMESTAMP) {
+            throw new IllegalStateException("El reloj está fuera del rango representable: " + Instant.ofEpochMilli(clock.millis()));
+        }
+        return timestamp;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.gestiondepedidos.interfaces;
+
+/**
+ * Generador de IDs de pedido. Las implementaciones deben ser seguras frente a múltiples hilos
+ * y no devolver nunca dos veces el mismo ID.
+ */
+public interface IIdGenerator {
+
+    /**
+     * Devuelve un ID nuevo, siempre positivo.
+     */
+    long nextId();
+
+    /**
+     * Informa de un ID ya usado (por ejemplo, al recuperar pedidos persistidos), para que el generador
+     * no vuelva a entregarlo. Por defecto no hace nada.
+     */
+    default void observe(long id) {
+    }
+}
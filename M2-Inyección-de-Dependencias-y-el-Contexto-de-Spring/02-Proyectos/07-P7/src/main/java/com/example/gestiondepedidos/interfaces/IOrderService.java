@@ -2,8 +2,31 @@ package com.example.gestiondepedidos.interfaces;
 
 import com.example.gestiondepedidos.model.Order;
 
+import java.util.List;
+
 public interface IOrderService {
 
     Order createOrder(String customerName, double totalAmount);
     Order getOrderById(Long id);
+
+    /**
+     * Cambia el estado de un pedido. Devuelve el pedido actualizado, o null si no existe.
+     */
+    Order updateOrderStatus(Long id, String status);
+
+    /**
+     * Página de pedidos en un estado, ordenados por ID.
+     *
+     * @param afterId  ID del último pedido de la página anterior (null para la primera página).
+     * @param pageSize Tamaño máximo de la página.
+     */
+    List<Order> getOrdersByStatus(String status, Long afterId, int pageSize);
+
+    /**
+     * Página de pedidos de un cliente, ordenados por ID.
+     *
+     * @param afterId  ID del último pedido de la página anterior (null para la primera página).
+     * @param pageSize Tamaño máximo de la página.
+     */
+    List<Order> getOrdersByCustomer(String customerName, Long afterId, int pageSize);
 }
@@ -0,0 +1,56 @@
+package com.example.gestiondepedidos.interfaces;
+
+import com.example.gestiondepedidos.model.Order;
+
+import java.util.List;
+
+/**
+ * Contrato para el almacenamiento de pedidos usado por el servicio.
+ * Las implementaciones deben ser seguras frente a múltiples hilos escritores.
+ */
+public interface IOrderStore extends AutoCloseable {
+
+    /**
+     * Crea un pedido asignándole un ID único de forma atómica.
+     */
+    Order create(String customerName, double totalAmount, String status);
+
+    /**
+     * Busca un pedido por su ID. Devuelve null si no existe.
+     */
+    Order findById(Long id);
+
+    /**
+     * Cambia el estado de un pedido manteniendo los índices. Devuelve el pedido actualizado, o null si no existe.
+     */
+    Order updateStatus(Long id, String status);
+
+    /**
+     * Pedidos en un estado, ordenados por ID, a partir del ID indicado (exclusivo; null para empezar desde el principio).
+     */
+    List<Order> findByStatus(String status, Long afterId, int limit);
+
+    /**
+     * Pedidos de un cliente, ordenados por ID, a partir del ID indicado (exclusivo; null para empezar desde el principio).
+     */
+    List<Order> findByCustomer(String customerName, Long afterId, int limit);
+
+    /**
+     * Número de pedidos almacenados.
+     */
+    int size();
+
+    /**
+     * Elimina todos los pedidos almacenados.
+     */
+    void clear();
+
+    /**
+     * Libera el almacén al apagar la aplicación. Por defecto, como el almacén en memoria no persiste nada,
+     * simplemente vacía los pedidos; un almacén persistente vuelca y cierra sus ficheros.
+     */
+    @Override
+    default void close() {
+        clear();
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.gestiondepedidos.model;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Value;
 
 
-@Data
-@AllArgsConstructor
+/**
+ * Pedido inmutable: un cambio de estado crea otra instancia. Así los almacenes pueden entregar sus
+ * propias instancias sin que nadie las modifique por fuera de sus índices.
+ */
+@Value
 public class Order {
 
     private Long id;
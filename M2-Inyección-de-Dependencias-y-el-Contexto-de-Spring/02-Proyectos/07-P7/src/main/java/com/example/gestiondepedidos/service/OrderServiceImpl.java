@@ -1,18 +1,27 @@
 package com.example.gestiondepedidos.service;
 
+import com.example.gestiondepedidos.id.SequentialIdGenerator;
+import com.example.gestiondepedidos.id.SnowflakeIdGenerator;
+import com.example.gestiondepedidos.interfaces.IIdGenerator;
 import com.example.gestiondepedidos.interfaces.IOrderService;
+import com.example.gestiondepedidos.interfaces.IOrderStore;
 import com.example.gestiondepedidos.model.Order;
+import com.example.gestiondepedidos.store.ConcurrentOrderStore;
+import com.example.gestiondepedidos.store.EventSourcedOrderStore;
+import com.example.gestiondepedidos.store.EventSourcingOptions;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Path;
+import java.util.List;
 
 /**
  * Representa un bean de servicio que gestiona pedidos
@@ -23,11 +32,27 @@ import java.util.Map;
 public class OrderServiceImpl implements IOrderService, ApplicationContextAware {
 
     private static final Logger LOG = LoggerFactory.getLogger(OrderServiceImpl.class);
+    // Si se define, los pedidos se persisten como eventos en este directorio y sobreviven a los reinicios.
+    public static final String EVENT_LOG_DIRECTORY_PROPERTY = "gestiondepedidos.eventos.directorio";
+    // Si se define (0-1023), los IDs se generan con SnowflakeIdGenerator para ese nodo, de modo que
+    // varias instancias pueden crear pedidos a la vez sin repetir IDs.
+    public static final String NODE_ID_PROPERTY = "gestiondepedidos.nodo";
     private ApplicationContext applicationContext; // Referencia para almacenar el contexto
 
-    // Mapa simple para simular una base de datos de pedidos
-    private final Map<Long, Order> orders = new HashMap<>();
-    private Long nextOrderId = 1L;
+    // Almacén concurrente que simula una base de datos de pedidos.
+    // Asigna los IDs de forma atómica, por lo que createOrder es seguro desde varios hilos.
+    private final IOrderStore orders;
+
+    // Las propiedades se leen del Environment del contexto, así que valen igual como -D,
+    // variable de entorno (GESTIONDEPEDIDOS_NODO) o cualquier otra fuente de propiedades registrada.
+    @Autowired
+    public OrderServiceImpl(Environment environment) {
+        this(createDefaultStore(environment));
+    }
+
+    public OrderServiceImpl(IOrderStore orders) {
+        this.orders = orders;
+    }
 
     /**
      * Este método es llamado por Spring cuando el bean es inicializado
@@ -48,9 +73,11 @@ public class OrderServiceImpl implements IOrderService, ApplicationContextAware
     @PostConstruct
     public void init() {
         LOG.info("OrderServiceImpl: ¡Bean inicializado! (@PostConstruct).");
-        // Pre-cargar algunos pedidos de ejemplo
-        orders.put(nextOrderId, new Order(nextOrderId++, "Alice Smith", 150.0, "COMPLETED"));
-        orders.put(nextOrderId, new Order(nextOrderId++, "Sergio Cabrera", 299.00, "PENDING"));
+        // Pre-cargar algunos pedidos de ejemplo (solo la primera vez si los pedidos se persisten)
+        if (orders.size() == 0) {
+            orders.create("Alice Smith", 150.0, "COMPLETED");
+            orders.create("Sergio Cabrera", 299.00, "PENDING");
+        }
     }
 
     /**
@@ -61,20 +88,52 @@ public class OrderServiceImpl implements IOrderService, ApplicationContextAware
     @PreDestroy
     public void destroy() {
         LOG.info("OrderServiceImpl: ¡Bean destruido! (@PreDestroy).");
-        orders.clear(); // Limpiar el "repositorio" de pedidos
+        orders.close(); // Liberar el "repositorio" de pedidos (en memoria se vacía; con eventos se vuelca a disco)
     }
 
     @Override
     public Order createOrder(String customerName, double totalAmount) {
-        Long newOrderId = nextOrderId++;
-        Order newOrder = new Order(newOrderId, customerName, totalAmount, "NEW");
-        orders.put(newOrderId, newOrder);
-        return newOrder;
+        return orders.create(customerName, totalAmount, "NEW");
     }
 
     @Override
     public Order getOrderById(Long id) {
         LOG.info("Buscando pedido con ID: {}", id);
-        return orders.get(id);
+        return orders.findById(id);
+    }
+
+    @Override
+    public Order updateOrderStatus(Long id, String status) {
+        LOG.info("Cambiando el estado del pedido {} a {}", id, status);
+        return orders.updateStatus(id, status);
+    }
+
+    @Override
+    public List<Order> getOrdersByStatus(String status, Long afterId, int pageSize) {
+        return orders.findByStatus(status, afterId, pageSize);
+    }
+
+    @Override
+    public List<Order> getOrdersByCustomer(String customerName, Long afterId, int pageSize) {
+        return orders.findByCustomer(customerName, afterId, pageSize);
+    }
+
+    private static IOrderStore createDefaultStore(Environment environment) {
+        IIdGenerator idGenerator = createIdGenerator(environment);
+        String directory = environment.getProperty(EVENT_LOG_DIRECTORY_PROPERTY);
+        if (directory == null || directory.isBlank()) {
+            return new ConcurrentOrderStore(1024, idGenerator);
+        }
+        LOG.info("Persistencia por eventos activada en '{}'", directory);
+        return EventSourcedOrderStore.open(Path.of(directory), EventSourcingOptions.defaults(), idGenerator);
+    }
+
+    private static IIdGenerator createIdGenerator(Environment environment) {
+        String node = environment.getProperty(NODE_ID_PROPERTY);
+        if (node == null || node.isBlank()) {
+            return new SequentialIdGenerator();
+        }
+        LOG.info("IDs de pedido generados con Snowflake para el nodo {}", node);
+        return new SnowflakeIdGenerator(Integer.parseInt(node.strip()));
     }
 }
@@ -0,0 +1,199 @@
+package com.example.gestiondepedidos.store;
+
+import com.example.gestiondepedidos.id.SequentialIdGenerator;
+import com.example.gestiondepedidos.interfaces.IIdGenerator;
+import com.example.gestiondepedidos.interfaces.IOrderStore;
+import com.example.gestiondepedidos.model.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Almacén de pedidos en memoria seguro para concurrencia.
+ * Los IDs los entrega un {@link IIdGenerator} sin bloqueos (por defecto, consecutivos con un AtomicLong)
+ * y los pedidos se guardan en un ConcurrentHashMap, cuyas lecturas no bloquean aunque haya escrituras en curso.
+ * <p>
+ * Mantiene además dos índices secundarios (por estado y por cliente) con los IDs ordenados,
+ * para poder paginar sin recorrer todos los pedidos. Toda modificación de un pedido se hace dentro
+ * de {@code orders.compute(id, ...)}, de modo que las escrituras sobre un mismo pedido se serializan
+ * y sus índices nunca quedan desfasados entre sí. Los pedidos guardados no se modifican ({@link Order}
+ * es inmutable, así que tampoco desde fuera): un cambio de estado sustituye la instancia, y las consultas
+ * por índice vuelven a comprobar el estado actual, por lo que un lector nunca recibe un pedido que ya no
+ * está en el estado pedido.
+ */
+public class ConcurrentOrderStore implements IOrderStore {
+
+    private final ConcurrentHashMap<Long, Order> orders;
+    private final ConcurrentHashMap<String, NavigableSet<Long>> ordersByStatus = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, NavigableSet<Long>> ordersByCustomer = new ConcurrentHashMap<>();
+    private final IIdGenerator idGenerator;
+    // Mayor ID almacenado, sea cual sea el generador.
+    private final AtomicLong lastOrderId = new AtomicLong();
+
+    public ConcurrentOrderStore() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedOrders Capacidad inicial, para evitar redimensionados si se conoce el volumen esperado.
+     */
+    public ConcurrentOrderStore(int expectedOrders) {
+        this(expectedOrders, new SequentialIdGenerator());
+    }
+
+    public ConcurrentOrderStore(int expectedOrders, IIdGenerator idGenerator) {
+        this.orders = new ConcurrentHashMap<>(expectedOrders);
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public Order create(String customerName, double totalAmount, String status) {
+        Objects.requireNonNull(customerName, "customerName");
+        Objects.requireNonNull(status, "status");
+        long id = idGenerator.nextId();
+        Order order = new Order(id, customerName, totalAmount, status);
+        // Se indexa antes de publicar el pedido: quien lo encuentre por ID ya lo encontrará por índice.
+        orders.compute(id, (key, previous) -> {
+            index(ordersByStatus, status, key);
+            index(ordersByCustomer, customerName, key);
+            return order;
+        });
+        lastOrderId.accumulateAndGet(id, Math::max);
+        return order;
+    }
+
+    @Override
+    public Order findById(Long id) {
+        return id == null ? null : orders.get(id);
+    }
+
+    @Override
+    public Order updateStatus(Long id, String status) {
+        Objects.requireNonNull(status, "status");
+        if (id == null) {
+            return null;
+        }
+        return orders.computeIfPresent(id, (key, current) -> {
+            if (current.getStatus().equals(status)) {
+                return current;
+            }
+            // Primero se añade al índice nuevo y después se quita del antiguo: en ningún momento
+            // el pedido desaparece de ambos.
+            index(ordersByStatus, status, key);
+            Order updated = new Order(key, current.getCustomerName(), current.getTotalAmount(), status);
+            NavigableSet<Long> previous = ordersByStatus.get(current.getStatus());
+            if (previous != null) {
+                previous.remove(key);
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public List<Order> findByStatus(String status, Long afterId, int limit) {
+        return page(ordersByStatus.get(status), afterId, limit, order -> order.getStatus().equals(status));
+    }
+
+    @Override
+    public List<Order> findByCustomer(String customerName, Long afterId, int limit) {
+        return page(ordersByCustomer.get(customerName), afterId, limit, order -> true);
+    }
+
+    /**
+     * Guarda un pedido con el ID que ya trae (recuperación desde el registro de eventos o una instantánea),
+     * sustituyendo al existente si lo hay. El generador no volverá a entregar ese ID.
+     */
+    void restore(Order order) {
+        Long id = order.getId();
+        orders.compute(id, (key, previous) -> {
+            index(ordersByStatus, order.getStatus(), key);
+            index(ordersByCustomer, order.getCustomerName(), key);
+            if (previous != null && !previous.getStatus().equals(order.getStatus())) {
+                NavigableSet<Long> previousStatus = ordersByStatus.get(previous.getStatus());
+                if (previousStatus != null) {
+                    previousStatus.remove(key);
+                }
+            }
+            return order;
+        });
+        lastOrderId.accumulateAndGet(id, Math::max);
+        idGenerator.observe(id);
+    }
+
+    void restoreLastOrderId(long id) {
+        lastOrderId.accumulateAndGet(id, Math::max);
+        idGenerator.observe(id);
+    }
+
+    long nextId() {
+        return idGenerator.nextId();
+    }
+
+    long lastOrderId() {
+        return lastOrderId.get();
+    }
+
+    /**
+     * IDs que contiene el índice de un estado tal cual, sin comprobar el estado actual de cada pedido
+     * como hace {@link #findByStatus}. Solo para verificar la coherencia de los índices.
+     */
+    Set<Long> idsWithStatus(String status) {
+        NavigableSet<Long> ids = ordersByStatus.get(status);
+        return ids == null ? Set.of() : Set.copyOf(ids);
+    }
+
+    /**
+     * Recorre los pedidos sin bloquear a los escritores; la vista es débilmente consistente.
+     */
+    void forEachOrder(Consumer<Order> action) {
+        orders.values().forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return orders.size();
+    }
+
+    @Override
+    public void clear() {
+        orders.clear();
+        ordersByStatus.clear();
+        ordersByCustomer.clear();
+    }
+
+    private static void index(ConcurrentHashMap<String, NavigableSet<Long>> index, String key, Long id) {
+        index.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(id);
+    }
+
+    /**
+     * Recorre los IDs del índice a partir de afterId y resuelve cada pedido, descartando los que
+     * ya no existen o han dejado de cumplir la condición (un cambio de estado en curso).
+     */
+    private List<Order> page(NavigableSet<Long> ids, Long afterId, int limit, Predicate<Order> stillMatches) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + limit);
+        }
+        if (ids == null) {
+            return List.of();
+        }
+        List<Order> page = new ArrayList<>(Math.min(limit, 64));
+        for (Long id : afterId == null ? ids : ids.tailSet(afterId, false)) {
+            Order order = orders.get(id);
+            if (order != null && stillMatches.test(order)) {
+                page.add(order);
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+}
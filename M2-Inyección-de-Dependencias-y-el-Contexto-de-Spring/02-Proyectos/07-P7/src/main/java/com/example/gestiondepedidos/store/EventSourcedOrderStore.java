@@ -0,0 +1,482 @@
+package com.example.gestiondepedidos.store;
+
+import com.example.gestiondepedidos.id.SequentialIdGenerator;
+import com.example.gestiondepedidos.interfaces.IIdGenerator;
+import com.example.gestiondepedidos.interfaces.IOrderStore;
+import com.example.gestiondepedidos.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Almacén de pedidos persistente basado en eventos. El estado vive en memoria en un
+ * {@link ConcurrentOrderStore} (las lecturas no cambian) y cada creación o cambio de estado se anexa,
+ * antes de aplicarse, como evento binario a un {@link OrderEventLog} segmentado.
+ * <p>
+ * Cada {@code snapshotEveryEvents} eventos se toma en segundo plano una instantánea
+ * ({@link OrderSnapshots}) y se borran los segmentos que cubre, de modo que al arrancar solo hay que
+ * cargar la última instantánea y reproducir los eventos posteriores. Ambas cosas se hacen en paralelo:
+ * los pedidos se reparten entre los hilos por ID. Los segmentos se decodifican una sola vez, en el hilo que
+ * abre el almacén, y cada evento se entrega al hilo de su pedido, que los aplica en orden.
+ * <p>
+ * Las escrituras se serializan (el registro es un único fichero), por lo que el orden del registro es el
+ * orden en que se aplicaron. Los eventos se acumulan en un búfer que se entrega al sistema operativo cada
+ * {@code flushIntervalMillis} y se fuerzan a disco al cambiar de segmento y al cerrar: una caída de la
+ * máquina puede perder como mucho ese intervalo.
+ */
+public class EventSourcedOrderStore implements IOrderStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventSourcedOrderStore.class);
+
+    private final Path directory;
+    private final EventSourcingOptions options;
+    private final ConcurrentOrderStore state;
+    private final Object writeLock = new Object();
+    private final Object snapshotLock = new Object();
+    private final OrderEventLog log;
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService snapshotter;
+    private final AtomicBoolean snapshotInProgress = new AtomicBoolean();
+
+    private volatile long lastSnapshotSequence;
+    private boolean closed;
+
+    private EventSourcedOrderStore(Path directory, EventSourcingOptions options, IIdGenerator idGenerator)
+            throws IOException {
+        this.directory = directory;
+        this.options = options;
+        this.state = new ConcurrentOrderStore(1024, idGenerator);
+        Files.createDirectories(directory);
+
+        long start = System.nanoTime();
+        ExecutorService replayPool = Executors.newFixedThreadPool(options.replayThreads(), threadFactory("order-replay-"));
+        OrderEventLog.Segment tail;
+        long nextSequence;
+        try {
+            lastSnapshotSequence = OrderSnapshots.loadLatest(directory, state, replayPool);
+            List<OrderEventLog.Segment> segments = OrderEventLog.segments(directory);
+            tail = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            // El final del último segmento puede tener un evento a medio escribir: se descarta.
+            long tailEvents = tail == null ? 0 : truncateTail(tail);
+            nextSequence = tail == null ? lastSnapshotSequence : Math.max(lastSnapshotSequence, tail.base() + tailEvents);
+            replay(segments, replayPool);
+        } finally {
+            replayPool.shutdown();
+        }
+        this.log = new OrderEventLog(directory, options.maxSegmentBytes(), tail, nextSequence);
+        LOG.info("Registro de pedidos recuperado de '{}': {} pedidos (instantánea en la secuencia {} + {} eventos) en {} ms",
+                directory, state.size(), lastSnapshotSequence, nextSequence - lastSnapshotSequence,
+                (System.nanoTime() - start) / 1_000_000);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(threadFactory("order-log-flush-"));
+        this.snapshotter = Executors.newSingleThreadExecutor(threadFactory("order-snapshot-"));
+        flusher.scheduleWithFixedDelay(this::flush, options.flushIntervalMillis(), options.flushIntervalMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre (o crea) el almacén en el directorio indicado, recuperando su estado.
+     */
+    public static EventSourcedOrderStore open(Path directory, EventSourcingOptions options) {
+        return open(directory, options, new SequentialIdGenerator());
+    }
+
+    /**
+     * Abre (o crea) el almacén usando el generador de IDs indicado. Los IDs recuperados se le
+     * notifican con {@link IIdGenerator#observe(long)} antes de crear pedidos nuevos.
+     */
+    public static EventSourcedOrderStore open(Path directory, EventSourcingOptions options, IIdGenerator idGenerator) {
+        try {
+            return new EventSourcedOrderStore(directory, options, idGenerator);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el registro de pedidos en " + directory, e);
+        }
+    }
+
+    @Override
+    public Order create(String customerName, double totalAmount, String status) {
+        Objects.requireNonNull(customerName, "customerName");
+        Objects.requireNonNull(status, "status");
+        Order order;
+        long sequence;
+        synchronized (writeLock) {
+            ensureOpen();
+            // El ID se reserva antes de registrar el evento, que debe llevarlo.
+            order = new Order(state.nextId(), customerName, totalAmount, status);
+            append(() -> log.appendCreated(order.getId(), customerName, totalAmount, status));
+            state.restore(order);
+            sequence = log.nextSequence();
+        }
+        maybeSnapshot(sequence);
+        return order;
+    }
+
+    @Override
+    public Order updateStatus(Long id, String status) {
+        Objects.requireNonNull(status, "status");
+        Order updated;
+        long sequence;
+        synchronized (writeLock) {
+            ensureOpen();
+            Order current = state.findById(id);
+            if (current == null || current.getStatus().equals(status)) {
+                return current;
+            }
+            append(() -> log.appendStatusChanged(id, status));
+            updated = state.updateStatus(id, status);
+            sequence = log.nextSequence();
+        }
+        maybeSnapshot(sequence);
+        return updated;
+    }
+
+    @Override
+    public Order findById(Long id) {
+        return state.findById(id);
+    }
+
+    @Override
+    public List<Order> findByStatus(String status, Long afterId, int limit) {
+        return state.findByStatus(status, afterId, limit);
+    }
+
+    @Override
+    public List<Order> findByCustomer(String customerName, Long afterId, int limit) {
+        return state.findByCustomer(customerName, afterId, limit);
+    }
+
+    @Override
+    public int size() {
+        return state.size();
+    }
+
+    /**
+     * Borra todos los pedidos. Como el registro no tiene un evento de borrado, se vacía el estado y se toma
+     * en ese mismo punto una instantánea vacía, que sustituye a las anteriores y a todos los segmentos.
+     * La instantánea conserva el último ID, así que tras reiniciar no se reutilizan los IDs borrados.
+     */
+    @Override
+    public void clear() {
+        snapshot(true);
+        LOG.info("Pedidos borrados del registro de '{}'", directory);
+    }
+
+    /**
+     * Toma una instantánea ahora, sin esperar a que se alcance {@code snapshotEveryEvents}.
+     *
+     * @return Secuencia de la instantánea.
+     */
+    public long snapshot() {
+        return snapshot(false);
+    }
+
+    /**
+     * @param discardOrders true para vaciar el estado antes de la instantánea ({@link #clear()}).
+     */
+    private long snapshot(boolean discardOrders) {
+        // Las instantáneas se serializan: una más antigua no debe borrar los ficheros de otra en curso.
+        synchronized (snapshotLock) {
+            try {
+                long sequence;
+                long lastOrderId;
+                synchronized (writeLock) {
+                    ensureOpen();
+                    // Se empieza un segmento nuevo para que los anteriores queden enteros cubiertos por la instantánea.
+                    log.roll();
+                    sequence = log.nextSequence();
+                    lastOrderId = state.lastOrderId();
+                    if (discardOrders) {
+                        state.clear();
+                    }
+                }
+                long start = System.nanoTime();
+                OrderSnapshots.write(directory, sequence, lastOrderId, state, options.replayThreads());
+                lastSnapshotSequence = sequence;
+                OrderSnapshots.deleteOlderThan(directory, sequence);
+                for (OrderEventLog.Segment segment : OrderEventLog.segments(directory)) {
+                    if (segment.base() < sequence) {
+                        Files.deleteIfExists(segment.path());
+                    }
+                }
+                LOG.info("Instantánea de pedidos en la secuencia {} tomada en {} ms", sequence, (System.nanoTime() - start) / 1_000_000);
+                return sequence;
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo tomar la instantánea de pedidos", e);
+            }
+        }
+    }
+
+    /**
+     * Detiene las tareas de fondo, vuelca los eventos pendientes a disco y cierra el registro.
+     * Los pedidos se conservan para el siguiente arranque.
+     */
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        snapshotter.shutdown();
+        try {
+            if (!snapshotter.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.warn("La instantánea en curso no terminó antes del cierre");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                log.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo cerrar el registro de pedidos", e);
+            }
+        }
+        LOG.info("Registro de pedidos cerrado en la secuencia {}", log.nextSequence());
+    }
+
+    private void maybeSnapshot(long sequence) {
+        long every = options.snapshotEveryEvents();
+        if (every > 0 && sequence - lastSnapshotSequence >= every
+                && snapshotInProgress.compareAndSet(false, true)) {
+            try {
+                snapshotter.execute(() -> {
+                    try {
+                        snapshot();
+                    } catch (RuntimeException e) {
+                        LOG.error("Error tomando la instantánea de pedidos", e);
+                    } finally {
+                        snapshotInProgress.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // El almacén se está cerrando.
+                snapshotInProgress.set(false);
+            }
+        }
+    }
+
+    private void flush() {
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            try {
+                log.flush();
+            } catch (IOException e) {
+                LOG.error("Error volcando el registro de pedidos", e);
+            }
+        }
+    }
+
+    private void append(LogWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo registrar el evento de pedido", e);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("El almacén de pedidos está cerrado");
+        }
+    }
+
+    /**
+     * Valida el último segmento y lo trunca tras su último evento completo.
+     *
+     * @return Número de eventos válidos del segmento.
+     */
+    private static long truncateTail(OrderEventLog.Segment tail) throws IOException {
+        try (FileChannel channel = FileChannel.open(tail.path(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            OrderEventLog.ReadResult result = OrderEventLog.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size),
+                    tail.base(), IGNORE_EVENTS, true);
+            if (result.validBytes() < size) {
+                LOG.warn("Descartados {} bytes incompletos al final de {}", size - result.validBytes(), tail.path());
+                channel.truncate(result.validBytes());
+            }
+            return result.events();
+        }
+    }
+
+    /**
+     * Reproduce los eventos posteriores a la instantánea. Este hilo recorre cada segmento una sola vez y
+     * reparte los eventos, por lotes y en el orden del registro, entre los hilos de las particiones
+     * ({@link OrderSnapshots#partitionOf}); cada uno aplica solo los de sus pedidos. Con un solo hilo de
+     * reproducción los eventos se aplican directamente.
+     */
+    private void replay(List<OrderEventLog.Segment> segments, ExecutorService pool) throws IOException {
+        int partitions = options.replayThreads();
+        long fromSequence = lastSnapshotSequence;
+        if (partitions == 1) {
+            readSegments(segments, fromSequence, this::apply);
+            return;
+        }
+        List<ReplayPartition> workers = new ArrayList<>(partitions);
+        List<Future<?>> tasks = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            ReplayPartition worker = new ReplayPartition();
+            workers.add(worker);
+            tasks.add(pool.submit(worker));
+        }
+        try {
+            readSegments(segments, fromSequence,
+                    event -> workers.get(OrderSnapshots.partitionOf(event.id(), partitions)).add(event));
+        } finally {
+            // Aunque la lectura falle, los hilos deben terminar para que no queden esperando lotes.
+            for (ReplayPartition worker : workers) {
+                worker.finish();
+            }
+        }
+        OrderSnapshots.await(tasks);
+    }
+
+    private static void readSegments(List<OrderEventLog.Segment> segments, long fromSequence,
+                                     Consumer<ReplayEvent> sink) throws IOException {
+        OrderEventLog.EventHandler handler = new OrderEventLog.EventHandler() {
+            @Override
+            public void created(long sequence, long id, String customerName, double totalAmount, String status) {
+                if (sequence >= fromSequence) {
+                    sink.accept(new ReplayEvent(id, status, new Order(id, customerName, totalAmount, status)));
+                }
+            }
+
+            @Override
+            public void statusChanged(long sequence, long id, String status) {
+                if (sequence >= fromSequence) {
+                    sink.accept(new ReplayEvent(id, status, null));
+                }
+            }
+        };
+        for (int i = 0; i < segments.size(); i++) {
+            OrderEventLog.Segment segment = segments.get(i);
+            boolean coveredBySnapshot = i + 1 < segments.size() && segments.get(i + 1).base() <= fromSequence;
+            if (coveredBySnapshot) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segment.path(), StandardOpenOption.READ)) {
+                MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                OrderEventLog.read(data, segment.base(), handler, false);
+            }
+        }
+    }
+
+    private void apply(ReplayEvent event) {
+        if (event.created() != null) {
+            state.restore(event.created());
+        } else {
+            state.updateStatus(event.id(), event.status());
+        }
+    }
+
+    /**
+     * Evento ya decodificado: una creación si {@code created} no es null, o un cambio de estado.
+     */
+    private record ReplayEvent(long id, String status, Order created) {
+    }
+
+    /**
+     * Hilo de reproducción de una partición. Recibe los eventos por lotes en una cola acotada, de modo que
+     * la lectura no se adelanta demasiado a la aplicación. Si aplicar un evento falla, sigue vaciando la
+     * cola (para no bloquear la lectura) y lanza el error al terminar.
+     */
+    private final class ReplayPartition implements Callable<Void> {
+
+        private static final int BATCH_SIZE = 1024;
+        private static final List<ReplayEvent> END = List.of();
+
+        private final BlockingQueue<List<ReplayEvent>> batches = new ArrayBlockingQueue<>(8);
+        private List<ReplayEvent> pending = new ArrayList<>(BATCH_SIZE);
+
+        void add(ReplayEvent event) {
+            pending.add(event);
+            if (pending.size() == BATCH_SIZE) {
+                hand(pending);
+                pending = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+
+        void finish() {
+            if (!pending.isEmpty()) {
+                hand(pending);
+            }
+            hand(END);
+        }
+
+        private void hand(List<ReplayEvent> batch) {
+            try {
+                batches.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Recuperación de pedidos interrumpida", e);
+            }
+        }
+
+        @Override
+        public Void call() throws InterruptedException {
+            RuntimeException failure = null;
+            for (List<ReplayEvent> batch = batches.take(); batch != END; batch = batches.take()) {
+                if (failure != null) {
+                    continue;
+                }
+                try {
+                    batch.forEach(EventSourcedOrderStore.this::apply);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final OrderEventLog.EventHandler IGNORE_EVENTS = new OrderEventLog.EventHandler() {
+        @Override
+        public void created(long sequence, long id, String customerName, double totalAmount, String status) {
+        }
+
+        @Override
+        public void statusChanged(long sequence, long id, String status) {
+        }
+    };
+
+    @FunctionalInterface
+    private interface LogWrite {
+        void run() throws IOException;
+    }
+}
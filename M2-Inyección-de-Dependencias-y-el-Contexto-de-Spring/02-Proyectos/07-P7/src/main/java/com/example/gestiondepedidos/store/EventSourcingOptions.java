@@ -0,0 +1,28 @@
+package com.example.gestiondepedidos.store;
+
+/**
+ * Parámetros del modo de persistencia por eventos.
+ *
+ * @param maxSegmentBytes     Tamaño a partir del cual se empieza un nuevo segmento del registro.
+ * @param snapshotEveryEvents Eventos entre instantáneas (0 las desactiva); acota lo que hay que reproducir al arrancar.
+ * @param replayThreads       Hilos para cargar la instantánea y reproducir los eventos posteriores.
+ * @param flushIntervalMillis Cada cuánto se entregan al sistema operativo los eventos del búfer de escritura.
+ */
+public record EventSourcingOptions(long maxSegmentBytes, long snapshotEveryEvents, int replayThreads,
+                                   long flushIntervalMillis) {
+
+    public EventSourcingOptions {
+        if (maxSegmentBytes <= 0 || maxSegmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tamaño de segmento fuera de rango: " + maxSegmentBytes);
+        }
+        if (snapshotEveryEvents < 0 || replayThreads <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Parámetros de persistencia inválidos: snapshotEveryEvents="
+                    + snapshotEveryEvents + ", replayThreads=" + replayThreads + ", flushIntervalMillis=" + flushIntervalMillis);
+        }
+    }
+
+    public static EventSourcingOptions defaults() {
+        return new EventSourcingOptions(64L * 1024 * 1024, 1_000_000,
+                Math.max(2, Runtime.getRuntime().availableProcessors()), 100);
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.gestiondepedidos.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Registro de eventos de pedidos en ficheros segmentados ({@code segment-<secuencia>.log}), solo de anexado.
+ * El nombre de cada segmento es la secuencia global de su primer evento.
+ * <p>
+ * Formato binario de cada evento: {@code [int longitud][carga][int CRC32C de la carga]}, con la carga
+ * {@code [byte tipo][long id]} seguida de, según el tipo:
+ * <ul>
+ *     <li>{@link #CREATED}: {@code [double importe][estado][cliente]}</li>
+ *     <li>{@link #STATUS_CHANGED}: {@code [estado]}</li>
+ * </ul>
+ * Las cadenas se escriben como {@code [short longitud][bytes UTF-8]}. El CRC permite detectar un último
+ * evento a medio escribir tras una caída.
+ * <p>
+ * No es seguro para hilos: quien lo usa serializa las escrituras.
+ */
+final class OrderEventLog implements Closeable {
+
+    static final byte CREATED = 1;
+    static final byte STATUS_CHANGED = 2;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+    private long segmentBytes;
+    private long nextSequence;
+
+    /**
+     * Abre el registro para anexar a continuación del último segmento (ya validado y truncado por la recuperación).
+     *
+     * @param tail         Último segmento existente, o null si hay que empezar uno nuevo.
+     * @param nextSequence Secuencia que recibirá el próximo evento.
+     */
+    OrderEventLog(Path directory, long maxSegmentBytes, Segment tail, long nextSequence) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.nextSequence = nextSequence;
+        if (tail != null) {
+            channel = FileChannel.open(tail.path(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segmentBytes = channel.size();
+        } else {
+            openSegment();
+        }
+    }
+
+    long nextSequence() {
+        return nextSequence;
+    }
+
+    void appendCreated(long id, String customerName, double totalAmount, String status) throws IOException {
+        byte[] statusBytes = encode(status);
+        byte[] customerBytes = encode(customerName);
+        int payload = 1 + Long.BYTES + Double.BYTES + 2 + statusBytes.length + 2 + customerBytes.length;
+        ByteBuffer out = reserve(payload);
+        int start = out.position();
+        out.put(CREATED).putLong(id).putDouble(totalAmount);
+        putString(out, statusBytes);
+        putString(out, customerBytes);
+        finish(out, start);
+    }
+
+    void appendStatusChanged(long id, String status) throws IOException {
+        byte[] statusBytes = encode(status);
+        int payload = 1 + Long.BYTES + 2 + statusBytes.length;
+        ByteBuffer out = reserve(payload);
+        int start = out.position();
+        out.put(STATUS_CHANGED).putLong(id);
+        putString(out, statusBytes);
+        finish(out, start);
+    }
+
+    /**
+     * Cierra el segmento actual y empieza otro en la secuencia siguiente (si el actual está vacío, se reutiliza).
+     */
+    void roll() throws IOException {
+        sync();
+        if (segmentBytes == 0) {
+            return;
+        }
+        channel.close();
+        openSegment();
+    }
+
+    /**
+     * Entrega al sistema operativo los eventos que quedan en el búfer.
+     */
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Vuelca el búfer y fuerza la escritura a disco.
+     */
+    void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reserva sitio en el búfer para un evento (cambiando de segmento si no cabe) y escribe su cabecera.
+     */
+    private ByteBuffer reserve(int payload) throws IOException {
+        int record = HEADER_BYTES + payload + TRAILER_BYTES;
+        if (record > BUFFER_BYTES) {
+            throw new IllegalArgumentException("Evento demasiado grande: " + record + " bytes");
+        }
+        if (segmentBytes > 0 && segmentBytes + record > maxSegmentBytes) {
+            roll();
+        }
+        if (buffer.remaining() < record) {
+            flush();
+        }
+        segmentBytes += record;
+        nextSequence++;
+        return buffer.putInt(payload);
+    }
+
+    private void finish(ByteBuffer out, int payloadStart) {
+        crc.reset();
+        crc.update(out.duplicate().position(payloadStart).limit(out.position()));
+        out.putInt((int) crc.getValue());
+    }
+
+    private void openSegment() throws IOException {
+        Files.createDirectories(directory);
+        channel = FileChannel.open(segmentPath(directory, nextSequence),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentBytes = 0;
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Cadena demasiado larga para el registro de eventos: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer out, byte[] bytes) {
+        out.putShort((short) bytes.length).put(bytes);
+    }
+
+    // --- Lectura ---
+
+    /**
+     * Segmentos del directorio ordenados por secuencia.
+     */
+    static List<Segment> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(Path::getFileName).map(Path::toString)
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> new Segment(directory.resolve(name),
+                            Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))))
+                    .sorted((a, b) -> Long.compare(a.base(), b.base()))
+                    .toList();
+        }
+    }
+
+    static Path segmentPath(Path directory, long base) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, base, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Recorre y decodifica los eventos de un segmento.
+     *
+     * @param stopAtCorruption true para detenerse en el primer evento incompleto o corrupto (final de un
+     *                         segmento tras una caída); false para lanzar una excepción.
+     * @return Posición del final del último evento válido y número de eventos recorridos hasta ella.
+     */
+    static ReadResult read(ByteBuffer data, long base, EventHandler handler, boolean stopAtCorruption) {
+        CRC32C crc = new CRC32C();
+        long sequence = base;
+        while (data.remaining() >= HEADER_BYTES) {
+            int start = data.position();
+            int payload = data.getInt(start);
+            if (payload < 1 + Long.BYTES || data.remaining() < HEADER_BYTES + payload + TRAILER_BYTES) {
+                return corrupt(data, start, base, sequence, stopAtCorruption);
+            }
+            int payloadStart = start + HEADER_BYTES;
+            int end = payloadStart + payload + TRAILER_BYTES;
+            crc.reset();
+            crc.update(data.duplicate().position(payloadStart).limit(payloadStart + payload));
+            if ((int) crc.getValue() != data.getInt(payloadStart + payload)) {
+                return corrupt(data, start, base, sequence, stopAtCorruption);
+            }
+            long id = data.getLong(payloadStart + 1);
+            data.position(payloadStart + 1 + Long.BYTES);
+            byte type = data.get(payloadStart);
+            if (type == CREATED) {
+                double totalAmount = data.getDouble();
+                String status = getString(data);
+                String customerName = getString(data);
+                handler.created(sequence, id, customerName, totalAmount, status);
+            } else if (type == STATUS_CHANGED) {
+                handler.statusChanged(sequence, id, getString(data));
+            } else {
+                return corrupt(data, start, base, sequence, stopAtCorruption);
+            }
+            data.position(end);
+            sequence++;
+        }
+        if (data.hasRemaining()) {
+            return corrupt(data, data.position(), base, sequence, stopAtCorruption);
+        }
+        return new ReadResult(data.position(), sequence - base);
+    }
+
+    private static ReadResult corrupt(ByteBuffer data, int position, long base, long sequence, boolean stopAtCorruption) {
+        if (stopAtCorruption) {
+            return new ReadResult(position, sequence - base);
+        }
+        throw new UncheckedIOException(new IOException(
+                "Evento " + sequence + " corrupto en la posición " + position + " del registro de pedidos"));
+    }
+
+    private static String getString(ByteBuffer data) {
+        int length = Short.toUnsignedInt(data.getShort());
+        byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    record Segment(Path path, long base) {
+    }
+
+    record ReadResult(int validBytes, long events) {
+    }
+
+    interface EventHandler {
+        void created(long sequence, long id, String customerName, double totalAmount, String status);
+
+        void statusChanged(long sequence, long id, String status);
+    }
+}
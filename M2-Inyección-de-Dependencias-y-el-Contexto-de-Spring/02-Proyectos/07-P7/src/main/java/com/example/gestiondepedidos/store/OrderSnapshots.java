@@ -0,0 +1,211 @@
+package com.example.gestiondepedidos.store;
+
+import com.example.gestiondepedidos.model.Order;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Instantáneas del estado de los pedidos. Cada instantánea es un directorio {@code snapshot-<secuencia>}
+ * con un fichero de metadatos y varias partes (pedidos repartidos por ID) que se cargan en paralelo.
+ * Se escribe en un directorio temporal y se renombra al terminar, así que un directorio con el nombre
+ * definitivo siempre está completo.
+ * <p>
+ * La instantánea se toma sin detener las escrituras: contiene todos los eventos anteriores a su secuencia
+ * y quizá alguno posterior. Como cada evento fija el valor completo de lo que cambia, reproducir después
+ * los eventos desde esa secuencia deja el mismo estado final.
+ */
+final class OrderSnapshots {
+
+    private static final String PREFIX = "snapshot-";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String METADATA = "snapshot.properties";
+    private static final long END_OF_PART = 0L; // Los IDs de pedido empiezan en 1.
+
+    private OrderSnapshots() {
+    }
+
+    static void write(Path directory, long sequence, long lastOrderId, ConcurrentOrderStore state, int parts)
+            throws IOException {
+        Path target = directory.resolve(String.format("%s%020d", PREFIX, sequence));
+        Path temp = directory.resolve(target.getFileName() + TEMP_SUFFIX);
+        deleteRecursively(temp);
+        Files.createDirectories(temp);
+
+        DataOutputStream[] outputs = new DataOutputStream[parts];
+        try {
+            for (int part = 0; part < parts; part++) {
+                outputs[part] = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(temp.resolve(partName(part))), 256 * 1024));
+            }
+            state.forEachOrder(order -> {
+                try {
+                    DataOutputStream out = outputs[partitionOf(order.getId(), parts)];
+                    out.writeLong(order.getId());
+                    out.writeDouble(order.getTotalAmount());
+                    out.writeUTF(order.getStatus());
+                    out.writeUTF(order.getCustomerName());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            for (DataOutputStream out : outputs) {
+                out.writeLong(END_OF_PART);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (OutputStream out : outputs) {
+                if (out != null) {
+                    out.close();
+                }
+            }
+        }
+
+        Properties metadata = new Properties();
+        metadata.setProperty("sequence", Long.toString(sequence));
+        metadata.setProperty("lastOrderId", Long.toString(lastOrderId));
+        metadata.setProperty("parts", Integer.toString(parts));
+        try (OutputStream out = Files.newOutputStream(temp.resolve(METADATA))) {
+            metadata.store(out, "Instantánea de pedidos");
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Carga la instantánea más reciente en el almacén, repartiendo las partes entre los hilos del executor.
+     *
+     * @return Secuencia de la instantánea (los eventos a partir de ella deben reproducirse), o 0 si no hay ninguna.
+     */
+    static long loadLatest(Path directory, ConcurrentOrderStore state, ExecutorService executor) throws IOException {
+        List<Path> snapshots = list(directory);
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        Path latest = snapshots.get(snapshots.size() - 1);
+        Properties metadata = new Properties();
+        try (InputStream in = Files.newInputStream(latest.resolve(METADATA))) {
+            metadata.load(in);
+        }
+        int parts = Integer.parseInt(metadata.getProperty("parts"));
+        List<Future<?>> loads = new ArrayList<>(parts);
+        for (int part = 0; part < parts; part++) {
+            Path file = latest.resolve(partName(part));
+            loads.add(executor.submit(() -> {
+                loadPart(file, state);
+                return null;
+            }));
+        }
+        await(loads);
+        state.restoreLastOrderId(Long.parseLong(metadata.getProperty("lastOrderId")));
+        return Long.parseLong(metadata.getProperty("sequence"));
+    }
+
+    /**
+     * Borra las instantáneas anteriores a la indicada y los restos de escrituras interrumpidas.
+     */
+    static void deleteOlderThan(Path directory, long sequence) throws IOException {
+        for (Path snapshot : list(directory)) {
+            if (sequenceOf(snapshot) < sequence) {
+                deleteRecursively(snapshot);
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith(PREFIX)
+                    && f.getFileName().toString().endsWith(TEMP_SUFFIX)
+                    && sequenceOf(f) < sequence).toList()) {
+                deleteRecursively(file);
+            }
+        }
+    }
+
+    /**
+     * Partición de un pedido. Se mezclan los bits del ID porque en los IDs Snowflake los bits bajos
+     * son la secuencia del milisegundo, casi siempre 0 con poca carga.
+     */
+    static int partitionOf(long id, int partitions) {
+        long mixed = id * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (mixed ^ (mixed >>> 32)), partitions);
+    }
+
+    static void await(List<Future<?>> tasks) throws IOException {
+        try {
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Recuperación de pedidos interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IllegalStateException("Error recuperando los pedidos", e.getCause());
+        }
+    }
+
+    private static void loadPart(Path file, ConcurrentOrderStore state) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 256 * 1024))) {
+            long id;
+            while ((id = in.readLong()) != END_OF_PART) {
+                double totalAmount = in.readDouble();
+                String status = in.readUTF();
+                String customerName = in.readUTF();
+                state.restore(new Order(id, customerName, totalAmount, status));
+            }
+        }
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(PREFIX)
+                            && !f.getFileName().toString().endsWith(TEMP_SUFFIX))
+                    .sorted(Comparator.comparingLong(OrderSnapshots::sequenceOf))
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        int end = name.endsWith(TEMP_SUFFIX) ? name.length() - TEMP_SUFFIX.length() : name.length();
+        return Long.parseLong(name.substring(PREFIX.length(), end));
+    }
+
+    private static String partName(int part) {
+        return "part-" + part + ".bin";
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
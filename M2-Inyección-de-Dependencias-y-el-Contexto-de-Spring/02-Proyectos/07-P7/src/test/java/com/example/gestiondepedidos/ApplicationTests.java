@@ -1,13 +1,26 @@
 package com.example.gestiondepedidos;
 
+import com.example.gestiondepedidos.service.OrderServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// El proyecto no tiene clase @SpringBootApplication (EcommerceApp crea el contexto a mano),
+// así que se indica explícitamente qué componentes cargar.
+@SpringBootTest(classes = OrderServiceImpl.class)
 class ApplicationTests {
 
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void elModoAotSinInicializadorGeneradoFallaConUnMensajeClaro() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> EcommerceApp.createAotContext(EcommerceApp.AOT_INITIALIZER + "Inexistente"));
+        assertTrue(error.getMessage().contains("mvn -Paot package"), error.getMessage());
+    }
+
 }
@@ -0,0 +1,112 @@
+package com.example.gestiondepedidos;
+
+import com.example.gestiondepedidos.aot.EcommerceAotProcessor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.aot.AbstractAotProcessor;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara el arranque de EcommerceApp en sus tres modos (escaneo, índice y AOT).
+ * Cada arranque se lanza en una JVM nueva, como lo haría la herramienta de línea de comandos.
+ * Lanza una decena de JVM, así que solo se ejecuta con {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class EcommerceAppArranqueTest {
+
+    private static final int REPETICIONES = Integer.getInteger("pedidos.arranque.repeticiones", 3);
+    private static final Pattern TIEMPO_CONTEXTO = Pattern.compile("Contexto arrancado en modo '\\w+' en (\\d+) ms");
+    private static final Pattern PEDIDO_RECUPERADO =
+            Pattern.compile("Pedido recuperado por ID \\((\\d+)\\): Order\\[id=\\1, customerName='Juan Perez'");
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void benchmarkArranqueEscaneoIndiceYAot() throws Exception {
+        String classpath = System.getProperty("java.class.path") + File.pathSeparator + generarInicializadorAot();
+
+        // Calentamiento de la caché de disco del classpath.
+        arrancar(classpath, "indice");
+        StringBuilder informe = new StringBuilder("BENCHMARK: arranque de EcommerceApp (mediana de " + REPETICIONES + ")");
+        for (String modo : List.of("escaneo", "indice", "aot")) {
+            long[] contexto = new long[REPETICIONES];
+            long[] proceso = new long[REPETICIONES];
+            for (int i = 0; i < REPETICIONES; i++) {
+                long inicio = System.nanoTime();
+                contexto[i] = arrancar(classpath, modo);
+                proceso[i] = (System.nanoTime() - inicio) / 1_000_000;
+            }
+            informe.append(String.format(" -> %s: contexto %d ms, proceso %d ms", modo, mediana(contexto), mediana(proceso)));
+        }
+        System.out.println(informe);
+    }
+
+    /**
+     * Ejecuta el procesador AOT y compila las fuentes generadas; devuelve el directorio de clases resultante.
+     */
+    private Path generarInicializadorAot() throws IOException {
+        Path fuentes = directorio.resolve("sources");
+        Path clases = directorio.resolve("classes");
+        new EcommerceAotProcessor(AbstractAotProcessor.Settings.builder()
+                .sourceOutput(fuentes)
+                .resourceOutput(directorio.resolve("resources"))
+                .classOutput(clases)
+                .groupId("com.example")
+                .artifactId("Gestion-de-pedidos")
+                .build()).process();
+
+        List<String> argumentos = new ArrayList<>(List.of(
+                "-proc:none", "-d", clases.toString(), "-cp", System.getProperty("java.class.path")));
+        try (Stream<Path> ficheros = Files.walk(fuentes)) {
+            ficheros.filter(fichero -> fichero.toString().endsWith(".java")).forEach(fichero -> argumentos.add(fichero.toString()));
+        }
+        JavaCompiler compilador = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compilador.run(null, null, null, argumentos.toArray(String[]::new)));
+        return clases;
+    }
+
+    /**
+     * Arranca la aplicación en una JVM nueva y devuelve el tiempo de arranque del contexto que ella misma registra.
+     */
+    private long arrancar(String classpath, String modo) throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process proceso = new ProcessBuilder(java, "-cp", classpath,
+                "-D" + EcommerceApp.STARTUP_MODE_PROPERTY + "=" + modo, EcommerceApp.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String salida = new String(proceso.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(proceso.waitFor(1, TimeUnit.MINUTES));
+        assertEquals(0, proceso.exitValue(), salida);
+        assertTrue(PEDIDO_RECUPERADO.matcher(salida).find(), salida);
+        assertTrue(salida.contains("¡Bean destruido!"), salida);
+
+        Matcher tiempo = TIEMPO_CONTEXTO.matcher(salida);
+        assertTrue(tiempo.find(), salida);
+        return Long.parseLong(tiempo.group(1));
+    }
+
+    private static long mediana(long[] valores) {
+        long[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        return ordenados[ordenados.length / 2];
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.gestiondepedidos.id;
+
+import com.example.gestiondepedidos.model.Order;
+import com.example.gestiondepedidos.store.ConcurrentOrderStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final int HILOS = Integer.getInteger("pedidos.ids.hilos", 8);
+    private static final int IDS_POR_HILO = Integer.getInteger("pedidos.ids.porHilo", 250_000);
+
+    @Test
+    void codificaMilisegundoNodoYSecuencia() {
+        RelojManual reloj = new RelojManual(SnowflakeIdGenerator.EPOCH.toEpochMilli() + 1_000);
+        SnowflakeIdGenerator generador = new SnowflakeIdGenerator(42, reloj);
+
+        long primero = generador.nextId();
+        long segundo = generador.nextId();
+        assertEquals(reloj.millis(), SnowflakeIdGenerator.timestampOf(primero));
+        assertEquals(42, SnowflakeIdGenerator.nodeOf(primero));
+        assertEquals(primero + 1, segundo);
+
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE + 1));
+    }
+
+    @Test
+    void esperaAlSiguienteMilisegundoAlAgotarLaSecuencia() {
+        // Reloj que avanza un milisegundo cada 10.000 lecturas.
+        AtomicLong lecturas = new AtomicLong();
+        long inicio = SnowflakeIdGenerator.EPOCH.toEpochMilli() + 5_000;
+        Clock reloj = new RelojManual(inicio) {
+            @Override
+            public long millis() {
+                return inicio + lecturas.incrementAndGet() / 10_000;
+            }
+        };
+        SnowflakeIdGenerator generador = new SnowflakeIdGenerator(1, reloj);
+        long[] ids = new long[5_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = generador.nextId();
+        }
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+        assertTrue(SnowflakeIdGenerator.timestampOf(ids[ids.length - 1]) > SnowflakeIdGenerator.timestampOf(ids[0]));
+    }
+
+    @Test
+    void detectaQueElRelojRetrocede() {
+        RelojManual reloj = new RelojManual(SnowflakeIdGenerator.EPOCH.toEpochMilli() + 10_000);
+        SnowflakeIdGenerator generador = new SnowflakeIdGenerator(3, reloj);
+        generador.nextId();
+
+        reloj.fijar(reloj.millis() - 5);
+        IllegalStateException error = assertThrows(IllegalStateException.class, generador::nextId);
+        assertTrue(error.getMessage().contains("5 ms"), error.getMessage());
+
+        // Cuando el reloj vuelve a alcanzar el último milisegundo, se sigue generando.
+        reloj.fijar(reloj.millis() + 5);
+        generador.nextId();
+    }
+
+    @Test
+    void detectaElRetrocesoFrenteAIdsRecuperadosDelMismoNodo() {
+        long ahora = SnowflakeIdGenerator.EPOCH.toEpochMilli() + 60_000;
+        long idGuardado = new SnowflakeIdGenerator(7, new RelojManual(ahora)).nextId();
+        long idDeOtroNodo = new SnowflakeIdGenerator(8, new RelojManual(ahora + 1_000)).nextId();
+
+        // Tras un "reinicio" con el reloj atrasado un segundo.
+        SnowflakeIdGenerator generador = new SnowflakeIdGenerator(7, new RelojManual(ahora - 1_000));
+        generador.observe(idDeOtroNodo); // Los IDs de otros nodos no afectan.
+        generador.nextId();
+        generador.observe(idGuardado);
+        assertThrows(IllegalStateException.class, generador::nextId);
+    }
+
+    @Test
+    void idsUnicosConVariosHilos() throws Exception {
+        SnowflakeIdGenerator generador = new SnowflakeIdGenerator(1);
+        long[][] porHilo = new long[HILOS][];
+        generarEnParalelo(List.of(generador), porHilo);
+
+        // Dentro de un hilo los IDs son estrictamente crecientes.
+        for (long[] ids : porHilo) {
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(ids[i] > ids[i - 1]);
+            }
+        }
+        assertSinDuplicados(porHilo);
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkIdsConVariosHilos() throws Exception {
+        long nanos = generarEnParalelo(List.of(new SnowflakeIdGenerator(1)), new long[HILOS][]);
+        long total = (long) HILOS * IDS_POR_HILO;
+        System.out.printf("BENCHMARK: %,d IDs Snowflake con %d hilos en %d ms -> %,.0f IDs/s (máximo teórico por nodo: 4.096.000/s)%n",
+                total, HILOS, nanos / 1_000_000, total / (nanos / 1e9));
+    }
+
+    @Test
+    void idsUnicosEntreNodosSimulados() throws Exception {
+        // Varios nodos con el mismo reloj generando a la vez, como varias instancias de la aplicación.
+        List<SnowflakeIdGenerator> nodos = new ArrayList<>();
+        for (int nodo = 0; nodo < 4; nodo++) {
+            nodos.add(new SnowflakeIdGenerator(nodo));
+        }
+        long[][] porHilo = new long[HILOS][];
+        generarEnParalelo(nodos, porHilo);
+        assertSinDuplicados(porHilo);
+        for (int hilo = 0; hilo < HILOS; hilo++) {
+            assertEquals(hilo % nodos.size(), SnowflakeIdGenerator.nodeOf(porHilo[hilo][0]));
+        }
+    }
+
+    @Test
+    void createOrderUsaElGeneradorConfigurado() {
+        ConcurrentOrderStore almacen = new ConcurrentOrderStore(16, new SnowflakeIdGenerator(9));
+        Order pedido = almacen.create("Alice Smith", 150.0, "NEW");
+        assertEquals(9, SnowflakeIdGenerator.nodeOf(pedido.getId()));
+        assertEquals(pedido, almacen.findById(pedido.getId()));
+    }
+
+    /**
+     * Cada hilo usa el generador {@code hilo % nodos} y guarda sus IDs en {@code porHilo[hilo]}.
+     */
+    private static long generarEnParalelo(List<SnowflakeIdGenerator> nodos, long[][] porHilo) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            long inicio = System.nanoTime();
+            for (int h = 0; h < HILOS; h++) {
+                int hilo = h;
+                tareas.add(executor.submit(() -> {
+                    SnowflakeIdGenerator generador = nodos.get(hilo % nodos.size());
+                    long[] ids = new long[IDS_POR_HILO];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generador.nextId();
+                    }
+                    porHilo[hilo] = ids;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(2, TimeUnit.MINUTES);
+            }
+            return System.nanoTime() - inicio;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertSinDuplicados(long[][] porHilo) {
+        long[] todos = Arrays.stream(porHilo).flatMapToLong(Arrays::stream).sorted().toArray();
+        for (int i = 1; i < todos.length; i++) {
+            assertTrue(todos[i] != todos[i - 1], "ID duplicado: " + todos[i]);
+        }
+        assertTrue(todos[0] > 0);
+    }
+
+    /**
+     * Reloj controlado desde la prueba.
+     */
+    private static class RelojManual extends Clock {
+        private volatile long millis;
+
+        RelojManual(long millis) {
+            this.millis = millis;
+        }
+
+        void fijar(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
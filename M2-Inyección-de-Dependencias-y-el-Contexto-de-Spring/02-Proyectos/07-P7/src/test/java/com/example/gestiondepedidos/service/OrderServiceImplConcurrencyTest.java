@@ -0,0 +1,115 @@
+package com.example.gestiondepedidos.service;
+
+import com.example.gestiondepedidos.model.Order;
+import com.example.gestiondepedidos.store.ConcurrentOrderStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Banco de carga multihilo para createOrder: comprueba que no se pierde ni se duplica ningún ID
+ * y, con el perfil benchmark, mide el rendimiento.
+ */
+class OrderServiceImplConcurrencyTest {
+
+    private static final int HILOS_ESCRITORES = Integer.getInteger("pedidos.carga.hilos", 8);
+    private static final int PEDIDOS_POR_HILO = Integer.getInteger("pedidos.carga.porHilo", 50_000);
+    private static final int HILOS_LECTORES = 2;
+    private static final int TOTAL = HILOS_ESCRITORES * PEDIDOS_POR_HILO;
+
+    @Test
+    void createOrderConcurrenteNoPierdeNiDuplicaIds() throws Exception {
+        ConcurrentOrderStore almacen = new ConcurrentOrderStore(TOTAL);
+        ConcurrentLinkedQueue<Order> creados = new ConcurrentLinkedQueue<>();
+        crearEnParalelo(almacen, creados, new AtomicLong());
+
+        // Ningún ID duplicado: los IDs asignados son exactamente 1..TOTAL.
+        boolean[] vistos = new boolean[TOTAL + 1];
+        for (Order pedido : creados) {
+            int id = Math.toIntExact(pedido.getId());
+            assertTrue(id >= 1 && id <= TOTAL, "ID fuera de rango: " + id);
+            assertTrue(!vistos[id], "ID duplicado: " + id);
+            vistos[id] = true;
+        }
+        assertEquals(TOTAL, creados.size());
+
+        // Ningún pedido perdido: todos se recuperan por su ID.
+        for (Order pedido : creados) {
+            Order almacenado = almacen.findById(pedido.getId());
+            assertNotNull(almacenado);
+            assertSame(pedido, almacenado);
+        }
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkCreateOrderConcurrente() throws Exception {
+        AtomicLong lecturas = new AtomicLong();
+        long nanos = crearEnParalelo(new ConcurrentOrderStore(TOTAL), new ConcurrentLinkedQueue<>(), lecturas);
+
+        System.out.printf("BENCHMARK: %,d pedidos con %d hilos escritores en %d ms -> %,.0f pedidos/s (%,d lecturas concurrentes)%n",
+                TOTAL, HILOS_ESCRITORES, nanos / 1_000_000, TOTAL / (nanos / 1e9), lecturas.get());
+    }
+
+    /**
+     * Crea TOTAL pedidos desde los hilos escritores mientras los lectores consultan el almacén.
+     *
+     * @return Lo que tardan los escritores, en nanos.
+     */
+    private static long crearEnParalelo(ConcurrentOrderStore almacen, ConcurrentLinkedQueue<Order> creados,
+                                        AtomicLong lecturas) throws Exception {
+        OrderServiceImpl servicio = new OrderServiceImpl(almacen);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS_ESCRITORES + HILOS_LECTORES);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            Future<?>[] escritores = new Future<?>[HILOS_ESCRITORES];
+            for (int h = 0; h < HILOS_ESCRITORES; h++) {
+                int hilo = h;
+                escritores[h] = executor.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < PEDIDOS_POR_HILO; i++) {
+                        creados.add(servicio.createOrder("cliente-" + hilo, i));
+                    }
+                    return null;
+                });
+            }
+            // Los lectores consultan mientras se escribe: las lecturas no deben bloquearse ni fallar.
+            // Se lee del almacén directamente para no llenar la salida con el log de getOrderById.
+            for (int l = 0; l < HILOS_LECTORES; l++) {
+                executor.submit(() -> {
+                    salida.await();
+                    long id = 1;
+                    while (!Thread.currentThread().isInterrupted() && id <= TOTAL) {
+                        if (almacen.findById(id) != null) {
+                            id++;
+                        }
+                        lecturas.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+
+            long inicio = System.nanoTime();
+            salida.countDown();
+            for (Future<?> escritor : escritores) {
+                escritor.get(2, TimeUnit.MINUTES);
+            }
+            return System.nanoTime() - inicio;
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.gestiondepedidos.service;
+
+import com.example.gestiondepedidos.id.SnowflakeIdGenerator;
+import com.example.gestiondepedidos.interfaces.IOrderService;
+import com.example.gestiondepedidos.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que OrderServiceImpl toma su configuración del Environment del contexto
+ * y no solo de las propiedades del sistema.
+ */
+class OrderServiceImplTest {
+
+    @Test
+    void usaElNodoYElDirectorioDeEventosDelEnvironment(@TempDir Path directorio) throws IOException {
+        Order pedido;
+        try (AnnotationConfigApplicationContext context = contextoCon(Map.of(
+                OrderServiceImpl.NODE_ID_PROPERTY, "7",
+                OrderServiceImpl.EVENT_LOG_DIRECTORY_PROPERTY, directorio.toString()))) {
+            pedido = context.getBean(IOrderService.class).createOrder("Ana", 10.0);
+        }
+
+        assertEquals(7, SnowflakeIdGenerator.nodeOf(pedido.getId()));
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            assertTrue(ficheros.findAny().isPresent(), "Los eventos deberían escribirse en " + directorio);
+        }
+    }
+
+    @Test
+    void sinPropiedadesUsaIdsSecuencialesEnMemoria() {
+        try (AnnotationConfigApplicationContext context = contextoCon(Map.of())) {
+            // init() ya creó los dos pedidos de ejemplo con los IDs 1 y 2.
+            assertEquals(3L, context.getBean(IOrderService.class).createOrder("Ana", 10.0).getId());
+        }
+    }
+
+    private static AnnotationConfigApplicationContext contextoCon(Map<String, Object> propiedades) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("prueba", propiedades));
+        context.register(OrderServiceImpl.class);
+        context.refresh();
+        return context;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.gestiondepedidos.store;
+
+import com.example.gestiondepedidos.model.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentOrderStoreTest {
+
+    private static final String[] ESTADOS = {"NEW", "PENDING", "SHIPPED", "COMPLETED"};
+    private static final int PEDIDOS_BENCHMARK = Integer.getInteger("pedidos.indices.total", 500_000);
+
+    @Test
+    void paginaPorEstadoYPorClienteEnOrdenDeId() {
+        ConcurrentOrderStore almacen = new ConcurrentOrderStore();
+        for (int i = 0; i < 10; i++) {
+            almacen.create(i % 2 == 0 ? "Alice" : "Bob", i, "NEW");
+        }
+        almacen.updateStatus(3L, "PENDING");
+        almacen.updateStatus(5L, "PENDING");
+
+        List<Order> primera = almacen.findByStatus("NEW", null, 3);
+        assertEquals(List.of(1L, 2L, 4L), ids(primera));
+        List<Order> segunda = almacen.findByStatus("NEW", 4L, 3);
+        assertEquals(List.of(6L, 7L, 8L), ids(segunda));
+        assertEquals(List.of(3L, 5L), ids(almacen.findByStatus("PENDING", null, 10)));
+        assertEquals(List.of(2L, 4L, 6L, 8L, 10L), ids(almacen.findByCustomer("Bob", null, 10)));
+        assertEquals("PENDING", almacen.findByCustomer("Alice", 1L, 1).get(0).getStatus());
+
+        assertEquals(List.of(), almacen.findByStatus("CANCELLED", null, 10));
+        assertEquals(null, almacen.updateStatus(99L, "PENDING"));
+        assertThrows(IllegalArgumentException.class, () -> almacen.findByStatus("NEW", null, 0));
+    }
+
+    @Test
+    void unCambioDeEstadoNoAlteraLasInstanciasYaEntregadas() {
+        ConcurrentOrderStore almacen = new ConcurrentOrderStore();
+        Order creado = almacen.create("Alice", 10, "NEW");
+        Order leido = almacen.findById(creado.getId());
+
+        Order actualizado = almacen.updateStatus(creado.getId(), "SHIPPED");
+
+        assertEquals("NEW", creado.getStatus());
+        assertEquals("NEW", leido.getStatus());
+        assertEquals("SHIPPED", actualizado.getStatus());
+        assertEquals(List.of(creado.getId()), ids(almacen.findByStatus("SHIPPED", null, 10)));
+        assertEquals(List.of(), almacen.findByStatus("NEW", null, 10));
+    }
+
+    @Test
+    void losIndicesSiguenAlEstadoConTransicionesConcurrentes() throws Exception {
+        int pedidos = 2_000;
+        ConcurrentOrderStore almacen = new ConcurrentOrderStore(pedidos);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < 8; h++) {
+                tareas.add(executor.submit(() -> {
+                    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20_000; i++) {
+                        if (i % 20 == 0 && almacen.size() < pedidos) {
+                            almacen.create("cliente-" + aleatorio.nextInt(50), i, "NEW");
+                        } else if (almacen.size() > 0) {
+                            long id = 1 + aleatorio.nextInt(almacen.size());
+                            almacen.updateStatus(id, ESTADOS[aleatorio.nextInt(ESTADOS.length)]);
+                        }
+                        // Un lector nunca debe recibir un pedido que ya no esté en el estado consultado.
+                        for (Order pedido : almacen.findByStatus("PENDING", null, 20)) {
+                            assertTrue(pedido.getStatus().equals("PENDING"), pedido.toString());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Con el almacén en reposo, cada pedido aparece exactamente en el índice de su estado.
+        // Se miran los índices en bruto: findByStatus descarta los IDs desfasados y ocultaría el fallo.
+        Map<Long, String> indiceDe = new HashMap<>();
+        for (String estado : ESTADOS) {
+            for (Long id : almacen.idsWithStatus(estado)) {
+                String anterior = indiceDe.put(id, estado);
+                assertNull(anterior, "El pedido " + id + " está en los índices " + anterior + " y " + estado);
+                assertEquals(estado, almacen.findById(id).getStatus(), "Índice desfasado para el pedido " + id);
+            }
+        }
+        assertEquals(almacen.size(), indiceDe.size());
+    }
+
+    @Test
+    void elIndiceDevuelveLoMismoQueElRecorridoCompleto() {
+        int pedidos = 20_000;
+        int clientes = 1_000;
+        int tamPagina = 100;
+        ConcurrentOrderStore almacen = cargarPedidos(pedidos, clientes);
+
+        List<Order> porRecorrido = recorridoCompleto(almacen, tamPagina);
+        Long anteriorALaPagina = porRecorrido.get(0).getId() - 1;
+        assertEquals(ids(porRecorrido), ids(almacen.findByStatus("PENDING", anteriorALaPagina, tamPagina)));
+        assertEquals(pedidos / 100, todasLasPaginas(almacen, "PENDING", tamPagina).size());
+        assertEquals(pedidos / clientes, almacen.findByCustomer("cliente-42", null, tamPagina).size());
+    }
+
+    /**
+     * Por defecto usa 500.000 pedidos para no agotar la memoria del entorno de CI;
+     * para la medición completa: {@code mvn test -Pbenchmark -Dpedidos.indices.total=5000000} (con -Xmx de unos 4 GB).
+     */
+    @Tag("benchmark")
+    @Test
+    void benchmarkIndiceFrenteARecorridoCompleto() {
+        int clientes = 10_000;
+        ConcurrentOrderStore almacen = cargarPedidos(PEDIDOS_BENCHMARK, clientes);
+        int tamPagina = 100;
+
+        for (int i = 0; i < 3; i++) {
+            recorridoCompleto(almacen, tamPagina);
+            almacen.findByStatus("PENDING", null, tamPagina);
+        }
+        long inicio = System.nanoTime();
+        List<Order> porRecorrido = recorridoCompleto(almacen, tamPagina);
+        long recorrido = System.nanoTime() - inicio;
+
+        // La misma página, pero saltando directamente a ella por el índice.
+        Long anteriorALaPagina = porRecorrido.get(0).getId() - 1;
+        inicio = System.nanoTime();
+        List<Order> porIndice = almacen.findByStatus("PENDING", anteriorALaPagina, tamPagina);
+        long indice = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        List<Order> todosLosPendientes = todasLasPaginas(almacen, "PENDING", tamPagina);
+        long todasLasPaginas = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        List<Order> deUnCliente = almacen.findByCustomer("cliente-42", null, tamPagina);
+        long cliente = System.nanoTime() - inicio;
+
+        assertEquals(ids(porRecorrido), ids(porIndice));
+        assertEquals(PEDIDOS_BENCHMARK / 100, todosLosPendientes.size());
+        assertEquals(Math.min(tamPagina, PEDIDOS_BENCHMARK / clientes), deUnCliente.size());
+        System.out.printf("BENCHMARK: %,d pedidos -> última página de PENDING: recorrido completo %,d µs, índice %,d µs; "
+                        + "todas las páginas de PENDING por índice %,d µs; página de un cliente %,d µs%n",
+                PEDIDOS_BENCHMARK, recorrido / 1_000, indice / 1_000, todasLasPaginas / 1_000, cliente / 1_000);
+    }
+
+    private static ConcurrentOrderStore cargarPedidos(int pedidos, int clientes) {
+        ConcurrentOrderStore almacen = new ConcurrentOrderStore(pedidos);
+        for (int i = 0; i < pedidos; i++) {
+            // Un 1 % de los pedidos queda en PENDING.
+            almacen.create("cliente-" + (i % clientes), i, i % 100 == 0 ? "PENDING" : "COMPLETED");
+        }
+        return almacen;
+    }
+
+    private static List<Order> todasLasPaginas(ConcurrentOrderStore almacen, String estado, int tamPagina) {
+        List<Order> todos = new ArrayList<>();
+        Long despuesDe = null;
+        List<Order> pagina;
+        while (!(pagina = almacen.findByStatus(estado, despuesDe, tamPagina)).isEmpty()) {
+            todos.addAll(pagina);
+            despuesDe = pagina.get(pagina.size() - 1).getId();
+        }
+        return todos;
+    }
+
+    /**
+     * Referencia sin índice: recorre todos los pedidos por ID y se queda con la última página de PENDING,
+     * que es lo que costaba cualquier consulta por estado antes de los índices.
+     */
+    private static List<Order> recorridoCompleto(ConcurrentOrderStore almacen, int tamPagina) {
+        List<Order> pendientes = new ArrayList<>();
+        for (long id = 1; id <= almacen.size(); id++) {
+            Order pedido = almacen.findById(id);
+            if (pedido != null && pedido.getStatus().equals("PENDING")) {
+                pendientes.add(pedido);
+            }
+        }
+        return pendientes.subList(Math.max(0, pendientes.size() - tamPagina), pendientes.size());
+    }
+
+    private static List<Long> ids(List<Order> pedidos) {
+        return pedidos.stream().map(Order::getId).toList();
+    }
+}
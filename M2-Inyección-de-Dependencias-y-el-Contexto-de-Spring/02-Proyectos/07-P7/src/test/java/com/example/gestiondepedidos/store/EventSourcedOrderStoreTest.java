@@ -0,0 +1,190 @@
+package com.example.gestiondepedidos.store;
+
+import com.example.gestiondepedidos.model.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventSourcedOrderStoreTest {
+
+    private static final String[] ESTADOS = {"NEW", "PENDING", "SHIPPED", "COMPLETED"};
+    private static final int EVENTOS_BENCHMARK = Integer.getInteger("pedidos.eventos.total", 1_000_000);
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void recuperaLosPedidosTrasReiniciar() {
+        Map<Long, String> esperado;
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, 4)) {
+            cargar(almacen, 1_000);
+            esperado = contenido(almacen);
+        }
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, 4)) {
+            assertEquals(esperado, contenido(almacen));
+            // Los IDs continúan donde se quedaron.
+            assertEquals(1_001L, almacen.create("nuevo", 1, "NEW").getId());
+        }
+    }
+
+    @Test
+    void descartaElUltimoEventoAMedioEscribir() throws IOException {
+        Map<Long, String> esperado;
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, 2)) {
+            cargar(almacen, 100);
+            esperado = contenido(almacen);
+        }
+        List<OrderEventLog.Segment> segmentos = OrderEventLog.segments(directorio);
+        Path ultimo = segmentos.get(segmentos.size() - 1).path();
+        // Simula una caída a mitad de un evento: una cabecera que anuncia más bytes de los que hay.
+        Files.write(ultimo, new byte[]{0, 0, 0, 40, OrderEventLog.CREATED, 1, 2}, StandardOpenOption.APPEND);
+
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, 2)) {
+            assertEquals(esperado, contenido(almacen));
+            almacen.create("tras-la-caida", 1, "NEW");
+            esperado = contenido(almacen);
+        }
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, 2)) {
+            assertEquals(esperado, contenido(almacen));
+        }
+    }
+
+    @Test
+    void laInstantaneaCubreLosSegmentosAnteriores() throws IOException {
+        Map<Long, String> esperado;
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, 3)) {
+            cargar(almacen, 5_000);
+            assertTrue(OrderEventLog.segments(directorio).size() > 1);
+            long secuencia = almacen.snapshot();
+            // Solo queda el segmento que empieza en la instantánea.
+            assertEquals(List.of(secuencia), OrderEventLog.segments(directorio).stream().map(OrderEventLog.Segment::base).toList());
+            cargar(almacen, 200);
+            esperado = contenido(almacen);
+        }
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, 3)) {
+            assertEquals(esperado, contenido(almacen));
+        }
+    }
+
+    @Test
+    void tomaInstantaneasPeriodicasEnSegundoPlano() throws Exception {
+        Map<Long, String> esperado;
+        try (EventSourcedOrderStore almacen = abrir(directorio, 1_000, 2)) {
+            cargar(almacen, 5_000);
+            esperado = contenido(almacen);
+        }
+        try (var ficheros = Files.list(directorio)) {
+            assertTrue(ficheros.anyMatch(f -> f.getFileName().toString().startsWith("snapshot-")));
+        }
+        try (EventSourcedOrderStore almacen = abrir(directorio, 1_000, 2)) {
+            assertEquals(esperado, contenido(almacen));
+        }
+    }
+
+    @Test
+    void vaciarBorraLosPedidosTambienTrasReiniciar() throws IOException {
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, 2)) {
+            cargar(almacen, 2_000);
+            almacen.clear();
+            assertEquals(0, almacen.size());
+            assertNull(almacen.findById(1L));
+            // Solo queda el segmento vacío que empieza en la instantánea del borrado.
+            assertEquals(1, OrderEventLog.segments(directorio).size());
+            almacen.create("tras-vaciar", 1, "NEW");
+        }
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, 2)) {
+            assertEquals(1, almacen.size());
+            assertEquals("tras-vaciar", almacen.findById(2_001L).getCustomerName());
+            // Los IDs borrados no se reutilizan.
+            assertEquals(2_002L, almacen.create("nuevo", 1, "NEW").getId());
+        }
+    }
+
+    /**
+     * Por defecto usa 1 millón de eventos; para la medición completa:
+     * {@code mvn test -Pbenchmark -Dtest=EventSourcedOrderStoreTest -Dpedidos.eventos.total=10000000}.
+     */
+    @Tag("benchmark")
+    @Test
+    void benchmarkAnexadoYRecuperacion() {
+        int pedidos = EVENTOS_BENCHMARK / 2;
+        int hilos = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        long inicio = System.nanoTime();
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, hilos, 64L * 1024 * 1024)) {
+            // La mitad son creaciones y la otra mitad cambios de estado.
+            for (int i = 0; i < pedidos; i++) {
+                almacen.create("cliente-" + (i % 10_000), i, "NEW");
+            }
+            for (long id = 1; id <= pedidos; id++) {
+                almacen.updateStatus(id, id % 100 == 0 ? "PENDING" : "COMPLETED");
+            }
+        }
+        long anexado = System.nanoTime() - inicio;
+
+        long reproduccionSerie = medirApertura(directorio, 1, pedidos);
+        long reproduccionParalela = medirApertura(directorio, hilos, pedidos);
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, hilos, 64L * 1024 * 1024)) {
+            almacen.snapshot();
+        }
+        long desdeInstantanea = medirApertura(directorio, hilos, pedidos);
+
+        System.out.printf("BENCHMARK: %,d eventos -> anexado %,.0f eventos/s; recuperación sin instantánea: %d ms con 1 hilo, "
+                        + "%d ms con %d hilos; desde instantánea: %d ms%n",
+                EVENTOS_BENCHMARK, EVENTOS_BENCHMARK / (anexado / 1e9), reproduccionSerie / 1_000_000,
+                reproduccionParalela / 1_000_000, hilos, desdeInstantanea / 1_000_000);
+    }
+
+    private static long medirApertura(Path directorio, int hilos, int pedidosEsperados) {
+        long inicio = System.nanoTime();
+        try (EventSourcedOrderStore almacen = abrir(directorio, 0, hilos, 64L * 1024 * 1024)) {
+            long nanos = System.nanoTime() - inicio;
+            assertEquals(pedidosEsperados, almacen.size());
+            assertEquals("PENDING", almacen.findById(100L).getStatus());
+            assertEquals(pedidosEsperados / 100, almacen.findByStatus("PENDING", null, Integer.MAX_VALUE).size());
+            return nanos;
+        }
+    }
+
+    /**
+     * Crea pedidos y les cambia el estado varias veces, intercalando ambas operaciones.
+     */
+    private static void cargar(EventSourcedOrderStore almacen, int pedidos) {
+        for (int i = 0; i < pedidos; i++) {
+            Order pedido = almacen.create("cliente-" + (i % 37), i * 1.5, "NEW");
+            almacen.updateStatus(pedido.getId() / 2 + 1, ESTADOS[i % ESTADOS.length]);
+        }
+    }
+
+    private static Map<Long, String> contenido(EventSourcedOrderStore almacen) {
+        Map<Long, String> contenido = new TreeMap<>();
+        for (String estado : ESTADOS) {
+            for (Order pedido : almacen.findByStatus(estado, null, Integer.MAX_VALUE)) {
+                contenido.put(pedido.getId(), pedido.toString());
+            }
+        }
+        assertEquals(almacen.size(), contenido.size());
+        return contenido;
+    }
+
+    private static EventSourcedOrderStore abrir(Path directorio, long instantaneaCada, int hilos) {
+        // Segmentos pequeños para que las pruebas crucen varios.
+        return abrir(directorio, instantaneaCada, hilos, 16 * 1024);
+    }
+
+    private static EventSourcedOrderStore abrir(Path directorio, long instantaneaCada, int hilos, long tamSegmento) {
+        return EventSourcedOrderStore.open(directorio, new EventSourcingOptions(tamSegmento, instantaneaCada, hilos, 100));
+    }
+}
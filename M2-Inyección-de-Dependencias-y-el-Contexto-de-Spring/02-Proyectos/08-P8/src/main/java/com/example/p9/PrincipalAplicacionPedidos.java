@@ -1,12 +1,17 @@
 package com.example.p9;
 
 import com.example.p9.interfaz.IServicioDePedido;
+import com.example.p9.modelo.SolicitudPedido;
+import com.example.p9.trazas.TrazaPedido;
+import com.example.p9.trazas.Trazador;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.util.List;
+
 @SpringBootApplication(scanBasePackages = {"com.example.p9"})
 public class PrincipalAplicacionPedidos {
 
@@ -24,6 +29,17 @@ public class PrincipalAplicacionPedidos {
 		servicioPedido.procesarNuevoPedido("Monitor Curvo Ultrawide", 1);
 		servicioPedido.procesarNuevoPedido("Teclado Gamer", 3);
 
+		// Lote procesado de forma concurrente, con un máximo de pedidos en curso a la vez
+		servicioPedido.procesarPedidos(List.of(
+				new SolicitudPedido("Ratón Inalámbrico", 2),
+				new SolicitudPedido("Webcam HD", 1),
+				new SolicitudPedido("Auriculares", 4)));
+
+		// Trazas muestreadas de los pedidos anteriores, leídas del búfer circular en memoria
+		for (TrazaPedido traza : context.getBean(Trazador.class).trazasRecientes()) {
+			LOG.info("{}", traza.formatear());
+		}
+
 		context.close();
 		LOG.info("Aplicación de pedidos finalizada y contexto cerrado");
 	}
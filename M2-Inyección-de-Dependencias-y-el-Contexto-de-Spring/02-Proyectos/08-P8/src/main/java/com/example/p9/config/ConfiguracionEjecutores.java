@@ -0,0 +1,25 @@
+package com.example.p9.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ConfiguracionEjecutores {
+
+    /**
+     * Executor dedicado a las llamadas al repositorio y al inventario de los pedidos asíncronos,
+     * para no competir con otros usos del pool común de Java.
+     * Cada pedido ocupa dos hilos a la vez, así que conviene que tenga al menos el doble de hilos
+     * que 'pedidos.lote.max-en-vuelo'.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ejecutorPedidos(@Value("${pedidos.ejecutor.hilos:16}") int hilos) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setThreadNamePrefix("pedidos-");
+        return executor;
+    }
+}
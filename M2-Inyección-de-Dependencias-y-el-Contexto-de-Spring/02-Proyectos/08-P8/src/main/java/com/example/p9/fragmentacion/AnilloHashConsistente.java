@@ -0,0 +1,106 @@
+package com.example.p9.fragmentacion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Anillo de hash consistente con nodos virtuales. Cada nodo ocupa {@code nodosVirtuales} posiciones del
+ * anillo, y una clave pertenece al primer nodo que encuentra avanzando desde su propio hash.
+ * <p>
+ * Al añadir o quitar un nodo solo cambian de dueño las claves de los tramos que ese nodo gana o pierde
+ * (en torno a 1/N de ellas), y los nodos virtuales reparten la carga de forma casi uniforme.
+ * <p>
+ * Es inmutable: para cambiar los nodos se construye otro anillo con {@link #conNodo} o {@link #sinNodo}.
+ * Las búsquedas son una búsqueda binaria sobre un array ordenado, sin bloqueos.
+ */
+public final class AnilloHashConsistente {
+
+    private final Set<String> nodos;
+    private final int nodosVirtuales;
+    private final long[] posiciones;
+    private final String[] duenos;
+
+    public AnilloHashConsistente(Collection<String> nodos, int nodosVirtuales) {
+        if (nodos.isEmpty()) {
+            throw new IllegalArgumentException("El anillo necesita al menos un nodo");
+        }
+        if (nodosVirtuales < 1) {
+            throw new IllegalArgumentException("El número de nodos virtuales debe ser al menos 1: " + nodosVirtuales);
+        }
+        this.nodos = Set.copyOf(new LinkedHashSet<>(nodos));
+        this.nodosVirtuales = nodosVirtuales;
+
+        List<Posicion> anillo = new ArrayList<>(this.nodos.size() * nodosVirtuales);
+        for (String nodo : this.nodos) {
+            for (int i = 0; i < nodosVirtuales; i++) {
+                anillo.add(new Posicion(hash(nodo + "#" + i), nodo));
+            }
+        }
+        // En caso de colisión de hash, el desempate por nombre hace que el resultado no dependa del orden de entrada.
+        anillo.sort(Comparator.comparingLong(Posicion::hash).thenComparing(Posicion::nodo));
+        this.posiciones = new long[anillo.size()];
+        this.duenos = new String[anillo.size()];
+        for (int i = 0; i < anillo.size(); i++) {
+            posiciones[i] = anillo.get(i).hash();
+            duenos[i] = anillo.get(i).nodo();
+        }
+    }
+
+    /**
+     * Nodo responsable de la clave.
+     */
+    public String nodoPara(String clave) {
+        int indice = Arrays.binarySearch(posiciones, hash(clave));
+        if (indice < 0) {
+            indice = -indice - 1; // Punto de inserción: la primera posición mayor que el hash.
+        }
+        return duenos[indice == posiciones.length ? 0 : indice];
+    }
+
+    public Set<String> getNodos() {
+        return nodos;
+    }
+
+    public int getNodosVirtuales() {
+        return nodosVirtuales;
+    }
+
+    public AnilloHashConsistente conNodo(String nodo) {
+        Set<String> nuevos = new LinkedHashSet<>(nodos);
+        nuevos.add(nodo);
+        return new AnilloHashConsistente(nuevos, nodosVirtuales);
+    }
+
+    public AnilloHashConsistente sinNodo(String nodo) {
+        Set<String> nuevos = new LinkedHashSet<>(nodos);
+        nuevos.remove(nodo);
+        return new AnilloHashConsistente(nuevos, nodosVirtuales);
+    }
+
+    /**
+     * Hash de 64 bits: FNV-1a sobre los bytes UTF-8 y el mezclador final de MurmurHash3,
+     * para que claves parecidas ("producto-1", "producto-2") queden lejos en el anillo.
+     */
+    static long hash(String clave) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : clave.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record Posicion(long hash, String nodo) {
+    }
+}
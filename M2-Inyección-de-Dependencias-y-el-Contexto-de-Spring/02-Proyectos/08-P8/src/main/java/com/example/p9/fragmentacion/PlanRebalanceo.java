@@ -0,0 +1,81 @@
+package com.example.p9.fragmentacion;
+
+import com.example.p9.interfaz.IRepositorioDeProducto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Herramienta de rebalanceo: calcula qué claves cambian de fragmento al pasar de un anillo a otro
+ * (por ejemplo, al añadir un repositorio) y permite copiarlas a su nuevo destino.
+ */
+public final class PlanRebalanceo {
+
+    private final int totalClaves;
+    private final List<Movimiento> movimientos;
+
+    private PlanRebalanceo(int totalClaves, List<Movimiento> movimientos) {
+        this.totalClaves = totalClaves;
+        this.movimientos = Collections.unmodifiableList(movimientos);
+    }
+
+    public static PlanRebalanceo calcular(AnilloHashConsistente antes, AnilloHashConsistente despues,
+                                          Iterable<String> claves) {
+        int total = 0;
+        List<Movimiento> movimientos = new ArrayList<>();
+        for (String clave : claves) {
+            total++;
+            String origen = antes.nodoPara(clave);
+            String destino = despues.nodoPara(clave);
+            if (!origen.equals(destino)) {
+                movimientos.add(new Movimiento(clave, origen, destino));
+            }
+        }
+        return new PlanRebalanceo(total, movimientos);
+    }
+
+    public List<Movimiento> getMovimientos() {
+        return movimientos;
+    }
+
+    /**
+     * Fracción de las claves que cambian de fragmento.
+     */
+    public double fraccionMovida() {
+        return totalClaves == 0 ? 0 : (double) movimientos.size() / totalClaves;
+    }
+
+    /**
+     * Número de claves que se mueven entre cada par de fragmentos, con la forma "origen -> destino".
+     */
+    public Map<String, Integer> resumen() {
+        Map<String, Integer> resumen = new LinkedHashMap<>();
+        for (Movimiento movimiento : movimientos) {
+            resumen.merge(movimiento.origen() + " -> " + movimiento.destino(), 1, Integer::sum);
+        }
+        return resumen;
+    }
+
+    /**
+     * Guarda cada clave movida en su repositorio de destino. IRepositorioDeProducto no permite borrar,
+     * así que la limpieza del origen queda a cargo de cada repositorio.
+     *
+     * @return Número de claves copiadas.
+     */
+    public int aplicar(Map<String, ? extends IRepositorioDeProducto> repositorios) {
+        for (Movimiento movimiento : movimientos) {
+            IRepositorioDeProducto destino = repositorios.get(movimiento.destino());
+            if (destino == null) {
+                throw new IllegalArgumentException("No hay repositorio para el fragmento '" + movimiento.destino() + "'");
+            }
+            destino.guardarProducto(movimiento.clave());
+        }
+        return movimientos.size();
+    }
+
+    public record Movimiento(String clave, String origen, String destino) {
+    }
+}
@@ -1,5 +1,23 @@
 package com.example.p9.interfaz;
 
+import com.example.p9.modelo.ResultadoLote;
+import com.example.p9.modelo.SolicitudPedido;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface IServicioDePedido {
     void procesarNuevoPedido(String producto, int cantidad);
+
+    /**
+     * Igual que procesarNuevoPedido, pero guarda el producto y actualiza el stock a la vez.
+     * Si fallan ambas operaciones, la excepción incluye la segunda como suprimida.
+     */
+    CompletableFuture<Void> procesarNuevoPedidoAsync(String producto, int cantidad);
+
+    /**
+     * Procesa un lote de pedidos con un número máximo de pedidos en curso a la vez,
+     * y espera a que terminen todos.
+     */
+    ResultadoLote procesarPedidos(List<SolicitudPedido> pedidos);
 }
@@ -0,0 +1,15 @@
+package com.example.p9.modelo;
+
+import java.util.List;
+
+/**
+ * Resultado de procesar un lote de pedidos.
+ *
+ * @param procesados Pedidos procesados sin errores.
+ * @param fallidos   Pedidos que fallaron, con su causa.
+ */
+public record ResultadoLote(int procesados, List<PedidoFallido> fallidos) {
+
+    public record PedidoFallido(SolicitudPedido pedido, Throwable causa) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.p9.modelo;
+
+/**
+ * Datos de un pedido a procesar: producto y cantidad.
+ */
+public record SolicitudPedido(String producto, int cantidad) {
+}
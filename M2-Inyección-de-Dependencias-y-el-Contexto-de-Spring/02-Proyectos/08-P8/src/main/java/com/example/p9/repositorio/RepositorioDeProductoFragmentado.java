@@ -0,0 +1,48 @@
+package com.example.p9.repositorio;
+
+import com.example.p9.fragmentacion.AnilloHashConsistente;
+import com.example.p9.interfaz.IRepositorioDeProducto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+/**
+ * Enrutador que reparte los productos entre todos los beans IRepositorioDeProducto registrados,
+ * usando un anillo de hash consistente cuyos nodos son los nombres de los beans.
+ * Spring excluye al propio bean del mapa inyectado, así que solo recibe los fragmentos reales.
+ */
+@Repository("repositorioProductoFragmentado")
+public class RepositorioDeProductoFragmentado implements IRepositorioDeProducto {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RepositorioDeProductoFragmentado.class);
+
+    private final Map<String, IRepositorioDeProducto> fragmentos;
+    private final AnilloHashConsistente anillo;
+
+    public RepositorioDeProductoFragmentado(Map<String, IRepositorioDeProducto> fragmentos,
+                                            @Value("${productos.fragmentacion.nodos-virtuales:160}") int nodosVirtuales) {
+        this.fragmentos = Map.copyOf(fragmentos);
+        this.anillo = new AnilloHashConsistente(fragmentos.keySet(), nodosVirtuales);
+        LOG.info("Repositorio Fragmentado: {} fragmentos con {} nodos virtuales cada uno --> {}",
+                fragmentos.size(), nodosVirtuales, anillo.getNodos());
+    }
+
+    @Override
+    public void guardarProducto(String nombreProducto) {
+        fragmentos.get(anillo.nodoPara(nombreProducto)).guardarProducto(nombreProducto);
+    }
+
+    /**
+     * Nombre del bean que almacena el producto.
+     */
+    public String fragmentoPara(String nombreProducto) {
+        return anillo.nodoPara(nombreProducto);
+    }
+
+    public AnilloHashConsistente getAnillo() {
+        return anillo;
+    }
+}
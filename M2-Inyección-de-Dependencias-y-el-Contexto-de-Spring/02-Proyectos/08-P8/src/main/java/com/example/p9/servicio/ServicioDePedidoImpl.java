@@ -2,13 +2,25 @@ package com.example.p9.servicio;
 
 import com.example.p9.interfaz.IRepositorioDeProducto;
 import com.example.p9.interfaz.IServicioDeInventario;
+import com.example.p9.modelo.ResultadoLote;
+import com.example.p9.modelo.SolicitudPedido;
+import com.example.p9.trazas.Tramo;
+import com.example.p9.trazas.Trazador;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.example.p9.interfaz.IServicioDePedido;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 
 @Service
 public class ServicioDePedidoImpl implements  IServicioDePedido {
@@ -18,13 +30,27 @@ public class ServicioDePedidoImpl implements  IServicioDePedido {
     // 1. Dependencias declaradas como FINAL para garantizar inmutabilidad.
     private final IServicioDeInventario servicioInventario;
     private final IRepositorioDeProducto repositorioProducto;
+    // 2. Executor dedicado para las variantes asíncronas y límite de pedidos en curso en los lotes.
+    private final Executor ejecutor;
+    private final int maxPedidosEnVuelo;
+    // 3. Trazas muestreadas de cada pedido.
+    private final Trazador trazador;
 
     @Inject
     public ServicioDePedidoImpl(IServicioDeInventario servicioInventario,
-                                @Named("repositorioProductoPrincipal") IRepositorioDeProducto repositorioProducto) {
+                                @Named("repositorioProductoFragmentado") IRepositorioDeProducto repositorioProducto,
+                                @Named("ejecutorPedidos") Executor ejecutor,
+                                @Value("${pedidos.lote.max-en-vuelo:8}") int maxPedidosEnVuelo,
+                                Trazador trazador) {
 
+        if (maxPedidosEnVuelo < 1) {
+            throw new IllegalArgumentException("pedidos.lote.max-en-vuelo debe ser al menos 1: " + maxPedidosEnVuelo);
+        }
         this.servicioInventario = servicioInventario;
         this.repositorioProducto = repositorioProducto;
+        this.ejecutor = ejecutor;
+        this.maxPedidosEnVuelo = maxPedidosEnVuelo;
+        this.trazador = trazador;
 
         LOG.info("Cableado: IServicioDeInventario inyectado via constructor. Instancia: {}",
                 servicioInventario.getClass().getSimpleName());
@@ -35,14 +61,133 @@ public class ServicioDePedidoImpl implements  IServicioDePedido {
 
     @Override
     public void procesarNuevoPedido(String producto, int cantidad) {
-        LOG.info("\n--- Procesando Nuevo Pedido ---");
-        LOG.info("Producto: {}, Cantidad {}", producto, cantidad);
+        // El detalle de cada pedido va a DEBUG: a INFO cuesta más que el propio pedido. Para ver
+        // dónde se va el tiempo están las trazas.
+        LOG.debug("\n--- Procesando Nuevo Pedido ---");
+        LOG.debug("Producto: {}, Cantidad {}", producto, cantidad);
 
-        repositorioProducto.guardarProducto(producto);
-        servicioInventario.actualizarStock(producto, cantidad);
+        try (Tramo tramo = trazador.iniciar("procesarNuevoPedido")) {
+            try {
+                try (Tramo guardado = tramo.hijo("repositorio.guardarProducto")) {
+                    ejecutar(guardado, () -> repositorioProducto.guardarProducto(producto));
+                }
+                try (Tramo stock = tramo.hijo("inventario.actualizarStock")) {
+                    ejecutar(stock, () -> servicioInventario.actualizarStock(producto, cantidad));
+                }
+            } catch (RuntimeException e) {
+                tramo.registrarError(e);
+                throw e;
+            }
+        }
 
-        LOG.info("Pedido para '{}' procesado exitosamente.", producto);
-        LOG.info("--------------------------------");
+        LOG.debug("Pedido para '{}' procesado exitosamente.", producto);
+        LOG.debug("--------------------------------");
 
     }
+
+    @Override
+    public CompletableFuture<Void> procesarNuevoPedidoAsync(String producto, int cantidad) {
+        LOG.debug("Procesando pedido asíncrono: {} x{}", producto, cantidad);
+        // Las dos operaciones son independientes: se lanzan a la vez y se espera a ambas,
+        // aunque una falle, para no dejar la otra a medias sin saberlo.
+        Tramo tramo = trazador.iniciar("procesarNuevoPedidoAsync");
+        CompletableFuture<Void> guardado;
+        try {
+            guardado = CompletableFuture.runAsync(() -> {
+                try (Tramo hijo = tramo.hijo("repositorio.guardarProducto")) {
+                    ejecutar(hijo, () -> repositorioProducto.guardarProducto(producto));
+                }
+            }, ejecutor);
+        } catch (RuntimeException e) {
+            // El executor rechazó la tarea (p. ej. RejectedExecutionException): no hay nada en marcha.
+            tramo.registrarError(e);
+            tramo.close();
+            throw e;
+        }
+        CompletableFuture<Void> stock;
+        try {
+            stock = CompletableFuture.runAsync(() -> {
+                try (Tramo hijo = tramo.hijo("inventario.actualizarStock")) {
+                    ejecutar(hijo, () -> servicioInventario.actualizarStock(producto, cantidad));
+                }
+            }, ejecutor);
+        } catch (RuntimeException e) {
+            // El guardado ya está en marcha: la raíz se cierra cuando termine, como en el caso normal.
+            tramo.registrarError(e);
+            guardado.whenComplete((resultado, error) -> tramo.close());
+            throw e;
+        }
+
+        CompletableFuture<Void> pedido = guardado.handle((resultado, error) -> error)
+                .thenCombine(stock.handle((resultado, error) -> error), (errorGuardado, errorStock) -> {
+                    Throwable guardar = desenvolver(errorGuardado);
+                    Throwable actualizar = desenvolver(errorStock);
+                    if (guardar == null && actualizar == null) {
+                        return null;
+                    }
+                    IllegalStateException fallo = new IllegalStateException(
+                            "Fallo al procesar el pedido de '" + producto + "'", guardar != null ? guardar : actualizar);
+                    if (guardar != null && actualizar != null) {
+                        fallo.addSuppressed(actualizar);
+                    }
+                    throw fallo;
+                });
+        // La raíz se cierra cuando terminan los dos hijos, en el hilo que completa el pedido.
+        return tramo.estaMuestreado() ? pedido.whenComplete((resultado, error) -> {
+            if (error != null) {
+                tramo.registrarError(desenvolver(error));
+            }
+            tramo.close();
+        }) : pedido;
+    }
+
+    @Override
+    public ResultadoLote procesarPedidos(List<SolicitudPedido> pedidos) {
+        // El semáforo limita los pedidos en curso: el hilo que envía se detiene hasta que termina alguno.
+        Semaphore enVuelo = new Semaphore(maxPedidosEnVuelo);
+        List<ResultadoLote.PedidoFallido> fallidos = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> enCurso = new ArrayList<>(pedidos.size());
+        try {
+            for (SolicitudPedido pedido : pedidos) {
+                enVuelo.acquire();
+                CompletableFuture<Void> futuro;
+                try {
+                    futuro = procesarNuevoPedidoAsync(pedido.producto(), pedido.cantidad());
+                } catch (RuntimeException e) {
+                    enVuelo.release();
+                    throw e;
+                }
+                enCurso.add(futuro.whenComplete((resultado, error) -> {
+                    if (error != null) {
+                        fallidos.add(new ResultadoLote.PedidoFallido(pedido, desenvolver(error)));
+                    }
+                    enVuelo.release();
+                }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Procesamiento del lote interrumpido", e);
+        } finally {
+            // Aunque se interrumpa el envío, se espera a los pedidos ya lanzados.
+            CompletableFuture.allOf(enCurso.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+        }
+
+        ResultadoLote resultado = new ResultadoLote(pedidos.size() - fallidos.size(), List.copyOf(fallidos));
+        LOG.info("Lote de {} pedidos procesado: {} correctos, {} fallidos.",
+                pedidos.size(), resultado.procesados(), resultado.fallidos().size());
+        return resultado;
+    }
+
+    private static void ejecutar(Tramo tramo, Runnable operacion) {
+        try {
+            operacion.run();
+        } catch (RuntimeException e) {
+            tramo.registrarError(e);
+            throw e;
+        }
+    }
+
+    private static Throwable desenvolver(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
 }
@@ -0,0 +1,50 @@
+package com.example.p9.trazas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Búfer circular de tamaño fijo con las últimas trazas exportadas. Al llenarse, cada traza nueva
+ * sustituye a la más antigua. Publicar es un incremento atómico y una escritura, sin bloqueos.
+ */
+final class BufferCircularDeTrazas {
+
+    private final AtomicReferenceArray<TrazaPedido> huecos;
+    private final AtomicLong publicadas = new AtomicLong();
+
+    BufferCircularDeTrazas(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad del búfer de trazas debe ser al menos 1: " + capacidad);
+        }
+        this.huecos = new AtomicReferenceArray<>(capacidad);
+    }
+
+    void publicar(TrazaPedido traza) {
+        long posicion = publicadas.getAndIncrement();
+        huecos.set((int) (posicion % huecos.length()), traza);
+    }
+
+    /**
+     * Trazas guardadas, de la más antigua a la más reciente. Con publicaciones concurrentes es una
+     * foto aproximada: puede faltar alguna traza que aún se está escribiendo.
+     */
+    List<TrazaPedido> contenido() {
+        long total = publicadas.get();
+        int capacidad = huecos.length();
+        long desde = Math.max(0, total - capacidad);
+        List<TrazaPedido> trazas = new ArrayList<>((int) (total - desde));
+        for (long posicion = desde; posicion < total; posicion++) {
+            TrazaPedido traza = huecos.get((int) (posicion % capacidad));
+            if (traza != null) {
+                trazas.add(traza);
+            }
+        }
+        return trazas;
+    }
+
+    long publicadas() {
+        return publicadas.get();
+    }
+}
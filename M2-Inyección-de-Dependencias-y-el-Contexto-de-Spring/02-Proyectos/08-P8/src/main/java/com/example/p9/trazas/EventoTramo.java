@@ -0,0 +1,37 @@
+package com.example.p9.trazas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR emitido por cada tramo muestreado, para analizar las trazas en un volcado de
+ * Flight Recorder ({@code jcmd <pid> JFR.dump}) junto al resto de la actividad de la JVM.
+ */
+@Name(EventoTramo.NOMBRE)
+@Label("Tramo de pedido")
+@Category({"P9", "Trazas"})
+@Description("Operación medida dentro del procesamiento de un pedido")
+@StackTrace(false)
+class EventoTramo extends Event {
+
+    static final String NOMBRE = "com.example.p9.TramoPedido";
+
+    @Label("Traza")
+    long traza;
+
+    @Label("Tramo")
+    int tramo;
+
+    @Label("Tramo padre")
+    int padre;
+
+    @Label("Nombre")
+    String nombre;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,46 @@
+package com.example.p9.trazas;
+
+/**
+ * Tramo (span) de una traza: mide una operación desde que se abre hasta {@link #close()}.
+ * Si la traza no se ha muestreado, todos los tramos son {@link #NO_MUESTREADO} y sus métodos no hacen nada.
+ */
+public interface Tramo extends AutoCloseable {
+
+    /**
+     * Tramo compartido por todas las trazas descartadas en el muestreo: no reserva memoria ni mide tiempos.
+     */
+    Tramo NO_MUESTREADO = new Tramo() {
+        @Override
+        public Tramo hijo(String nombre) {
+            return this;
+        }
+
+        @Override
+        public void registrarError(Throwable error) {
+        }
+
+        @Override
+        public boolean estaMuestreado() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Abre un tramo hijo de éste. Puede cerrarse en otro hilo.
+     */
+    Tramo hijo(String nombre);
+
+    void registrarError(Throwable error);
+
+    boolean estaMuestreado();
+
+    /**
+     * Cierra el tramo. Al cerrar el tramo raíz, la traza completa se exporta al búfer circular.
+     */
+    @Override
+    void close();
+}
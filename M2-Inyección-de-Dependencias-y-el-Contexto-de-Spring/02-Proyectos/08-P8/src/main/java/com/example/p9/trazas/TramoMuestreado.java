@@ -0,0 +1,100 @@
+package com.example.p9.trazas;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tramo de una traza muestreada. Además de guardarse en la traza, cada tramo se emite como
+ * evento JFR {@link EventoTramo}, que solo cuesta algo si hay una grabación activa.
+ */
+final class TramoMuestreado implements Tramo {
+
+    private final Traza traza;
+    private final int id;
+    private final int idPadre;
+    private final String nombre;
+    private final long inicioNanos;
+    private final EventoTramo evento = new EventoTramo();
+    private volatile String error;
+
+    private TramoMuestreado(Traza traza, int idPadre, String nombre) {
+        this.traza = traza;
+        this.id = traza.siguienteTramo.incrementAndGet();
+        this.idPadre = idPadre;
+        this.nombre = nombre;
+        evento.begin();
+        this.inicioNanos = System.nanoTime();
+    }
+
+    static TramoMuestreado raiz(long idTraza, String nombre, BufferCircularDeTrazas destino) {
+        return new TramoMuestreado(new Traza(idTraza, destino), 0, nombre);
+    }
+
+    @Override
+    public Tramo hijo(String nombre) {
+        return new TramoMuestreado(traza, id, nombre);
+    }
+
+    @Override
+    public void registrarError(Throwable error) {
+        this.error = error.getClass().getSimpleName() + ": " + error.getMessage();
+    }
+
+    @Override
+    public boolean estaMuestreado() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        long fin = System.nanoTime();
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.traza = traza.id;
+            evento.tramo = id;
+            evento.padre = idPadre;
+            evento.nombre = nombre;
+            evento.error = error;
+            evento.commit();
+        }
+        traza.registrar(new TrazaPedido.TramoRegistrado(
+                id, idPadre, nombre, inicioNanos - traza.inicioNanos, fin - inicioNanos, error));
+        if (idPadre == 0) {
+            traza.exportar();
+        }
+    }
+
+    /**
+     * Estado compartido por los tramos de una misma traza, que pueden cerrarse en hilos distintos.
+     */
+    private static final class Traza {
+        private final long id;
+        private final BufferCircularDeTrazas destino;
+        private final Instant inicio = Instant.now();
+        private final long inicioNanos = System.nanoTime();
+        private final AtomicInteger siguienteTramo = new AtomicInteger();
+        private final List<TrazaPedido.TramoRegistrado> terminados = new ArrayList<>(4);
+
+        private Traza(long id, BufferCircularDeTrazas destino) {
+            this.id = id;
+            this.destino = destino;
+        }
+
+        private synchronized void registrar(TrazaPedido.TramoRegistrado tramo) {
+            terminados.add(tramo);
+        }
+
+        private void exportar() {
+            List<TrazaPedido.TramoRegistrado> tramos;
+            synchronized (this) {
+                tramos = new ArrayList<>(terminados);
+            }
+            // La raíz (id 1) primero y el resto en orden de apertura.
+            tramos.sort(Comparator.comparingInt(TrazaPedido.TramoRegistrado::id));
+            destino.publicar(new TrazaPedido(id, inicio, List.copyOf(tramos)));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.p9.trazas;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Traza completa de un pedido: el árbol de tramos, con la raíz en primer lugar.
+ */
+public record TrazaPedido(long id, Instant inicio, List<TramoRegistrado> tramos) {
+
+    public TramoRegistrado raiz() {
+        return tramos.get(0);
+    }
+
+    /**
+     * Representación en texto del árbol, con la duración de cada tramo y su error, si lo hubo.
+     */
+    public String formatear() {
+        StringBuilder texto = new StringBuilder("Traza ").append(id).append(" (").append(inicio).append(')');
+        formatear(texto, raiz(), 1);
+        return texto.toString();
+    }
+
+    private void formatear(StringBuilder texto, TramoRegistrado tramo, int nivel) {
+        texto.append('\n').append("  ".repeat(nivel)).append(tramo.nombre())
+                .append(String.format(" %.3f ms", tramo.duracionNanos() / 1e6));
+        if (tramo.error() != null) {
+            texto.append(" [error: ").append(tramo.error()).append(']');
+        }
+        for (TramoRegistrado hijo : tramos) {
+            if (hijo.idPadre() == tramo.id()) {
+                formatear(texto, hijo, nivel + 1);
+            }
+        }
+    }
+
+    /**
+     * Tramo terminado. La raíz tiene {@code idPadre} 0.
+     *
+     * @param desplazamientoNanos Inicio del tramo respecto al inicio de la raíz.
+     */
+    public record TramoRegistrado(int id, int idPadre, String nombre, long desplazamientoNanos,
+                                  long duracionNanos, String error) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.p9.trazas;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Punto de entrada de las trazas por pedido, con muestreo en cabecera: la decisión se toma una vez,
+ * al abrir el tramo raíz, y la heredan todos sus hijos.
+ * <p>
+ * Un pedido no muestreado recibe {@link Tramo#NO_MUESTREADO}, así que solo paga un número aleatorio.
+ * Las trazas muestreadas se guardan en un búfer circular, legible con {@link #trazasRecientes()},
+ * y se emiten como eventos JFR.
+ */
+@Component
+public class Trazador {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Trazador.class);
+
+    private final double tasaMuestreo;
+    private final BufferCircularDeTrazas buffer;
+    private final AtomicLong siguienteTraza = new AtomicLong();
+
+    /**
+     * @param tasaMuestreo Fracción de pedidos trazados, entre 0 (ninguno) y 1 (todos).
+     * @param capacidad    Número de trazas que conserva el búfer circular.
+     */
+    public Trazador(@Value("${trazas.muestreo:0.01}") double tasaMuestreo,
+                    @Value("${trazas.capacidad:1024}") int capacidad) {
+        if (tasaMuestreo < 0 || tasaMuestreo > 1) {
+            throw new IllegalArgumentException("trazas.muestreo debe estar entre 0 y 1: " + tasaMuestreo);
+        }
+        this.tasaMuestreo = tasaMuestreo;
+        this.buffer = new BufferCircularDeTrazas(capacidad);
+        LOG.info("Trazador: muestreo del {}% de los pedidos, búfer de {} trazas", tasaMuestreo * 100, capacidad);
+    }
+
+    /**
+     * Trazador que descarta todos los pedidos, para usos sin instrumentación.
+     */
+    public static Trazador desactivado() {
+        return new Trazador(0, 1);
+    }
+
+    /**
+     * Abre el tramo raíz de una traza nueva, o devuelve {@link Tramo#NO_MUESTREADO} si el muestreo la descarta.
+     */
+    public Tramo iniciar(String nombre) {
+        if (tasaMuestreo < 1 && (tasaMuestreo == 0 || ThreadLocalRandom.current().nextDouble() >= tasaMuestreo)) {
+            return Tramo.NO_MUESTREADO;
+        }
+        return TramoMuestreado.raiz(siguienteTraza.incrementAndGet(), nombre, buffer);
+    }
+
+    /**
+     * Últimas trazas completas, de la más antigua a la más reciente.
+     */
+    public List<TrazaPedido> trazasRecientes() {
+        return buffer.contenido();
+    }
+
+    /**
+     * Número total de trazas exportadas desde el arranque, incluidas las que el búfer ya ha descartado.
+     */
+    public long trazasExportadas() {
+        return buffer.publicadas();
+    }
+
+    public double getTasaMuestreo() {
+        return tasaMuestreo;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.p9.fragmentacion;
+
+import com.example.p9.interfaz.IRepositorioDeProducto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnilloHashConsistenteTest {
+
+    private static final int PRODUCTOS = Integer.getInteger("productos.fragmentacion.total", 100_000);
+    private static final int NODOS_VIRTUALES = 160;
+
+    @Test
+    void repartoEquilibradoEntreLosFragmentos() {
+        for (int fragmentos : new int[]{2, 3, 5, 10}) {
+            AnilloHashConsistente anillo = new AnilloHashConsistente(nombres(fragmentos), NODOS_VIRTUALES);
+            Map<String, Integer> conteo = new HashMap<>();
+            for (String producto : productos()) {
+                conteo.merge(anillo.nodoPara(producto), 1, Integer::sum);
+            }
+
+            double media = (double) PRODUCTOS / fragmentos;
+            int maximo = conteo.values().stream().mapToInt(Integer::intValue).max().orElseThrow();
+            int minimo = conteo.values().stream().mapToInt(Integer::intValue).min().orElseThrow();
+            assertEquals(fragmentos, conteo.size());
+            assertTrue(maximo / media < 1.25, "Fragmento sobrecargado: " + conteo);
+            assertTrue(minimo / media > 0.75, "Fragmento infrautilizado: " + conteo);
+        }
+    }
+
+    @Test
+    void alAnadirUnFragmentoSoloSeMuevenSusClaves() {
+        AnilloHashConsistente antes = new AnilloHashConsistente(nombres(3), NODOS_VIRTUALES);
+        AnilloHashConsistente despues = antes.conNodo("fragmento3");
+
+        PlanRebalanceo plan = PlanRebalanceo.calcular(antes, despues, productos());
+
+        // Lo ideal es que se mueva el 25 % de las claves.
+        assertTrue(plan.fraccionMovida() > 0.15 && plan.fraccionMovida() < 0.35, "Movimientos: " + plan.resumen());
+        // Todas las claves que se mueven van al fragmento nuevo; el resto no cambia de sitio.
+        assertTrue(plan.getMovimientos().stream().allMatch(m -> m.destino().equals("fragmento3")));
+
+        // Quitarlo de nuevo devuelve cada clave a su fragmento original.
+        PlanRebalanceo vuelta = PlanRebalanceo.calcular(despues, despues.sinNodo("fragmento3"), productos());
+        assertEquals(plan.getMovimientos().size(), vuelta.getMovimientos().size());
+    }
+
+    @Test
+    void aplicarCopiaLasClavesMovidasAlDestino() {
+        AnilloHashConsistente antes = new AnilloHashConsistente(nombres(2), NODOS_VIRTUALES);
+        AnilloHashConsistente despues = antes.conNodo("fragmento2");
+        List<String> claves = IntStream.range(0, 1_000).mapToObj(i -> "producto-" + i).toList();
+        List<String> recibidas = new ArrayList<>();
+        Map<String, IRepositorioDeProducto> repositorios = Map.of(
+                "fragmento0", producto -> { throw new AssertionError("No debe recibir nada"); },
+                "fragmento1", producto -> { throw new AssertionError("No debe recibir nada"); },
+                "fragmento2", recibidas::add);
+
+        PlanRebalanceo plan = PlanRebalanceo.calcular(antes, despues, claves);
+
+        assertEquals(plan.getMovimientos().size(), plan.aplicar(repositorios));
+        assertEquals(plan.getMovimientos().stream().map(PlanRebalanceo.Movimiento::clave).toList(), recibidas);
+        assertTrue(recibidas.stream().allMatch(clave -> despues.nodoPara(clave).equals("fragmento2")));
+    }
+
+    @Test
+    void elResultadoNoDependeDelOrdenDeLosNodos() {
+        AnilloHashConsistente a = new AnilloHashConsistente(List.of("a", "b", "c"), NODOS_VIRTUALES);
+        AnilloHashConsistente b = new AnilloHashConsistente(List.of("c", "a", "b"), NODOS_VIRTUALES);
+        for (String producto : productos()) {
+            assertEquals(a.nodoPara(producto), b.nodoPara(producto));
+        }
+    }
+
+    private static List<String> nombres(int fragmentos) {
+        return IntStream.range(0, fragmentos).mapToObj(i -> "fragmento" + i).toList();
+    }
+
+    private static List<String> productos() {
+        return IntStream.range(0, PRODUCTOS).mapToObj(i -> "producto-" + i).toList();
+    }
+}
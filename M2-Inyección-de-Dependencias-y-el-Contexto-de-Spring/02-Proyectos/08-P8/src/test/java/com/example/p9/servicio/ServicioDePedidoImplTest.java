@@ -0,0 +1,138 @@
+package com.example.p9.servicio;
+
+import com.example.p9.interfaz.IRepositorioDeProducto;
+import com.example.p9.interfaz.IServicioDeInventario;
+import com.example.p9.modelo.ResultadoLote;
+import com.example.p9.modelo.SolicitudPedido;
+import com.example.p9.trazas.Trazador;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServicioDePedidoImplTest {
+
+    // Latencias simuladas de E/S de los colaboradores.
+    private static final long ESPERA_REPOSITORIO_MS = 10;
+    private static final long ESPERA_INVENTARIO_MS = 15;
+
+    private final ExecutorService ejecutor = Executors.newFixedThreadPool(32);
+
+    @AfterEach
+    void cerrar() {
+        ejecutor.shutdownNow();
+    }
+
+    @Test
+    void combinaLosFallosDeAmbasOperaciones() {
+        IRepositorioDeProducto repositorio = producto -> {
+            throw new IllegalArgumentException("repositorio caído");
+        };
+        IServicioDeInventario inventario = (producto, cantidad) -> {
+            throw new UnsupportedOperationException("inventario caído");
+        };
+        ServicioDePedidoImpl servicio = new ServicioDePedidoImpl(inventario, repositorio, ejecutor, 4, Trazador.desactivado());
+
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> servicio.procesarNuevoPedidoAsync("Teclado", 1).join());
+        Throwable fallo = error.getCause();
+        assertInstanceOf(IllegalStateException.class, fallo);
+        assertInstanceOf(IllegalArgumentException.class, fallo.getCause());
+        assertEquals(1, fallo.getSuppressed().length);
+        assertInstanceOf(UnsupportedOperationException.class, fallo.getSuppressed()[0]);
+    }
+
+    @Test
+    void elLoteRespetaElLimiteEnVueloYRecogeLosFallos() {
+        AtomicInteger enCurso = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        IRepositorioDeProducto repositorio = producto -> {
+            maximo.accumulateAndGet(enCurso.incrementAndGet(), Math::max);
+            dormir(ESPERA_REPOSITORIO_MS);
+            enCurso.decrementAndGet();
+            if (producto.endsWith("7")) {
+                throw new IllegalStateException("sin conexión");
+            }
+        };
+        ServicioDePedidoImpl servicio = new ServicioDePedidoImpl((producto, cantidad) -> { }, repositorio, ejecutor, 4, Trazador.desactivado());
+
+        ResultadoLote resultado = servicio.procesarPedidos(pedidos(40));
+
+        assertTrue(maximo.get() <= 4, "Pedidos simultáneos: " + maximo.get());
+        assertEquals(36, resultado.procesados());
+        assertEquals(4, resultado.fallidos().size());
+        assertTrue(resultado.fallidos().stream().allMatch(f -> f.pedido().producto().endsWith("7")
+                && f.causa().getCause().getMessage().equals("sin conexión")));
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkLatenciaConEsperasSimuladas() {
+        IRepositorioDeProducto repositorio = producto -> dormir(ESPERA_REPOSITORIO_MS);
+        IServicioDeInventario inventario = (producto, cantidad) -> dormir(ESPERA_INVENTARIO_MS);
+        ServicioDePedidoImpl servicio = new ServicioDePedidoImpl(inventario, repositorio, ejecutor, 16, Trazador.desactivado());
+
+        int repeticiones = 20;
+        long[] secuencial = new long[repeticiones];
+        long[] concurrente = new long[repeticiones];
+        for (int i = 0; i < repeticiones; i++) {
+            long inicio = System.nanoTime();
+            servicio.procesarNuevoPedido("Monitor", 1);
+            secuencial[i] = System.nanoTime() - inicio;
+            inicio = System.nanoTime();
+            servicio.procesarNuevoPedidoAsync("Monitor", 1).join();
+            concurrente[i] = System.nanoTime() - inicio;
+        }
+
+        List<SolicitudPedido> lote = pedidos(100);
+        long inicio = System.nanoTime();
+        for (SolicitudPedido pedido : lote) {
+            servicio.procesarNuevoPedido(pedido.producto(), pedido.cantidad());
+        }
+        long loteSecuencial = System.nanoTime() - inicio;
+        inicio = System.nanoTime();
+        ResultadoLote resultado = servicio.procesarPedidos(lote);
+        long loteConcurrente = System.nanoTime() - inicio;
+
+        assertEquals(lote.size(), resultado.procesados());
+        assertTrue(mediana(concurrente) < mediana(secuencial));
+        System.out.printf("BENCHMARK: pedido (repositorio %d ms + inventario %d ms) -> mediana secuencial %.1f ms, "
+                        + "asíncrono %.1f ms; lote de %d -> secuencial %d ms, procesarPedidos (16 en vuelo) %d ms%n",
+                ESPERA_REPOSITORIO_MS, ESPERA_INVENTARIO_MS, mediana(secuencial) / 1e6, mediana(concurrente) / 1e6,
+                lote.size(), loteSecuencial / 1_000_000, loteConcurrente / 1_000_000);
+    }
+
+    private static List<SolicitudPedido> pedidos(int total) {
+        List<SolicitudPedido> pedidos = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            pedidos.add(new SolicitudPedido("producto-" + i, 1 + i % 3));
+        }
+        return pedidos;
+    }
+
+    private static long mediana(long[] valores) {
+        long[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        return ordenados[ordenados.length / 2];
+    }
+
+    private static void dormir(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
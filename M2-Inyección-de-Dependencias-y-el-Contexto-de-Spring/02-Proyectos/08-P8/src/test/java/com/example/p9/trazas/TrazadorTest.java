@@ -0,0 +1,187 @@
+package com.example.p9.trazas;
+
+import com.example.p9.interfaz.IRepositorioDeProducto;
+import com.example.p9.interfaz.IServicioDeInventario;
+import com.example.p9.servicio.ServicioDePedidoImpl;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrazadorTest {
+
+    private static final int PEDIDOS_BENCHMARK = Integer.getInteger("trazas.benchmark.pedidos", 2_000_000);
+
+    @Test
+    void registraElArbolDeTramosDeCadaPedido() {
+        Trazador trazador = new Trazador(1, 16);
+        ServicioDePedidoImpl servicio = servicio(trazador, producto -> { }, (producto, cantidad) -> { });
+
+        servicio.procesarNuevoPedido("Monitor", 1);
+
+        TrazaPedido traza = trazador.trazasRecientes().get(0);
+        // Cada hijo aparece sangrado bajo la raíz, con su duración.
+        assertTrue(traza.formatear().matches("Traza \\d+ \\(.+\\)"
+                + "\n  procesarNuevoPedido [\\d.,]+ ms"
+                + "\n    repositorio\\.guardarProducto [\\d.,]+ ms"
+                + "\n    inventario\\.actualizarStock [\\d.,]+ ms"), traza::formatear);
+        assertEquals(List.of("procesarNuevoPedido", "repositorio.guardarProducto", "inventario.actualizarStock"),
+                traza.tramos().stream().map(TrazaPedido.TramoRegistrado::nombre).toList());
+        TrazaPedido.TramoRegistrado raiz = traza.raiz();
+        assertEquals(0, raiz.idPadre());
+        for (TrazaPedido.TramoRegistrado hijo : traza.tramos().subList(1, 3)) {
+            assertEquals(raiz.id(), hijo.idPadre());
+            assertTrue(hijo.duracionNanos() <= raiz.duracionNanos());
+        }
+    }
+
+    @Test
+    void registraLosErroresYLosTramosDelPedidoAsincrono() {
+        Trazador trazador = new Trazador(1, 16);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(2);
+        try {
+            ServicioDePedidoImpl servicio = new ServicioDePedidoImpl((producto, cantidad) -> {
+                throw new IllegalArgumentException("Sin stock");
+            }, producto -> { }, ejecutor, 4, trazador);
+
+            assertThrows(RuntimeException.class, () -> servicio.procesarNuevoPedidoAsync("Webcam", 1).join());
+
+            TrazaPedido traza = trazador.trazasRecientes().get(0);
+            Map<String, TrazaPedido.TramoRegistrado> porNombre = porNombre(traza);
+            assertEquals(3, traza.tramos().size());
+            assertNull(porNombre.get("repositorio.guardarProducto").error());
+            assertTrue(porNombre.get("inventario.actualizarStock").error().contains("Sin stock"));
+            assertTrue(porNombre.get("procesarNuevoPedidoAsync").error().contains("Fallo al procesar el pedido de 'Webcam'"));
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void cierraLaRaizSiElEjecutorRechazaElPedido() {
+        Trazador trazador = new Trazador(1, 16);
+        // Acepta el guardado y rechaza la actualización del stock.
+        AtomicInteger enviadas = new AtomicInteger();
+        Executor ejecutor = tarea -> {
+            if (enviadas.incrementAndGet() > 1) {
+                throw new RejectedExecutionException("Cola llena");
+            }
+            tarea.run();
+        };
+        ServicioDePedidoImpl servicio = new ServicioDePedidoImpl((producto, cantidad) -> { }, producto -> { }, ejecutor, 4, trazador);
+
+        assertThrows(RejectedExecutionException.class, () -> servicio.procesarNuevoPedidoAsync("Webcam", 1));
+
+        assertEquals(1, trazador.trazasExportadas());
+        Map<String, TrazaPedido.TramoRegistrado> porNombre = porNombre(trazador.trazasRecientes().get(0));
+        assertNull(porNombre.get("repositorio.guardarProducto").error());
+        assertTrue(porNombre.get("procesarNuevoPedidoAsync").error().contains("Cola llena"));
+    }
+
+    @Test
+    void sinMuestreoNoSeRegistraNada() {
+        Trazador trazador = new Trazador(0, 16);
+        assertSame(Tramo.NO_MUESTREADO, trazador.iniciar("pedido"));
+        assertSame(Tramo.NO_MUESTREADO, trazador.iniciar("pedido").hijo("repositorio"));
+
+        servicio(trazador, producto -> { }, (producto, cantidad) -> { }).procesarNuevoPedido("Monitor", 1);
+        assertEquals(0, trazador.trazasExportadas());
+    }
+
+    @Test
+    void elMuestreoRespetaLaTasaConfigurada() {
+        Trazador trazador = new Trazador(0.1, 1024);
+        for (int i = 0; i < 100_000; i++) {
+            trazador.iniciar("pedido").close();
+        }
+        assertTrue(trazador.trazasExportadas() > 9_000 && trazador.trazasExportadas() < 11_000,
+                "Trazas exportadas: " + trazador.trazasExportadas());
+    }
+
+    @Test
+    void elBufferConservaLasTrazasMasRecientes() {
+        Trazador trazador = new Trazador(1, 4);
+        for (int i = 0; i < 10; i++) {
+            trazador.iniciar("pedido-" + i).close();
+        }
+
+        assertEquals(10, trazador.trazasExportadas());
+        assertEquals(List.of("pedido-6", "pedido-7", "pedido-8", "pedido-9"),
+                trazador.trazasRecientes().stream().map(traza -> traza.raiz().nombre()).toList());
+    }
+
+    @Test
+    void losTramosSeEmitenComoEventosJfr(@TempDir Path directorio) throws Exception {
+        Trazador trazador = new Trazador(1, 16);
+        ServicioDePedidoImpl servicio = servicio(trazador, producto -> { }, (producto, cantidad) -> { });
+        Path volcado = directorio.resolve("trazas.jfr");
+
+        try (Recording grabacion = new Recording()) {
+            grabacion.enable(EventoTramo.NOMBRE);
+            grabacion.start();
+            servicio.procesarNuevoPedido("Monitor", 1);
+            grabacion.stop();
+            grabacion.dump(volcado);
+        }
+
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(volcado).stream()
+                .filter(evento -> evento.getEventType().getName().equals(EventoTramo.NOMBRE))
+                .toList();
+        assertEquals(3, eventos.size());
+        long idTraza = trazador.trazasRecientes().get(0).id();
+        assertTrue(eventos.stream().allMatch(evento -> evento.getLong("traza") == idTraza));
+        assertTrue(eventos.stream().anyMatch(evento -> "procesarNuevoPedido".equals(evento.getString("nombre"))));
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkCosteDeLasTrazas() {
+        double[] tasas = {1, 0.01, 0};
+        // Primera pasada de calentamiento, para que el JIT compile las dos ramas antes de medir.
+        for (double tasa : tasas) {
+            procesar(servicio(new Trazador(tasa, 1024), producto -> { }, (producto, cantidad) -> { }), PEDIDOS_BENCHMARK / 5);
+        }
+        for (double tasa : tasas) {
+            long nanos = procesar(servicio(new Trazador(tasa, 1024), producto -> { }, (producto, cantidad) -> { }), PEDIDOS_BENCHMARK);
+            System.out.printf("BENCHMARK: muestreo %.0f%% -> %d ns por pedido (%d pedidos)%n",
+                    tasa * 100, nanos / PEDIDOS_BENCHMARK, PEDIDOS_BENCHMARK);
+        }
+    }
+
+    private static long procesar(ServicioDePedidoImpl servicio, int pedidos) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < pedidos; i++) {
+            servicio.procesarNuevoPedido("Monitor", 1);
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private static ServicioDePedidoImpl servicio(Trazador trazador,
+                                                 IRepositorioDeProducto repositorio,
+                                                 IServicioDeInventario inventario) {
+        return new ServicioDePedidoImpl(inventario, repositorio, Runnable::run, 4, trazador);
+    }
+
+    private static Map<String, TrazaPedido.TramoRegistrado> porNombre(TrazaPedido traza) {
+        return traza.tramos().stream()
+                .collect(Collectors.toMap(TrazaPedido.TramoRegistrado::nombre, tramo -> tramo));
+    }
+}
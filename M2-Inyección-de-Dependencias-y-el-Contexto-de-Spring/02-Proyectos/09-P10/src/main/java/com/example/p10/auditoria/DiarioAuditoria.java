@@ -0,0 +1,362 @@
+package com.example.p10.auditoria;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario de auditoría solo de anexado, en ficheros segmentados
+ * ({@code auditoria-<primera secuencia>-<primera marca de tiempo>.log}).
+ * <p>
+ * {@link #registrar} solo encola el evento en una cola sin bloqueos. Un único hilo escritor vacía la
+ * cola y escribe todos los eventos pendientes antes de un solo {@code fsync} (group commit): cuanta
+ * más carga, más eventos comparten cada sincronización. Quien necesite saber que su evento ya está en
+ * disco usa {@link #registrarDurable}.
+ * <p>
+ * Formato de cada evento: {@code [int longitud][long secuencia][long marca][descripción UTF-8][int CRC32C]},
+ * donde la longitud cuenta los bytes entre ella y el CRC. El escritor hace las marcas de tiempo no
+ * decrecientes, de modo que los segmentos quedan ordenados por tiempo y
+ * {@link #recorrer(Path, long, long, Consumer)} puede saltarse los que caen fuera del rango.
+ */
+public final class DiarioAuditoria implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiarioAuditoria.class);
+
+    private static final String PREFIJO = "auditoria-";
+    private static final String SUFIJO = ".log";
+    private static final int CABECERA = Integer.BYTES;
+    private static final int COLA = Integer.BYTES;
+    private static final int FIJOS = 2 * Long.BYTES;
+    private static final int TAMANO_BUFFER = 256 * 1024;
+    private static final int MAX_DESCRIPCION = TAMANO_BUFFER - CABECERA - FIJOS - COLA;
+
+    private final Path directorio;
+    private final long maxBytesSegmento;
+    private final long esperaMaxNanos;
+    private final LongSupplier relojMs;
+    private final ConcurrentLinkedQueue<Entrada> cola = new ConcurrentLinkedQueue<>();
+    private final Thread escritor;
+    private volatile boolean activo = true;
+
+    // Estado del hilo escritor.
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+    private final CRC32C crc = new CRC32C();
+    private final List<CompletableFuture<Void>> porConfirmar = new ArrayList<>();
+    private FileChannel canal;
+    private long bytesSegmento;
+    private long siguienteSecuencia;
+    private long ultimaMarca;
+    private volatile long escritos;
+    private volatile long sincronizaciones;
+
+    /**
+     * Abre el diario en el directorio y continúa la secuencia del último segmento existente.
+     *
+     * @param maxBytesSegmento Tamaño a partir del cual se empieza un segmento nuevo.
+     * @param esperaMaxMs      Espera máxima del escritor cuando la cola está vacía.
+     */
+    public DiarioAuditoria(Path directorio, long maxBytesSegmento, long esperaMaxMs) throws IOException {
+        this(directorio, maxBytesSegmento, esperaMaxMs, System::currentTimeMillis);
+    }
+
+    DiarioAuditoria(Path directorio, long maxBytesSegmento, long esperaMaxMs, LongSupplier relojMs) throws IOException {
+        this.directorio = directorio;
+        this.relojMs = relojMs;
+        this.maxBytesSegmento = maxBytesSegmento;
+        this.esperaMaxNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaxMs);
+        Files.createDirectories(directorio);
+        List<Segmento> segmentos = segmentos(directorio);
+        siguienteSecuencia = 1;
+        if (!segmentos.isEmpty()) {
+            Segmento ultimo = segmentos.get(segmentos.size() - 1);
+            siguienteSecuencia = ultimo.primeraSecuencia();
+            ultimaMarca = ultimo.primeraMarca();
+            leerSegmento(ultimo, Long.MIN_VALUE, Long.MAX_VALUE, evento -> {
+                siguienteSecuencia = evento.secuencia() + 1;
+                ultimaMarca = evento.marcaTiempoMs();
+                return true;
+            });
+        }
+        this.escritor = new Thread(this::escribirEnBucle, "auditoria-diario");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Encola el evento sin esperar a que se escriba.
+     */
+    public void registrar(String descripcion) {
+        encolar(descripcion, null);
+    }
+
+    /**
+     * Encola el evento y devuelve un futuro que se completa cuando ya está sincronizado en disco.
+     */
+    public CompletableFuture<Void> registrarDurable(String descripcion) {
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        encolar(descripcion, durable);
+        LockSupport.unpark(escritor);
+        return durable;
+    }
+
+    /**
+     * Espera a que todos los eventos registrados hasta ahora estén en disco.
+     */
+    public void sincronizar() {
+        registrarDurable(null).join();
+    }
+
+    /**
+     * Eventos escritos desde que se abrió el diario.
+     */
+    public long getEscritos() {
+        return escritos;
+    }
+
+    /**
+     * Llamadas a {@code fsync} desde que se abrió el diario; {@code escritos / sincronizaciones} es el
+     * tamaño medio de cada grupo.
+     */
+    public long getSincronizaciones() {
+        return sincronizaciones;
+    }
+
+    private void encolar(String descripcion, CompletableFuture<Void> durable) {
+        if (!activo) {
+            throw new IllegalStateException("El diario de auditoría está cerrado");
+        }
+        if (descripcion != null && descripcion.length() * 3 > MAX_DESCRIPCION
+                && descripcion.getBytes(StandardCharsets.UTF_8).length > MAX_DESCRIPCION) {
+            throw new IllegalArgumentException("Evento de auditoría demasiado largo");
+        }
+        cola.add(new Entrada(relojMs.getAsLong(), descripcion, durable));
+    }
+
+    @Override
+    public void close() throws IOException {
+        activo = false;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Escritura (solo el hilo escritor) ---
+
+    private void escribirEnBucle() {
+        try {
+            while (activo || !cola.isEmpty()) {
+                Entrada entrada = cola.poll();
+                if (entrada == null) {
+                    LockSupport.parkNanos(this, esperaMaxNanos);
+                    continue;
+                }
+                try {
+                    // Todo lo que hay en la cola entra en el mismo grupo, con un solo fsync al final.
+                    do {
+                        escribir(entrada);
+                    } while ((entrada = cola.poll()) != null);
+                    if (canal != null) {
+                        volcar();
+                        canal.force(false);
+                        sincronizaciones++;
+                    }
+                    porConfirmar.forEach(durable -> durable.complete(null));
+                } catch (IOException | RuntimeException e) {
+                    LOG.error("Error al escribir el diario de auditoría", e);
+                    porConfirmar.forEach(durable -> durable.completeExceptionally(e));
+                    buffer.clear();
+                }
+                porConfirmar.clear();
+            }
+            if (canal != null) {
+                canal.close();
+            }
+        } catch (IOException e) {
+            LOG.error("No se pudo cerrar el diario de auditoría en {}", directorio, e);
+            activo = false;
+            Entrada pendiente;
+            while ((pendiente = cola.poll()) != null) {
+                if (pendiente.durable() != null) {
+                    pendiente.durable().completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void escribir(Entrada entrada) throws IOException {
+        if (entrada.durable() != null) {
+            porConfirmar.add(entrada.durable());
+        }
+        if (entrada.descripcion() == null) {
+            return; // Marca de sincronizar(): no se escribe nada.
+        }
+        byte[] texto = entrada.descripcion().getBytes(StandardCharsets.UTF_8);
+        int carga = FIJOS + texto.length;
+        int registro = CABECERA + carga + COLA;
+        if (canal != null && bytesSegmento + registro > maxBytesSegmento) {
+            volcar();
+            canal.force(false);
+            canal.close();
+            canal = null;
+        }
+        ultimaMarca = Math.max(ultimaMarca, entrada.marcaMs());
+        if (canal == null) {
+            abrirSegmento();
+        }
+        if (buffer.remaining() < registro) {
+            volcar();
+        }
+        int inicio = buffer.position() + CABECERA;
+        buffer.putInt(carga).putLong(siguienteSecuencia).putLong(ultimaMarca).put(texto);
+        crc.reset();
+        crc.update(buffer.duplicate().position(inicio).limit(buffer.position()));
+        buffer.putInt((int) crc.getValue());
+        bytesSegmento += registro;
+        siguienteSecuencia++;
+        escritos++;
+    }
+
+    private void volcar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Empieza un segmento con el evento que se va a escribir: su nombre lleva la secuencia y la marca de tiempo de ese evento.
+     */
+    private void abrirSegmento() throws IOException {
+        canal = FileChannel.open(rutaSegmento(directorio, siguienteSecuencia, ultimaMarca),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        bytesSegmento = 0;
+    }
+
+    // --- Lectura ---
+
+    /**
+     * Recorre, en orden, los eventos con marca de tiempo en {@code [desdeMs, hastaMs]}. Solo lee los
+     * segmentos que pueden contenerlos y se detiene en el primer evento posterior al rango. Un último
+     * evento a medio escribir (caída del proceso) se ignora.
+     */
+    public static void recorrer(Path directorio, long desdeMs, long hastaMs, Consumer<EventoAuditoria> consumidor)
+            throws IOException {
+        List<Segmento> segmentos = segmentos(directorio);
+        // Primer segmento que puede contener el inicio del rango: el último que empieza antes de 'desdeMs'.
+        // Estrictamente antes: si un segmento rotó dentro del milisegundo 'desdeMs', el anterior también
+        // tiene eventos de ese milisegundo.
+        int primero = 0;
+        for (int i = 0; i < segmentos.size(); i++) {
+            if (segmentos.get(i).primeraMarca() < desdeMs) {
+                primero = i;
+            }
+        }
+        for (int i = primero; i < segmentos.size(); i++) {
+            Segmento segmento = segmentos.get(i);
+            if (segmento.primeraMarca() > hastaMs) {
+                return;
+            }
+            boolean seguir = leerSegmento(segmento, desdeMs, hastaMs, evento -> {
+                if (evento.marcaTiempoMs() > hastaMs) {
+                    return false;
+                }
+                if (evento.marcaTiempoMs() >= desdeMs) {
+                    consumidor.accept(evento);
+                }
+                return true;
+            });
+            if (!seguir) {
+                return;
+            }
+        }
+    }
+
+    public static List<EventoAuditoria> leer(Path directorio, long desdeMs, long hastaMs) throws IOException {
+        List<EventoAuditoria> eventos = new ArrayList<>();
+        recorrer(directorio, desdeMs, hastaMs, eventos::add);
+        return eventos;
+    }
+
+    /**
+     * @return false si el lector pidió detenerse.
+     */
+    private static boolean leerSegmento(Segmento segmento, long desdeMs, long hastaMs, Lector lector) throws IOException {
+        ByteBuffer datos = ByteBuffer.wrap(Files.readAllBytes(segmento.ruta()));
+        CRC32C crc = new CRC32C();
+        while (datos.remaining() >= CABECERA) {
+            int inicio = datos.position();
+            int carga = datos.getInt(inicio);
+            if (carga < FIJOS || datos.remaining() < CABECERA + carga + COLA) {
+                break; // Evento incompleto al final del segmento.
+            }
+            crc.reset();
+            crc.update(datos.duplicate().position(inicio + CABECERA).limit(inicio + CABECERA + carga));
+            if ((int) crc.getValue() != datos.getInt(inicio + CABECERA + carga)) {
+                break;
+            }
+            long secuencia = datos.getLong(inicio + CABECERA);
+            long marca = datos.getLong(inicio + CABECERA + Long.BYTES);
+            datos.position(inicio + CABECERA + carga + COLA);
+            // Solo se decodifica el texto de los eventos dentro del rango.
+            String descripcion = marca >= desdeMs && marca <= hastaMs
+                    ? new String(datos.array(), inicio + CABECERA + FIJOS, carga - FIJOS, StandardCharsets.UTF_8)
+                    : null;
+            if (!lector.leer(new EventoAuditoria(secuencia, marca, descripcion))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Segmento> segmentos(Path directorio) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return List.of();
+        }
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            return ficheros.map(Path::getFileName).map(Path::toString)
+                    .filter(nombre -> nombre.startsWith(PREFIJO) && nombre.endsWith(SUFIJO))
+                    .map(nombre -> {
+                        String[] partes = nombre.substring(PREFIJO.length(), nombre.length() - SUFIJO.length()).split("-");
+                        return new Segmento(directorio.resolve(nombre), Long.parseLong(partes[0]), Long.parseLong(partes[1]));
+                    })
+                    .sorted((a, b) -> Long.compare(a.primeraSecuencia(), b.primeraSecuencia()))
+                    .toList();
+        }
+    }
+
+    private static Path rutaSegmento(Path directorio, long primeraSecuencia, long primeraMarca) {
+        return directorio.resolve(String.format("%s%020d-%020d%s", PREFIJO, primeraSecuencia, primeraMarca, SUFIJO));
+    }
+
+    private record Entrada(long marcaMs, String descripcion, CompletableFuture<Void> durable) {
+    }
+
+    private record Segmento(Path ruta, long primeraSecuencia, long primeraMarca) {
+    }
+
+    @FunctionalInterface
+    private interface Lector {
+        boolean leer(EventoAuditoria evento);
+    }
+}
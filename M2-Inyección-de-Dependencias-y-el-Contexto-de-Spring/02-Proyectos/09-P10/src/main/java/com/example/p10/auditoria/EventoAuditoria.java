@@ -0,0 +1,10 @@
+package com.example.p10.auditoria;
+
+/**
+ * Evento leído del diario de auditoría.
+ *
+ * @param secuencia     Posición del evento en el diario, empezando en 1.
+ * @param marcaTiempoMs Momento en que se registró, en milisegundos desde la época.
+ */
+public record EventoAuditoria(long secuencia, long marcaTiempoMs, String descripcion) {
+}
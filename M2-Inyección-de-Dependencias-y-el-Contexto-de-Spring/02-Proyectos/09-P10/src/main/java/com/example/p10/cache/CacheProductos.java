@@ -0,0 +1,215 @@
+package com.example.p10.cache;
+
+import com.example.p10.modelo.Producto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caché acotada de productos, repartida en segmentos LRU con su propio cerrojo.
+ * <p>
+ * Cada segmento lleva un número de versión que sube con cada invalidación, y cada entrada guarda la
+ * versión con la que se cargó. Un fallo lee la versión <em>antes</em> de ir al repositorio y solo guarda
+ * lo leído si la versión no ha cambiado: así una lectura lenta que empezó antes de una escritura no
+ * puede dejar en la caché el producto de antes. Las escrituras invalidan antes y después de tocar el
+ * repositorio ({@link #escribir}); en cuanto la escritura termina, ningún lector puede ver el stock anterior.
+ * <p>
+ * Se guardan y devuelven copias: {@link Producto} es mutable y quien recibe un producto podría modificarlo.
+ */
+public class CacheProductos {
+
+    private final Segmento[] segmentos;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    /**
+     * @param capacidad  Número máximo de productos en caché.
+     * @param segmentos  Número de segmentos (potencia de dos); más segmentos, menos contención.
+     */
+    public CacheProductos(int capacidad, int segmentos) {
+        if (capacidad <= 0 || Integer.bitCount(segmentos) != 1) {
+            throw new IllegalArgumentException("Capacidad positiva y segmentos potencia de dos: " + capacidad + ", " + segmentos);
+        }
+        int numero = Math.min(segmentos, Integer.highestOneBit(capacidad));
+        this.segmentos = new Segmento[numero];
+        for (int i = 0; i < numero; i++) {
+            // El resto de la división se reparte entre los primeros segmentos.
+            this.segmentos[i] = new Segmento(capacidad / numero + (i < capacidad % numero ? 1 : 0));
+        }
+    }
+
+    /**
+     * Devuelve el producto desde la caché o, si no está, lo carga con {@code cargar} y lo guarda.
+     *
+     * @return Una copia del producto, o null si no existe.
+     */
+    public Producto obtener(Long id, Function<Long, Producto> cargar) {
+        Segmento segmento = segmento(id);
+        Producto enCache = segmento.obtener(id);
+        if (enCache != null) {
+            aciertos.increment();
+            return copiar(enCache);
+        }
+        fallos.increment();
+        long version = segmento.version();
+        Producto cargado = cargar.apply(id);
+        if (cargado == null) {
+            return null;
+        }
+        Producto copia = copiar(cargado);
+        segmento.guardarSiVersion(id, copia, version);
+        return copiar(copia);
+    }
+
+    /**
+     * Variante por lotes de {@link #obtener}: los fallos se cargan todos con una sola llamada.
+     *
+     * @return Copias de los productos encontrados por ID; los que no existen no aparecen.
+     */
+    public Map<Long, Producto> obtenerTodos(Collection<Long> ids, Function<Collection<Long>, Map<Long, Producto>> cargar) {
+        Map<Long, Producto> resultado = new HashMap<>(ids.size() * 2);
+        List<Long> ausentes = new ArrayList<>();
+        Map<Long, Long> versiones = new HashMap<>();
+        for (Long id : ids) {
+            Segmento segmento = segmento(id);
+            Producto enCache = segmento.obtener(id);
+            if (enCache != null) {
+                resultado.put(id, copiar(enCache));
+            } else {
+                ausentes.add(id);
+                versiones.put(id, segmento.version());
+            }
+        }
+        aciertos.add(resultado.size());
+        fallos.add(ausentes.size());
+        if (!ausentes.isEmpty()) {
+            cargar.apply(ausentes).forEach((id, cargado) -> {
+                Producto copia = copiar(cargado);
+                segmento(id).guardarSiVersion(id, copia, versiones.get(id));
+                resultado.put(id, copiar(copia));
+            });
+        }
+        return resultado;
+    }
+
+    /**
+     * Ejecuta una escritura en el repositorio invalidando los productos afectados antes y después.
+     * Mientras dura, las lecturas de esos productos van al repositorio y no pueden guardar lo leído.
+     */
+    public <T> T escribir(Collection<Long> ids, Supplier<T> escritura) {
+        invalidar(ids);
+        try {
+            return escritura.get();
+        } finally {
+            invalidar(ids);
+        }
+    }
+
+    public void invalidar(Collection<Long> ids) {
+        for (Long id : ids) {
+            if (segmento(id).invalidar(id)) {
+                invalidaciones.increment();
+            }
+        }
+    }
+
+    public MetricasCache getMetricas() {
+        int entradas = 0;
+        for (Segmento segmento : segmentos) {
+            entradas += segmento.tamano();
+        }
+        return new MetricasCache(aciertos.sum(), fallos.sum(), desalojos.sum(), invalidaciones.sum(), entradas);
+    }
+
+    private Segmento segmento(Long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return segmentos[(int) (h >>> 32) & (segmentos.length - 1)];
+    }
+
+    private static Producto copiar(Producto producto) {
+        return new Producto(producto.getId(), producto.getNombre(), producto.getPrecio(), producto.getStock());
+    }
+
+    private record Entrada(Producto producto, long version) {
+    }
+
+    private final class Segmento {
+        private final ReentrantLock cerrojo = new ReentrantLock();
+        private final LinkedHashMap<Long, Entrada> entradas;
+        private long version;
+
+        Segmento(int capacidad) {
+            // Orden de acceso: el primero es el usado hace más tiempo.
+            this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entrada> eldest) {
+                    if (size() > capacidad) {
+                        desalojos.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Producto obtener(Long id) {
+            cerrojo.lock();
+            try {
+                Entrada entrada = entradas.get(id);
+                return entrada == null ? null : entrada.producto();
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        long version() {
+            cerrojo.lock();
+            try {
+                return version;
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        void guardarSiVersion(Long id, Producto producto, long versionLeida) {
+            cerrojo.lock();
+            try {
+                // Si hubo una invalidación desde que se leyó la versión, lo cargado puede ser anterior a ella.
+                if (version == versionLeida) {
+                    entradas.put(id, new Entrada(producto, versionLeida));
+                }
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        boolean invalidar(Long id) {
+            cerrojo.lock();
+            try {
+                version++;
+                return entradas.remove(id) != null;
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        int tamano() {
+            cerrojo.lock();
+            try {
+                return entradas.size();
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+}
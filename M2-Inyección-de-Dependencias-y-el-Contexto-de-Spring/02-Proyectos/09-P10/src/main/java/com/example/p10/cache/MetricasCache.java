@@ -0,0 +1,18 @@
+package com.example.p10.cache;
+
+/**
+ * Foto de las métricas de la caché de productos.
+ *
+ * @param aciertos        Lecturas servidas desde la caché.
+ * @param fallos          Lecturas que tuvieron que ir al repositorio.
+ * @param desalojos       Entradas expulsadas por falta de sitio.
+ * @param invalidaciones  Entradas descartadas por una escritura.
+ * @param entradas        Productos en caché ahora mismo.
+ */
+public record MetricasCache(long aciertos, long fallos, long desalojos, long invalidaciones, int entradas) {
+
+    public double tasaAciertos() {
+        long lecturas = aciertos + fallos;
+        return lecturas == 0 ? 0 : (double) aciertos / lecturas;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.p10.config;
+
+import com.example.p10.auditoria.DiarioAuditoria;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Diario de auditoría en disco. Solo se crea si se indica {@code auditoria.diario.directorio};
+ * sin él, ServicioAuditoria sigue escribiendo los eventos en el log.
+ */
+@Configuration
+public class ConfiguracionAuditoria {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "auditoria.diario.directorio")
+    public DiarioAuditoria diarioAuditoria(@Value("${auditoria.diario.directorio}") Path directorio,
+                                           @Value("${auditoria.diario.segmento-max-bytes:67108864}") long maxBytesSegmento,
+                                           @Value("${auditoria.diario.espera-max-ms:2}") long esperaMaxMs) throws IOException {
+        return new DiarioAuditoria(directorio, maxBytesSegmento, esperaMaxMs);
+    }
+}
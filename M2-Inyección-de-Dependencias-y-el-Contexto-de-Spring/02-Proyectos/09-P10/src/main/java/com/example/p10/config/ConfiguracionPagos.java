@@ -0,0 +1,68 @@
+package com.example.p10.config;
+
+import com.example.p10.contratos.PasarelaPago;
+import com.example.p10.contratos.PasarelaPagoAsincrona;
+import com.example.p10.pago.CircuitoPago;
+import com.example.p10.pago.EnrutadorPasarelas;
+import com.example.p10.pago.LoteadorPagos;
+import com.example.p10.pago.PasarelaPagoAdaptada;
+import com.example.p10.pago.PasarelaPagoSimulada;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pagos: el enrutador que reparte los pagos entre todas las pasarelas registradas, y la capa asíncrona
+ * (lotes, plazo por llamada y cortacircuitos). Con {@code pagos.asincrono.pasarela=simulada} la capa
+ * asíncrona usa una {@link PasarelaPagoSimulada} local; si no, adapta el enrutador con una
+ * {@link PasarelaPagoAdaptada}, que hace una llamada síncrona por pago en su propio pool acotado.
+ */
+@Configuration
+public class ConfiguracionPagos {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "pagos.asincrono.pasarela", havingValue = "simulada")
+    public PasarelaPagoSimulada pasarelaPagoSimulada(@Value("${pagos.simulada.latencia-ms:20}") long latenciaMs,
+                                                     @Value("${pagos.simulada.tasa-error:0.0}") double tasaError) {
+        return new PasarelaPagoSimulada("Simulada", latenciaMs, tasaError);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "pagos.asincrono.pasarela", havingValue = "adaptada", matchIfMissing = true)
+    public PasarelaPagoAdaptada pasarelaPagoAdaptada(@Qualifier("enrutadorPasarelas") PasarelaPago pasarelaPago,
+                                                     @Value("${pagos.adaptada.hilos:16}") int hilos,
+                                                     @Value("${pagos.adaptada.capacidad-cola:1000}") int capacidadCola) {
+        return new PasarelaPagoAdaptada(pasarelaPago, hilos, capacidadCola);
+    }
+
+    /**
+     * Spring excluye al propio enrutador del mapa, así que recibe el resto de pasarelas. La
+     * {@link PasarelaPagoSimulada} también es una {@link PasarelaPago}, pero solo sirve a la capa asíncrona:
+     * se descarta aquí para que los pagos reales nunca se enruten a ella.
+     */
+    @Bean
+    public EnrutadorPasarelas enrutadorPasarelas(Map<String, PasarelaPago> pasarelas,
+                                                 @Value("${pagos.enrutamiento.alfa:0.2}") double alfa,
+                                                 @Value("${pagos.enrutamiento.exploracion:0.02}") double exploracion,
+                                                 @Value("${pagos.enrutamiento.latencia-inicial-ms:10}") double latenciaInicialMs) {
+        Map<String, PasarelaPago> reales = new LinkedHashMap<>(pasarelas);
+        reales.values().removeIf(PasarelaPagoSimulada.class::isInstance);
+        return new EnrutadorPasarelas(reales, alfa, exploracion, latenciaInicialMs, System::nanoTime);
+    }
+
+    @Bean(destroyMethod = "close")
+    public LoteadorPagos loteadorPagos(PasarelaPagoAsincrona pasarela,
+                                       @Value("${pagos.lote.tamano:100}") int tamanoLote,
+                                       @Value("${pagos.lote.espera-max-ms:5}") long esperaMaxMs,
+                                       @Value("${pagos.timeout-ms:2000}") long timeoutMs,
+                                       @Value("${pagos.circuito.umbral-fallos:5}") int umbralFallos,
+                                       @Value("${pagos.circuito.apertura-ms:10000}") long aperturaMs) {
+        CircuitoPago circuito = new CircuitoPago(pasarela.getNombrePasarela(), umbralFallos, aperturaMs, System::currentTimeMillis);
+        return new LoteadorPagos(pasarela, circuito, tamanoLote, esperaMaxMs, timeoutMs);
+    }
+}
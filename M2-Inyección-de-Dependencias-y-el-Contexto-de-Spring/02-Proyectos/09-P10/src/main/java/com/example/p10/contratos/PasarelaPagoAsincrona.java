@@ -0,0 +1,42 @@
+package com.example.p10.contratos;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Versión asíncrona de {@link PasarelaPago}: las llamadas no bloquean al hilo que paga.
+ * Un error de la pasarela completa el futuro con una excepción; un pago rechazado lo completa con false.
+ * Una {@link PasarelaPago} síncrona se adapta con {@link com.example.p10.pago.PasarelaPagoAdaptada}.
+ */
+public interface PasarelaPagoAsincrona {
+
+    CompletableFuture<Boolean> procesarPagoAsync(double monto);
+
+    /**
+     * Liquida varios pagos. Por defecto lanza un pago por importe, y cada futuro se completa con el
+     * resultado de su propio pago: que uno falle no arrastra a los que la pasarela ya aceptó.
+     * Una pasarela que liquida el lote en una sola llamada lo sobrescribe y declara {@link #liquidaLotes()}.
+     *
+     * @return Un futuro por pago, en el mismo orden que los importes.
+     */
+    default List<CompletableFuture<Boolean>> procesarLote(List<Double> montos) {
+        return montos.stream().map(monto -> {
+            try {
+                return procesarPagoAsync(monto);
+            } catch (RuntimeException e) {
+                return CompletableFuture.<Boolean>failedFuture(e);
+            }
+        }).toList();
+    }
+
+    /**
+     * @return true si {@link #procesarLote} liquida todo el lote en una sola llamada a la pasarela, de modo que
+     * si esa llamada falla fallan todos sus pagos; false si cada pago es una llamada independiente.
+     */
+    default boolean liquidaLotes() {
+        return false;
+    }
+
+    String getNombrePasarela();
+
+}
@@ -2,9 +2,33 @@ package com.example.p10.contratos;
 
 import com.example.p10.modelo.Pedido;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface RepositorioPedido {
     Optional<Pedido> buscarPorId(Long id);
     Pedido guardar(Pedido pedido);
+
+    /**
+     * Cambia el estado de un pedido solo si sigue en el estado esperado (comparar y asignar).
+     *
+     * @return true si el pedido existía, estaba en {@code esperado} y ha pasado a {@code nuevo}.
+     */
+    boolean actualizarEstado(Long id, String esperado, String nuevo);
+
+    /**
+     * Pedidos en un estado, ordenados por ID.
+     */
+    List<Pedido> buscarPorEstado(String estado);
+
+    /**
+     * Número de pedidos en cada estado, tomado de una sola vez.
+     */
+    Map<String, Integer> contarPorEstado();
+
+    /**
+     * Pedidos con {@code desde <= total <= hasta}, ordenados por total y, a igual total, por ID.
+     */
+    List<Pedido> buscarPorRangoDeTotal(double desde, double hasta);
 }
@@ -2,10 +2,34 @@ package com.example.p10.contratos;
 
 import com.example.p10.modelo.Producto;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public interface RepositorioProducto {
     Optional<Producto> buscarPorId(Long id);
+
+    /**
+     * Busca varios productos de una vez.
+     *
+     * @return Los productos encontrados por ID; los IDs que no existen no aparecen.
+     */
+    Map<Long, Producto> buscarPorIds(Collection<Long> ids);
+
     Producto guardar(Producto producto);
     void actualizarStock(Long id, int cantidad);
+
+    /**
+     * Descuenta de forma atómica las cantidades de todos los productos: o se reservan todas o ninguna.
+     *
+     * @param cantidades Cantidad a reservar por ID de producto.
+     * @throws com.example.p10.excepcion.StockInsuficienteException si algún producto no tiene stock suficiente.
+     * @throws IllegalArgumentException si algún producto no existe o alguna cantidad no es positiva.
+     */
+    void reservarStock(Map<Long, Integer> cantidades);
+
+    /**
+     * Devuelve al stock unas cantidades reservadas previamente.
+     */
+    void liberarStock(Map<Long, Integer> cantidades);
 }
@@ -0,0 +1,7 @@
+package com.example.p10.excepcion;
+
+public class PasarelaNoDisponibleException extends RuntimeException {
+    public PasarelaNoDisponibleException(String message) {
+        super(message);
+    }
+}
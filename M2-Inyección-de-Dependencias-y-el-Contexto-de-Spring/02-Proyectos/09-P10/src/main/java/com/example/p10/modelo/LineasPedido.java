@@ -0,0 +1,129 @@
+package com.example.p10.modelo;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Líneas de un pedido en formato compacto, capturadas al crear el pedido: un único {@code long[]} con
+ * dos posiciones por línea, el ID de producto y, empaquetados, la cantidad (24 bits altos) y el precio
+ * unitario en céntimos (40 bits bajos).
+ * <p>
+ * Frente a una {@code List<Producto>}, un pedido ya no retiene objetos {@code Producto} enteros ni
+ * un objeto por línea: todas sus líneas ocupan una sola cabecera de array. Es inmutable, así que
+ * varias copias de un mismo {@link Pedido} pueden compartirla.
+ */
+public final class LineasPedido {
+
+    public static final LineasPedido VACIAS = new LineasPedido(new long[0]);
+
+    private static final int CAMPOS = 2;
+    private static final int BITS_PRECIO = 40;
+    private static final long MASCARA_PRECIO = (1L << BITS_PRECIO) - 1;
+    private static final int MAX_CANTIDAD = (1 << (Long.SIZE - BITS_PRECIO)) - 1;
+
+    private final long[] datos;
+
+    private LineasPedido(long[] datos) {
+        this.datos = datos;
+    }
+
+    public int tamano() {
+        return datos.length / CAMPOS;
+    }
+
+    public long getIdProducto(int linea) {
+        return datos[linea * CAMPOS];
+    }
+
+    public int getCantidad(int linea) {
+        return (int) (datos[linea * CAMPOS + 1] >>> BITS_PRECIO);
+    }
+
+    public long getPrecioUnitarioCentimos(int linea) {
+        return datos[linea * CAMPOS + 1] & MASCARA_PRECIO;
+    }
+
+    public long getTotalCentimos() {
+        long total = 0;
+        for (int i = 0; i < tamano(); i++) {
+            total = Math.addExact(total, Math.multiplyExact((long) getCantidad(i), getPrecioUnitarioCentimos(i)));
+        }
+        return total;
+    }
+
+    /**
+     * Cantidad pedida de cada producto, en el orden de las líneas.
+     */
+    public Map<Long, Integer> cantidadesPorProducto() {
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
+        for (int i = 0; i < tamano(); i++) {
+            cantidades.merge(getIdProducto(i), getCantidad(i), Integer::sum);
+        }
+        return cantidades;
+    }
+
+    /**
+     * Convierte un precio en unidades monetarias a céntimos, redondeando al más cercano.
+     */
+    public static long aCentimos(double precio) {
+        return Math.round(precio * 100);
+    }
+
+    public static Constructor constructor(int lineasPrevistas) {
+        return new Constructor(lineasPrevistas);
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        return this == otro || otro instanceof LineasPedido lineas && Arrays.equals(datos, lineas.datos);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(datos);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder("[");
+        for (int i = 0; i < tamano(); i++) {
+            if (i > 0) {
+                texto.append(", ");
+            }
+            texto.append(getCantidad(i)).append(" x ").append(getIdProducto(i))
+                    .append(" a ").append(getPrecioUnitarioCentimos(i)).append(" cts");
+        }
+        return texto.append(']').toString();
+    }
+
+    /**
+     * Acumula líneas y crea unas {@link LineasPedido} con un array del tamaño justo.
+     */
+    public static final class Constructor {
+        private long[] datos;
+        private int usados;
+
+        private Constructor(int lineasPrevistas) {
+            this.datos = new long[Math.max(lineasPrevistas, 1) * CAMPOS];
+        }
+
+        public Constructor agregar(long idProducto, int cantidad, long precioUnitarioCentimos) {
+            if (cantidad <= 0 || cantidad > MAX_CANTIDAD || precioUnitarioCentimos < 0
+                    || precioUnitarioCentimos > MASCARA_PRECIO) {
+                throw new IllegalArgumentException("Línea no válida para el producto " + idProducto
+                        + ": cantidad " + cantidad + ", precio " + precioUnitarioCentimos + " cts");
+            }
+            if (usados == datos.length) {
+                datos = Arrays.copyOf(datos, datos.length * 2);
+            }
+            datos[usados++] = idProducto;
+            datos[usados++] = (long) cantidad << BITS_PRECIO | precioUnitarioCentimos;
+            return this;
+        }
+
+        public LineasPedido construir() {
+            return usados == 0 ? VACIAS : new LineasPedido(Arrays.copyOf(datos, usados));
+        }
+    }
+}
@@ -4,14 +4,12 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.List;
-
 @Data // Genera getters, setters, toString, equals, hashCode, etc.
 @NoArgsConstructor
 @AllArgsConstructor
 public class Pedido {
     private Long id;
-    private List<Producto> productos;
+    private LineasPedido lineas; // Producto, cantidad y precio unitario de cada línea al crear el pedido
     private double total;
-    private String estado; // "PENDIENTE", "PAGADO", "CANCELADO"
+    private String estado; // "PENDIENTE", "PAGADO", "PAGO_FALLIDO", "CANCELADO" (reserva caducada)
 }
@@ -0,0 +1,98 @@
+package com.example.p10.pago;
+
+import com.example.p10.excepcion.PasarelaNoDisponibleException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cortacircuitos para las llamadas a una pasarela:
+ * <ul>
+ *     <li>CERRADO: las llamadas pasan. Tras {@code umbralFallos} fallos seguidos se abre.</li>
+ *     <li>ABIERTO: las llamadas fallan al instante con {@link PasarelaNoDisponibleException}, sin
+ *     tocar la pasarela, durante {@code aperturaMs}.</li>
+ *     <li>SEMIABIERTO: pasa una única llamada de prueba. Si va bien, se cierra; si falla, vuelve a abrirse.</li>
+ * </ul>
+ */
+public class CircuitoPago {
+
+    public enum Estado {CERRADO, ABIERTO, SEMIABIERTO}
+
+    private final String nombre;
+    private final int umbralFallos;
+    private final long aperturaMs;
+    private final LongSupplier reloj;
+
+    private Estado estado = Estado.CERRADO;
+    private int fallosSeguidos;
+    private long abiertoHastaMs;
+
+    public CircuitoPago(String nombre, int umbralFallos, long aperturaMs, LongSupplier reloj) {
+        if (umbralFallos < 1) {
+            throw new IllegalArgumentException("El umbral de fallos debe ser al menos 1: " + umbralFallos);
+        }
+        this.nombre = nombre;
+        this.umbralFallos = umbralFallos;
+        this.aperturaMs = aperturaMs;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Ejecuta la llamada si el circuito lo permite y anota su resultado.
+     */
+    public <T> CompletableFuture<T> ejecutar(Supplier<CompletableFuture<T>> llamada) {
+        if (!permitir()) {
+            return CompletableFuture.failedFuture(
+                    new PasarelaNoDisponibleException("Circuito abierto: la pasarela " + nombre + " no está disponible"));
+        }
+        CompletableFuture<T> resultado;
+        try {
+            resultado = llamada.get();
+        } catch (RuntimeException e) {
+            registrarFallo();
+            return CompletableFuture.failedFuture(e);
+        }
+        return resultado.whenComplete((valor, error) -> {
+            if (error == null) {
+                registrarExito();
+            } else {
+                registrarFallo();
+            }
+        });
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    private synchronized boolean permitir() {
+        return switch (estado) {
+            case CERRADO -> true;
+            case SEMIABIERTO -> false; // Ya hay una llamada de prueba en curso.
+            case ABIERTO -> {
+                if (reloj.getAsLong() < abiertoHastaMs) {
+                    yield false;
+                }
+                estado = Estado.SEMIABIERTO;
+                yield true;
+            }
+        };
+    }
+
+    private synchronized void registrarExito() {
+        // Un éxito tardío de antes de abrirse no cierra el circuito.
+        if (estado != Estado.ABIERTO) {
+            estado = Estado.CERRADO;
+            fallosSeguidos = 0;
+        }
+    }
+
+    private synchronized void registrarFallo() {
+        if (estado == Estado.SEMIABIERTO || (estado == Estado.CERRADO && ++fallosSeguidos >= umbralFallos)) {
+            estado = Estado.ABIERTO;
+            abiertoHastaMs = reloj.getAsLong() + aperturaMs;
+            fallosSeguidos = 0;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.p10.pago;
+
+import com.example.p10.contratos.PasarelaPago;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Pasarela que reparte los pagos entre todas las pasarelas registradas según su salud y su latencia.
+ * <p>
+ * De cada pasarela se sigue la media móvil exponencial (EWMA) de la latencia y de la tasa de error.
+ * El peso de una pasarela es {@code (1 - tasaError)^2 / latencia}: una pasarela el doble de rápida
+ * recibe el doble de tráfico, y los errores la penalizan más que la lentitud. La pasarela de cada pago
+ * se sortea según esos pesos, en lugar de elegir siempre la mejor, para que todas no se lancen a la vez
+ * sobre la misma. Además, una fracción {@code exploracion} de los pagos se reparte al azar, para
+ * detectar cuándo se recupera una pasarela degradada.
+ * <p>
+ * Un pago que falla no se reintenta en otra pasarela, porque podría cobrarse dos veces.
+ */
+public class EnrutadorPasarelas implements PasarelaPago {
+
+    private final List<Pasarela> pasarelas;
+    private final double alfa;
+    private final double exploracion;
+    private final LongSupplier relojNanos;
+
+    /**
+     * @param pasarelas          Pasarelas por nombre.
+     * @param alfa               Peso de cada muestra nueva en las medias móviles (0-1).
+     * @param exploracion        Fracción de pagos repartidos al azar (0-1).
+     * @param latenciaInicialMs  Latencia supuesta de una pasarela sin muestras.
+     * @param relojNanos         Fuente de tiempo para medir latencias; las simulaciones usan un reloj falso.
+     */
+    public EnrutadorPasarelas(Map<String, ? extends PasarelaPago> pasarelas, double alfa, double exploracion,
+                              double latenciaInicialMs, LongSupplier relojNanos) {
+        if (pasarelas.isEmpty()) {
+            throw new IllegalArgumentException("El enrutador necesita al menos una pasarela");
+        }
+        if (alfa <= 0 || alfa > 1 || exploracion < 0 || exploracion > 1) {
+            throw new IllegalArgumentException("alfa debe estar en (0, 1] y exploracion en [0, 1]");
+        }
+        this.pasarelas = new ArrayList<>(pasarelas.size());
+        pasarelas.forEach((nombre, pasarela) -> this.pasarelas.add(new Pasarela(nombre, pasarela, latenciaInicialMs)));
+        this.alfa = alfa;
+        this.exploracion = exploracion;
+        this.relojNanos = relojNanos;
+    }
+
+    @Override
+    public boolean procesarPago(double monto) {
+        Pasarela elegida = elegir();
+        long inicio = relojNanos.getAsLong();
+        try {
+            boolean resultado = elegida.pasarela.procesarPago(monto);
+            elegida.registrar((relojNanos.getAsLong() - inicio) / 1e6, false, alfa);
+            return resultado;
+        } catch (RuntimeException e) {
+            elegida.registrar((relojNanos.getAsLong() - inicio) / 1e6, true, alfa);
+            throw e;
+        }
+    }
+
+    @Override
+    public String getNombrePasarela() {
+        return "Enrutador" + pasarelas.stream().map(pasarela -> pasarela.nombre).toList();
+    }
+
+    /**
+     * Estado actual de cada pasarela, por nombre.
+     */
+    public Map<String, EstadoPasarela> getEstado() {
+        Map<String, EstadoPasarela> estado = new LinkedHashMap<>();
+        for (Pasarela pasarela : pasarelas) {
+            estado.put(pasarela.nombre, pasarela.estado());
+        }
+        return estado;
+    }
+
+    private Pasarela elegir() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        if (pasarelas.size() == 1) {
+            return pasarelas.get(0);
+        }
+        if (aleatorio.nextDouble() < exploracion) {
+            return pasarelas.get(aleatorio.nextInt(pasarelas.size()));
+        }
+        double[] pesos = new double[pasarelas.size()];
+        double total = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            pesos[i] = pasarelas.get(i).peso();
+            total += pesos[i];
+        }
+        double sorteo = aleatorio.nextDouble() * total;
+        for (int i = 0; i < pesos.length - 1; i++) {
+            sorteo -= pesos[i];
+            if (sorteo < 0) {
+                return pasarelas.get(i);
+            }
+        }
+        return pasarelas.get(pesos.length - 1);
+    }
+
+    /**
+     * @param latenciaMs Media móvil de la latencia.
+     * @param tasaError  Media móvil de la tasa de error (0-1).
+     * @param llamadas   Pagos enviados a la pasarela.
+     */
+    public record EstadoPasarela(double latenciaMs, double tasaError, long llamadas) {
+    }
+
+    private static final class Pasarela {
+        private final String nombre;
+        private final PasarelaPago pasarela;
+        private final LongAdder llamadas = new LongAdder();
+        private double latenciaMs;
+        private double tasaError;
+
+        private Pasarela(String nombre, PasarelaPago pasarela, double latenciaInicialMs) {
+            this.nombre = nombre;
+            this.pasarela = pasarela;
+            this.latenciaMs = latenciaInicialMs;
+        }
+
+        private synchronized void registrar(double latencia, boolean error, double alfa) {
+            llamadas.increment();
+            latenciaMs += alfa * (latencia - latenciaMs);
+            tasaError += alfa * ((error ? 1 : 0) - tasaError);
+        }
+
+        private synchronized double peso() {
+            double exito = 1 - tasaError;
+            // Se acota la latencia para que una pasarela con latencia casi nula no se lleve todo el tráfico.
+            return exito * exito / Math.max(latenciaMs, 0.1);
+        }
+
+        private synchronized EstadoPasarela estado() {
+            return new EstadoPasarela(latenciaMs, tasaError, llamadas.sum());
+        }
+    }
+}
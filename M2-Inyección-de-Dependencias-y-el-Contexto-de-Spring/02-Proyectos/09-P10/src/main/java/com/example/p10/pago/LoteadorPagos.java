@@ -0,0 +1,123 @@
+package com.example.p10.pago;
+
+import com.example.p10.contratos.PasarelaPagoAsincrona;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Agrupa pagos pequeños para liquidarlos en una sola llamada a la pasarela. Un lote sale en cuanto
+ * reúne {@code tamanoLote} pagos o, como mucho, {@code esperaMaxMs} después de que llegue su primer pago.
+ * <p>
+ * Cada llamada pasa por el {@link CircuitoPago} y tiene un plazo de {@code timeoutMs}. Si la pasarela
+ * {@linkplain PasarelaPagoAsincrona#liquidaLotes() liquida lotes}, el lote es una sola llamada: si falla,
+ * vence el plazo o el circuito está abierto, todos sus pagos fallan con el mismo error. Si no, cada pago es
+ * su propia llamada, con su propio plazo, su propio paso por el circuito y su propio resultado.
+ */
+public class LoteadorPagos implements AutoCloseable {
+
+    private final PasarelaPagoAsincrona pasarela;
+    private final CircuitoPago circuito;
+    private final int tamanoLote;
+    private final long timeoutMs;
+    private final ConcurrentLinkedQueue<PagoPendiente> cola = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enCola = new AtomicInteger();
+    private final AtomicBoolean envioProgramado = new AtomicBoolean();
+    // Un único hilo saca los lotes de la cola; las llamadas a la pasarela no lo bloquean.
+    private final ScheduledExecutorService emisor;
+
+    public LoteadorPagos(PasarelaPagoAsincrona pasarela, CircuitoPago circuito,
+                         int tamanoLote, long esperaMaxMs, long timeoutMs) {
+        if (tamanoLote < 1) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser al menos 1: " + tamanoLote);
+        }
+        this.pasarela = pasarela;
+        this.circuito = circuito;
+        this.tamanoLote = tamanoLote;
+        this.timeoutMs = timeoutMs;
+        this.emisor = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "pagos-lote");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        emisor.scheduleWithFixedDelay(this::enviarPendientes, esperaMaxMs, esperaMaxMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<Boolean> procesar(double monto) {
+        PagoPendiente pago = new PagoPendiente(monto, new CompletableFuture<>());
+        cola.add(pago);
+        if (enCola.incrementAndGet() >= tamanoLote && envioProgramado.compareAndSet(false, true)) {
+            emisor.execute(this::enviarPendientes);
+        }
+        return pago.resultado();
+    }
+
+    public CircuitoPago getCircuito() {
+        return circuito;
+    }
+
+    private void enviarPendientes() {
+        envioProgramado.set(false);
+        List<PagoPendiente> lote = new ArrayList<>(tamanoLote);
+        PagoPendiente pago;
+        while ((pago = cola.poll()) != null) {
+            enCola.decrementAndGet();
+            lote.add(pago);
+            if (lote.size() == tamanoLote) {
+                enviar(lote);
+                lote = new ArrayList<>(tamanoLote);
+            }
+        }
+        if (!lote.isEmpty()) {
+            enviar(lote);
+        }
+    }
+
+    private void enviar(List<PagoPendiente> lote) {
+        if (!pasarela.liquidaLotes()) {
+            for (PagoPendiente pago : lote) {
+                circuito.ejecutar(() -> pasarela.procesarPagoAsync(pago.monto()).orTimeout(timeoutMs, TimeUnit.MILLISECONDS))
+                        .whenComplete((resultado, error) -> completar(pago, resultado, error));
+            }
+            return;
+        }
+        List<Double> montos = lote.stream().map(PagoPendiente::monto).toList();
+        circuito.ejecutar(() -> unir(pasarela.procesarLote(montos)).orTimeout(timeoutMs, TimeUnit.MILLISECONDS))
+                .whenComplete((resultados, error) -> {
+                    for (int i = 0; i < lote.size(); i++) {
+                        completar(lote.get(i), error == null ? resultados.get(i) : null, error);
+                    }
+                });
+    }
+
+    private static CompletableFuture<List<Boolean>> unir(List<CompletableFuture<Boolean>> pagos) {
+        return CompletableFuture.allOf(pagos.toArray(CompletableFuture[]::new))
+                .thenApply(ignorado -> pagos.stream().map(CompletableFuture::join).toList());
+    }
+
+    private static void completar(PagoPendiente pago, Boolean resultado, Throwable error) {
+        if (error != null) {
+            pago.resultado().completeExceptionally(
+                    error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        } else {
+            pago.resultado().complete(resultado);
+        }
+    }
+
+    @Override
+    public void close() {
+        emisor.shutdown();
+        enviarPendientes();
+    }
+
+    private record PagoPendiente(double monto, CompletableFuture<Boolean> resultado) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.p10.pago;
+
+import com.example.p10.contratos.PasarelaPago;
+import com.example.p10.contratos.PasarelaPagoAsincrona;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adapta una {@link PasarelaPago} síncrona al contrato asíncrono. Cada pago bloquea un hilo de un pool
+ * propio y acotado ({@code hilos} hilos y {@code capacidadCola} pagos en espera), no del pool común de Java:
+ * una pasarela lenta no puede dejar sin hilos a los {@code parallelStream} y demás tareas de la JVM. Si
+ * el pool y su cola están llenos, el pago falla con {@link RejectedExecutionException} en lugar de acumularse.
+ * <p>
+ * Limitación: una pasarela síncrona no sabe liquidar lotes, así que {@link #procesarLote} hace una llamada
+ * a la pasarela por pago (en paralelo, hasta {@code hilos} a la vez), cada una con su propio resultado. El
+ * {@link LoteadorPagos} sigue agrupando los pagos, pero aplica el plazo y el cortacircuitos a cada pago y la
+ * pasarela no recibe menos llamadas. Para liquidar un lote en una sola llamada hace falta una
+ * {@link PasarelaPagoAsincrona} nativa.
+ */
+public class PasarelaPagoAdaptada implements PasarelaPagoAsincrona, AutoCloseable {
+
+    private final PasarelaPago pasarela;
+    private final ThreadPoolExecutor ejecutor;
+
+    public PasarelaPagoAdaptada(PasarelaPago pasarela, int hilos, int capacidadCola) {
+        if (hilos < 1 || capacidadCola < 1) {
+            throw new IllegalArgumentException("Pool de la pasarela adaptada inválido: hilos=" + hilos
+                    + ", capacidadCola=" + capacidadCola);
+        }
+        this.pasarela = pasarela;
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), tarea -> {
+            Thread hilo = new Thread(tarea, "pasarela-adaptada-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Los hilos solo existen mientras hay pagos: sin carga, el pool no ocupa ninguno.
+        ejecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> procesarPagoAsync(double monto) {
+        try {
+            return CompletableFuture.supplyAsync(() -> pasarela.procesarPago(monto), ejecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public String getNombrePasarela() {
+        return pasarela.getNombrePasarela();
+    }
+
+    @Override
+    public void close() {
+        ejecutor.shutdown();
+    }
+}
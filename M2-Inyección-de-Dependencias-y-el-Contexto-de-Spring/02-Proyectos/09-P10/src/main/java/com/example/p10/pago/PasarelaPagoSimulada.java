@@ -0,0 +1,118 @@
+package com.example.p10.pago;
+
+import com.example.p10.contratos.PasarelaPago;
+import com.example.p10.contratos.PasarelaPagoAsincrona;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Pasarela local para pruebas y benchmarks, con latencia y tasa de error configurables (y modificables
+ * en caliente). Cada llamada, sea de un pago o de un lote, tarda la latencia configurada y falla con
+ * probabilidad {@code tasaError}. Se rechazan los importes no positivos.
+ * <p>
+ * La versión asíncrona no ocupa un hilo durante la espera: completa el futuro desde un planificador.
+ */
+public class PasarelaPagoSimulada implements PasarelaPago, PasarelaPagoAsincrona, AutoCloseable {
+
+    private final String nombre;
+    private final ScheduledExecutorService planificador;
+    private final LongAdder llamadas = new LongAdder();
+    private volatile long latenciaMs;
+    private volatile double tasaError;
+
+    public PasarelaPagoSimulada(String nombre, long latenciaMs, double tasaError) {
+        this.nombre = nombre;
+        this.latenciaMs = latenciaMs;
+        this.tasaError = tasaError;
+        this.planificador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "pasarela-" + nombre);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @Override
+    public boolean procesarPago(double monto) {
+        llamadas.increment();
+        try {
+            Thread.sleep(latenciaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Pago interrumpido en la pasarela " + nombre, e);
+        }
+        if (falla()) {
+            throw new IllegalStateException("Error de la pasarela " + nombre);
+        }
+        return monto > 0;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> procesarPagoAsync(double monto) {
+        return procesarLote(List.of(monto)).get(0);
+    }
+
+    @Override
+    public List<CompletableFuture<Boolean>> procesarLote(List<Double> montos) {
+        CompletableFuture<List<Boolean>> llamada = liquidar(montos);
+        return IntStream.range(0, montos.size())
+                .mapToObj(i -> llamada.thenApply(resultados -> resultados.get(i)))
+                .toList();
+    }
+
+    @Override
+    public boolean liquidaLotes() {
+        return true;
+    }
+
+    /**
+     * Una única llamada para todo el lote: si falla, fallan todos sus pagos.
+     */
+    private CompletableFuture<List<Boolean>> liquidar(List<Double> montos) {
+        llamadas.increment();
+        CompletableFuture<List<Boolean>> resultado = new CompletableFuture<>();
+        planificador.schedule(() -> {
+            if (falla()) {
+                resultado.completeExceptionally(new IllegalStateException("Error de la pasarela " + nombre));
+            } else {
+                resultado.complete(montos.stream().map(monto -> monto > 0).toList());
+            }
+        }, latenciaMs, TimeUnit.MILLISECONDS);
+        return resultado;
+    }
+
+    private boolean falla() {
+        return tasaError > 0 && ThreadLocalRandom.current().nextDouble() < tasaError;
+    }
+
+    @Override
+    public String getNombrePasarela() {
+        return nombre;
+    }
+
+    /**
+     * Número de llamadas recibidas: un lote cuenta como una sola.
+     */
+    public long getLlamadas() {
+        return llamadas.sum();
+    }
+
+    public void setLatenciaMs(long latenciaMs) {
+        this.latenciaMs = latenciaMs;
+    }
+
+    public void setTasaError(double tasaError) {
+        this.tasaError = tasaError;
+    }
+
+    @Override
+    public void close() {
+        planificador.shutdownNow();
+    }
+}
@@ -6,35 +6,167 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Implementación en memoria del repositorio de pedidos.
  * Anotado con @Repository para que Spring lo detecte como un bean.
+ * <p>
+ * Guarda una copia de cada pedido y devuelve copias: como {@link Pedido} es mutable, si se guardara
+ * la instancia del llamante, un {@code setEstado} hecho fuera cambiaría el pedido sin pasar por los
+ * índices. Las búsquedas por ID leen el mapa concurrente sin bloquear; las escrituras y las consultas
+ * por estado o por total se coordinan con un cerrojo de lectura/escritura, así que una consulta nunca
+ * ve un pedido a medio mover entre dos estados.
  */
 @Repository
 public class RepositorioPedidoImpl implements RepositorioPedido {
 
     private static final Logger LOG = LoggerFactory.getLogger(RepositorioPedidoImpl.class);
-    private final Map<Long, Pedido> pedidosDB = new HashMap<>();
-    private Long nextId = 1L;
+    private final Map<Long, Pedido> pedidosDB = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    private final ReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final Map<String, NavigableSet<Long>> idsPorEstado = new HashMap<>();
+    private final NavigableSet<ClaveTotal> idsPorTotal = new TreeSet<>();
 
     @Override
     public Optional<Pedido> buscarPorId(Long id) {
         LOG.debug("Buscando pedido con ID: {}", id);
-        return Optional.ofNullable(pedidosDB.get(id));
+        return Optional.ofNullable(pedidosDB.get(id)).map(RepositorioPedidoImpl::copiar);
     }
 
     @Override
     public Pedido guardar(Pedido pedido) {
         // Asigna un nuevo ID si el pedido es nuevo
         if (pedido.getId() == null) {
-            pedido.setId(nextId++);
+            pedido.setId(nextId.getAndIncrement());
+        } else {
+            // Un ID asignado desde fuera no debe volver a repartirse.
+            nextId.accumulateAndGet(pedido.getId() + 1, Math::max);
+        }
+        LOG.debug("Guardando pedido con ID: {}", pedido.getId());
+        Pedido copia = copiar(pedido);
+        cerrojo.writeLock().lock();
+        try {
+            reindexar(pedidosDB.put(copia.getId(), copia), copia);
+        } finally {
+            cerrojo.writeLock().unlock();
         }
-        LOG.info("Guardando pedido con ID: {}", pedido.getId());
-        pedidosDB.put(pedido.getId(), pedido);
         return pedido;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean actualizarEstado(Long id, String esperado, String nuevo) {
+        cerrojo.writeLock().lock();
+        try {
+            Pedido actual = pedidosDB.get(id);
+            if (actual == null || !esperado.equals(actual.getEstado())) {
+                return false;
+            }
+            Pedido actualizado = copiar(actual);
+            actualizado.setEstado(nuevo);
+            pedidosDB.put(id, actualizado);
+            reindexar(actual, actualizado);
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Pedido> buscarPorEstado(String estado) {
+        cerrojo.readLock().lock();
+        try {
+            NavigableSet<Long> ids = idsPorEstado.get(estado);
+            if (ids == null) {
+                return List.of();
+            }
+            List<Pedido> resultado = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                resultado.add(copiar(pedidosDB.get(id)));
+            }
+            return resultado;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Integer> contarPorEstado() {
+        cerrojo.readLock().lock();
+        try {
+            Map<String, Integer> conteo = new HashMap<>();
+            idsPorEstado.forEach((estado, ids) -> conteo.put(estado, ids.size()));
+            return conteo;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Pedido> buscarPorRangoDeTotal(double desde, double hasta) {
+        if (desde > hasta) {
+            return List.of();
+        }
+        cerrojo.readLock().lock();
+        try {
+            NavigableSet<ClaveTotal> rango = idsPorTotal.subSet(
+                    new ClaveTotal(desde, Long.MIN_VALUE), true, new ClaveTotal(hasta, Long.MAX_VALUE), true);
+            List<Pedido> resultado = new ArrayList<>(rango.size());
+            for (ClaveTotal clave : rango) {
+                resultado.add(copiar(pedidosDB.get(clave.id())));
+            }
+            return resultado;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Saca de los índices la versión anterior del pedido (si la había) y mete la nueva.
+     * Debe llamarse con el cerrojo de escritura tomado.
+     */
+    private void reindexar(Pedido anterior, Pedido nuevo) {
+        if (anterior != null) {
+            if (anterior.getEstado() != null && !anterior.getEstado().equals(nuevo.getEstado())) {
+                NavigableSet<Long> ids = idsPorEstado.get(anterior.getEstado());
+                ids.remove(anterior.getId());
+                if (ids.isEmpty()) {
+                    idsPorEstado.remove(anterior.getEstado());
+                }
+            }
+            if (Double.compare(anterior.getTotal(), nuevo.getTotal()) != 0) {
+                idsPorTotal.remove(new ClaveTotal(anterior.getTotal(), anterior.getId()));
+            }
+        }
+        if (nuevo.getEstado() != null) {
+            idsPorEstado.computeIfAbsent(nuevo.getEstado(), estado -> new TreeSet<>()).add(nuevo.getId());
+        }
+        idsPorTotal.add(new ClaveTotal(nuevo.getTotal(), nuevo.getId()));
+    }
+
+    private static Pedido copiar(Pedido pedido) {
+        return new Pedido(pedido.getId(), pedido.getLineas(), pedido.getTotal(), pedido.getEstado());
+    }
+
+    /**
+     * Entrada del índice por total. El ID desempata los pedidos con el mismo total.
+     */
+    private record ClaveTotal(double total, long id) implements Comparable<ClaveTotal> {
+        @Override
+        public int compareTo(ClaveTotal otra) {
+            int porTotal = Double.compare(total, otra.total);
+            return porTotal != 0 ? porTotal : Long.compare(id, otra.id);
+        }
+    }
+}
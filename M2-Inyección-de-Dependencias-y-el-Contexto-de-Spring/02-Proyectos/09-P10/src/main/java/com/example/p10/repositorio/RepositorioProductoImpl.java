@@ -1,21 +1,38 @@
 package com.example.p10.repositorio;
 
 import com.example.p10.contratos.RepositorioProducto;
+import com.example.p10.excepcion.StockInsuficienteException;
 import com.example.p10.modelo.Producto;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Implementación en memoria del repositorio de productos, segura para varios hilos.
+ * El stock de cada producto se modifica bajo su propio cerrojo. Las reservas de varios productos
+ * toman los cerrojos en orden creciente de ID, así dos pedidos con los mismos productos nunca se bloquean mutuamente.
+ * <p>
+ * Como {@link Producto} es mutable, se guardan y devuelven copias: un {@code setStock} hecho fuera no puede
+ * saltarse el cerrojo ni la comprobación de stock. Las instancias guardadas tampoco se modifican; cada cambio
+ * de stock las sustituye, así que las lecturas no necesitan el cerrojo para ver un producto coherente.
+ */
 @Repository
 public class RepositorioProductoImpl implements RepositorioProducto {
 
     private static final Logger LOG = LoggerFactory.getLogger(RepositorioProductoImpl.class);
-    private final Map<Long, Producto> productosDB = new HashMap<>();
+    private final Map<Long, Producto> productosDB = new ConcurrentHashMap<>();
+    private final Map<Long, ReentrantLock> cerrojos = new ConcurrentHashMap<>();
 
     @PostConstruct
     public void initDB() {
@@ -27,22 +44,128 @@ public class RepositorioProductoImpl implements RepositorioProducto {
     @Override
     public Optional<Producto> buscarPorId(Long id) {
         LOG.debug("Buscando producto con ID {}", id);
-        return Optional.ofNullable(productosDB.get(id));
+        return Optional.ofNullable(productosDB.get(id)).map(RepositorioProductoImpl::copiar);
+    }
+
+    @Override
+    public Map<Long, Producto> buscarPorIds(Collection<Long> ids) {
+        LOG.debug("Buscando {} productos", ids.size());
+        Map<Long, Producto> encontrados = new HashMap<>(ids.size() * 2);
+        for (Long id : ids) {
+            Producto producto = productosDB.get(id);
+            if (producto != null) {
+                encontrados.put(id, copiar(producto));
+            }
+        }
+        return encontrados;
     }
 
     @Override
     public Producto guardar(Producto producto) {
         LOG.info("Guardando producto con ID {}", producto.getNombre());
-        productosDB.put(producto.getId(), producto);
+        ReentrantLock cerrojo = cerrojo(producto.getId());
+        cerrojo.lock();
+        try {
+            productosDB.put(producto.getId(), copiar(producto));
+        } finally {
+            cerrojo.unlock();
+        }
         return producto;
     }
 
     @Override
     public void actualizarStock(Long id, int nuevoStock) {
-        Producto producto =  productosDB.get(id);
-        if (producto != null) {
-            LOG.info("Actualizando stock para '{}': de {} a {}", producto.getNombre(), producto.getStock(), nuevoStock);
-            producto.setStock(nuevoStock);
+        ReentrantLock cerrojo = cerrojo(id);
+        cerrojo.lock();
+        try {
+            Producto producto = productosDB.get(id);
+            if (producto != null) {
+                LOG.info("Actualizando stock para '{}': de {} a {}", producto.getNombre(), producto.getStock(), nuevoStock);
+                productosDB.put(id, conStock(producto, nuevoStock));
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    @Override
+    public void reservarStock(Map<Long, Integer> cantidades) {
+        List<ReentrantLock> tomados = bloquear(cantidades);
+        try {
+            // Primero se comprueban todas las líneas y después se aplican: si una falla, no se ha tocado nada.
+            List<Producto> productos = new ArrayList<>(cantidades.size());
+            for (Map.Entry<Long, Integer> linea : cantidades.entrySet()) {
+                Producto producto = productosDB.get(linea.getKey());
+                if (producto == null) {
+                    throw new IllegalArgumentException("Producto no encontrado: " + linea.getKey());
+                }
+                if (linea.getValue() <= 0) {
+                    throw new IllegalArgumentException("Cantidad no válida para el producto " + linea.getKey() + ": " + linea.getValue());
+                }
+                if (producto.getStock() < linea.getValue()) {
+                    throw new StockInsuficienteException("Stock insuficiente para " + producto.getNombre() +
+                            ". Solicitado: " + linea.getValue() + ", Disponible: " + producto.getStock());
+                }
+                productos.add(producto);
+            }
+            for (Producto producto : productos) {
+                productosDB.put(producto.getId(), conStock(producto, producto.getStock() - cantidades.get(producto.getId())));
+            }
+            LOG.debug("Stock reservado: {}", cantidades);
+        } finally {
+            desbloquear(tomados);
+        }
+    }
+
+    @Override
+    public void liberarStock(Map<Long, Integer> cantidades) {
+        List<ReentrantLock> tomados = bloquear(cantidades);
+        try {
+            cantidades.forEach((id, cantidad) -> {
+                Producto producto = productosDB.get(id);
+                if (producto != null) {
+                    productosDB.put(id, conStock(producto, producto.getStock() + cantidad));
+                }
+            });
+            LOG.debug("Stock liberado: {}", cantidades);
+        } finally {
+            desbloquear(tomados);
+        }
+    }
+
+    private static Producto copiar(Producto producto) {
+        return conStock(producto, producto.getStock());
+    }
+
+    private static Producto conStock(Producto producto, int stock) {
+        return new Producto(producto.getId(), producto.getNombre(), producto.getPrecio(), stock);
+    }
+
+    private ReentrantLock cerrojo(Long id) {
+        return cerrojos.computeIfAbsent(id, clave -> new ReentrantLock());
+    }
+
+    /**
+     * Toma los cerrojos de los productos en orden creciente de ID.
+     */
+    private List<ReentrantLock> bloquear(Map<Long, Integer> cantidades) {
+        List<ReentrantLock> tomados = new ArrayList<>(cantidades.size());
+        try {
+            for (Long id : new TreeSet<>(cantidades.keySet())) {
+                ReentrantLock cerrojo = cerrojo(id);
+                cerrojo.lock();
+                tomados.add(cerrojo);
+            }
+        } catch (RuntimeException e) {
+            desbloquear(tomados);
+            throw e;
+        }
+        return tomados;
+    }
+
+    private static void desbloquear(List<ReentrantLock> tomados) {
+        for (int i = tomados.size() - 1; i >= 0; i--) {
+            tomados.get(i).unlock();
         }
     }
 }
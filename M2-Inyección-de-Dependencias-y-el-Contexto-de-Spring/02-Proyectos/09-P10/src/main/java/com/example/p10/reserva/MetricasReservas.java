@@ -0,0 +1,11 @@
+package com.example.p10.reserva;
+
+/**
+ * Foto de las métricas de las reservas de stock.
+ *
+ * @param pendientes              Reservas a la espera de pago.
+ * @param expiradasTotal          Reservas liberadas por caducar desde el arranque.
+ * @param expiracionesPorSegundo  Ritmo de expiraciones en la última ventana de un segundo.
+ */
+public record MetricasReservas(int pendientes, long expiradasTotal, double expiracionesPorSegundo) {
+}
@@ -0,0 +1,195 @@
+package com.example.p10.reserva;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rueda jerárquica de temporizadores (Varghese y Lauck): {@value #NIVELES} niveles de {@value #HUECOS}
+ * huecos cada uno. Un hueco del nivel {@code n} abarca {@code 64^n} ticks.
+ * <p>
+ * Programar y cancelar cuestan O(1): cada hueco es una lista doblemente enlazada y el temporizador
+ * sabe en qué hueco está. Cuando el nivel 0 da la vuelta, el hueco correspondiente del nivel siguiente
+ * se reparte entre los niveles inferiores (cascada). Así cada temporizador se mueve como mucho una vez
+ * por nivel. Los plazos más allá del último nivel (unos 190 días con ticks de 1 s) se recolocan en
+ * cada cascada hasta que entran en rango.
+ * <p>
+ * Los métodos son {@code synchronized}, y {@link #avanzar} devuelve los vencidos en vez de ejecutar
+ * código ajeno bajo el cerrojo.
+ *
+ * @param <T> Dato asociado a cada temporizador.
+ */
+public class RuedaTemporizadores<T> {
+
+    private static final int BITS = 6;
+    static final int HUECOS = 1 << BITS;
+    static final int NIVELES = 4;
+    private static final int MASCARA = HUECOS - 1;
+    private static final long MAX_TICKS = 1L << (BITS * NIVELES);
+
+    private final long tickMs;
+    private final Temporizador<T>[][] huecos;
+    // Próximo tick por procesar.
+    private long base;
+    private int pendientes;
+
+    @SuppressWarnings("unchecked")
+    public RuedaTemporizadores(long tickMs, long ahoraMs) {
+        if (tickMs < 1) {
+            throw new IllegalArgumentException("El tick debe ser de al menos 1 ms: " + tickMs);
+        }
+        this.tickMs = tickMs;
+        this.base = ahoraMs / tickMs;
+        this.huecos = new Temporizador[NIVELES][HUECOS];
+        for (Temporizador<T>[] nivel : huecos) {
+            for (int i = 0; i < HUECOS; i++) {
+                nivel[i] = Temporizador.centinela();
+            }
+        }
+    }
+
+    /**
+     * Programa un temporizador que vencerá en el primer tick igual o posterior a {@code venceMs}.
+     */
+    public synchronized Temporizador<T> programar(long venceMs, T dato) {
+        Temporizador<T> temporizador = new Temporizador<>(this, Math.floorDiv(venceMs + tickMs - 1, tickMs), dato);
+        colocar(temporizador);
+        pendientes++;
+        return temporizador;
+    }
+
+    /**
+     * Cancela el temporizador si aún no ha vencido.
+     *
+     * @return true si estaba pendiente y se ha cancelado.
+     */
+    public synchronized boolean cancelar(Temporizador<T> temporizador) {
+        if (temporizador.anterior == null) {
+            return false;
+        }
+        temporizador.desenlazar();
+        pendientes--;
+        return true;
+    }
+
+    /**
+     * Procesa todos los ticks hasta {@code ahoraMs} y devuelve los temporizadores vencidos, en orden de vencimiento.
+     */
+    public synchronized List<T> avanzar(long ahoraMs) {
+        long hasta = ahoraMs / tickMs;
+        List<T> vencidos = new ArrayList<>();
+        while (base <= hasta) {
+            if (pendientes == 0) {
+                // Con la rueda vacía no hay nada que recorrer.
+                base = hasta + 1;
+                break;
+            }
+            int indice = (int) (base & MASCARA);
+            if (indice == 0) {
+                // El nivel 0 da la vuelta: se reparte el hueco actual del nivel 1, y así hacia arriba mientras cada nivel también dé la vuelta.
+                for (int nivel = 1; nivel < NIVELES && cascada(nivel) == 0; nivel++) {
+                }
+            }
+            Temporizador<T> centinela = huecos[0][indice];
+            while (centinela.siguiente != centinela) {
+                Temporizador<T> temporizador = centinela.siguiente;
+                temporizador.desenlazar();
+                pendientes--;
+                vencidos.add(temporizador.dato);
+            }
+            base++;
+        }
+        return vencidos;
+    }
+
+    public synchronized int pendientes() {
+        return pendientes;
+    }
+
+    /**
+     * Reparte entre los niveles inferiores el hueco actual del nivel indicado.
+     *
+     * @return Índice del hueco repartido; 0 significa que este nivel también ha dado la vuelta.
+     */
+    private int cascada(int nivel) {
+        int indice = (int) ((base >>> (BITS * nivel)) & MASCARA);
+        Temporizador<T> centinela = huecos[nivel][indice];
+        Temporizador<T> actual = centinela.siguiente;
+        centinela.siguiente = centinela;
+        centinela.anterior = centinela;
+        while (actual != centinela) {
+            Temporizador<T> siguiente = actual.siguiente;
+            colocar(actual);
+            actual = siguiente;
+        }
+        return indice;
+    }
+
+    private void colocar(Temporizador<T> temporizador) {
+        long vence = temporizador.venceTick;
+        long delta = vence - base;
+        Temporizador<T> hueco;
+        if (delta < 0) {
+            // Ya vencido: sale en el próximo tick procesado.
+            hueco = huecos[0][(int) (base & MASCARA)];
+        } else if (delta >= MAX_TICKS) {
+            // Fuera de rango: se coloca en el último tick alcanzable y se recoloca en la cascada.
+            hueco = huecos[NIVELES - 1][(int) (((base + MAX_TICKS - 1) >>> (BITS * (NIVELES - 1))) & MASCARA)];
+        } else {
+            int nivel = 0;
+            while (delta >= 1L << (BITS * (nivel + 1))) {
+                nivel++;
+            }
+            hueco = huecos[nivel][(int) ((vence >>> (BITS * nivel)) & MASCARA)];
+        }
+        temporizador.enlazarAntesDe(hueco);
+    }
+
+    /**
+     * Temporizador programado en la rueda. Es también el nodo de la lista de su hueco.
+     */
+    public static final class Temporizador<T> {
+        private final RuedaTemporizadores<T> rueda;
+        private final long venceTick;
+        private final T dato;
+        private Temporizador<T> anterior;
+        private Temporizador<T> siguiente;
+
+        private Temporizador(RuedaTemporizadores<T> rueda, long venceTick, T dato) {
+            this.rueda = rueda;
+            this.venceTick = venceTick;
+            this.dato = dato;
+        }
+
+        private static <T> Temporizador<T> centinela() {
+            Temporizador<T> centinela = new Temporizador<>(null, 0, null);
+            centinela.anterior = centinela;
+            centinela.siguiente = centinela;
+            return centinela;
+        }
+
+        public T getDato() {
+            return dato;
+        }
+
+        /**
+         * Atajo de {@link RuedaTemporizadores#cancelar}.
+         */
+        public boolean cancelar() {
+            return rueda.cancelar(this);
+        }
+
+        private void enlazarAntesDe(Temporizador<T> centinela) {
+            anterior = centinela.anterior;
+            siguiente = centinela;
+            centinela.anterior.siguiente = this;
+            centinela.anterior = this;
+        }
+
+        private void desenlazar() {
+            anterior.siguiente = siguiente;
+            siguiente.anterior = anterior;
+            anterior = null;
+            siguiente = null;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.p10.servicio;
 
+import com.example.p10.auditoria.DiarioAuditoria;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class ServicioAuditoria {
 
@@ -13,13 +18,36 @@ public class ServicioAuditoria {
     // En un diseño ideal, este servicio no dependería de otros servicios de negocio.
     // Se mantiene la dependencia circular con ServicioGestionInventario solo para demostrar @Lazy.
     private final ServicioGestionInventario servicioInventario;
+    // Diario en disco; null si no está configurado y los eventos van al log.
+    private final DiarioAuditoria diario;
 
     public ServicioAuditoria(@Lazy ServicioGestionInventario servicioInventario) {
+        this(servicioInventario, (DiarioAuditoria) null);
+    }
+
+    @Autowired
+    public ServicioAuditoria(@Lazy ServicioGestionInventario servicioInventario, ObjectProvider<DiarioAuditoria> diario) {
+        this(servicioInventario, diario.getIfAvailable());
+    }
+
+    public ServicioAuditoria(ServicioGestionInventario servicioInventario, DiarioAuditoria diario) {
         this.servicioInventario = servicioInventario;
+        this.diario = diario;
         LOG.info("ServicioAuditoria inicializado (proxy para ServicioGestionInventario).");
     }
 
     public void registrarEvento(String evento) {
-        LOG.warn("AUDITORIA: {}", evento);
+        if (diario != null) {
+            // Solo se encola: el hilo del diario lo escribe en disco junto con los demás eventos pendientes.
+            diario.registrar(evento);
+        } else {
+            LOG.warn("AUDITORIA: {}", evento);
+        }
+    }
+
+    public void registrarEventos(List<String> eventos) {
+        for (String evento : eventos) {
+            registrarEvento(evento);
+        }
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 @Service
 public class ServicioGestionInventario {
 
@@ -23,4 +27,17 @@ public class ServicioGestionInventario {
         // Lógica de verificación...
         servicioAuditoria.registrarEvento("Inventario verificado para producto " + idProducto);
     }
+
+    /**
+     * Verifica varios productos con una sola llamada al proxy de {@code ServicioAuditoria}.
+     * Se sigue registrando un evento de auditoría por producto.
+     */
+    public void verificarInventario(Collection<Long> idsProducto) {
+        LOG.info("Verificando inventario de {} productos", idsProducto.size());
+        List<String> eventos = new ArrayList<>(idsProducto.size());
+        for (Long idProducto : idsProducto) {
+            eventos.add("Inventario verificado para producto " + idProducto);
+        }
+        servicioAuditoria.registrarEventos(eventos);
+    }
 }
\ No newline at end of file
@@ -1,23 +1,47 @@
 package com.example.p10.servicio;
 
 import com.example.p10.contratos.PasarelaPago;
+import com.example.p10.pago.LoteadorPagos;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class ServicioPago {
 
     private static final Logger LOG = LoggerFactory.getLogger(ServicioPago.class);
     private final PasarelaPago pasarelaPago;
+    // Capa asíncrona (lotes + plazo + cortacircuitos); null si solo se usa la vía síncrona.
+    private final LoteadorPagos loteadorPagos;
 
-    // Usamos @Primary por defecto. No se necesita @Qualifier aquí para la demo.
     public ServicioPago(PasarelaPago pasarelaPago) {
+        this(pasarelaPago, null);
+    }
+
+    // Con @Qualifier se pide el enrutador, que reparte los pagos entre todas las pasarelas, en lugar de la @Primary.
+    @Autowired
+    public ServicioPago(@Qualifier("enrutadorPasarelas") PasarelaPago pasarelaPago, LoteadorPagos loteadorPagos) {
         this.pasarelaPago = pasarelaPago;
-        LOG.info("ServicioPago inicializado con la pasarela por defecto: {}", pasarelaPago.getNombrePasarela());
+        this.loteadorPagos = loteadorPagos;
+        LOG.info("ServicioPago inicializado con la pasarela: {}", pasarelaPago.getNombrePasarela());
     }
 
     public boolean procesar(double monto) {
         return pasarelaPago.procesarPago(monto);
     }
-}
\ No newline at end of file
+
+    /**
+     * Procesa el pago sin bloquear: se agrupa con otros en un lote y se liquida en una sola llamada a la pasarela.
+     * El futuro falla si la pasarela da error, vence el plazo o el cortacircuitos está abierto.
+     */
+    public CompletableFuture<Boolean> procesarAsync(double monto) {
+        if (loteadorPagos == null) {
+            return CompletableFuture.completedFuture(procesar(monto));
+        }
+        return loteadorPagos.procesar(monto);
+    }
+}
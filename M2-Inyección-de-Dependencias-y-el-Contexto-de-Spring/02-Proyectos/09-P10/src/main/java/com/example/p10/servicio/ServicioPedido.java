@@ -4,14 +4,16 @@ package com.example.p10.servicio;
 // ANTI-PATTERN: import com.example.p10.repositorio.RepositorioPedidoImpl; (Should be the interface)
 import com.example.p10.contratos.RepositorioPedido;
 import com.example.p10.repositorio.RepositorioPedidoImpl; // CORRECT: Import the interface from the correct package.
-import com.example.p10.excepcion.StockInsuficienteException;
+import com.example.p10.modelo.LineasPedido;
 import com.example.p10.modelo.Pedido;
 import com.example.p10.modelo.Producto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class ServicioPedido {
@@ -21,15 +23,18 @@ public class ServicioPedido {
     private final ServicioProducto servicioProducto;
     private final ServicioPago servicioPago;
     private final ServicioGestionInventario servicioGestionInventario;
+    private final ServicioReservas servicioReservas;
 
     public ServicioPedido(RepositorioPedido repositorioPedido,
                           ServicioProducto servicioProducto,
                           ServicioPago servicioPago,
-                          ServicioGestionInventario servicioGestionInventario) {
+                          ServicioGestionInventario servicioGestionInventario,
+                          ServicioReservas servicioReservas) {
         this.repositorioPedido = repositorioPedido;
         this.servicioProducto = servicioProducto;
         this.servicioPago = servicioPago;
         this.servicioGestionInventario = servicioGestionInventario;
+        this.servicioReservas = servicioReservas;
         LOG.info("ServicioPedido inicializado y listo para operar.");
     }
 
@@ -37,31 +42,57 @@ public class ServicioPedido {
     public Pedido crearPedido(List<Producto> productosSolicitados) {
         LOG.info("Iniciando creación de pedido con {} productos.", productosSolicitados.size());
 
-        double total = calcularTotalYVerificarStock(productosSolicitados);
-
-        Pedido nuevoPedido = new Pedido(null, productosSolicitados, total, "PENDIENTE");
-        Pedido pedidoGuardado = repositorioPedido.guardar(nuevoPedido);
+        Map<Long, Integer> cantidades = cantidadesPorProducto(productosSolicitados);
+        LineasPedido lineas = capturarLineasYReservarStock(cantidades);
+        double total = lineas.getTotalCentimos() / 100.0;
+
+        Pedido pedidoGuardado;
+        try {
+            // El pedido guarda solo ID, cantidad y precio de cada línea, no los Producto recibidos.
+            Pedido nuevoPedido = new Pedido(null, lineas, total, "PENDIENTE");
+            pedidoGuardado = repositorioPedido.guardar(nuevoPedido);
+        } catch (RuntimeException e) {
+            // Si el pedido no llega a guardarse, el stock reservado vuelve al inventario.
+            servicioProducto.liberarStock(cantidades);
+            throw e;
+        }
+        // El stock queda retenido hasta que se pague el pedido o caduque la reserva.
+        servicioReservas.reservar(pedidoGuardado.getId(), cantidades);
 
         LOG.info("Pedido {} creado exitosamente.", pedidoGuardado.getId());
         return pedidoGuardado;
     }
 
-    private double calcularTotalYVerificarStock(List<Producto> productosSolicitados) {
-        double total = 0.0;
-        for (Producto pSolicitado : productosSolicitados) {
-            Producto pEnStock = servicioProducto.obtenerProductoPorId(pSolicitado.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado: " + pSolicitado.getId()));
-
-            if (pEnStock.getStock() < pSolicitado.getStock()) {
-                throw new StockInsuficienteException("Stock insuficiente para " + pEnStock.getNombre() +
-                        ". Solicitado: " + pSolicitado.getStock() + ", Disponible: " + pEnStock.getStock());
+    /**
+     * Captura el precio actual de cada producto en las líneas del pedido y reserva el stock de todas
+     * de una vez: si un producto no existe o no tiene stock suficiente, no se descuenta nada de ninguno.
+     * Cada paso es una sola llamada para todo el pedido (buscar los productos, verificar el inventario
+     * y reservar), sea cual sea su número de líneas.
+     */
+    private LineasPedido capturarLineasYReservarStock(Map<Long, Integer> cantidades) {
+        Map<Long, Producto> enStock = servicioProducto.obtenerProductosPorId(cantidades.keySet());
+        LineasPedido.Constructor lineas = LineasPedido.constructor(cantidades.size());
+        cantidades.forEach((idProducto, cantidad) -> {
+            Producto pEnStock = enStock.get(idProducto);
+            if (pEnStock == null) {
+                throw new IllegalArgumentException("Producto no encontrado: " + idProducto);
             }
+            lineas.agregar(idProducto, cantidad, LineasPedido.aCentimos(pEnStock.getPrecio()));
+        });
+        servicioGestionInventario.verificarInventario(cantidades.keySet());
+        servicioProducto.reservarStock(cantidades);
+        return lineas.construir();
+    }
 
-            total += pEnStock.getPrecio() * pSolicitado.getStock();
-            servicioGestionInventario.verificarInventario(pEnStock.getId());
-            servicioProducto.reducirStock(pEnStock.getId(), pSolicitado.getStock());
+    /**
+     * Suma las cantidades de las líneas que piden el mismo producto.
+     */
+    private static Map<Long, Integer> cantidadesPorProducto(List<Producto> productosSolicitados) {
+        Map<Long, Integer> cantidades = new TreeMap<>();
+        for (Producto pSolicitado : productosSolicitados) {
+            cantidades.merge(pSolicitado.getId(), pSolicitado.getStock(), Integer::sum);
         }
-        return total;
+        return cantidades;
     }
 
     public boolean procesarPagoPedido(Long idPedido) {
@@ -80,21 +111,50 @@ public class ServicioPedido {
             return false;
         }
 
-        boolean pagoExitoso = servicioPago.procesar(pedido.getTotal());
+        Optional<Map<Long, Integer>> reserva = servicioReservas.confirmar(idPedido);
+        if (reserva.isEmpty()) {
+            LOG.warn("La reserva de stock del pedido {} ha caducado. No se puede procesar el pago.", idPedido);
+            return false;
+        }
+
+        // La reserva ya está confirmada: si la pasarela lanza una excepción, el stock se devuelve igual
+        // que si rechazara el pago, en lugar de quedar retenido con el pedido PENDIENTE para siempre.
+        boolean pagoExitoso;
+        try {
+            pagoExitoso = servicioPago.procesar(pedido.getTotal());
+        } catch (RuntimeException e) {
+            LOG.error("Error de la pasarela al procesar el pago del pedido {}: {}", idPedido, e.getMessage());
+            marcarPagoFallido(idPedido, reserva.get());
+            throw e;
+        }
+        // El cambio de estado pasa por el repositorio, que mantiene al día sus índices por estado y por total.
         if (pagoExitoso) {
-            pedido.setEstado("PAGADO");
-            repositorioPedido.guardar(pedido);
+            if (!repositorioPedido.actualizarEstado(idPedido, "PENDIENTE", "PAGADO")) {
+                LOG.warn("El pedido {} cambió de estado mientras se procesaba el pago.", idPedido);
+            }
             LOG.info("Pago del pedido {} procesado con éxito.", idPedido);
             return true;
         } else {
             LOG.error("Fallo al procesar el pago del pedido {}.", idPedido);
-            pedido.setEstado("PAGO_FALLIDO");
-            repositorioPedido.guardar(pedido);
+            marcarPagoFallido(idPedido, reserva.get());
             return false;
         }
     }
 
+    private void marcarPagoFallido(Long idPedido, Map<Long, Integer> reserva) {
+        servicioProducto.liberarStock(reserva);
+        repositorioPedido.actualizarEstado(idPedido, "PENDIENTE", "PAGO_FALLIDO");
+    }
+
     public Optional<Pedido> obtenerPedido(Long idPedido) {
         return repositorioPedido.buscarPorId(idPedido);
     }
+
+    public List<Pedido> obtenerPedidosPorEstado(String estado) {
+        return repositorioPedido.buscarPorEstado(estado);
+    }
+
+    public List<Pedido> obtenerPedidosPorRangoDeTotal(double desde, double hasta) {
+        return repositorioPedido.buscarPorRangoDeTotal(desde, hasta);
+    }
 }
\ No newline at end of file
@@ -1,13 +1,22 @@
 package com.example.p10.servicio;
 
+import com.example.p10.cache.CacheProductos;
+import com.example.p10.cache.MetricasCache;
 import com.example.p10.contratos.RepositorioProducto;
+import com.example.p10.excepcion.StockInsuficienteException;
 import com.example.p10.modelo.Producto;
 import com.example.p10.repositorio.RepositorioProductoImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Service layer for managing product-related business logic.
@@ -18,25 +27,69 @@ public class ServicioProducto {
 
     private static final Logger LOG = LoggerFactory.getLogger(ServicioProducto.class);
     private final RepositorioProducto repositorioProducto;
+    // Product cache in front of the repository; null when caching is disabled.
+    private final CacheProductos cache;
+
+    /**
+     * Constructor-based dependency injection, without a product cache.
+     *
+     * @param repositorioProducto The repository for product data access.
+     */
+    public ServicioProducto(RepositorioProducto repositorioProducto) {
+        this.repositorioProducto = repositorioProducto;
+        this.cache = null;
+    }
 
     /**
      * Constructor-based dependency injection.
      * Spring will automatically inject the RepositorioProductoImpl bean.
      *
      * @param repositorioProducto The repository for product data access.
+     * @param capacidadCache      Maximum number of cached products; 0 disables the cache.
+     * @param segmentosCache      Number of independently locked cache segments (a power of two).
      */
-    public ServicioProducto(RepositorioProducto repositorioProducto) {
+    @Autowired
+    public ServicioProducto(RepositorioProducto repositorioProducto,
+                            @Value("${productos.cache.capacidad:10000}") int capacidadCache,
+                            @Value("${productos.cache.segmentos:16}") int segmentosCache) {
         this.repositorioProducto = repositorioProducto;
+        this.cache = capacidadCache > 0 ? new CacheProductos(capacidadCache, segmentosCache) : null;
     }
 
     /**
-     * Retrieves a product by its ID.
+     * Retrieves a product by its ID, from the cache when possible.
      *
      * @param id The ID of the product to find.
      * @return an Optional containing the product if found, or empty otherwise.
      */
     public Optional<Producto> obtenerProductoPorId(Long id) {
-        return repositorioProducto.buscarPorId(id);
+        if (cache == null) {
+            return repositorioProducto.buscarPorId(id);
+        }
+        return Optional.ofNullable(cache.obtener(id, clave -> repositorioProducto.buscarPorId(clave).orElse(null)));
+    }
+
+    /**
+     * Retrieves several products in a single repository call.
+     *
+     * @param ids The IDs of the products to find.
+     * @return the products found, keyed by ID; unknown IDs are left out.
+     */
+    public Map<Long, Producto> obtenerProductosPorId(Collection<Long> ids) {
+        if (cache == null) {
+            return repositorioProducto.buscarPorIds(ids);
+        }
+        return cache.obtenerTodos(ids, repositorioProducto::buscarPorIds);
+    }
+
+    /**
+     * Saves a product, invalidating its cached copy.
+     *
+     * @param producto The product to save.
+     * @return the saved product.
+     */
+    public Producto guardar(Producto producto) {
+        return escribir(List.of(producto.getId()), () -> repositorioProducto.guardar(producto));
     }
 
     /**
@@ -46,14 +99,52 @@ public class ServicioProducto {
      * @param cantidad   The quantity to reduce from the stock.
      */
     public void reducirStock(Long idProducto, int cantidad) {
-        repositorioProducto.buscarPorId(idProducto).ifPresent(producto -> {
-            if (producto.getStock() >= cantidad) {
-                int nuevoStock = producto.getStock() - cantidad;
-                repositorioProducto.actualizarStock(idProducto, nuevoStock);
-            } else {
-                // In a real application, this would throw a specific exception.
-                LOG.error("Attempted to reduce stock for '{}' but stock is insufficient.", producto.getNombre());
-            }
+        // A one-line reservation checks and updates the stock in a single step, without a second lookup.
+        try {
+            reservarStock(Map.of(idProducto, cantidad));
+        } catch (StockInsuficienteException e) {
+            // In a real application, this would throw a specific exception.
+            LOG.error("Attempted to reduce stock but stock is insufficient: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Stock not reduced: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reserves the stock of every product in one all-or-nothing step.
+     *
+     * @param cantidades The quantity to reserve for each product ID.
+     */
+    public void reservarStock(Map<Long, Integer> cantidades) {
+        escribir(cantidades.keySet(), () -> {
+            repositorioProducto.reservarStock(cantidades);
+            return null;
         });
     }
+
+    /**
+     * Returns previously reserved quantities to the stock.
+     *
+     * @param cantidades The quantity to release for each product ID.
+     */
+    public void liberarStock(Map<Long, Integer> cantidades) {
+        escribir(cantidades.keySet(), () -> {
+            repositorioProducto.liberarStock(cantidades);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the cache hit, miss and eviction counters, or null when caching is disabled.
+     */
+    public MetricasCache getMetricasCache() {
+        return cache == null ? null : cache.getMetricas();
+    }
+
+    /**
+     * Runs a repository write so that no reader can see the cached product from before it.
+     */
+    private <T> T escribir(Collection<Long> ids, Supplier<T> escritura) {
+        return cache == null ? escritura.get() : cache.escribir(ids, escritura);
+    }
 }
\ No newline at end of file
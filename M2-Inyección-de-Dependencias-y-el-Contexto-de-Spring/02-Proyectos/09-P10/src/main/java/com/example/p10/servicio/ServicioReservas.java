@@ -0,0 +1,171 @@
+package com.example.p10.servicio;
+
+import com.example.p10.contratos.RepositorioPedido;
+import com.example.p10.reserva.MetricasReservas;
+import com.example.p10.reserva.RuedaTemporizadores;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Reservas de stock con caducidad. Cada pedido PENDIENTE retiene su stock durante
+ * {@code pedidos.reserva.ttl-ms}; si no se paga antes, el stock vuelve al inventario y el pedido
+ * pasa a CANCELADO.
+ * <p>
+ * Los plazos viven en una {@link RuedaTemporizadores}, así que programar y cancelar una reserva
+ * cuesta O(1) aunque haya millones pendientes. Un hilo dedicado hace avanzar la rueda cada tick.
+ */
+@Service
+public class ServicioReservas {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServicioReservas.class);
+    private static final long VENTANA_METRICA_MS = 1_000;
+
+    private final ServicioProducto servicioProducto;
+    private final RepositorioPedido repositorioPedido;
+    private final long ttlMs;
+    private final long tickMs;
+    private final LongSupplier reloj;
+    private final RuedaTemporizadores<Reserva> rueda;
+    private final Map<Long, RuedaTemporizadores.Temporizador<Reserva>> pendientes = new ConcurrentHashMap<>();
+    private ScheduledExecutorService temporizador;
+
+    // Métrica de expiraciones: solo la escribe el hilo que avanza la rueda.
+    private volatile long expiradasTotal;
+    private volatile double expiracionesPorSegundo;
+    private long inicioVentanaMs;
+    private long expiradasEnVentana;
+
+    @Autowired
+    public ServicioReservas(ServicioProducto servicioProducto,
+                            RepositorioPedido repositorioPedido,
+                            @Value("${pedidos.reserva.ttl-ms:900000}") long ttlMs,
+                            @Value("${pedidos.reserva.tick-ms:100}") long tickMs) {
+        this(servicioProducto, repositorioPedido, ttlMs, tickMs, System::currentTimeMillis);
+    }
+
+    /**
+     * @param reloj Fuente de la hora en milisegundos; las pruebas usan un reloj simulado.
+     */
+    public ServicioReservas(ServicioProducto servicioProducto, RepositorioPedido repositorioPedido,
+                            long ttlMs, long tickMs, LongSupplier reloj) {
+        if (ttlMs < 1) {
+            throw new IllegalArgumentException("pedidos.reserva.ttl-ms debe ser positivo: " + ttlMs);
+        }
+        this.servicioProducto = servicioProducto;
+        this.repositorioPedido = repositorioPedido;
+        this.ttlMs = ttlMs;
+        this.tickMs = tickMs;
+        this.reloj = reloj;
+        long ahora = reloj.getAsLong();
+        this.rueda = new RuedaTemporizadores<>(tickMs, ahora);
+        this.inicioVentanaMs = ahora;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        temporizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "reservas-caducidad");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        temporizador.scheduleAtFixedRate(() -> {
+            try {
+                procesarVencidas();
+            } catch (RuntimeException e) {
+                LOG.error("Error al liberar reservas caducadas", e);
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        LOG.info("ServicioReservas inicializado: las reservas caducan a los {} ms (tick de {} ms).", ttlMs, tickMs);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (temporizador != null) {
+            temporizador.shutdownNow();
+        }
+    }
+
+    /**
+     * Retiene el stock ya reservado de un pedido hasta que se confirme o caduque.
+     */
+    public void reservar(Long idPedido, Map<Long, Integer> cantidades) {
+        Reserva reserva = new Reserva(idPedido, Map.copyOf(cantidades));
+        RuedaTemporizadores.Temporizador<Reserva> anterior =
+                pendientes.put(idPedido, rueda.programar(reloj.getAsLong() + ttlMs, reserva));
+        if (anterior != null) {
+            anterior.cancelar();
+        }
+    }
+
+    /**
+     * Confirma la reserva de un pedido que va a pagarse: deja de caducar y su stock ya no se libera solo.
+     *
+     * @return Las cantidades reservadas, o vacío si la reserva ya había caducado (o no existía).
+     */
+    public Optional<Map<Long, Integer>> confirmar(Long idPedido) {
+        RuedaTemporizadores.Temporizador<Reserva> temporizador = pendientes.remove(idPedido);
+        if (temporizador == null) {
+            return Optional.empty();
+        }
+        temporizador.cancelar();
+        return Optional.of(temporizador.getDato().cantidades());
+    }
+
+    /**
+     * Libera el stock de las reservas caducadas hasta ahora. Lo llama el hilo de caducidad en cada tick.
+     *
+     * @return Número de reservas liberadas.
+     */
+    public synchronized int procesarVencidas() {
+        long ahora = reloj.getAsLong();
+        List<Reserva> vencidas = rueda.avanzar(ahora);
+        int liberadas = 0;
+        for (Reserva reserva : vencidas) {
+            // Si confirmar() se llevó la reserva a la vez, es el pago quien decide qué hacer con el stock.
+            RuedaTemporizadores.Temporizador<Reserva> actual = pendientes.get(reserva.idPedido());
+            if (actual == null || actual.getDato() != reserva || !pendientes.remove(reserva.idPedido(), actual)) {
+                continue;
+            }
+            servicioProducto.liberarStock(reserva.cantidades());
+            repositorioPedido.actualizarEstado(reserva.idPedido(), "PENDIENTE", "CANCELADO");
+            liberadas++;
+        }
+        actualizarMetrica(ahora, liberadas);
+        if (liberadas > 0) {
+            LOG.debug("{} reservas caducadas liberadas.", liberadas);
+        }
+        return liberadas;
+    }
+
+    public MetricasReservas getMetricas() {
+        return new MetricasReservas(pendientes.size(), expiradasTotal, expiracionesPorSegundo);
+    }
+
+    private void actualizarMetrica(long ahora, int liberadas) {
+        expiradasTotal += liberadas;
+        expiradasEnVentana += liberadas;
+        long transcurrido = ahora - inicioVentanaMs;
+        if (transcurrido >= VENTANA_METRICA_MS) {
+            expiracionesPorSegundo = expiradasEnVentana * 1000.0 / transcurrido;
+            expiradasEnVentana = 0;
+            inicioVentanaMs = ahora;
+        }
+    }
+
+    private record Reserva(Long idPedido, Map<Long, Integer> cantidades) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.p10.auditoria;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiarioAuditoriaTest {
+
+    private static final int EVENTOS_BENCHMARK = Integer.getInteger("auditoria.benchmark.eventos", 200_000);
+
+    @Test
+    void variosHilosEscribenSinPerderNiDesordenarEventos(@TempDir Path directorio) throws Exception {
+        int hilos = 4;
+        int porHilo = 25_000;
+        try (DiarioAuditoria diario = new DiarioAuditoria(directorio, 256 * 1024, 2)) {
+            enParalelo(hilos, hilo -> {
+                for (int i = 0; i < porHilo; i++) {
+                    diario.registrar("Inventario verificado para producto " + hilo + "-" + i);
+                }
+            });
+            diario.sincronizar();
+            assertTrue(diario.getSincronizaciones() < diario.getEscritos(), "Sin agrupar fsync");
+        }
+
+        List<EventoAuditoria> eventos = DiarioAuditoria.leer(directorio, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(hilos * porHilo, eventos.size());
+        for (int i = 0; i < eventos.size(); i++) {
+            assertEquals(i + 1, eventos.get(i).secuencia());
+            assertTrue(i == 0 || eventos.get(i).marcaTiempoMs() >= eventos.get(i - 1).marcaTiempoMs());
+        }
+        assertTrue(segmentos(directorio) > 1, "Los segmentos no han rotado");
+    }
+
+    @Test
+    void leeSoloElRangoDeTiempoPedido(@TempDir Path directorio) throws Exception {
+        long inicioMedio;
+        long finMedio;
+        try (DiarioAuditoria diario = new DiarioAuditoria(directorio, 4 * 1024, 2)) {
+            for (int i = 0; i < 500; i++) {
+                diario.registrar("antes " + i);
+            }
+            diario.sincronizar();
+            Thread.sleep(20);
+            inicioMedio = System.currentTimeMillis();
+            for (int i = 0; i < 500; i++) {
+                diario.registrar("durante " + i);
+            }
+            diario.sincronizar();
+            finMedio = System.currentTimeMillis();
+            Thread.sleep(20);
+            for (int i = 0; i < 500; i++) {
+                diario.registrar("después " + i);
+            }
+        }
+
+        List<EventoAuditoria> eventos = DiarioAuditoria.leer(directorio, inicioMedio, finMedio);
+        assertEquals(500, eventos.size());
+        assertTrue(eventos.stream().allMatch(evento -> evento.descripcion().startsWith("durante ")));
+    }
+
+    @Test
+    void unSegmentoQueRotaDentroDeUnMilisegundoNoEscondeLosEventosAnteriores(@TempDir Path directorio) throws Exception {
+        AtomicLong reloj = new AtomicLong(1_000);
+        // Segmentos diminutos: los 50 eventos del milisegundo 1001 ocupan varios.
+        try (DiarioAuditoria diario = new DiarioAuditoria(directorio, 256, 2, reloj::get)) {
+            diario.registrar("antes");
+            reloj.set(1_001);
+            for (int i = 0; i < 50; i++) {
+                diario.registrar("mismo milisegundo " + i);
+            }
+            reloj.set(1_002);
+            diario.registrar("después");
+        }
+        assertTrue(segmentos(directorio) > 2, "Los segmentos no han rotado");
+
+        List<EventoAuditoria> eventos = DiarioAuditoria.leer(directorio, 1_001, 1_001);
+        assertEquals(50, eventos.size());
+        assertEquals("mismo milisegundo 0", eventos.get(0).descripcion());
+        assertEquals(52, DiarioAuditoria.leer(directorio, 1_000, 1_002).size());
+    }
+
+    @Test
+    void alReabrirContinuaLaSecuenciaEIgnoraUnEventoAMedias(@TempDir Path directorio) throws Exception {
+        try (DiarioAuditoria diario = new DiarioAuditoria(directorio, 1024 * 1024, 2)) {
+            for (int i = 0; i < 10; i++) {
+                diario.registrar("evento " + i);
+            }
+            diario.registrarDurable("evento 10").join();
+        }
+        // Simula una caída a mitad de escribir un evento.
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            Path ultimo = ficheros.sorted().reduce((a, b) -> b).orElseThrow();
+            Files.write(ultimo, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+        }
+
+        try (DiarioAuditoria diario = new DiarioAuditoria(directorio, 1024 * 1024, 2)) {
+            diario.registrarDurable("evento 11").join();
+        }
+
+        List<EventoAuditoria> eventos = DiarioAuditoria.leer(directorio, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(12, eventos.size());
+        assertEquals(12, eventos.get(11).secuencia());
+        assertEquals("evento 11", eventos.get(11).descripcion());
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkDiarioFrenteALogSincrono(@TempDir Path directorio) throws Exception {
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder codificador = new PatternLayoutEncoder();
+        codificador.setContext(contexto);
+        codificador.setPattern("%d %-5level [%thread] %logger : %msg%n");
+        codificador.start();
+        FileAppender<ILoggingEvent> fichero = new FileAppender<>();
+        fichero.setContext(contexto);
+        fichero.setFile(directorio.resolve("auditoria.log").toString());
+        fichero.setEncoder(codificador);
+        fichero.start();
+        Logger log = contexto.getLogger("benchmark.auditoria");
+        log.setAdditive(false);
+        log.addAppender(fichero);
+
+        for (int hilos : new int[]{1, 4}) {
+            int porHilo = EVENTOS_BENCHMARK / hilos;
+            long inicio = System.nanoTime();
+            enParalelo(hilos, hilo -> {
+                for (int i = 0; i < porHilo; i++) {
+                    log.warn("AUDITORIA: {}", "Inventario verificado para producto " + i);
+                }
+            });
+            double logPorSegundo = EVENTOS_BENCHMARK * 1e9 / (System.nanoTime() - inicio);
+
+            Path diarioDir = directorio.resolve("diario-" + hilos);
+            double diarioPorSegundo;
+            double eventosPorFsync;
+            try (DiarioAuditoria diario = new DiarioAuditoria(diarioDir, 64 * 1024 * 1024, 2)) {
+                inicio = System.nanoTime();
+                enParalelo(hilos, hilo -> {
+                    for (int i = 0; i < porHilo; i++) {
+                        diario.registrar("Inventario verificado para producto " + i);
+                    }
+                });
+                // Se mide hasta que todo está sincronizado en disco, no solo encolado.
+                diario.sincronizar();
+                diarioPorSegundo = EVENTOS_BENCHMARK * 1e9 / (System.nanoTime() - inicio);
+                eventosPorFsync = (double) diario.getEscritos() / diario.getSincronizaciones();
+            }
+            assertEquals(EVENTOS_BENCHMARK, DiarioAuditoria.leer(diarioDir, Long.MIN_VALUE, Long.MAX_VALUE).size());
+            System.out.printf("BENCHMARK: %d hilos, %,d eventos -> log WARN síncrono %,.0f eventos/s (sin fsync); "
+                            + "diario %,.0f eventos/s con fsync (%.0f eventos por fsync)%n",
+                    hilos, EVENTOS_BENCHMARK, logPorSegundo, diarioPorSegundo, eventosPorFsync);
+        }
+        log.detachAndStopAllAppenders();
+    }
+
+    private static void enParalelo(int hilos, Consumer<Integer> tarea) throws InterruptedException {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        for (int h = 0; h < hilos; h++) {
+            int hilo = h;
+            ejecutor.execute(() -> tarea.accept(hilo));
+        }
+        ejecutor.shutdown();
+        assertTrue(ejecutor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    private static long segmentos(Path directorio) throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            return ficheros.count();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.p10.cache;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.p10.modelo.Producto;
+import com.example.p10.repositorio.RepositorioProductoImpl;
+import com.example.p10.servicio.ServicioProducto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheProductosTest {
+
+    private static final int PRODUCTOS = 64;
+    private static final int STOCK_INICIAL = 1_000_000;
+    private static final long DURACION_MS = Long.getLong("productos.cache.estres.duracion-ms", 1_000);
+
+    @BeforeAll
+    static void silenciarTrazas() {
+        ((Logger) LoggerFactory.getLogger("com.example.p10")).setLevel(Level.WARN);
+    }
+
+    @Test
+    void cuentaAciertosFallosYDesalojosEnOrdenLru() {
+        CacheProductos cache = new CacheProductos(4, 1);
+        for (long id = 1; id <= 4; id++) {
+            cache.obtener(id, CacheProductosTest::producto);
+        }
+        cache.obtener(1L, CacheProductosTest::producto);  // 1 pasa a ser el más reciente
+        cache.obtener(5L, CacheProductosTest::producto);  // desaloja a 2
+        cache.obtener(6L, CacheProductosTest::producto);  // desaloja a 3
+
+        assertEquals(new MetricasCache(1, 6, 2, 0, 4), cache.getMetricas());
+        cache.obtener(1L, CacheProductosTest::producto);
+        cache.obtener(2L, CacheProductosTest::producto);
+        assertEquals(new MetricasCache(2, 7, 3, 0, 4), cache.getMetricas());
+
+        Map<Long, Producto> lote = cache.obtenerTodos(List.of(1L, 2L, 7L), ids -> {
+            assertEquals(List.of(7L), ids);
+            return Map.of(7L, producto(7L));
+        });
+        assertEquals(3, lote.size());
+        assertEquals(4, cache.getMetricas().aciertos());
+    }
+
+    @Test
+    void devuelveCopiasQueNoAlteranLaCache() {
+        CacheProductos cache = new CacheProductos(16, 4);
+        Producto primero = cache.obtener(1L, CacheProductosTest::producto);
+        primero.setStock(0);
+
+        Producto segundo = cache.obtener(1L, id -> {
+            throw new AssertionError("Debería ser un acierto");
+        });
+        assertNotSame(primero, segundo);
+        assertEquals(10, segundo.getStock());
+    }
+
+    @Test
+    void unaLecturaLentaNoDejaEnCacheElStockAnteriorAUnaEscritura() throws Exception {
+        CacheProductos cache = new CacheProductos(16, 1);
+        Producto enRepositorio = new Producto(1L, "Laptop", 1200.0, 10);
+        CountDownLatch leido = new CountDownLatch(1);
+        CountDownLatch escrito = new CountDownLatch(1);
+
+        // El lector copia el stock (10) del repositorio y se queda parado antes de guardarlo en la caché.
+        CompletableFuture<Producto> lector = CompletableFuture.supplyAsync(() -> cache.obtener(1L, id -> {
+            Producto copia = new Producto(id, enRepositorio.getNombre(), enRepositorio.getPrecio(), enRepositorio.getStock());
+            leido.countDown();
+            esperar(escrito);
+            return copia;
+        }));
+        esperar(leido);
+        cache.escribir(List.of(1L), () -> {
+            enRepositorio.setStock(9);
+            return null;
+        });
+        escrito.countDown();
+        assertEquals(10, lector.get(5, TimeUnit.SECONDS).getStock());
+
+        // Lo que trajo el lector no ha llegado a la caché: la siguiente lectura ve el 9.
+        assertEquals(9, cache.obtener(1L, id -> new Producto(id, "Laptop", 1200.0, enRepositorio.getStock())).getStock());
+        assertEquals(2, cache.getMetricas().fallos());
+    }
+
+    @Test
+    void ningunLectorVeStockAnteriorAUnDescuentoYaTerminado() throws InterruptedException {
+        RepositorioProductoImpl repositorio = new RepositorioProductoImpl();
+        for (long id = 1; id <= PRODUCTOS; id++) {
+            repositorio.guardar(new Producto(id, "Producto " + id, 10.0, STOCK_INICIAL));
+        }
+        // Menos sitio que productos, para que también haya desalojos.
+        ServicioProducto servicio = new ServicioProducto(repositorio, PRODUCTOS / 2, 4);
+        // Stock de cada producto tras el último descuento que ya ha terminado.
+        AtomicIntegerArray confirmado = new AtomicIntegerArray(PRODUCTOS + 1);
+        for (int id = 1; id <= PRODUCTOS; id++) {
+            confirmado.set(id, STOCK_INICIAL);
+        }
+        AtomicBoolean fin = new AtomicBoolean();
+        List<String> errores = Collections.synchronizedList(new ArrayList<>());
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(6);
+        for (int e = 0; e < 2; e++) {
+            ejecutor.execute(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                while (!fin.get()) {
+                    long id = aleatorio.nextLong(1, PRODUCTOS + 1);
+                    if (aleatorio.nextBoolean()) {
+                        servicio.reducirStock(id, 1);
+                    } else {
+                        servicio.reservarStock(Map.of(id, 1, 1 + id % PRODUCTOS, 1));
+                    }
+                    // El stock solo baja: el valor del repositorio es una cota superior para cualquier lectura posterior.
+                    int ahora = repositorio.buscarPorId(id).orElseThrow().getStock();
+                    confirmado.accumulateAndGet((int) id, ahora, Math::min);
+                }
+            });
+        }
+        for (int l = 0; l < 4; l++) {
+            ejecutor.execute(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                int[] ultimoVisto = new int[PRODUCTOS + 1];
+                Arrays.fill(ultimoVisto, Integer.MAX_VALUE);
+                while (!fin.get()) {
+                    int id = aleatorio.nextInt(1, PRODUCTOS + 1);
+                    int cota = confirmado.get(id);
+                    int visto = aleatorio.nextInt(4) == 0
+                            ? servicio.obtenerProductosPorId(List.of((long) id)).get((long) id).getStock()
+                            : servicio.obtenerProductoPorId((long) id).orElseThrow().getStock();
+                    if (visto > cota || visto > ultimoVisto[id]) {
+                        errores.add("Producto " + id + ": leído " + visto + " tras confirmarse " + cota
+                                + " (último visto " + ultimoVisto[id] + ")");
+                    }
+                    ultimoVisto[id] = visto;
+                }
+            });
+        }
+        Thread.sleep(DURACION_MS);
+        fin.set(true);
+        ejecutor.shutdown();
+        assertTrue(ejecutor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertTrue(errores.isEmpty(), () -> errores.size() + " lecturas obsoletas, p. ej. " + errores.get(0));
+        for (long id = 1; id <= PRODUCTOS; id++) {
+            assertEquals(repositorio.buscarPorId(id).orElseThrow().getStock(),
+                    servicio.obtenerProductoPorId(id).orElseThrow().getStock());
+        }
+        MetricasCache metricas = servicio.getMetricasCache();
+        assertTrue(metricas.aciertos() > 0 && metricas.desalojos() > 0 && metricas.invalidaciones() > 0);
+        assertTrue(metricas.entradas() <= PRODUCTOS / 2);
+    }
+
+    private static Producto producto(Long id) {
+        return new Producto(id, "Producto " + id, 10.0, 10);
+    }
+
+    private static void esperar(CountDownLatch cerrojo) {
+        try {
+            assertTrue(cerrojo.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.p10.modelo;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.p10.contratos.PasarelaPago;
+import com.example.p10.repositorio.RepositorioPedidoImpl;
+import com.example.p10.repositorio.RepositorioProductoImpl;
+import com.example.p10.servicio.ServicioAuditoria;
+import com.example.p10.servicio.ServicioGestionInventario;
+import com.example.p10.servicio.ServicioPago;
+import com.example.p10.servicio.ServicioPedido;
+import com.example.p10.servicio.ServicioProducto;
+import com.example.p10.servicio.ServicioReservas;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LineasPedidoTest {
+
+    private static final int PEDIDOS_HEAP = Integer.getInteger("pedidos.heap.total", 1_000_000);
+    private static final int LINEAS_POR_PEDIDO = 3;
+    private static final int CATALOGO = 10_000;
+
+    @BeforeAll
+    static void silenciarTrazas() {
+        ((Logger) LoggerFactory.getLogger("com.example.p10")).setLevel(Level.WARN);
+    }
+
+    @Test
+    void empaquetaCantidadYPrecioSinPerderDatos() {
+        LineasPedido lineas = LineasPedido.constructor(1)
+                .agregar(7L, 3, 120_000)
+                .agregar(Long.MAX_VALUE, (1 << 24) - 1, (1L << 40) - 1)
+                .agregar(9L, 1, 0)
+                .construir();
+
+        assertEquals(3, lineas.tamano());
+        assertEquals(Long.MAX_VALUE, lineas.getIdProducto(1));
+        assertEquals((1 << 24) - 1, lineas.getCantidad(1));
+        assertEquals((1L << 40) - 1, lineas.getPrecioUnitarioCentimos(1));
+        assertEquals(3 * 120_000, LineasPedido.constructor(1).agregar(7L, 3, 120_000).construir().getTotalCentimos());
+        assertEquals(Map.of(7L, 3, Long.MAX_VALUE, (1 << 24) - 1, 9L, 1), lineas.cantidadesPorProducto());
+        assertEquals(lineas, LineasPedido.constructor(3)
+                .agregar(7L, 3, 120_000).agregar(Long.MAX_VALUE, (1 << 24) - 1, (1L << 40) - 1).agregar(9L, 1, 0).construir());
+        assertEquals(2999, LineasPedido.aCentimos(29.99));
+
+        assertThrows(IllegalArgumentException.class, () -> LineasPedido.constructor(1).agregar(1L, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> LineasPedido.constructor(1).agregar(1L, 1 << 24, 100));
+        assertThrows(IllegalArgumentException.class, () -> LineasPedido.constructor(1).agregar(1L, 1, 1L << 40));
+    }
+
+    @Test
+    void crearPedidoCapturaElPrecioDelMomento() {
+        RepositorioProductoImpl productos = new RepositorioProductoImpl();
+        productos.guardar(new Producto(1L, "Laptop", 1199.99, 10));
+        productos.guardar(new Producto(2L, "Mouse", 25.10, 10));
+        ServicioProducto servicioProducto = new ServicioProducto(productos);
+        ServicioPedido servicio = servicioPedido(servicioProducto);
+
+        Pedido pedido = servicio.crearPedido(List.of(
+                new Producto(2L, null, 0, 2), new Producto(1L, null, 0, 1), new Producto(2L, null, 0, 1)));
+        // Subir el precio después no cambia un pedido ya creado.
+        servicioProducto.guardar(new Producto(1L, "Laptop", 1500.0, 9));
+
+        LineasPedido lineas = servicio.obtenerPedido(pedido.getId()).orElseThrow().getLineas();
+        assertEquals(2, lineas.tamano());
+        assertEquals(Map.of(1L, 1, 2L, 3), lineas.cantidadesPorProducto());
+        assertEquals(119_999 + 3 * 2_510, lineas.getTotalCentimos());
+        assertEquals(1275.29, pedido.getTotal(), 1e-9);
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkHeapDeUnMillonDePedidos() {
+        long antiguo = heapRetenido(i -> {
+            // Modelo anterior: la lista de Producto recibida, con la cantidad en 'stock'.
+            Producto[] productos = new Producto[LINEAS_POR_PEDIDO];
+            for (int l = 0; l < LINEAS_POR_PEDIDO; l++) {
+                productos[l] = new Producto(idProducto(i, l), null, 0, 1 + l);
+            }
+            return new PedidoConProductos((long) i + 1, List.of(productos), 99.0, "PENDIENTE");
+        }, (pedido, i) -> {
+            Map<Long, Integer> cantidades = new HashMap<>();
+            ((PedidoConProductos) pedido).productos().forEach(producto -> cantidades.put(producto.getId(), producto.getStock()));
+            assertEquals(cantidadesEsperadas(i), cantidades);
+        });
+        long compacto = heapRetenido(i -> {
+            LineasPedido.Constructor lineas = LineasPedido.constructor(LINEAS_POR_PEDIDO);
+            for (int l = 0; l < LINEAS_POR_PEDIDO; l++) {
+                lineas.agregar(idProducto(i, l), 1 + l, 3300);
+            }
+            return new Pedido((long) i + 1, lineas.construir(), 99.0, "PENDIENTE");
+        }, (pedido, i) -> {
+            // El formato compacto conserva las mismas líneas que la lista de Producto.
+            LineasPedido lineas = ((Pedido) pedido).getLineas();
+            assertEquals(cantidadesEsperadas(i), lineas.cantidadesPorProducto());
+            assertEquals(3300L * (1 + 2 + 3), lineas.getTotalCentimos());
+        });
+
+        System.out.printf("BENCHMARK: %,d pedidos de %d líneas -> List<Producto> %,d MB (%d B/pedido), "
+                        + "LineasPedido %,d MB (%d B/pedido)%n",
+                PEDIDOS_HEAP, LINEAS_POR_PEDIDO, antiguo >> 20, antiguo / PEDIDOS_HEAP,
+                compacto >> 20, compacto / PEDIDOS_HEAP);
+    }
+
+    /**
+     * Memoria que retienen {@link #PEDIDOS_HEAP} pedidos, medida con el heap ocupado tras un GC.
+     * Después de medir, {@code comprobar} revisa cada pedido, lo que además los mantiene vivos hasta el final.
+     */
+    private static long heapRetenido(IntFunction<Object> crear, ObjIntConsumer<Object> comprobar) {
+        long antes = heapTrasGc();
+        Object[] pedidos = new Object[PEDIDOS_HEAP];
+        for (int i = 0; i < PEDIDOS_HEAP; i++) {
+            pedidos[i] = crear.apply(i);
+        }
+        long despues = heapTrasGc();
+        // El array que los sostiene no forma parte del coste de cada pedido.
+        long array = 16L + 4L * PEDIDOS_HEAP;
+        for (int i = 0; i < PEDIDOS_HEAP; i++) {
+            comprobar.accept(pedidos[i], i);
+        }
+        return despues - antes - array;
+    }
+
+    private static Map<Long, Integer> cantidadesEsperadas(int pedido) {
+        Map<Long, Integer> cantidades = new HashMap<>();
+        for (int l = 0; l < LINEAS_POR_PEDIDO; l++) {
+            cantidades.put(idProducto(pedido, l), 1 + l);
+        }
+        return cantidades;
+    }
+
+    private static long heapTrasGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long idProducto(int pedido, int linea) {
+        return 1 + (pedido * 31L + linea * 7919L) % CATALOGO;
+    }
+
+    private static ServicioPedido servicioPedido(ServicioProducto servicioProducto) {
+        PasarelaPago pasarela = new PasarelaPago() {
+            @Override
+            public boolean procesarPago(double monto) {
+                return true;
+            }
+
+            @Override
+            public String getNombrePasarela() {
+                return "Prueba";
+            }
+        };
+        RepositorioPedidoImpl pedidos = new RepositorioPedidoImpl();
+        ServicioReservas reservas = new ServicioReservas(servicioProducto, pedidos, 60_000, 100, System::currentTimeMillis);
+        return new ServicioPedido(pedidos, servicioProducto, new ServicioPago(pasarela),
+                new ServicioGestionInventario(new ServicioAuditoria(null)), reservas);
+    }
+
+    /**
+     * Forma que tenía {@link Pedido} antes de {@link LineasPedido}.
+     */
+    private record PedidoConProductos(Long id, List<Producto> productos, double total, String estado) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.p10.pago;
+
+import com.example.p10.config.ConfiguracionPagos;
+import com.example.p10.contratos.PasarelaPago;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnrutadorPasarelasTest {
+
+    private static final int PAGOS_POR_FASE = 4_000;
+
+    // Reloj simulado: cada pasarela falsa lo adelanta su latencia, así la simulación no espera de verdad.
+    private final AtomicLong relojNanos = new AtomicLong();
+
+    @Test
+    void elTraficoHuyeDeLaPasarelaDegradadaYVuelveAlRecuperarse() {
+        PasarelaFalsa rapida = new PasarelaFalsa(2);
+        PasarelaFalsa media = new PasarelaFalsa(3);
+        PasarelaFalsa lenta = new PasarelaFalsa(4);
+        Map<String, PasarelaFalsa> pasarelas = new LinkedHashMap<>();
+        pasarelas.put("rapida", rapida);
+        pasarelas.put("media", media);
+        pasarelas.put("lenta", lenta);
+        EnrutadorPasarelas enrutador = new EnrutadorPasarelas(pasarelas, 0.2, 0.02, 10, relojNanos::get);
+
+        // 1. Sana: la más rápida recibe más tráfico, pero no todo.
+        Map<String, Double> reparto = simular(enrutador, pasarelas);
+        assertTrue(reparto.get("rapida") > reparto.get("media") && reparto.get("media") > reparto.get("lenta"));
+        assertTrue(reparto.get("rapida") < 0.6 && reparto.get("lenta") > 0.1, "Efecto manada: " + reparto);
+
+        // 2. La rápida se degrada a 50 ms: su tráfico cae casi a cero.
+        rapida.latenciaMs = 50;
+        simular(enrutador, pasarelas);
+        reparto = simular(enrutador, pasarelas);
+        assertTrue(reparto.get("rapida") < 0.08, "La degradada sigue recibiendo: " + reparto);
+
+        // 3. Se recupera, y más rápida que antes: la exploración lo detecta y el tráfico vuelve.
+        rapida.latenciaMs = 1;
+        simular(enrutador, pasarelas);
+        reparto = simular(enrutador, pasarelas);
+        assertTrue(reparto.get("rapida") > 0.45, "No se detectó la recuperación: " + reparto);
+
+        // 4. Empieza a fallar la mitad de las veces: se penaliza aunque siga siendo la más rápida.
+        rapida.tasaError = 0.5;
+        simular(enrutador, pasarelas);
+        reparto = simular(enrutador, pasarelas);
+        assertTrue(reparto.get("rapida") < 0.35, "La pasarela con errores sigue recibiendo: " + reparto);
+        assertTrue(enrutador.getEstado().get("rapida").tasaError() > 0.2);
+    }
+
+    @Test
+    void losErroresNoSeReintentanEnOtraPasarela() {
+        PasarelaFalsa caida = new PasarelaFalsa(1);
+        caida.tasaError = 1;
+        EnrutadorPasarelas enrutador = new EnrutadorPasarelas(Map.of("caida", caida), 0.2, 0, 10, relojNanos::get);
+
+        assertThrows(IllegalStateException.class, () -> enrutador.procesarPago(10));
+        assertEquals(1, caida.llamadas);
+        assertEquals(1.0 * 0.2, enrutador.getEstado().get("caida").tasaError(), 1e-9);
+    }
+
+    @Test
+    void laConfiguracionNoEnrutaPagosALaPasarelaSimulada() {
+        Map<String, PasarelaPago> pasarelas = new LinkedHashMap<>();
+        pasarelas.put("payPal", new PasarelaFalsa(1));
+        try (PasarelaPagoSimulada simulada = new PasarelaPagoSimulada("Simulada", 0, 0)) {
+            pasarelas.put("pasarelaPagoSimulada", simulada);
+
+            EnrutadorPasarelas enrutador = new ConfiguracionPagos().enrutadorPasarelas(pasarelas, 0.2, 0.02, 10);
+
+            assertEquals(List.of("payPal"), List.copyOf(enrutador.getEstado().keySet()));
+            assertEquals(0, simulada.getLlamadas());
+        }
+    }
+
+    private Map<String, Double> simular(EnrutadorPasarelas enrutador, Map<String, PasarelaFalsa> pasarelas) {
+        Map<String, Long> antes = new HashMap<>();
+        pasarelas.forEach((nombre, pasarela) -> antes.put(nombre, pasarela.llamadas));
+        for (int i = 0; i < PAGOS_POR_FASE; i++) {
+            try {
+                enrutador.procesarPago(10);
+            } catch (IllegalStateException e) {
+                // Error simulado de la pasarela: el enrutador ya lo ha contabilizado.
+            }
+        }
+        Map<String, Double> reparto = new LinkedHashMap<>();
+        pasarelas.forEach((nombre, pasarela) -> reparto.put(nombre, (pasarela.llamadas - antes.get(nombre)) / (double) PAGOS_POR_FASE));
+        return reparto;
+    }
+
+    private final class PasarelaFalsa implements PasarelaPago {
+        private final Random aleatorio = new Random(7);
+        private long latenciaMs;
+        private double tasaError;
+        private long llamadas;
+
+        private PasarelaFalsa(long latenciaMs) {
+            this.latenciaMs = latenciaMs;
+        }
+
+        @Override
+        public boolean procesarPago(double monto) {
+            llamadas++;
+            relojNanos.addAndGet(latenciaMs * 1_000_000);
+            if (aleatorio.nextDouble() < tasaError) {
+                throw new IllegalStateException("Error simulado");
+            }
+            return true;
+        }
+
+        @Override
+        public String getNombrePasarela() {
+            return "Falsa";
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.p10.repositorio;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.p10.contratos.PasarelaPago;
+import com.example.p10.modelo.LineasPedido;
+import com.example.p10.modelo.Pedido;
+import com.example.p10.modelo.Producto;
+import com.example.p10.servicio.ServicioAuditoria;
+import com.example.p10.servicio.ServicioGestionInventario;
+import com.example.p10.servicio.ServicioPago;
+import com.example.p10.servicio.ServicioPedido;
+import com.example.p10.servicio.ServicioProducto;
+import com.example.p10.servicio.ServicioReservas;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepositorioPedidoImplTest {
+
+    private static final List<String> ESTADOS = List.of("PENDIENTE", "PAGADO", "PAGO_FALLIDO", "CANCELADO");
+    private static final int PEDIDOS_BENCHMARK = Integer.getInteger("pedidos.consultas.total", 1_000_000);
+
+    @BeforeAll
+    static void silenciarTrazas() {
+        ((Logger) LoggerFactory.getLogger("com.example.p10")).setLevel(Level.INFO);
+    }
+
+    @Test
+    void guardarDesdeVariosHilosNoRepiteNiPierdeIds() throws InterruptedException {
+        RepositorioPedidoImpl repositorio = new RepositorioPedidoImpl();
+        int hilos = 8;
+        int porHilo = 20_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        enParalelo(hilos, hilo -> {
+            for (int i = 0; i < porHilo; i++) {
+                Pedido pedido = repositorio.guardar(new Pedido(null, LineasPedido.VACIAS, i, "PENDIENTE"));
+                assertTrue(ids.add(pedido.getId()), "ID repetido: " + pedido.getId());
+            }
+        });
+
+        assertEquals(hilos * porHilo, ids.size());
+        assertEquals(hilos * porHilo, repositorio.buscarPorEstado("PENDIENTE").size());
+        assertEquals(hilos * porHilo, repositorio.buscarPorRangoDeTotal(0, porHilo).size());
+        for (long id = 1; id <= hilos * porHilo; id++) {
+            assertTrue(repositorio.buscarPorId(id).isPresent());
+        }
+    }
+
+    @Test
+    void losIndicesSiguenAlEstadoConTransicionesConcurrentes() throws InterruptedException {
+        RepositorioPedidoImpl repositorio = new RepositorioPedidoImpl();
+        int pedidos = 50_000;
+        for (int i = 0; i < pedidos; i++) {
+            repositorio.guardar(new Pedido(null, LineasPedido.VACIAS, i % 1000, "PENDIENTE"));
+        }
+
+        // Mientras cuatro hilos se disputan cada pedido, un lector comprueba que ningún pedido
+        // aparece en dos estados a la vez ni desaparece a mitad de un cambio.
+        AtomicBoolean terminado = new AtomicBoolean();
+        AtomicInteger lecturas = new AtomicInteger();
+        List<String> errores = Collections.synchronizedList(new ArrayList<>());
+        Thread lector = new Thread(() -> {
+            while (!terminado.get()) {
+                int total = repositorio.contarPorEstado().values().stream().mapToInt(Integer::intValue).sum();
+                if (total != pedidos) {
+                    errores.add("Vistos " + total + " pedidos en los índices");
+                }
+                lecturas.incrementAndGet();
+            }
+        });
+        lector.start();
+
+        AtomicInteger ganados = new AtomicInteger();
+        enParalelo(4, hilo -> {
+            String destino = ESTADOS.get(1 + hilo % 3);
+            for (long id = 1; id <= pedidos; id++) {
+                if (repositorio.actualizarEstado(id, "PENDIENTE", destino)) {
+                    ganados.incrementAndGet();
+                }
+            }
+        });
+        terminado.set(true);
+        lector.join();
+
+        assertTrue(errores.isEmpty(), () -> errores.get(0));
+        assertEquals(pedidos, ganados.get(), "Cada pedido sale de PENDIENTE una sola vez");
+        assertTrue(repositorio.buscarPorEstado("PENDIENTE").isEmpty());
+        assertFalse(repositorio.contarPorEstado().containsKey("PENDIENTE"));
+        Set<Long> vistos = new HashSet<>();
+        for (String estado : ESTADOS) {
+            for (Pedido pedido : repositorio.buscarPorEstado(estado)) {
+                assertEquals(estado, pedido.getEstado());
+                assertTrue(vistos.add(pedido.getId()));
+            }
+        }
+        assertEquals(pedidos, vistos.size());
+        assertTrue(lecturas.get() > 0);
+    }
+
+    @Test
+    void laConsultaPorRangoDeTotalCoincideConUnRecorridoCompleto() throws InterruptedException {
+        RepositorioPedidoImpl repositorio = new RepositorioPedidoImpl();
+        enParalelo(4, hilo -> {
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            for (int i = 0; i < 10_000; i++) {
+                Pedido pedido = repositorio.guardar(new Pedido(null, LineasPedido.VACIAS, aleatorio.nextInt(0, 500) * 1.5, "PENDIENTE"));
+                // Algunos pedidos cambian de total después de guardarse.
+                if (i % 10 == 0) {
+                    pedido.setTotal(pedido.getTotal() + 100);
+                    repositorio.guardar(pedido);
+                }
+            }
+        });
+
+        List<Pedido> enRango = repositorio.buscarPorRangoDeTotal(120.0, 300.0);
+        List<Pedido> esperado = new ArrayList<>();
+        for (long id = 1; id <= 40_000; id++) {
+            Pedido pedido = repositorio.buscarPorId(id).orElseThrow();
+            if (pedido.getTotal() >= 120.0 && pedido.getTotal() <= 300.0) {
+                esperado.add(pedido);
+            }
+        }
+        esperado.sort(Comparator.comparingDouble(Pedido::getTotal).thenComparing(Pedido::getId));
+        assertEquals(esperado, enRango);
+        assertTrue(repositorio.buscarPorRangoDeTotal(300.0, 120.0).isEmpty());
+    }
+
+    @Test
+    void procesarPagoPedidoMueveElPedidoDeIndice() {
+        RepositorioProductoImpl productos = new RepositorioProductoImpl();
+        productos.guardar(new Producto(1L, "Laptop", 1200.0, 100));
+        RepositorioPedidoImpl pedidos = new RepositorioPedidoImpl();
+        ServicioPedido servicio = servicioPedido(productos, pedidos);
+
+        Pedido caro = servicio.crearPedido(List.of(new Producto(1L, null, 0, 5)));
+        Pedido barato = servicio.crearPedido(List.of(new Producto(1L, null, 0, 1)));
+        // Cambiar la copia devuelta no toca el pedido guardado ni sus índices.
+        caro.setEstado("PAGADO");
+        assertEquals(2, servicio.obtenerPedidosPorEstado("PENDIENTE").size());
+
+        assertTrue(servicio.procesarPagoPedido(barato.getId()));
+        assertFalse(servicio.procesarPagoPedido(caro.getId()));
+
+        assertEquals(List.of(barato.getId()), ids(servicio.obtenerPedidosPorEstado("PAGADO")));
+        assertEquals(List.of(caro.getId()), ids(servicio.obtenerPedidosPorEstado("PAGO_FALLIDO")));
+        assertTrue(servicio.obtenerPedidosPorEstado("PENDIENTE").isEmpty());
+        assertEquals(List.of(caro.getId()), ids(servicio.obtenerPedidosPorRangoDeTotal(5000, 7000)));
+        // Un pedido ya pagado no vuelve a cobrarse.
+        assertFalse(servicio.procesarPagoPedido(barato.getId()));
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkConsultasConIndiceFrenteARecorrido() {
+        RepositorioPedidoImpl repositorio = new RepositorioPedidoImpl();
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < PEDIDOS_BENCHMARK; i++) {
+            // Un 1 % de pagos fallidos y totales entre 0 y 10.000.
+            String estado = i % 100 == 0 ? "PAGO_FALLIDO" : ESTADOS.get(i % 2 == 0 ? 0 : 1);
+            repositorio.guardar(new Pedido(null, LineasPedido.VACIAS, aleatorio.nextInt(0, 1_000_000) / 100.0, estado));
+        }
+        double nanosGuardar = (System.nanoTime() - inicio) / (double) PEDIDOS_BENCHMARK;
+
+        int repeticiones = 20;
+        int fallidos = 0;
+        int enRango = 0;
+        long nanosEstado = Long.MAX_VALUE;
+        long nanosRango = Long.MAX_VALUE;
+        long nanosRecorrido = Long.MAX_VALUE;
+        for (int r = 0; r < repeticiones; r++) {
+            inicio = System.nanoTime();
+            fallidos = repositorio.buscarPorEstado("PAGO_FALLIDO").size();
+            nanosEstado = Math.min(nanosEstado, System.nanoTime() - inicio);
+
+            inicio = System.nanoTime();
+            enRango = repositorio.buscarPorRangoDeTotal(5000.0, 5010.0).size();
+            nanosRango = Math.min(nanosRango, System.nanoTime() - inicio);
+
+            // Sin índices: recorrer todos los pedidos y filtrar.
+            inicio = System.nanoTime();
+            int encontrados = 0;
+            int encontradosEnRango = 0;
+            for (long id = 1; id <= PEDIDOS_BENCHMARK; id++) {
+                Pedido pedido = repositorio.buscarPorId(id).orElseThrow();
+                if ("PAGO_FALLIDO".equals(pedido.getEstado())) {
+                    encontrados++;
+                }
+                if (pedido.getTotal() >= 5000.0 && pedido.getTotal() <= 5010.0) {
+                    encontradosEnRango++;
+                }
+            }
+            nanosRecorrido = Math.min(nanosRecorrido, System.nanoTime() - inicio);
+            // Los índices devuelven exactamente lo mismo que el recorrido completo.
+            assertEquals(fallidos, encontrados);
+            assertEquals(enRango, encontradosEnRango);
+        }
+
+        assertEquals(PEDIDOS_BENCHMARK / 100, fallidos);
+        System.out.printf("BENCHMARK: %,d pedidos (%.0f ns por guardar) -> por estado %,d resultados en %.2f ms, "
+                        + "por rango de total %,d resultados en %.3f ms, recorrido completo %.2f ms%n",
+                PEDIDOS_BENCHMARK, nanosGuardar, fallidos, nanosEstado / 1e6, enRango, nanosRango / 1e6, nanosRecorrido / 1e6);
+    }
+
+    private static List<Long> ids(List<Pedido> pedidos) {
+        return pedidos.stream().map(Pedido::getId).toList();
+    }
+
+    private static void enParalelo(int hilos, IntConsumer tarea) throws InterruptedException {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            int hilo = h;
+            tareas.add(ejecutor.submit(() -> tarea.accept(hilo)));
+        }
+        ejecutor.shutdown();
+        assertTrue(ejecutor.awaitTermination(1, TimeUnit.MINUTES));
+        for (Future<?> resultado : tareas) {
+            try {
+                resultado.get();
+            } catch (ExecutionException e) {
+                throw new AssertionError(e.getCause());
+            }
+        }
+    }
+
+    private static ServicioPedido servicioPedido(RepositorioProductoImpl productos, RepositorioPedidoImpl pedidos) {
+        // Se rechazan los pagos de más de 5.000.
+        PasarelaPago pasarela = new PasarelaPago() {
+            @Override
+            public boolean procesarPago(double monto) {
+                return monto <= 5000;
+            }
+
+            @Override
+            public String getNombrePasarela() {
+                return "Prueba";
+            }
+        };
+        ServicioProducto servicioProducto = new ServicioProducto(productos);
+        ServicioReservas reservas = new ServicioReservas(servicioProducto, pedidos, 60_000, 100, System::currentTimeMillis);
+        return new ServicioPedido(pedidos, servicioProducto, new ServicioPago(pasarela),
+                new ServicioGestionInventario(new ServicioAuditoria(null)), reservas);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.p10.repositorio;
+
+import com.example.p10.excepcion.StockInsuficienteException;
+import com.example.p10.modelo.Producto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RepositorioProductoImplTest {
+
+    @Test
+    void modificarUnaCopiaDevueltaNoCambiaElStockGuardado() {
+        RepositorioProductoImpl repositorio = new RepositorioProductoImpl();
+        repositorio.initDB();
+
+        Producto laptop = repositorio.buscarPorId(1L).orElseThrow();
+        laptop.setStock(1_000);
+        repositorio.buscarPorIds(List.of(1L, 2L)).values().forEach(producto -> producto.setStock(0));
+
+        assertEquals(10, repositorio.buscarPorId(1L).orElseThrow().getStock());
+        assertEquals(50, repositorio.buscarPorId(2L).orElseThrow().getStock());
+        assertNotSame(repositorio.buscarPorId(1L).orElseThrow(), repositorio.buscarPorId(1L).orElseThrow());
+        // La reserva comprueba el stock guardado, no el de la copia modificada.
+        assertThrows(StockInsuficienteException.class, () -> repositorio.reservarStock(Map.of(1L, 11)));
+    }
+
+    @Test
+    void guardarConservaUnaCopiaDelProducto() {
+        RepositorioProductoImpl repositorio = new RepositorioProductoImpl();
+        Producto teclado = new Producto(3L, "Teclado", 45.0, 7);
+        repositorio.guardar(teclado);
+
+        teclado.setStock(0);
+        repositorio.reservarStock(Map.of(3L, 2));
+
+        assertEquals(5, repositorio.buscarPorId(3L).orElseThrow().getStock());
+    }
+}
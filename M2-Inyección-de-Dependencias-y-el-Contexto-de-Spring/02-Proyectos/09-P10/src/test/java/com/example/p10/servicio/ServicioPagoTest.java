@@ -0,0 +1,196 @@
+package com.example.p10.servicio;
+
+import com.example.p10.contratos.PasarelaPago;
+import com.example.p10.contratos.PasarelaPagoAsincrona;
+import com.example.p10.excepcion.PasarelaNoDisponibleException;
+import com.example.p10.pago.CircuitoPago;
+import com.example.p10.pago.LoteadorPagos;
+import com.example.p10.pago.PasarelaPagoAdaptada;
+import com.example.p10.pago.PasarelaPagoSimulada;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServicioPagoTest {
+
+    private static final long LATENCIA_MS = 5;
+    private static final int PAGOS_SINCRONOS = 200;
+    private static final int PAGOS_ASINCRONOS = Integer.getInteger("pagos.benchmark.total", 20_000);
+
+    @Test
+    void losPagosSeLiquidanEnLotes() {
+        try (PasarelaPagoSimulada pasarela = new PasarelaPagoSimulada("Lotes", 20, 0);
+             LoteadorPagos loteador = loteador(pasarela, new CircuitoPago("Lotes", 5, 1_000, System::currentTimeMillis), 2_000)) {
+            ServicioPago servicio = new ServicioPago(pasarela, loteador);
+
+            List<CompletableFuture<Boolean>> pagos = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                // Los importes no positivos los rechaza la pasarela: cada pago recibe su propio resultado.
+                pagos.add(servicio.procesarAsync(i % 10 == 0 ? 0 : 10.0));
+            }
+
+            for (int i = 0; i < pagos.size(); i++) {
+                assertEquals(i % 10 != 0, pagos.get(i).join());
+            }
+            assertTrue(pasarela.getLlamadas() < 100, "Llamadas a la pasarela: " + pasarela.getLlamadas());
+        }
+    }
+
+    @Test
+    void unaLlamadaLentaVenceSuPlazo() {
+        try (PasarelaPagoSimulada pasarela = new PasarelaPagoSimulada("Lenta", 500, 0);
+             LoteadorPagos loteador = loteador(pasarela, new CircuitoPago("Lenta", 5, 1_000, System::currentTimeMillis), 50)) {
+            CompletionException error = assertThrows(CompletionException.class, () -> loteador.procesar(10.0).join());
+            assertInstanceOf(TimeoutException.class, error.getCause());
+        }
+    }
+
+    @Test
+    void laPasarelaAdaptadaUsaSuPoolAcotadoYRechazaLoQueNoCabe() throws InterruptedException {
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<String> hilos = new CopyOnWriteArrayList<>();
+        PasarelaPago bloqueada = new PasarelaPago() {
+            @Override
+            public boolean procesarPago(double monto) {
+                hilos.add(Thread.currentThread().getName());
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+
+            @Override
+            public String getNombrePasarela() {
+                return "Bloqueada";
+            }
+        };
+        try (PasarelaPagoAdaptada pasarela = new PasarelaPagoAdaptada(bloqueada, 1, 1)) {
+            CompletableFuture<Boolean> enCurso = pasarela.procesarPagoAsync(10.0);
+            CompletableFuture<Boolean> enCola = pasarela.procesarPagoAsync(10.0);
+            // Un hilo ocupado y un pago en cola: el tercero no cabe.
+            CompletionException error = assertThrows(CompletionException.class, () -> pasarela.procesarPagoAsync(10.0).join());
+            assertInstanceOf(RejectedExecutionException.class, error.getCause());
+
+            liberar.countDown();
+            assertTrue(enCurso.join());
+            assertTrue(enCola.join());
+            assertEquals(2, hilos.size());
+            assertTrue(hilos.stream().allMatch(hilo -> hilo.startsWith("pasarela-adaptada-")), hilos.toString());
+        }
+    }
+
+    @Test
+    void unPagoFallidoNoArrastraAlRestoDeSuLoteAdaptado() {
+        PasarelaPago fallaConTres = new PasarelaPago() {
+            @Override
+            public boolean procesarPago(double monto) {
+                if (monto == 3) {
+                    throw new IllegalStateException("Error de la pasarela con el pago de " + monto);
+                }
+                return true;
+            }
+
+            @Override
+            public String getNombrePasarela() {
+                return "FallaConTres";
+            }
+        };
+        List<Double> montos = List.of(1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0, 10.0);
+        try (PasarelaPagoAdaptada pasarela = new PasarelaPagoAdaptada(fallaConTres, 4, 100);
+             // Con lotes de 10 y una espera larga, los 10 pagos salen juntos en el mismo lote.
+             LoteadorPagos loteador = new LoteadorPagos(pasarela,
+                     new CircuitoPago("FallaConTres", 5, 1_000, System::currentTimeMillis), 10, 60_000, 2_000)) {
+            List<CompletableFuture<Boolean>> directos = pasarela.procesarLote(montos);
+            List<CompletableFuture<Boolean>> loteados = montos.stream().map(loteador::procesar).toList();
+
+            for (List<CompletableFuture<Boolean>> pagos : List.of(directos, loteados)) {
+                for (int i = 0; i < montos.size(); i++) {
+                    if (montos.get(i) == 3) {
+                        CompletionException error = assertThrows(CompletionException.class, pagos.get(i)::join);
+                        assertInstanceOf(IllegalStateException.class, error.getCause());
+                    } else {
+                        assertTrue(pagos.get(i).join(), "Pago de " + montos.get(i));
+                    }
+                }
+            }
+            assertEquals(CircuitoPago.Estado.CERRADO, loteador.getCircuito().getEstado());
+        }
+    }
+
+    @Test
+    void elCortacircuitosFallaRapidoYSeRecupera() {
+        AtomicLong reloj = new AtomicLong();
+        CircuitoPago circuito = new CircuitoPago("Caida", 3, 10_000, reloj::get);
+        try (PasarelaPagoSimulada pasarela = new PasarelaPagoSimulada("Caida", 1, 1.0);
+             LoteadorPagos loteador = loteador(pasarela, circuito, 2_000)) {
+            for (int i = 0; i < 3; i++) {
+                CompletionException error = assertThrows(CompletionException.class, () -> loteador.procesar(10.0).join());
+                assertInstanceOf(IllegalStateException.class, error.getCause());
+            }
+            assertEquals(CircuitoPago.Estado.ABIERTO, circuito.getEstado());
+
+            // Abierto: los pagos fallan sin llegar a la pasarela.
+            long llamadas = pasarela.getLlamadas();
+            CompletionException rapido = assertThrows(CompletionException.class, () -> loteador.procesar(10.0).join());
+            assertInstanceOf(PasarelaNoDisponibleException.class, rapido.getCause());
+            assertEquals(llamadas, pasarela.getLlamadas());
+
+            // Pasado el tiempo de apertura, una llamada de prueba correcta lo cierra de nuevo.
+            pasarela.setTasaError(0);
+            reloj.addAndGet(10_000);
+            assertTrue(loteador.procesar(10.0).join());
+            assertEquals(CircuitoPago.Estado.CERRADO, circuito.getEstado());
+        }
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkSincronoFrenteAAsincronoPorLotes() {
+        try (PasarelaPagoSimulada pasarela = new PasarelaPagoSimulada("Benchmark", LATENCIA_MS, 0);
+             LoteadorPagos loteador = loteador(pasarela, new CircuitoPago("Benchmark", 5, 1_000, System::currentTimeMillis), 2_000)) {
+            ServicioPago servicio = new ServicioPago(pasarela, loteador);
+
+            long inicio = System.nanoTime();
+            for (int i = 0; i < PAGOS_SINCRONOS; i++) {
+                assertTrue(servicio.procesar(10.0));
+            }
+            double sincronoPorSegundo = PAGOS_SINCRONOS * 1e9 / (System.nanoTime() - inicio);
+
+            long llamadasAntes = pasarela.getLlamadas();
+            inicio = System.nanoTime();
+            List<CompletableFuture<Boolean>> pagos = new ArrayList<>(PAGOS_ASINCRONOS);
+            for (int i = 0; i < PAGOS_ASINCRONOS; i++) {
+                pagos.add(servicio.procesarAsync(10.0));
+            }
+            CompletableFuture.allOf(pagos.toArray(CompletableFuture[]::new)).join();
+            double asincronoPorSegundo = PAGOS_ASINCRONOS * 1e9 / (System.nanoTime() - inicio);
+
+            assertFalse(pagos.stream().anyMatch(pago -> !pago.join()));
+            System.out.printf("BENCHMARK: pasarela de %d ms -> síncrono %,.0f pagos/s; asíncrono por lotes %,.0f pagos/s "
+                            + "(%,d pagos en %,d llamadas)%n",
+                    LATENCIA_MS, sincronoPorSegundo, asincronoPorSegundo, PAGOS_ASINCRONOS, pasarela.getLlamadas() - llamadasAntes);
+            assertTrue(asincronoPorSegundo > sincronoPorSegundo);
+        }
+    }
+
+    private static LoteadorPagos loteador(PasarelaPagoAsincrona pasarela, CircuitoPago circuito, long timeoutMs) {
+        return new LoteadorPagos(pasarela, circuito, 100, 5, timeoutMs);
+    }
+}
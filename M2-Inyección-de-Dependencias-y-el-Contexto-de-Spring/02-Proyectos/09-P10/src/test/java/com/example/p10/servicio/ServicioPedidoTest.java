@@ -0,0 +1,227 @@
+package com.example.p10.servicio;
+
+import com.example.p10.contratos.PasarelaPago;
+import com.example.p10.contratos.RepositorioPedido;
+import com.example.p10.excepcion.PasarelaNoDisponibleException;
+import com.example.p10.excepcion.StockInsuficienteException;
+import com.example.p10.modelo.Pedido;
+import com.example.p10.modelo.Producto;
+import com.example.p10.repositorio.RepositorioPedidoImpl;
+import com.example.p10.repositorio.RepositorioProductoImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServicioPedidoTest {
+
+    private static final int PRODUCTOS = 16;
+    private static final int STOCK_INICIAL = 1_000_000;
+    private static final long DURACION_MS = Long.getLong("pedidos.estres.duracion-ms", 1_000);
+
+    @Test
+    void unaLineaSinStockNoDescuentaNingunaOtra() {
+        RepositorioProductoImpl productos = repositorioConProductos(3, 5);
+        ServicioPedido servicio = servicioPedido(productos, new RepositorioPedidoImpl());
+
+        assertThrows(StockInsuficienteException.class, () -> servicio.crearPedido(List.of(
+                linea(1, 2), linea(2, 2), linea(3, 6))));
+
+        for (long id = 1; id <= 3; id++) {
+            assertEquals(5, productos.buscarPorId(id).orElseThrow().getStock());
+        }
+    }
+
+    @Test
+    void lasLineasRepetidasSeSumanAntesDeReservar() {
+        RepositorioProductoImpl productos = repositorioConProductos(1, 5);
+        ServicioPedido servicio = servicioPedido(productos, new RepositorioPedidoImpl());
+
+        // Por separado caben (3 y 3 de 5), pero juntas no.
+        assertThrows(StockInsuficienteException.class, () -> servicio.crearPedido(List.of(linea(1, 3), linea(1, 3))));
+        assertEquals(5, productos.buscarPorId(1L).orElseThrow().getStock());
+
+        Pedido pedido = servicio.crearPedido(List.of(linea(1, 2), linea(1, 3)));
+        assertEquals(5 * 10.0, pedido.getTotal());
+        assertEquals(0, productos.buscarPorId(1L).orElseThrow().getStock());
+    }
+
+    @Test
+    void siElPedidoNoSeGuardaSeLiberaElStock() {
+        RepositorioProductoImpl productos = repositorioConProductos(2, 5);
+        RepositorioPedido falla = new RepositorioPedido() {
+            @Override
+            public Optional<Pedido> buscarPorId(Long id) {
+                return Optional.empty();
+            }
+
+            @Override
+            public Pedido guardar(Pedido pedido) {
+                throw new IllegalStateException("Base de datos caída");
+            }
+
+            @Override
+            public boolean actualizarEstado(Long id, String esperado, String nuevo) {
+                return false;
+            }
+
+            @Override
+            public List<Pedido> buscarPorEstado(String estado) {
+                return List.of();
+            }
+
+            @Override
+            public Map<String, Integer> contarPorEstado() {
+                return Map.of();
+            }
+
+            @Override
+            public List<Pedido> buscarPorRangoDeTotal(double desde, double hasta) {
+                return List.of();
+            }
+        };
+        ServicioPedido servicio = servicioPedido(productos, falla);
+
+        assertThrows(IllegalStateException.class, () -> servicio.crearPedido(List.of(linea(1, 2), linea(2, 3))));
+
+        assertEquals(5, productos.buscarPorId(1L).orElseThrow().getStock());
+        assertEquals(5, productos.buscarPorId(2L).orElseThrow().getStock());
+    }
+
+    @Test
+    void siLaPasarelaLanzaUnaExcepcionSeLiberaElStockYElPedidoQuedaFallido() {
+        RepositorioProductoImpl productos = repositorioConProductos(2, 5);
+        RepositorioPedidoImpl pedidos = new RepositorioPedidoImpl();
+        ServicioPedido servicio = servicioPedido(productos, pedidos, monto -> {
+            throw new PasarelaNoDisponibleException("Pasarela caída");
+        });
+        Pedido pedido = servicio.crearPedido(List.of(linea(1, 2), linea(2, 3)));
+
+        assertThrows(PasarelaNoDisponibleException.class, () -> servicio.procesarPagoPedido(pedido.getId()));
+
+        assertEquals(5, productos.buscarPorId(1L).orElseThrow().getStock());
+        assertEquals(5, productos.buscarPorId(2L).orElseThrow().getStock());
+        assertEquals("PAGO_FALLIDO", pedidos.buscarPorId(pedido.getId()).orElseThrow().getEstado());
+        // El pedido ya no está pendiente: no se vuelve a cobrar ni a liberar su stock.
+        assertFalse(servicio.procesarPagoPedido(pedido.getId()));
+        assertEquals(5, productos.buscarPorId(1L).orElseThrow().getStock());
+    }
+
+    @Test
+    void estresDeReservasConcurrentesNiSobreventaNiInterbloqueos() throws InterruptedException {
+        for (int hilos : new int[]{1, 4, 16}) {
+            reservarEnParalelo(hilos);
+        }
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkReservasConcurrentes() throws InterruptedException {
+        for (int hilos : new int[]{1, 4, 16}) {
+            long[] resultado = reservarEnParalelo(hilos);
+            System.out.printf("BENCHMARK: %d hilos -> %,d reservas/s (%,d correctas, %,d rechazadas por falta de stock)%n",
+                    hilos, (resultado[0] + resultado[1]) * 1000 / DURACION_MS, resultado[0], resultado[1]);
+        }
+    }
+
+    /**
+     * Reserva y cancela pedidos aleatorios desde {@code hilos} hilos durante DURACION_MS y comprueba
+     * que no haya sobreventa ni interbloqueos.
+     *
+     * @return Las reservas correctas y las rechazadas por falta de stock.
+     */
+    private static long[] reservarEnParalelo(int hilos) throws InterruptedException {
+        RepositorioProductoImpl productos = repositorioConProductos(PRODUCTOS, STOCK_INICIAL);
+        AtomicLongArray reservado = new AtomicLongArray(PRODUCTOS + 1);
+        AtomicLong correctas = new AtomicLong();
+        AtomicLong rechazadas = new AtomicLong();
+        long fin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURACION_MS);
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        for (int h = 0; h < hilos; h++) {
+            ejecutor.execute(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                while (System.nanoTime() < fin) {
+                    // Pedidos de 1 a 5 productos distintos en orden aleatorio, para provocar
+                    // interbloqueos si los cerrojos no se tomaran siempre en el mismo orden.
+                    Map<Long, Integer> cantidades = new HashMap<>();
+                    int lineas = aleatorio.nextInt(1, 6);
+                    while (cantidades.size() < lineas) {
+                        cantidades.put((long) aleatorio.nextInt(1, PRODUCTOS + 1), aleatorio.nextInt(1, 40));
+                    }
+                    try {
+                        productos.reservarStock(cantidades);
+                        correctas.incrementAndGet();
+                        // La mitad de los pedidos se cancelan, para que el stock no se agote enseguida.
+                        if (aleatorio.nextBoolean()) {
+                            productos.liberarStock(cantidades);
+                        } else {
+                            cantidades.forEach((id, cantidad) -> reservado.addAndGet(id.intValue(), cantidad));
+                        }
+                    } catch (StockInsuficienteException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                }
+            });
+        }
+        ejecutor.shutdown();
+        assertTrue(ejecutor.awaitTermination(DURACION_MS + 30_000, TimeUnit.MILLISECONDS), "Posible interbloqueo");
+
+        for (long id = 1; id <= PRODUCTOS; id++) {
+            int stock = productos.buscarPorId(id).orElseThrow().getStock();
+            assertTrue(stock >= 0);
+            assertEquals(STOCK_INICIAL, stock + reservado.get((int) id), "Sobreventa en el producto " + id);
+        }
+        return new long[]{correctas.get(), rechazadas.get()};
+    }
+
+    private static RepositorioProductoImpl repositorioConProductos(int total, int stock) {
+        RepositorioProductoImpl productos = new RepositorioProductoImpl();
+        for (long id = 1; id <= total; id++) {
+            productos.guardar(new Producto(id, "Producto " + id, 10.0, stock));
+        }
+        return productos;
+    }
+
+    private static ServicioPedido servicioPedido(RepositorioProductoImpl productos, RepositorioPedido pedidos) {
+        return servicioPedido(productos, pedidos, monto -> true);
+    }
+
+    private static ServicioPedido servicioPedido(RepositorioProductoImpl productos, RepositorioPedido pedidos,
+                                                 Predicate<Double> cobro) {
+        PasarelaPago pasarela = new PasarelaPago() {
+            @Override
+            public boolean procesarPago(double monto) {
+                return cobro.test(monto);
+            }
+
+            @Override
+            public String getNombrePasarela() {
+                return "Prueba";
+            }
+        };
+        ServicioGestionInventario inventario = new ServicioGestionInventario(new ServicioAuditoria(null));
+        ServicioProducto servicioProducto = new ServicioProducto(productos);
+        ServicioReservas reservas = new ServicioReservas(servicioProducto, pedidos, 60_000, 100, System::currentTimeMillis);
+        return new ServicioPedido(pedidos, servicioProducto, new ServicioPago(pasarela), inventario, reservas);
+    }
+
+    private static Producto linea(long idProducto, int cantidad) {
+        return new Producto(idProducto, null, 0, cantidad);
+    }
+}
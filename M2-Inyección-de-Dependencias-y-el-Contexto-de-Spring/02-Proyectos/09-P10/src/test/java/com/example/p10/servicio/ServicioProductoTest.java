@@ -0,0 +1,219 @@
+package com.example.p10.servicio;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.p10.contratos.PasarelaPago;
+import com.example.p10.modelo.Pedido;
+import com.example.p10.modelo.Producto;
+import com.example.p10.repositorio.RepositorioPedidoImpl;
+import com.example.p10.repositorio.RepositorioProductoImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServicioProductoTest {
+
+    private static final int LINEAS = 500;
+    private static final int PEDIDOS_BENCHMARK = Integer.getInteger("pedidos.lotes.total", 2_000);
+    // Coste simulado de cada ida y vuelta al almacén de productos (0 = en memoria).
+    private static final int LATENCIA_US = Integer.getInteger("pedidos.lotes.latencia-us", 2);
+
+    @Test
+    void obtenerProductosPorIdOmiteLosQueNoExisten() {
+        ServicioProducto servicio = new ServicioProducto(repositorioConProductos(new RepositorioContador(), 3));
+
+        Map<Long, Producto> productos = servicio.obtenerProductosPorId(List.of(1L, 3L, 99L));
+
+        assertEquals(2, productos.size());
+        assertEquals("Producto 3", productos.get(3L).getNombre());
+    }
+
+    @Test
+    void unPedidoDe500LineasBuscaLosProductosUnaSolaVez() {
+        RepositorioContador productos = repositorioConProductos(new RepositorioContador(), LINEAS);
+        try (AnnotationConfigApplicationContext contexto = contextoInventario()) {
+            ServicioPedido servicio = servicioPedido(productos, contexto.getBean(ServicioGestionInventario.class));
+            productos.reiniciar();
+
+            Pedido pedido = servicio.crearPedido(pedidoDe(LINEAS));
+
+            assertEquals(LINEAS * 10.0, pedido.getTotal());
+            assertEquals(1, productos.busquedasEnLote.get());
+            assertEquals(0, productos.busquedasSueltas.get());
+            assertEquals(99, productos.buscarPorId((long) LINEAS).orElseThrow().getStock());
+
+            // Un producto inexistente se detecta antes de tocar el stock de los demás.
+            List<Producto> conInexistente = new ArrayList<>(pedidoDe(LINEAS));
+            conInexistente.add(new Producto(LINEAS + 1L, null, 0, 1));
+            assertThrows(IllegalArgumentException.class, () -> servicio.crearPedido(conInexistente));
+            assertEquals(99, productos.buscarPorId(1L).orElseThrow().getStock());
+        }
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkPedidosDe500LineasEnLoteFrenteALineaALinea() {
+        Logger log = (Logger) LoggerFactory.getLogger("com.example.p10");
+        Level nivel = log.getLevel();
+        // Sin diario configurado, cada evento de auditoría se escribiría en la consola.
+        log.setLevel(Level.ERROR);
+        try (AnnotationConfigApplicationContext contexto = contextoInventario()) {
+            ServicioGestionInventario inventario = contexto.getBean(ServicioGestionInventario.class);
+            RepositorioContador repositorio = repositorioConProductos(new RepositorioContador(), LINEAS);
+            repositorio.latenciaNanos = LATENCIA_US * 1_000L;
+            ServicioProducto servicio = new ServicioProducto(repositorio);
+            List<Producto> lineas = pedidoDe(LINEAS);
+            Map<Long, Integer> cantidades = new TreeMap<>();
+            lineas.forEach(linea -> cantidades.put(linea.getId(), linea.getStock()));
+
+            // Calentamiento de ambas variantes antes de medir.
+            for (int i = 0; i < PEDIDOS_BENCHMARK / 4; i++) {
+                lineaALinea(servicio, inventario, lineas, cantidades);
+                enLote(servicio, inventario, lineas, cantidades);
+            }
+            // Las dos variantes se alternan por rondas para que ninguna se beneficie del orden.
+            long nanosLineaALinea = 0;
+            long nanosEnLote = 0;
+            double control = 0;
+            for (int ronda = 0; ronda < 4; ronda++) {
+                long inicio = System.nanoTime();
+                for (int i = 0; i < PEDIDOS_BENCHMARK / 4; i++) {
+                    control += lineaALinea(servicio, inventario, lineas, cantidades);
+                }
+                nanosLineaALinea += System.nanoTime() - inicio;
+                inicio = System.nanoTime();
+                for (int i = 0; i < PEDIDOS_BENCHMARK / 4; i++) {
+                    control -= enLote(servicio, inventario, lineas, cantidades);
+                }
+                nanosEnLote += System.nanoTime() - inicio;
+            }
+
+            assertEquals(0.0, control);
+            System.out.printf("BENCHMARK: %,d pedidos de %d líneas, %d µs por llamada al repositorio -> "
+                            + "línea a línea %.1f µs/pedido (%d búsquedas), en lote %.1f µs/pedido (1 búsqueda)%n",
+                    PEDIDOS_BENCHMARK, LINEAS, LATENCIA_US, nanosLineaALinea / 1e3 / PEDIDOS_BENCHMARK, LINEAS,
+                    nanosEnLote / 1e3 / PEDIDOS_BENCHMARK);
+            assertTrue(LATENCIA_US == 0 || nanosEnLote < nanosLineaALinea);
+        } finally {
+            log.setLevel(nivel);
+        }
+    }
+
+    /**
+     * Lo que hacía {@code calcularTotalYVerificarStock} antes: una búsqueda y una verificación por línea.
+     */
+    private static double lineaALinea(ServicioProducto servicio, ServicioGestionInventario inventario,
+                                      List<Producto> lineas, Map<Long, Integer> cantidades) {
+        double total = 0;
+        for (Producto linea : lineas) {
+            total += servicio.obtenerProductoPorId(linea.getId()).orElseThrow().getPrecio() * linea.getStock();
+        }
+        for (Long idProducto : cantidades.keySet()) {
+            inventario.verificarInventario(idProducto);
+        }
+        servicio.reservarStock(cantidades);
+        servicio.liberarStock(cantidades);
+        return total;
+    }
+
+    private static double enLote(ServicioProducto servicio, ServicioGestionInventario inventario,
+                                 List<Producto> lineas, Map<Long, Integer> cantidades) {
+        Map<Long, Producto> productos = servicio.obtenerProductosPorId(cantidades.keySet());
+        double total = 0;
+        for (Producto linea : lineas) {
+            total += productos.get(linea.getId()).getPrecio() * linea.getStock();
+        }
+        inventario.verificarInventario(cantidades.keySet());
+        servicio.reservarStock(cantidades);
+        servicio.liberarStock(cantidades);
+        return total;
+    }
+
+    /**
+     * Contexto con el ciclo real entre inventario y auditoría, resuelto con proxies {@code @Lazy}.
+     */
+    private static AnnotationConfigApplicationContext contextoInventario() {
+        return new AnnotationConfigApplicationContext(ServicioAuditoria.class, ServicioGestionInventario.class);
+    }
+
+    private static List<Producto> pedidoDe(int lineas) {
+        List<Producto> pedido = new ArrayList<>(lineas);
+        for (long id = 1; id <= lineas; id++) {
+            pedido.add(new Producto(id, null, 0, 1));
+        }
+        return pedido;
+    }
+
+    private static RepositorioContador repositorioConProductos(RepositorioContador productos, int total) {
+        for (long id = 1; id <= total; id++) {
+            productos.guardar(new Producto(id, "Producto " + id, 10.0, 100));
+        }
+        return productos;
+    }
+
+    private static ServicioPedido servicioPedido(RepositorioProductoImpl productos, ServicioGestionInventario inventario) {
+        PasarelaPago pasarela = new PasarelaPago() {
+            @Override
+            public boolean procesarPago(double monto) {
+                return true;
+            }
+
+            @Override
+            public String getNombrePasarela() {
+                return "Prueba";
+            }
+        };
+        RepositorioPedidoImpl pedidos = new RepositorioPedidoImpl();
+        ServicioProducto servicioProducto = new ServicioProducto(productos);
+        ServicioReservas reservas = new ServicioReservas(servicioProducto, pedidos, 60_000, 100, System::currentTimeMillis);
+        return new ServicioPedido(pedidos, servicioProducto, new ServicioPago(pasarela), inventario, reservas);
+    }
+
+    /**
+     * Repositorio que cuenta las búsquedas que recibe y puede simular la latencia de un almacén remoto.
+     */
+    private static class RepositorioContador extends RepositorioProductoImpl {
+        final AtomicInteger busquedasSueltas = new AtomicInteger();
+        final AtomicInteger busquedasEnLote = new AtomicInteger();
+        long latenciaNanos;
+
+        @Override
+        public Optional<Producto> buscarPorId(Long id) {
+            busquedasSueltas.incrementAndGet();
+            esperar();
+            return super.buscarPorId(id);
+        }
+
+        @Override
+        public Map<Long, Producto> buscarPorIds(Collection<Long> ids) {
+            busquedasEnLote.incrementAndGet();
+            esperar();
+            return super.buscarPorIds(ids);
+        }
+
+        private void esperar() {
+            long fin = System.nanoTime() + latenciaNanos;
+            while (latenciaNanos > 0 && System.nanoTime() < fin) {
+                Thread.onSpinWait();
+            }
+        }
+
+        void reiniciar() {
+            busquedasSueltas.set(0);
+            busquedasEnLote.set(0);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.p10.servicio;
+
+import com.example.p10.modelo.LineasPedido;
+import com.example.p10.modelo.Pedido;
+import com.example.p10.modelo.Producto;
+import com.example.p10.repositorio.RepositorioPedidoImpl;
+import com.example.p10.repositorio.RepositorioProductoImpl;
+import com.example.p10.reserva.MetricasReservas;
+import com.example.p10.reserva.RuedaTemporizadores;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServicioReservasTest {
+
+    private static final int PEDIDOS_PENDIENTES = Integer.getInteger("pedidos.reservas.total", 1_000_000);
+    private static final long INICIO = 1_700_000_000_000L;
+    private static final long TTL_MS = 15 * 60_000;
+    private static final long TICK_MS = 100;
+
+    @Test
+    void laRuedaVenceCadaTemporizadorEnSuTick() {
+        Random aleatorio = new Random(42);
+        RuedaTemporizadores<Long> rueda = new RuedaTemporizadores<>(1, 0);
+        Map<Long, RuedaTemporizadores.Temporizador<Long>> programados = new HashMap<>();
+        long ahora = 0;
+        for (long i = 0; i < 100_000; i++) {
+            // Plazos de hasta 2^26 ticks: más allá del alcance de los cuatro niveles (2^24).
+            long vence = ahora + (long) Math.pow(2, aleatorio.nextDouble() * 26);
+            programados.put(vence * 1_000_000 + i, rueda.programar(vence, vence * 1_000_000 + i));
+            if (i % 10 == 0) {
+                ahora += aleatorio.nextInt(1_000);
+                comprobarVencidos(rueda.avanzar(ahora), ahora, programados);
+            }
+        }
+        // Una parte se cancela antes de vencer.
+        List<Long> claves = new ArrayList<>(programados.keySet());
+        for (int i = 0; i < claves.size(); i += 7) {
+            assertTrue(programados.remove(claves.get(i)).cancelar());
+        }
+        while (!programados.isEmpty()) {
+            ahora += 1 + aleatorio.nextInt(1 << 20);
+            comprobarVencidos(rueda.avanzar(ahora), ahora, programados);
+        }
+        assertEquals(0, rueda.pendientes());
+    }
+
+    private static void comprobarVencidos(List<Long> vencidos, long ahora,
+                                          Map<Long, RuedaTemporizadores.Temporizador<Long>> programados) {
+        for (Long clave : vencidos) {
+            assertTrue(clave / 1_000_000 <= ahora, "Vencido antes de tiempo");
+            assertTrue(programados.remove(clave) != null, "Vencido dos veces o tras cancelarse");
+        }
+        // Nada de lo que sigue pendiente debería haber vencido ya.
+        for (Long clave : programados.keySet()) {
+            assertTrue(clave / 1_000_000 > ahora, "Vencido con retraso: " + clave / 1_000_000 + " <= " + ahora);
+        }
+    }
+
+    @Test
+    void laReservaCaducadaLiberaElStockYCancelaElPedido() {
+        AtomicLong reloj = new AtomicLong(INICIO);
+        RepositorioProductoImpl productos = new RepositorioProductoImpl();
+        productos.guardar(new Producto(1L, "Laptop", 1200.0, 8));
+        RepositorioPedidoImpl pedidos = new RepositorioPedidoImpl();
+        Pedido pedido = pedidos.guardar(new Pedido(null, LineasPedido.VACIAS, 2400.0, "PENDIENTE"));
+        ServicioReservas reservas = new ServicioReservas(new ServicioProducto(productos), pedidos, TTL_MS, TICK_MS, reloj::get);
+
+        reservas.reservar(pedido.getId(), Map.of(1L, 2));
+        reloj.set(INICIO + TTL_MS - 1);
+        assertEquals(0, reservas.procesarVencidas());
+        reloj.set(INICIO + TTL_MS);
+        assertEquals(1, reservas.procesarVencidas());
+
+        assertEquals(10, productos.buscarPorId(1L).orElseThrow().getStock());
+        assertEquals("CANCELADO", pedidos.buscarPorId(pedido.getId()).orElseThrow().getEstado());
+        // Una vez caducada, ya no puede confirmarse para el pago.
+        assertFalse(reservas.confirmar(pedido.getId()).isPresent());
+    }
+
+    @Test
+    void muchosPedidosPendientesCaducanJustoALaHora() {
+        simularPendientes(100_000);
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkUnMillonDePedidosPendientes() {
+        Simulacion simulacion = simularPendientes(PEDIDOS_PENDIENTES);
+        System.out.printf("BENCHMARK: %,d reservas pendientes -> reservar %d ns, confirmar %d ns; "
+                        + "%,d expiraciones (máximo %.0f/s simulados), segunda mitad procesada en %d ms%n",
+                PEDIDOS_PENDIENTES, simulacion.nanosReservar(), simulacion.nanosConfirmar(), simulacion.expiradas(),
+                simulacion.maximoPorSegundo(), simulacion.msProcesar());
+    }
+
+    private record Simulacion(long nanosReservar, long nanosConfirmar, long expiradas, double maximoPorSegundo,
+                              long msProcesar) {
+    }
+
+    /**
+     * Crea {@code pedidosPendientes} reservas a lo largo de 10 minutos simulados, paga una de cada diez
+     * y comprueba que el resto caduca justo cuando vence su plazo y devuelve su stock.
+     */
+    private static Simulacion simularPendientes(int pedidosPendientes) {
+        AtomicLong reloj = new AtomicLong(INICIO);
+        RepositorioProductoImpl productos = new RepositorioProductoImpl();
+        // El stock de los pedidos simulados ya está reservado: parte de 0 y vuelve con cada expiración.
+        productos.guardar(new Producto(1L, "Mouse", 25.0, 0));
+        ServicioReservas reservas = new ServicioReservas(
+                new ServicioProducto(productos), new RepositorioPedidoImpl(), TTL_MS, TICK_MS, reloj::get);
+        Map<Long, Integer> unaUnidad = Map.of(1L, 1);
+
+        // Pedidos creados a lo largo de 10 minutos simulados.
+        long[] creados = new long[pedidosPendientes + 1];
+        long inicio = System.nanoTime();
+        for (int id = 1; id <= pedidosPendientes; id++) {
+            creados[id] = INICIO + (long) id * 600_000 / pedidosPendientes;
+            reloj.set(creados[id]);
+            reservas.reservar((long) id, unaUnidad);
+        }
+        long nanosReservar = (System.nanoTime() - inicio) / pedidosPendientes;
+
+        // Uno de cada diez se paga a tiempo.
+        inicio = System.nanoTime();
+        int confirmados = 0;
+        for (int id = 10; id <= pedidosPendientes; id += 10) {
+            assertTrue(reservas.confirmar((long) id).isPresent());
+            confirmados++;
+        }
+        long nanosConfirmar = (System.nanoTime() - inicio) / confirmados;
+        assertEquals(pedidosPendientes - confirmados, reservas.getMetricas().pendientes());
+
+        // Nada caduca antes del TTL.
+        reloj.set(INICIO + TTL_MS - 1);
+        assertEquals(0, reservas.procesarVencidas());
+
+        // A mitad de las expiraciones, han caducado justo los pedidos cuyo plazo (redondeado al tick) ya ha pasado.
+        long mitad = INICIO + TTL_MS + 300_000;
+        double maximoPorSegundo = avanzarPorSegundos(reservas, reloj, mitad);
+        long esperadas = 0;
+        for (int id = 1; id <= pedidosPendientes; id++) {
+            long vence = Math.floorDiv(creados[id] + TTL_MS + TICK_MS - 1, TICK_MS) * TICK_MS;
+            if (id % 10 != 0 && vence <= mitad) {
+                esperadas++;
+            }
+        }
+        assertEquals(esperadas, reservas.getMetricas().expiradasTotal());
+
+        inicio = System.nanoTime();
+        maximoPorSegundo = Math.max(maximoPorSegundo, avanzarPorSegundos(reservas, reloj, INICIO + TTL_MS + 700_000));
+        long msProcesar = (System.nanoTime() - inicio) / 1_000_000;
+
+        MetricasReservas metricas = reservas.getMetricas();
+        assertEquals(0, metricas.pendientes());
+        assertEquals(pedidosPendientes - confirmados, metricas.expiradasTotal());
+        assertEquals(pedidosPendientes - confirmados, productos.buscarPorId(1L).orElseThrow().getStock());
+        return new Simulacion(nanosReservar, nanosConfirmar, metricas.expiradasTotal(), maximoPorSegundo, msProcesar);
+    }
+
+    /**
+     * Avanza el reloj simulado de segundo en segundo, como haría el hilo de caducidad,
+     * y devuelve el máximo de expiraciones por segundo observado.
+     */
+    private static double avanzarPorSegundos(ServicioReservas reservas, AtomicLong reloj, long hasta) {
+        double maximo = 0;
+        while (reloj.get() < hasta) {
+            reloj.set(Math.min(hasta, reloj.get() + 1_000));
+            reservas.procesarVencidas();
+            maximo = Math.max(maximo, reservas.getMetricas().expiracionesPorSegundo());
+        }
+        return maximo;
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.pf;
 
 import com.example.pf.componente.EmisorDeNotificaciones;
-import com.example.pf.contrato.ServicioDeNotificacion;
+import com.example.pf.deduplicacion.DeduplicadorDeNotificaciones;
+import com.example.pf.difusion.ResultadoDifusion;
+import com.example.pf.pool.PoolDeServiciosSMS;
+import com.example.pf.servicio.ServicioSMS;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -13,11 +15,14 @@ public class EjecutorDeDemostracion implements CommandLineRunner {
 
     private static final Logger LOG = LoggerFactory.getLogger(EjecutorDeDemostracion.class);
     private final EmisorDeNotificaciones emisor;
-    private final ApplicationContext contexto;
+    private final PoolDeServiciosSMS poolSMS;
+    private final DeduplicadorDeNotificaciones deduplicador;
 
-    public EjecutorDeDemostracion(EmisorDeNotificaciones emisor, ApplicationContext contexto) {
+    public EjecutorDeDemostracion(EmisorDeNotificaciones emisor, PoolDeServiciosSMS poolSMS,
+                                  DeduplicadorDeNotificaciones deduplicador) {
         this.emisor = emisor;
-        this.contexto = contexto;
+        this.poolSMS = poolSMS;
+        this.deduplicador = deduplicador;
     }
 
     @Override
@@ -30,16 +35,32 @@ public class EjecutorDeDemostracion implements CommandLineRunner {
         LOG.info("\n[2. Probando inyección explicita (@Qualifier)]");
         emisor.enviarNotificacionSecundaria("Este es un aviso urgente por SMS");
 
-        // 3. Demostracion de scope 'prototype'
-        LOG.info("\n[3. Probando el scope 'prototype']");
-        LOG.info("Solicitando la primera instancia de ServicioSMS...");
-        ServicioDeNotificacion sms1 = contexto.getBean("servicioSMS", ServicioDeNotificacion.class);
+        // 3. Demostracion de scope 'prototype': las instancias del pool se crearon con ObjectProvider al arrancar
+        LOG.info("\n[3. Probando el scope 'prototype' con un pool de instancias]");
+        LOG.info("Tomando dos instancias de ServicioSMS del pool a la vez...");
+        ServicioSMS sms1 = poolSMS.tomar();
+        ServicioSMS sms2 = poolSMS.tomar();
         sms1.enviar("Primer mensaje de prueba");
-
-        LOG.info("Solicitando la segunda instancia de ServicioSMS...");
-        ServicioDeNotificacion sms2 = contexto.getBean("servicioSMS", ServicioDeNotificacion.class);
         sms2.enviar("Segunda mensaje de prueba");
-
         LOG.info("¿Son las dos instancias de SMS el mismos objeto? --> {}", (sms1 == sms2));
+        poolSMS.devolver(sms1);
+        poolSMS.devolver(sms2);
+
+        LOG.info("Enviando más SMS: se reutilizan las {} instancias del pool, sin crear ninguna nueva", poolSMS.getTamano());
+        for (int i = 1; i <= 3; i++) {
+            poolSMS.enviar("Recordatorio de cita " + i);
+        }
+
+        // 4. Demostracion de difusion por todos los canales en paralelo
+        LOG.info("\n[4. Probando la difusión por todos los canales]");
+        ResultadoDifusion resultado = emisor.enviarATodosLosCanales("Mantenimiento programado esta noche").join();
+        LOG.info("Resultado de la difusión: {}", resultado.porCanal());
+
+        // 5. Demostracion de deduplicacion: una tormenta de reintentos del mismo aviso
+        LOG.info("\n[5. Probando la deduplicación de mensajes repetidos]");
+        for (int i = 0; i < 3; i++) {
+            emisor.enviarNotificacionPrincipal("Su pedido ha sido enviado");
+        }
+        LOG.info("Métricas de deduplicación: {}", deduplicador.getMetricas());
         LOG.info("\n--- FIN DE LA DEMOSTRACIÓN ---");    }
 }
@@ -1,10 +1,15 @@
 package com.example.pf.componente;
 
 import com.example.pf.contrato.ServicioDeNotificacion;
+import com.example.pf.difusion.DifusorDeNotificaciones;
+import com.example.pf.difusion.ResultadoDifusion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class EmisorDeNotificaciones {
@@ -12,22 +17,34 @@ public class EmisorDeNotificaciones {
     private static final Logger LOG = LoggerFactory.getLogger(EmisorDeNotificaciones.class);
     private final ServicioDeNotificacion servicioPrincipal;
     private final ServicioDeNotificacion servicioSecundario;
+    private final DifusorDeNotificaciones difusor;
 
     public EmisorDeNotificaciones(ServicioDeNotificacion servicioPrincipal,
-                                  @Qualifier("servicioSMS") ServicioDeNotificacion servicioSecundario) {
+                                  @Qualifier("servicioSMS") ServicioDeNotificacion servicioSecundario,
+                                  DifusorDeNotificaciones difusor) {
         this.servicioPrincipal = servicioPrincipal;
         this.servicioSecundario = servicioSecundario;
+        this.difusor = difusor;
         LOG.info("Creando instancia de EmisorDeNotificaciones");
 
     }
 
     public void enviarNotificacionPrincipal(String mensaje) {
-        LOG.info("Usando servicio principal (@Primary: {})", servicioPrincipal.getClass().getSimpleName());
+        LOG.info("Usando servicio principal (@Primary: {})", ClassUtils.getUserClass(servicioPrincipal).getSimpleName());
         servicioPrincipal.enviar(mensaje);
     }
 
     public void enviarNotificacionSecundaria(String mensaje) {
-        LOG.info("Usando servicio secundario (@Qualifier: {})", servicioSecundario.getClass().getSimpleName());
+        LOG.info("Usando servicio secundario (@Qualifier: {})", ClassUtils.getUserClass(servicioSecundario).getSimpleName());
         servicioSecundario.enviar(mensaje);
     }
+
+    /**
+     * Envía el mensaje por todos los canales a la vez, sin esperar a ninguno.
+     * @return Futuro con el estado de la entrega en cada canal
+     */
+    public CompletableFuture<ResultadoDifusion> enviarATodosLosCanales(String mensaje) {
+        LOG.info("Difundiendo por todos los canales");
+        return difusor.difundir(mensaje);
+    }
 }
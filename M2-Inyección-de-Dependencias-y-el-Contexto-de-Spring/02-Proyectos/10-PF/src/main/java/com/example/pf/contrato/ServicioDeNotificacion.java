@@ -1,5 +1,8 @@
 package com.example.pf.contrato;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Define el contrato que todos los servicios de notificación deben implementar.
  */
@@ -10,4 +13,38 @@ public interface ServicioDeNotificacion {
      * @param mensaje El contenido del mensaje a enviar
      */
     void enviar(String mensaje);
+
+    /**
+     * Envía varios mensajes de una vez. Por defecto, uno detrás de otro; los canales que admiten
+     * envíos por lotes lo sobrescriben y declaran su {@link #tamanoMaximoLote()}.
+     * @param mensajes Los mensajes a enviar
+     */
+    default void enviarLote(List<String> mensajes) {
+        for (String mensaje : mensajes) {
+            enviar(mensaje);
+        }
+    }
+
+    /**
+     * Envía los mensajes (con {@link #enviar(String)} si es uno solo, con {@link #enviarLote(List)} si son varios)
+     * e indica cuáles salieron. Sin filtros delante se envían todos; un filtro como el de duplicados puede
+     * descartar algunos sin enviarlos, y así quien llama distingue un mensaje descartado de uno enviado.
+     * @param mensajes Los mensajes a enviar
+     * @return Para cada mensaje, en el mismo orden, true si se envió y false si se descartó
+     */
+    default List<Boolean> enviarConfirmando(List<String> mensajes) {
+        if (mensajes.size() == 1) {
+            enviar(mensajes.get(0));
+        } else {
+            enviarLote(mensajes);
+        }
+        return Collections.nCopies(mensajes.size(), true);
+    }
+
+    /**
+     * Número máximo de mensajes que el canal acepta en un solo {@link #enviarLote(List)}; 1 si no admite lotes.
+     */
+    default int tamanoMaximoLote() {
+        return 1;
+    }
 }
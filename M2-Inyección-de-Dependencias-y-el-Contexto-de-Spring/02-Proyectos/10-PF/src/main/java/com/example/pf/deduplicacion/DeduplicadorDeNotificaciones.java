@@ -0,0 +1,150 @@
+package com.example.pf.deduplicacion;
+
+import com.example.pf.contrato.ServicioDeNotificacion;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Descarta los mensajes repetidos antes de que lleguen a cualquier {@link ServicioDeNotificacion}.
+ * <p>
+ * Envuelve cada bean de notificación en un proxy de clase que, en {@code enviar}, {@code enviarLote} y
+ * {@code enviarConfirmando}, consulta la {@link VentanaDeDuplicados} de ese canal (nombre del bean) y solo deja pasar los mensajes
+ * que no se hayan visto dentro de la ventana. Como es un post-procesador y no un bean de notificación
+ * más, el filtro se aplica por igual al {@code EmisorDeNotificaciones}, al difusor y a
+ * {@code getBean}, y los beans siguen siendo del mismo tipo (y conservan su {@code @PreDestroy}).
+ * Todas las instancias de un bean prototype comparten la ventana. Si el envío lanza una excepción, las
+ * huellas que anotó se olvidan, para que el reintento del mismo mensaje no se tome por un duplicado.
+ * {@code enviar} y {@code enviarLote} descartan los duplicados en silencio; {@code enviarConfirmando} los
+ * devuelve como no enviados, que es lo que usa el difusor para marcarlos como suprimidos.
+ * <p>
+ * Ajustes: {@code notificaciones.deduplicacion.activa}, {@code ventana-ms}, {@code cubetas} y
+ * {@code capacidad-por-cubeta}.
+ */
+@Component
+public class DeduplicadorDeNotificaciones implements BeanPostProcessor, EnvironmentAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeduplicadorDeNotificaciones.class);
+    private static final String PREFIJO = "notificaciones.deduplicacion.";
+
+    private final Map<String, VentanaDeDuplicados> ventanas = new ConcurrentHashMap<>();
+    private final LongSupplier relojMs;
+
+    private boolean activa = true;
+    private long ventanaMs = 60_000;
+    private int cubetas = 6;
+    private int capacidadPorCubeta = 4096;
+
+    public DeduplicadorDeNotificaciones() {
+        this(System::currentTimeMillis);
+    }
+
+    public DeduplicadorDeNotificaciones(LongSupplier relojMs) {
+        this.relojMs = relojMs;
+    }
+
+    @Override
+    public void setEnvironment(Environment entorno) {
+        activa = entorno.getProperty(PREFIJO + "activa", Boolean.class, activa);
+        ventanaMs = entorno.getProperty(PREFIJO + "ventana-ms", Long.class, ventanaMs);
+        cubetas = entorno.getProperty(PREFIJO + "cubetas", Integer.class, cubetas);
+        capacidadPorCubeta = entorno.getProperty(PREFIJO + "capacidad-por-cubeta", Integer.class, capacidadPorCubeta);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String nombre) {
+        if (!activa || !(bean instanceof ServicioDeNotificacion)) {
+            return bean;
+        }
+        VentanaDeDuplicados ventana = ventanas.computeIfAbsent(nombre, sinUso -> {
+            LOG.info("Deduplicando '{}' en una ventana de {} ms", nombre, ventanaMs);
+            return new VentanaDeDuplicados(ventanaMs, cubetas, capacidadPorCubeta, relojMs);
+        });
+        ProxyFactory fabrica = new ProxyFactory(bean);
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAdvice(new FiltroDeDuplicados(nombre, ventana));
+        return fabrica.getProxy(bean.getClass().getClassLoader());
+    }
+
+    /**
+     * Métricas de cada canal deduplicado, por nombre de bean.
+     */
+    public Map<String, MetricasDeduplicacion> getMetricas() {
+        Map<String, MetricasDeduplicacion> metricas = new LinkedHashMap<>();
+        ventanas.forEach((nombre, ventana) -> metricas.put(nombre, ventana.getMetricas()));
+        return metricas;
+    }
+
+    private record FiltroDeDuplicados(String canal, VentanaDeDuplicados ventana) implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocacion) throws Throwable {
+            String metodo = invocacion.getMethod().getName();
+            Object[] argumentos = invocacion.getArguments();
+            if (metodo.equals("enviar") && argumentos.length == 1 && argumentos[0] instanceof String mensaje) {
+                if (!ventana.registrarSiNuevo(VentanaDeDuplicados.huella(mensaje))) {
+                    LOG.debug("{}: duplicado suprimido: {}", canal, mensaje);
+                    return null;
+                }
+                return enviar(invocacion, List.of(mensaje));
+            }
+            boolean confirmando = metodo.equals("enviarConfirmando");
+            if (!(confirmando || metodo.equals("enviarLote")) || argumentos.length != 1
+                    || !(argumentos[0] instanceof List<?> lote)) {
+                return invocacion.proceed();
+            }
+            List<String> nuevos = new ArrayList<>(lote.size());
+            List<Boolean> esNuevo = new ArrayList<>(lote.size());
+            for (Object mensaje : lote) {
+                boolean nuevo = ventana.registrarSiNuevo(VentanaDeDuplicados.huella((String) mensaje));
+                esNuevo.add(nuevo);
+                if (nuevo) {
+                    nuevos.add((String) mensaje);
+                }
+            }
+            if (nuevos.isEmpty()) {
+                LOG.debug("{}: lote de {} duplicados suprimido", canal, lote.size());
+                return confirmando ? Collections.nCopies(lote.size(), false) : null;
+            }
+            if (nuevos.size() < lote.size()) {
+                ((ProxyMethodInvocation) invocacion).setArguments(nuevos);
+            }
+            Object resultado = enviar(invocacion, nuevos);
+            if (!confirmando) {
+                return resultado;
+            }
+            // El destino confirma solo los nuevos: los duplicados se intercalan como no enviados.
+            List<?> enviadosNuevos = (List<?>) resultado;
+            List<Boolean> enviados = new ArrayList<>(lote.size());
+            int siguiente = 0;
+            for (boolean nuevo : esNuevo) {
+                enviados.add(nuevo && (Boolean) enviadosNuevos.get(siguiente++));
+            }
+            return enviados;
+        }
+
+        private Object enviar(MethodInvocation invocacion, List<String> nuevos) throws Throwable {
+            try {
+                return invocacion.proceed();
+            } catch (Throwable e) {
+                nuevos.forEach(mensaje -> ventana.olvidar(VentanaDeDuplicados.huella(mensaje)));
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.pf.deduplicacion;
+
+/**
+ * Contadores de una ventana de duplicados desde el arranque.
+ *
+ * @param vistos       Mensajes comprobados.
+ * @param suprimidos   Mensajes descartados por repetir uno ya visto dentro de la ventana.
+ * @param desbordes    Mensajes que no cupieron en su cubeta y se dejaron pasar sin recordarlos.
+ * @param bytesMemoria Memoria de las huellas, fija desde la creación de la ventana.
+ */
+public record MetricasDeduplicacion(long vistos, long suprimidos, long desbordes, long bytesMemoria) {
+
+    public double tasaSupresion() {
+        return vistos == 0 ? 0 : (double) suprimidos / vistos;
+    }
+}
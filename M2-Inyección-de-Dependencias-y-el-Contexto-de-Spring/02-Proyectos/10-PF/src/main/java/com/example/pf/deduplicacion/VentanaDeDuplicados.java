@@ -0,0 +1,164 @@
+package com.example.pf.deduplicacion;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Recuerda las huellas (hash de 64 bits del contenido) de los mensajes vistos durante una ventana
+ * deslizante de tiempo, con memoria fija.
+ * <p>
+ * La ventana se divide en {@code cubetas} franjas de igual duración. Cada franja es un conjunto de
+ * direccionamiento abierto sobre un {@code long[]} de tamaño fijo; cuando la ventana avanza, la franja
+ * más antigua se vacía y pasa a ser la actual. Un mensaje es duplicado si su huella está en cualquier
+ * franja viva, así que la ventana real está entre {@code ventanaMs - ventanaMs/cubetas} y {@code ventanaMs}.
+ * <p>
+ * Si una franja se llena, el mensaje pasa sin recordarse (se cuenta como desborde): ante la duda es
+ * mejor enviar un duplicado que perder una notificación.
+ */
+public class VentanaDeDuplicados {
+
+    private static final long VACIO = 0;
+    // Se llena como mucho hasta 3/4 para que las búsquedas sigan siendo cortas.
+    private static final int FACTOR_CARGA_NUM = 3;
+    private static final int FACTOR_CARGA_DEN = 4;
+
+    private final long anchoCubetaMs;
+    private final long[][] cubetas;
+    private final long[] epocas;
+    private final int[] ocupadas;
+    private final int maxOcupadas;
+    private final int mascara;
+    private final LongSupplier relojMs;
+
+    private long vistos;
+    private long suprimidos;
+    private long desbordes;
+
+    /**
+     * @param ventanaMs           Tiempo durante el que un mensaje repetido se considera duplicado.
+     * @param cubetas             Franjas en que se divide la ventana; más franjas, caducidad más precisa.
+     * @param capacidadPorCubeta  Huellas distintas que caben en cada franja.
+     */
+    public VentanaDeDuplicados(long ventanaMs, int cubetas, int capacidadPorCubeta, LongSupplier relojMs) {
+        if (ventanaMs < cubetas || cubetas <= 0 || capacidadPorCubeta <= 0) {
+            throw new IllegalArgumentException("Ventana de duplicados no válida: " + ventanaMs + " ms, "
+                    + cubetas + " cubetas, " + capacidadPorCubeta + " huellas por cubeta");
+        }
+        int huecos = Integer.highestOneBit(Math.max(2, capacidadPorCubeta * FACTOR_CARGA_DEN / FACTOR_CARGA_NUM) * 2 - 1);
+        this.anchoCubetaMs = ventanaMs / cubetas;
+        this.cubetas = new long[cubetas][huecos];
+        this.epocas = new long[cubetas];
+        Arrays.fill(epocas, Long.MIN_VALUE);
+        this.ocupadas = new int[cubetas];
+        this.maxOcupadas = capacidadPorCubeta;
+        this.mascara = huecos - 1;
+        this.relojMs = relojMs;
+    }
+
+    /**
+     * Anota la huella si no estaba ya en la ventana.
+     *
+     * @return true si el mensaje es nuevo y debe enviarse; false si es un duplicado.
+     */
+    public synchronized boolean registrarSiNuevo(long huella) {
+        long h = huella == VACIO ? 1 : huella;
+        long epoca = Math.floorDiv(relojMs.getAsLong(), anchoCubetaMs);
+        vistos++;
+        for (int i = 0; i < cubetas.length; i++) {
+            // Solo cuentan las franjas de las últimas 'cubetas' épocas.
+            if (epocas[i] > epoca - cubetas.length && contiene(cubetas[i], h)) {
+                suprimidos++;
+                return false;
+            }
+        }
+        int actual = (int) Math.floorMod(epoca, (long) cubetas.length);
+        if (epocas[actual] != epoca) {
+            Arrays.fill(cubetas[actual], VACIO);
+            epocas[actual] = epoca;
+            ocupadas[actual] = 0;
+        }
+        if (ocupadas[actual] >= maxOcupadas) {
+            desbordes++;
+            return true;
+        }
+        insertar(cubetas[actual], h);
+        ocupadas[actual]++;
+        return true;
+    }
+
+    /**
+     * Borra la huella de la ventana, para que el mensaje vuelva a pasar. Se usa cuando el envío que la
+     * anotó falla: un reintento de un mensaje que no salió no es un duplicado.
+     */
+    public synchronized void olvidar(long huella) {
+        long h = huella == VACIO ? 1 : huella;
+        for (int i = 0; i < cubetas.length; i++) {
+            if (borrar(cubetas[i], h)) {
+                ocupadas[i]--;
+            }
+        }
+    }
+
+    public synchronized MetricasDeduplicacion getMetricas() {
+        long bytes = (long) cubetas.length * (cubetas[0].length * Long.BYTES + Long.BYTES + Integer.BYTES);
+        return new MetricasDeduplicacion(vistos, suprimidos, desbordes, bytes);
+    }
+
+    /**
+     * Huella de 64 bits de un texto: FNV-1a seguido del mezclador final de MurmurHash3.
+     */
+    public static long huella(String texto) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < texto.length(); i++) {
+            h ^= texto.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private boolean contiene(long[] huecos, long h) {
+        for (int i = (int) h & mascara; ; i = (i + 1) & mascara) {
+            if (huecos[i] == h) {
+                return true;
+            }
+            if (huecos[i] == VACIO) {
+                return false;
+            }
+        }
+    }
+
+    private boolean borrar(long[] huecos, long h) {
+        int libre = (int) h & mascara;
+        while (huecos[libre] != h) {
+            if (huecos[libre] == VACIO) {
+                return false;
+            }
+            libre = (libre + 1) & mascara;
+        }
+        // Sondeo lineal sin lápidas: se adelantan las huellas siguientes de la misma racha que no pueden
+        // quedar antes de su posición inicial, para que las búsquedas no se corten en el hueco.
+        for (int i = (libre + 1) & mascara; huecos[i] != VACIO; i = (i + 1) & mascara) {
+            int inicio = (int) huecos[i] & mascara;
+            boolean enRacha = libre <= i ? libre < inicio && inicio <= i : libre < inicio || inicio <= i;
+            if (!enRacha) {
+                huecos[libre] = huecos[i];
+                libre = i;
+            }
+        }
+        huecos[libre] = VACIO;
+        return true;
+    }
+
+    private void insertar(long[] huecos, long h) {
+        int i = (int) h & mascara;
+        while (huecos[i] != VACIO) {
+            i = (i + 1) & mascara;
+        }
+        huecos[i] = h;
+    }
+}
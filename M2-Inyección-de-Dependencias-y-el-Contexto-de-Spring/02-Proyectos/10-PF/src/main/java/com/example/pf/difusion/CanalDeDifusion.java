@@ -0,0 +1,143 @@
+package com.example.pf.difusion;
+
+import com.example.pf.contrato.ServicioDeNotificacion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Un canal del difusor: una cola acotada y un hilo propio que la vacía por lotes, respetando el
+ * límite de envíos del canal. Un canal lento o saturado no frena a los demás.
+ */
+class CanalDeDifusion implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CanalDeDifusion.class);
+
+    private final String nombre;
+    private final ServicioDeNotificacion servicio;
+    private final BlockingQueue<Envio> cola;
+    private final LimitadorTokens limitador;
+    private final int tamanoLote;
+    private final Thread hilo;
+    private volatile boolean activo = true;
+
+    private final LongAdder entregados = new LongAdder();
+    private final LongAdder fallidos = new LongAdder();
+    private final LongAdder rechazados = new LongAdder();
+    private final LongAdder suprimidos = new LongAdder();
+    private final LongAdder lotes = new LongAdder();
+
+    CanalDeDifusion(String nombre, ServicioDeNotificacion servicio, ConfiguracionCanal configuracion) {
+        this.nombre = nombre;
+        this.servicio = servicio;
+        this.cola = new ArrayBlockingQueue<>(configuracion.capacidadCola());
+        this.limitador = new LimitadorTokens(configuracion.tasaPorSegundo(), configuracion.rafaga(), System::nanoTime);
+        this.tamanoLote = Math.max(1, servicio.tamanoMaximoLote());
+        this.hilo = new Thread(this::despachar, "difusion-" + nombre);
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * Encola el mensaje sin bloquear. Si la cola está llena, el resultado ya viene como {@link EstadoEntrega#RECHAZADO}.
+     */
+    CompletableFuture<EstadoEntrega> encolar(String mensaje) {
+        Envio envio = new Envio(mensaje, new CompletableFuture<>());
+        if (!activo || !cola.offer(envio)) {
+            rechazados.increment();
+            return CompletableFuture.completedFuture(EstadoEntrega.RECHAZADO);
+        }
+        // Si el canal se cerró entre la comprobación y el offer, puede que el hilo ya no vuelva a mirar la
+        // cola: se retira el mensaje. Si ya no está, lo sacó el hilo, que se encarga de completarlo.
+        if (!activo && cola.remove(envio)) {
+            rechazar(envio);
+        }
+        return envio.resultado();
+    }
+
+    MetricasCanal getMetricas() {
+        return new MetricasCanal(entregados.sum(), fallidos.sum(), rechazados.sum(), suprimidos.sum(), lotes.sum(), cola.size());
+    }
+
+    private void despachar() {
+        List<Envio> lote = new ArrayList<>(tamanoLote);
+        try {
+            while (activo || !cola.isEmpty()) {
+                try {
+                    Envio primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                    if (primero == null) {
+                        continue;
+                    }
+                    lote.add(primero);
+                    cola.drainTo(lote, tamanoLote - 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long espera = limitador.reservar(lote.size());
+                if (espera > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+                enviar(lote);
+                lote.clear();
+            }
+        } finally {
+            // Al salir, por cierre o por interrupción, ningún mensaje se queda sin resultado: lo que quede
+            // en la cola (o llegue tras el último poll) se rechaza.
+            activo = false;
+            lote.forEach(this::rechazar);
+            Envio pendiente;
+            while ((pendiente = cola.poll()) != null) {
+                rechazar(pendiente);
+            }
+        }
+    }
+
+    private void rechazar(Envio envio) {
+        if (envio.resultado().complete(EstadoEntrega.RECHAZADO)) {
+            rechazados.increment();
+        }
+    }
+
+    private void enviar(List<Envio> lote) {
+        List<Boolean> enviados;
+        try {
+            enviados = servicio.enviarConfirmando(lote.stream().map(Envio::mensaje).toList());
+        } catch (RuntimeException e) {
+            LOG.warn("El canal {} no pudo enviar {} mensajes: {}", nombre, lote.size(), e.getMessage());
+            fallidos.add(lote.size());
+            lotes.increment();
+            lote.forEach(envio -> envio.resultado().complete(EstadoEntrega.FALLIDO));
+            return;
+        }
+        lotes.increment();
+        for (int i = 0; i < lote.size(); i++) {
+            // Un mensaje que el canal no llegó a enviar (un duplicado) no cuenta como entregado.
+            boolean enviado = enviados.get(i);
+            (enviado ? entregados : suprimidos).increment();
+            lote.get(i).resultado().complete(enviado ? EstadoEntrega.ENTREGADO : EstadoEntrega.SUPRIMIDO);
+        }
+    }
+
+    /**
+     * Deja de aceptar mensajes y espera a que se envíen los que ya estaban en la cola. Un mensaje que
+     * llegue a la cola durante el cierre se completa como {@link EstadoEntrega#RECHAZADO}.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        // Sin interrumpir: el hilo podría estar a mitad de un envío. Lo más que tarda en verlo es un poll().
+        activo = false;
+        hilo.join();
+    }
+
+    private record Envio(String mensaje, CompletableFuture<EstadoEntrega> resultado) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.pf.difusion;
+
+/**
+ * Ajustes de un canal del difusor.
+ *
+ * @param capacidadCola   Mensajes que pueden esperar en la cola del canal; al llenarse, se rechazan.
+ * @param tasaPorSegundo  Mensajes por segundo que admite el canal; 0 o menos, sin límite.
+ * @param rafaga          Mensajes que pueden salir de golpe tras un rato sin envíos.
+ */
+public record ConfiguracionCanal(int capacidadCola, double tasaPorSegundo, double rafaga) {
+}
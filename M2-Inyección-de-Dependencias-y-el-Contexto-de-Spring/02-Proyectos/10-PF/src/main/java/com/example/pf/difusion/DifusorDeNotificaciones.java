@@ -0,0 +1,85 @@
+package com.example.pf.difusion;
+
+import com.example.pf.contrato.ServicioDeNotificacion;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Difunde cada mensaje por todos los {@link ServicioDeNotificacion} registrados a la vez.
+ * <p>
+ * Cada canal tiene su propia cola acotada, su hilo y su cubo de tokens, y agrupa los mensajes en
+ * lotes si el canal lo admite. {@link #difundir(String)} no espera a ningún canal: devuelve un futuro
+ * que se completa cuando todos han terminado con el mensaje, con el estado de la entrega en cada uno.
+ * <p>
+ * Los ajustes de cada canal se leen de {@code notificaciones.difusion.<nombre del bean>.*}, con
+ * {@code notificaciones.difusion.*} como valor por defecto.
+ */
+@Component
+public class DifusorDeNotificaciones {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DifusorDeNotificaciones.class);
+    private static final String PREFIJO = "notificaciones.difusion.";
+
+    private final Map<String, CanalDeDifusion> canales = new LinkedHashMap<>();
+
+    @Autowired
+    public DifusorDeNotificaciones(Map<String, ServicioDeNotificacion> servicios, Environment entorno) {
+        this(servicios, nombre -> new ConfiguracionCanal(
+                propiedad(entorno, nombre, "capacidad-cola", Integer.class, 1000),
+                propiedad(entorno, nombre, "tasa-por-segundo", Double.class, 0.0),
+                propiedad(entorno, nombre, "rafaga", Double.class, 1.0)));
+    }
+
+    public DifusorDeNotificaciones(Map<String, ServicioDeNotificacion> servicios,
+                                   Function<String, ConfiguracionCanal> configuracion) {
+        servicios.forEach((nombre, servicio) ->
+                canales.put(nombre, new CanalDeDifusion(nombre, servicio, configuracion.apply(nombre))));
+        LOG.info("DifusorDeNotificaciones listo con los canales {}", canales.keySet());
+    }
+
+    /**
+     * Encola el mensaje en todos los canales.
+     *
+     * @return Futuro con el resultado de la entrega en cada canal.
+     */
+    public CompletableFuture<ResultadoDifusion> difundir(String mensaje) {
+        Map<String, CompletableFuture<EstadoEntrega>> pendientes = new LinkedHashMap<>();
+        canales.forEach((nombre, canal) -> pendientes.put(nombre, canal.encolar(mensaje)));
+        return CompletableFuture.allOf(pendientes.values().toArray(CompletableFuture[]::new))
+                .thenApply(sinValor -> {
+                    Map<String, EstadoEntrega> porCanal = new LinkedHashMap<>();
+                    pendientes.forEach((nombre, estado) -> porCanal.put(nombre, estado.join()));
+                    return new ResultadoDifusion(mensaje, porCanal);
+                });
+    }
+
+    public Map<String, MetricasCanal> getMetricas() {
+        Map<String, MetricasCanal> metricas = new LinkedHashMap<>();
+        canales.forEach((nombre, canal) -> metricas.put(nombre, canal.getMetricas()));
+        return metricas;
+    }
+
+    /**
+     * Deja de aceptar mensajes y espera a que cada canal envíe los que tenía en cola.
+     */
+    @PreDestroy
+    public void cerrar() throws InterruptedException {
+        for (CanalDeDifusion canal : canales.values()) {
+            canal.close();
+        }
+    }
+
+    private static <T> T propiedad(Environment entorno, String canal, String clave, Class<T> tipo, T porDefecto) {
+        return entorno.getProperty(PREFIJO + canal + "." + clave, tipo,
+                entorno.getProperty(PREFIJO + clave, tipo, porDefecto));
+    }
+}
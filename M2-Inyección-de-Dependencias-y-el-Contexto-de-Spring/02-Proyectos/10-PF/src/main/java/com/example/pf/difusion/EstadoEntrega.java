@@ -0,0 +1,15 @@
+package com.example.pf.difusion;
+
+/**
+ * Resultado de entregar un mensaje por un canal.
+ */
+public enum EstadoEntrega {
+    /** El canal aceptó el mensaje. */
+    ENTREGADO,
+    /** El canal lanzó una excepción al enviarlo. */
+    FALLIDO,
+    /** La cola del canal estaba llena (o el difusor cerrado) y el mensaje no llegó a encolarse. */
+    RECHAZADO,
+    /** El canal lo descartó sin enviarlo por repetir un mensaje reciente (ver {@code DeduplicadorDeNotificaciones}). */
+    SUPRIMIDO
+}
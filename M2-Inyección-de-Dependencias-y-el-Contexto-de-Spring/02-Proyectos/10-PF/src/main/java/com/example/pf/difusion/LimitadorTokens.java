@@ -0,0 +1,43 @@
+package com.example.pf.difusion;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Cubo de tokens: se rellena a {@code tasaPorSegundo} hasta un máximo de {@code rafaga} tokens.
+ * <p>
+ * {@link #reservar(int)} descuenta los tokens aunque no haya bastantes (el saldo puede quedar negativo)
+ * y devuelve cuánto hay que esperar hasta que se habrían generado. Así un lote mayor que la ráfaga
+ * también puede salir, y quien llega después espera su turno detrás.
+ */
+public class LimitadorTokens {
+
+    private final double tokensPorNano;
+    private final double rafaga;
+    private final LongSupplier relojNanos;
+    private double tokens;
+    private long ultimaRecarga;
+
+    public LimitadorTokens(double tasaPorSegundo, double rafaga, LongSupplier relojNanos) {
+        this.tokensPorNano = tasaPorSegundo / 1e9;
+        this.rafaga = Math.max(rafaga, 1);
+        this.relojNanos = relojNanos;
+        this.tokens = this.rafaga;
+        this.ultimaRecarga = relojNanos.getAsLong();
+    }
+
+    /**
+     * Reserva {@code n} tokens.
+     *
+     * @return Nanosegundos que hay que esperar antes de usarlos (0 si ya estaban disponibles).
+     */
+    public synchronized long reservar(int n) {
+        if (tokensPorNano <= 0) {
+            return 0;
+        }
+        long ahora = relojNanos.getAsLong();
+        tokens = Math.min(rafaga, tokens + (ahora - ultimaRecarga) * tokensPorNano);
+        ultimaRecarga = ahora;
+        tokens -= n;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPorNano);
+    }
+}
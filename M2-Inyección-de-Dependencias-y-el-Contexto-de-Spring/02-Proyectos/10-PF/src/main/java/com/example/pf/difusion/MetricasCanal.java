@@ -0,0 +1,14 @@
+package com.example.pf.difusion;
+
+/**
+ * Contadores de un canal del difusor desde el arranque.
+ *
+ * @param entregados  Mensajes aceptados por el canal.
+ * @param fallidos    Mensajes cuyo envío lanzó una excepción.
+ * @param rechazados  Mensajes que no cupieron en la cola.
+ * @param suprimidos  Mensajes que el canal descartó sin enviar por ser duplicados.
+ * @param lotes       Llamadas hechas al canal (un lote puede llevar varios mensajes).
+ * @param enCola      Mensajes esperando ahora mismo.
+ */
+public record MetricasCanal(long entregados, long fallidos, long rechazados, long suprimidos, long lotes, int enCola) {
+}
@@ -0,0 +1,23 @@
+package com.example.pf.difusion;
+
+import java.util.Map;
+
+/**
+ * Resultado de difundir un mensaje por todos los canales.
+ *
+ * @param mensaje    El mensaje difundido.
+ * @param porCanal   Estado de la entrega en cada canal, por nombre de bean.
+ */
+public record ResultadoDifusion(String mensaje, Map<String, EstadoEntrega> porCanal) {
+
+    public long entregados() {
+        return porCanal.values().stream().filter(estado -> estado == EstadoEntrega.ENTREGADO).count();
+    }
+
+    /**
+     * @return true si todos los canales enviaron el mensaje; un duplicado suprimido no cuenta como entregado.
+     */
+    public boolean entregadoEnTodos() {
+        return entregados() == porCanal.size();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.pf.pool;
+
+import com.example.pf.servicio.ServicioSMS;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pool de instancias de {@link ServicioSMS} que se reutilizan en lugar de pedir un prototype nuevo por mensaje.
+ * <p>
+ * Al arrancar crea {@code notificaciones.sms.pool.tamano} instancias a través del {@link ObjectProvider}, así
+ * que cada una pasa una sola vez por la creación completa del bean (post-procesadores, {@code @PostConstruct}
+ * y apertura de su conexión). Después solo se prestan y se devuelven. El pool no crece: si todas las
+ * instancias están prestadas, {@link #tomar()} espera, lo que limita las conexiones abiertas a la pasarela.
+ * El pool sabe qué instancias tiene prestadas y solo acepta la devolución de esas, una vez por préstamo.
+ * <p>
+ * Como Spring no destruye los beans prototype, el pool cierra la conexión de sus instancias al apagarse.
+ */
+@Component
+public class PoolDeServiciosSMS {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PoolDeServiciosSMS.class);
+
+    private final List<ServicioSMS> instancias;
+    private final BlockingQueue<ServicioSMS> libres;
+    // Marca de préstamo por instancia. El mapa no cambia tras el constructor; solo cambian las marcas.
+    private final Map<ServicioSMS, AtomicBoolean> prestadas;
+
+    public PoolDeServiciosSMS(ObjectProvider<ServicioSMS> proveedor,
+                              @Value("${notificaciones.sms.pool.tamano:4}") int tamano) {
+        if (tamano <= 0) {
+            throw new IllegalArgumentException("El pool de SMS necesita al menos una instancia: " + tamano);
+        }
+        this.instancias = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            instancias.add(proveedor.getObject());
+        }
+        this.libres = new ArrayBlockingQueue<>(tamano, false, instancias);
+        this.prestadas = new IdentityHashMap<>(tamano);
+        instancias.forEach(instancia -> prestadas.put(instancia, new AtomicBoolean()));
+        LOG.info("PoolDeServiciosSMS listo con {} instancias precalentadas", tamano);
+    }
+
+    /**
+     * Presta una instancia, esperando a que quede una libre si hace falta. Hay que devolverla con
+     * {@link #devolver(ServicioSMS)}.
+     */
+    public ServicioSMS tomar() throws InterruptedException {
+        return prestar(libres.take());
+    }
+
+    /**
+     * Como {@link #tomar()}, pero se rinde pasado el tiempo indicado.
+     *
+     * @return La instancia, o null si ninguna quedó libre a tiempo.
+     */
+    public ServicioSMS tomar(long tiempo, TimeUnit unidad) throws InterruptedException {
+        ServicioSMS servicio = libres.poll(tiempo, unidad);
+        return servicio == null ? null : prestar(servicio);
+    }
+
+    /**
+     * Devuelve una instancia prestada por {@link #tomar()}.
+     *
+     * @throws IllegalArgumentException si la instancia no es de este pool.
+     * @throws IllegalStateException    si la instancia no está prestada, por ejemplo porque ya se devolvió.
+     */
+    public void devolver(ServicioSMS servicio) {
+        AtomicBoolean prestada = prestadas.get(servicio);
+        if (prestada == null) {
+            throw new IllegalArgumentException("La instancia SMS #" + servicio.getIdDeInstancia() + " no es de este pool");
+        }
+        if (!prestada.compareAndSet(true, false)) {
+            throw new IllegalStateException("La instancia SMS #" + servicio.getIdDeInstancia() + " no está prestada");
+        }
+        libres.add(servicio);
+    }
+
+    private ServicioSMS prestar(ServicioSMS servicio) {
+        prestadas.get(servicio).set(true);
+        return servicio;
+    }
+
+    /**
+     * Envía un SMS con la primera instancia libre y la devuelve al pool.
+     */
+    public void enviar(String mensaje) {
+        ServicioSMS servicio;
+        try {
+            servicio = tomar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando una instancia SMS libre", e);
+        }
+        try {
+            servicio.enviar(mensaje);
+        } finally {
+            devolver(servicio);
+        }
+    }
+
+    public int getTamano() {
+        return instancias.size();
+    }
+
+    public int getDisponibles() {
+        return libres.size();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        instancias.forEach(ServicioSMS::desconectar);
+    }
+}
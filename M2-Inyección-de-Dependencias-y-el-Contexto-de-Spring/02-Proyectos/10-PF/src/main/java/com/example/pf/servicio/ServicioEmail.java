@@ -8,6 +8,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service("servicioEmail")
 @Primary
 public class ServicioEmail implements ServicioDeNotificacion {
@@ -24,6 +26,17 @@ public class ServicioEmail implements ServicioDeNotificacion {
         LOG.info("ServicioEmail: Enviando correo: " + mensaje);
     }
 
+    // El servidor de correo acepta varios destinatarios y mensajes en una sola conexión.
+    @Override
+    public void enviarLote(List<String> mensajes) {
+        LOG.info("ServicioEmail: Enviando {} correos en un lote", mensajes.size());
+    }
+
+    @Override
+    public int tamanoMaximoLote() {
+        return 50;
+    }
+
     @PreDestroy
     public void limpiar(){
         LOG.info("ServicioEmail: @PreDestroy - Desconectando el servidor de correo...");
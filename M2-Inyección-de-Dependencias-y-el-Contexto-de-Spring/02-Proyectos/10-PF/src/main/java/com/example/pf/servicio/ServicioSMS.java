@@ -1,6 +1,8 @@
 package com.example.pf.servicio;
 
 import com.example.pf.contrato.ServicioDeNotificacion;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -8,6 +10,7 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service("servicioSMS")
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -16,13 +19,47 @@ public class ServicioSMS implements  ServicioDeNotificacion {
     private static final Logger LOG = LoggerFactory.getLogger(ServicioSMS.class);
     private static final AtomicInteger contadorDeInstancias = new AtomicInteger(0);
     private final int idDeInstancia;
+    // Estado de conexión propio de cada instancia: por eso conviene reutilizarlas (ver PoolDeServiciosSMS).
+    private final AtomicLong enviados = new AtomicLong();
+    private volatile String conexion;
 
     public ServicioSMS() {
         this.idDeInstancia = contadorDeInstancias.incrementAndGet();
         LOG.info("Creando instancia de ServicioSMS #{}", this.idDeInstancia);
     }
 
+    @PostConstruct
+    public void conectar() {
+        conexion = "pasarela-sms-" + idDeInstancia;
+        LOG.info("(Instancia SMS #{}) @PostConstruct - Abriendo conexión {}", idDeInstancia, conexion);
+    }
+
     @Override
     public void enviar(String mensaje) {
+        if (conexion == null) {
+            throw new IllegalStateException("La instancia SMS #" + idDeInstancia + " no tiene conexión abierta");
+        }
+        enviados.incrementAndGet();
         LOG.info("(Instancia SMS #{}) Enviando SMS: {}", this.idDeInstancia, mensaje);    }
+
+    /**
+     * Spring no llama a los métodos de destrucción de un bean prototype: lo hace quien lo tiene.
+     */
+    @PreDestroy
+    public void desconectar() {
+        LOG.info("(Instancia SMS #{}) Cerrando conexión {} tras {} envíos", idDeInstancia, conexion, enviados.get());
+        conexion = null;
+    }
+
+    public boolean estaConectado() {
+        return conexion != null;
+    }
+
+    public int getIdDeInstancia() {
+        return idDeInstancia;
+    }
+
+    public long getEnviados() {
+        return enviados.get();
+    }
 }
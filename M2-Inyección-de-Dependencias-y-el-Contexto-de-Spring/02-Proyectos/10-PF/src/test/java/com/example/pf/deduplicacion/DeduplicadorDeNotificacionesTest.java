@@ -0,0 +1,202 @@
+package com.example.pf.deduplicacion;
+
+import com.example.pf.contrato.ServicioDeNotificacion;
+import jakarta.annotation.PreDestroy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.CommonAnnotationBeanPostProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeduplicadorDeNotificacionesTest {
+
+    private static final int EVENTOS = Integer.getInteger("notificaciones.deduplicacion.eventos", 200_000);
+
+    @Test
+    void unDuplicadoSoloSeSuprimeDentroDeLaVentana() {
+        AtomicLong reloj = new AtomicLong();
+        VentanaDeDuplicados ventana = new VentanaDeDuplicados(60_000, 6, 100, reloj::get);
+        long huella = VentanaDeDuplicados.huella("Su pedido ha sido enviado");
+
+        assertTrue(ventana.registrarSiNuevo(huella));
+        reloj.set(30_000);
+        assertFalse(ventana.registrarSiNuevo(huella));
+        assertTrue(ventana.registrarSiNuevo(VentanaDeDuplicados.huella("Su pedido ha sido entregado")));
+
+        // Pasada la ventana, la franja donde se anotó ya no cuenta y la cubeta se reutiliza.
+        reloj.set(60_000);
+        assertTrue(ventana.registrarSiNuevo(huella));
+        reloj.set(61_000);
+        assertFalse(ventana.registrarSiNuevo(huella));
+        assertEquals(new MetricasDeduplicacion(5, 2, 0, ventana.getMetricas().bytesMemoria()), ventana.getMetricas());
+    }
+
+    @Test
+    void laMemoriaEsFijaYUnaCubetaLlenaDejaPasarLosMensajes() {
+        VentanaDeDuplicados ventana = new VentanaDeDuplicados(1_000, 2, 4, () -> 0);
+        long bytes = ventana.getMetricas().bytesMemoria();
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(ventana.registrarSiNuevo(VentanaDeDuplicados.huella("aviso " + i)));
+        }
+        // Los dos últimos no cupieron: no se recuerdan y su repetición también pasa.
+        assertTrue(ventana.registrarSiNuevo(VentanaDeDuplicados.huella("aviso 5")));
+        assertFalse(ventana.registrarSiNuevo(VentanaDeDuplicados.huella("aviso 0")));
+
+        MetricasDeduplicacion metricas = ventana.getMetricas();
+        assertEquals(3, metricas.desbordes());
+        assertEquals(bytes, metricas.bytesMemoria());
+    }
+
+    @Test
+    void filtraEnviarYEnviarLoteSinCambiarElTipoNiElCicloDeVidaDelBean() {
+        CanalContador canal;
+        DeduplicadorDeNotificaciones deduplicador;
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+            contexto.registerBean(CommonAnnotationBeanPostProcessor.class);
+            contexto.registerBean(DeduplicadorDeNotificaciones.class);
+            contexto.registerBean("canal", CanalContador.class);
+            contexto.refresh();
+            deduplicador = contexto.getBean(DeduplicadorDeNotificaciones.class);
+            canal = contexto.getBean(CanalContador.class);
+
+            for (int i = 0; i < 5; i++) {
+                canal.enviar("Reintento del mismo aviso");
+            }
+            canal.enviarLote(List.of("Reintento del mismo aviso", "Nuevo A", "Nuevo A", "Nuevo B"));
+            canal.enviarLote(List.of("Nuevo A", "Nuevo B"));
+
+            assertInstanceOf(CanalContador.class, canal);
+            assertEquals(List.of("Reintento del mismo aviso", "Nuevo A", "Nuevo B"), canal.recibidos());
+            assertEquals(new MetricasDeduplicacion(11, 8, 0, deduplicador.getMetricas().get("canal").bytesMemoria()),
+                    deduplicador.getMetricas().get("canal"));
+        }
+        assertTrue(canal.cerrado());
+    }
+
+    @Test
+    void olvidarUnaHuellaNoRompeLaBusquedaDeLasDemas() {
+        // Capacidad 3 -> 4 huecos: las huellas 4, 8 y 12 empiezan en el hueco 0 y forman una racha.
+        VentanaDeDuplicados ventana = new VentanaDeDuplicados(1_000, 1, 3, () -> 0);
+        assertTrue(ventana.registrarSiNuevo(4));
+        assertTrue(ventana.registrarSiNuevo(8));
+        assertTrue(ventana.registrarSiNuevo(12));
+
+        ventana.olvidar(4);
+
+        assertFalse(ventana.registrarSiNuevo(8));
+        assertFalse(ventana.registrarSiNuevo(12));
+        assertTrue(ventana.registrarSiNuevo(4));
+    }
+
+    @Test
+    void unEnvioQueFallaNoCuentaComoVistoYSuReintentoPasa() {
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+            contexto.registerBean(DeduplicadorDeNotificaciones.class);
+            contexto.registerBean("canal", CanalContador.class);
+            contexto.refresh();
+            CanalContador canal = contexto.getBean(CanalContador.class);
+
+            canal.fallarProximosEnvios(2);
+            assertThrows(IllegalStateException.class, () -> canal.enviar("Su pedido ha sido enviado"));
+            assertThrows(IllegalStateException.class, () -> canal.enviarLote(List.of("Aviso A", "Aviso B")));
+            canal.enviar("Su pedido ha sido enviado");
+            canal.enviar("Su pedido ha sido enviado");
+            canal.enviarLote(List.of("Aviso A", "Aviso B", "Aviso A"));
+
+            assertEquals(List.of("Su pedido ha sido enviado", "Aviso A", "Aviso B"), canal.recibidos());
+        }
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkTormentaDeReintentos() {
+        // Cada segundo llegan 100 avisos distintos, y cada uno se reintenta hasta 9 veces en los 30 segundos
+        // siguientes, como haría un productor que no recibe confirmación.
+        AtomicLong reloj = new AtomicLong();
+        VentanaDeDuplicados ventana = new VentanaDeDuplicados(60_000, 6, 16_384, reloj::get);
+        Random aleatorio = new Random(42);
+        List<long[]> llegadas = new ArrayList<>();
+        int distintos = 0;
+        while (llegadas.size() < EVENTOS) {
+            long inicio = distintos * 10L;
+            int intentos = 1 + aleatorio.nextInt(10);
+            for (int i = 0; i < intentos; i++) {
+                llegadas.add(new long[]{inicio + (i == 0 ? 0 : aleatorio.nextInt(30_000)), distintos});
+            }
+            distintos++;
+        }
+        llegadas.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        int enviados = 0;
+        long t0 = System.nanoTime();
+        for (long[] llegada : llegadas) {
+            reloj.set(llegada[0]);
+            if (ventana.registrarSiNuevo(VentanaDeDuplicados.huella("Pedido " + llegada[1] + " enviado"))) {
+                enviados++;
+            }
+        }
+        long nanos = System.nanoTime() - t0;
+
+        MetricasDeduplicacion metricas = ventana.getMetricas();
+        System.out.printf("BENCHMARK: %d avisos (%d distintos) -> %d enviados, supresión %.1f %%, %d desbordes, "
+                        + "%d KiB de huellas, %d ns por aviso%n",
+                llegadas.size(), distintos, enviados, metricas.tasaSupresion() * 100, metricas.desbordes(),
+                metricas.bytesMemoria() / 1024, nanos / llegadas.size());
+        // Sin desbordes, cada aviso distinto sale exactamente una vez.
+        assertEquals(0, metricas.desbordes());
+        assertEquals(distintos, enviados);
+    }
+
+    static class CanalContador implements ServicioDeNotificacion {
+        private final List<String> recibidos = new ArrayList<>();
+        private boolean cerrado;
+        private int fallosPendientes;
+
+        @Override
+        public void enviar(String mensaje) {
+            comprobarFallo();
+            recibidos.add(mensaje);
+        }
+
+        @Override
+        public void enviarLote(List<String> mensajes) {
+            comprobarFallo();
+            recibidos.addAll(mensajes);
+        }
+
+        void fallarProximosEnvios(int envios) {
+            fallosPendientes = envios;
+        }
+
+        private void comprobarFallo() {
+            if (fallosPendientes > 0) {
+                fallosPendientes--;
+                throw new IllegalStateException("Proveedor no disponible");
+            }
+        }
+
+        List<String> recibidos() {
+            return recibidos;
+        }
+
+        boolean cerrado() {
+            return cerrado;
+        }
+
+        @PreDestroy
+        void cerrar() {
+            cerrado = true;
+        }
+    }
+}
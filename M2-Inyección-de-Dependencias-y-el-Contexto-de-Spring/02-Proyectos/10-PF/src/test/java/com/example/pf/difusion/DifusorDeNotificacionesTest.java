@@ -0,0 +1,282 @@
+package com.example.pf.difusion;
+
+import com.example.pf.contrato.ServicioDeNotificacion;
+import com.example.pf.deduplicacion.DeduplicadorDeNotificaciones;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DifusorDeNotificacionesTest {
+
+    private static final int MENSAJES = Integer.getInteger("notificaciones.carga.mensajes", 1_000);
+
+    @Test
+    void elCuboDeTokensRespetaLaTasaYLaRafaga() {
+        AtomicLong reloj = new AtomicLong();
+        LimitadorTokens limitador = new LimitadorTokens(10, 5, reloj::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limitador.reservar(1));
+        }
+        // Sin tokens: el sexto espera lo que tarda en generarse uno (100 ms) y el lote de 3 siguiente, 3 más.
+        assertEquals(100_000_000, limitador.reservar(1));
+        assertEquals(400_000_000, limitador.reservar(3));
+
+        // Tras un rato largo no se acumulan más tokens que la ráfaga.
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, limitador.reservar(5));
+        assertEquals(100_000_000, limitador.reservar(1));
+    }
+
+    @Test
+    void agregaElResultadoDeCadaCanal() throws Exception {
+        Map<String, ServicioDeNotificacion> servicios = new LinkedHashMap<>();
+        servicios.put("correo", new CanalSimulado(0, 10));
+        servicios.put("roto", mensaje -> {
+            throw new IllegalStateException("Proveedor caído");
+        });
+        DifusorDeNotificaciones difusor = new DifusorDeNotificaciones(servicios, nombre -> new ConfiguracionCanal(10, 0, 1));
+
+        ResultadoDifusion resultado = difusor.difundir("Hola").get(5, TimeUnit.SECONDS);
+
+        assertEquals(Map.of("correo", EstadoEntrega.ENTREGADO, "roto", EstadoEntrega.FALLIDO), resultado.porCanal());
+        assertEquals(1, resultado.entregados());
+        difusor.cerrar();
+    }
+
+    @Test
+    void unDuplicadoSuprimidoNoCuentaComoEntregado() throws Exception {
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+            contexto.registerBean(DeduplicadorDeNotificaciones.class);
+            contexto.registerBean("correo", CanalSimulado.class, () -> new CanalSimulado(0, 10));
+            contexto.registerBean("sms", CanalSimulado.class, () -> new CanalSimulado(0, 1));
+            contexto.registerBean(DifusorDeNotificaciones.class);
+            contexto.refresh();
+            DifusorDeNotificaciones difusor = contexto.getBean(DifusorDeNotificaciones.class);
+
+            ResultadoDifusion primero = difusor.difundir("Su pedido ha sido enviado").get(5, TimeUnit.SECONDS);
+            ResultadoDifusion segundo = difusor.difundir("Su pedido ha sido enviado").get(5, TimeUnit.SECONDS);
+
+            assertTrue(primero.entregadoEnTodos());
+            assertEquals(Map.of("correo", EstadoEntrega.SUPRIMIDO, "sms", EstadoEntrega.SUPRIMIDO), segundo.porCanal());
+            assertEquals(0, segundo.entregados());
+            assertFalse(segundo.entregadoEnTodos());
+
+            // Sin esperar entre envíos, el correo puede juntarlos en un lote: el duplicado se marca igual.
+            List<CompletableFuture<ResultadoDifusion>> seguidos = new ArrayList<>();
+            for (String mensaje : List.of("Aviso A", "Aviso A", "Aviso B")) {
+                seguidos.add(difusor.difundir(mensaje));
+            }
+            assertTrue(seguidos.get(0).get(5, TimeUnit.SECONDS).entregadoEnTodos());
+            assertEquals(Map.of("correo", EstadoEntrega.SUPRIMIDO, "sms", EstadoEntrega.SUPRIMIDO),
+                    seguidos.get(1).get(5, TimeUnit.SECONDS).porCanal());
+            assertTrue(seguidos.get(2).get(5, TimeUnit.SECONDS).entregadoEnTodos());
+
+            difusor.getMetricas().forEach((canal, metricas) -> {
+                assertEquals(3, metricas.entregados(), canal);
+                assertEquals(2, metricas.suprimidos(), canal);
+            });
+        }
+    }
+
+    @Test
+    void unCanalLlenoRechazaSinFrenarALosDemas() throws Exception {
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Map<String, ServicioDeNotificacion> servicios = new LinkedHashMap<>();
+        servicios.put("atascado", mensaje -> {
+            enCurso.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        servicios.put("rapido", new CanalSimulado(0, 1));
+        DifusorDeNotificaciones difusor = new DifusorDeNotificaciones(servicios,
+                nombre -> new ConfiguracionCanal(nombre.equals("atascado") ? 2 : 10, 0, 1));
+
+        List<CompletableFuture<ResultadoDifusion>> resultados = new ArrayList<>();
+        resultados.add(difusor.difundir("Aviso 0"));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < 5; i++) {
+            resultados.add(difusor.difundir("Aviso " + i));
+        }
+        // El canal atascado tiene uno en curso y dos en cola: el resto se rechaza al momento.
+        assertEquals(2, difusor.getMetricas().get("atascado").rechazados());
+        assertEquals(EstadoEntrega.RECHAZADO, resultados.get(4).get(5, TimeUnit.SECONDS).porCanal().get("atascado"));
+        assertEquals(EstadoEntrega.ENTREGADO, resultados.get(4).join().porCanal().get("rapido"));
+
+        liberar.countDown();
+        assertTrue(resultados.get(0).get(5, TimeUnit.SECONDS).entregadoEnTodos());
+        assertTrue(resultados.get(2).get(5, TimeUnit.SECONDS).entregadoEnTodos());
+        difusor.cerrar();
+    }
+
+    @Test
+    void cerrarMientrasSeEncolaNoDejaResultadosSinCompletar() throws Exception {
+        for (int ronda = 0; ronda < 20; ronda++) {
+            CanalDeDifusion canal = new CanalDeDifusion("correo", new CanalSimulado(0, 10), new ConfiguracionCanal(10_000, 0, 1));
+            List<CompletableFuture<EstadoEntrega>> resultados = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch empezado = new CountDownLatch(1);
+            Thread productor = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    resultados.add(canal.encolar("Aviso " + i));
+                    empezado.countDown();
+                }
+            });
+            productor.start();
+            assertTrue(empezado.await(5, TimeUnit.SECONDS));
+            canal.close();
+            productor.join();
+
+            CompletableFuture.allOf(resultados.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            MetricasCanal metricas = canal.getMetricas();
+            assertEquals(resultados.size(), metricas.entregados() + metricas.rechazados());
+        }
+    }
+
+    @Test
+    void siSeInterrumpeElHiloDelCanalLosPendientesSeRechazan() throws Exception {
+        CountDownLatch enCurso = new CountDownLatch(1);
+        AtomicReference<Thread> hiloDelCanal = new AtomicReference<>();
+        ServicioDeNotificacion bloqueado = mensaje -> {
+            hiloDelCanal.set(Thread.currentThread());
+            enCurso.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Envío interrumpido");
+            }
+        };
+        CanalDeDifusion canal = new CanalDeDifusion("sms", bloqueado, new ConfiguracionCanal(10, 0, 1));
+
+        CompletableFuture<EstadoEntrega> primero = canal.encolar("Aviso 0");
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+        CompletableFuture<EstadoEntrega> segundo = canal.encolar("Aviso 1");
+        CompletableFuture<EstadoEntrega> tercero = canal.encolar("Aviso 2");
+        hiloDelCanal.get().interrupt();
+
+        assertEquals(EstadoEntrega.FALLIDO, primero.get(5, TimeUnit.SECONDS));
+        assertEquals(EstadoEntrega.RECHAZADO, segundo.get(5, TimeUnit.SECONDS));
+        assertEquals(EstadoEntrega.RECHAZADO, tercero.get(5, TimeUnit.SECONDS));
+        canal.close();
+        assertEquals(EstadoEntrega.RECHAZADO, canal.encolar("Aviso 3").join());
+    }
+
+    @Test
+    void bajoCargaSeRespetaLaTasaYSeAgrupaEnLotes() throws Exception {
+        difundirConLatenciasSimuladas(300);
+    }
+
+    @Tag("benchmark")
+    @Test
+    void pruebaDeCargaConLatenciasSimuladas() throws Exception {
+        // Referencia: cada mensaje enviado por los tres canales, uno detrás de otro.
+        Map<String, ServicioDeNotificacion> servicios = canalesSimulados();
+        int muestraSecuencial = Math.max(1, MENSAJES / 20);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < muestraSecuencial; i++) {
+            for (ServicioDeNotificacion servicio : servicios.values()) {
+                servicio.enviar("Secuencial " + i);
+            }
+        }
+        double secuencialPorSegundo = muestraSecuencial * 1e9 / (System.nanoTime() - inicio);
+
+        Carga carga = difundirConLatenciasSimuladas(MENSAJES);
+        double difusionPorSegundo = MENSAJES * 1e9 / carga.nanos();
+        System.out.printf("BENCHMARK: %,d mensajes por 3 canales -> secuencial %,.0f mensajes/s, "
+                        + "difusión en paralelo %,.0f mensajes/s (llamadas: correo %d, sms %d, push %d)%n",
+                MENSAJES, secuencialPorSegundo, difusionPorSegundo, carga.metricas().get("correo").lotes(),
+                carga.metricas().get("sms").lotes(), carga.metricas().get("push").lotes());
+    }
+
+    private record Carga(long nanos, Map<String, MetricasCanal> metricas) {
+    }
+
+    /**
+     * Correo: 20 ms por llamada, lotes de 50. SMS: 1 ms por mensaje, sin lotes, máximo 1.000/s.
+     * Push: 2 ms por llamada, lotes de 10.
+     */
+    private static Map<String, ServicioDeNotificacion> canalesSimulados() {
+        Map<String, ServicioDeNotificacion> servicios = new LinkedHashMap<>();
+        servicios.put("correo", new CanalSimulado(20, 50));
+        servicios.put("sms", new CanalSimulado(1, 1));
+        servicios.put("push", new CanalSimulado(2, 10));
+        return servicios;
+    }
+
+    /**
+     * Difunde {@code mensajes} mensajes por los canales simulados y comprueba que todos se entregan,
+     * que el SMS no supera su tasa y que el correo agrupa en lotes.
+     */
+    private static Carga difundirConLatenciasSimuladas(int mensajes) throws Exception {
+        Map<String, ConfiguracionCanal> configuracion = Map.of(
+                "correo", new ConfiguracionCanal(mensajes, 0, 1),
+                "sms", new ConfiguracionCanal(mensajes, 1_000, 100),
+                "push", new ConfiguracionCanal(mensajes, 0, 1));
+        DifusorDeNotificaciones difusor = new DifusorDeNotificaciones(canalesSimulados(), configuracion::get);
+        long inicio = System.nanoTime();
+        List<CompletableFuture<ResultadoDifusion>> resultados = new ArrayList<>(mensajes);
+        for (int i = 0; i < mensajes; i++) {
+            resultados.add(difusor.difundir("Evento " + i));
+        }
+        CompletableFuture.allOf(resultados.toArray(CompletableFuture[]::new)).get(1, TimeUnit.MINUTES);
+        long nanos = System.nanoTime() - inicio;
+
+        for (CompletableFuture<ResultadoDifusion> resultado : resultados) {
+            assertTrue(resultado.join().entregadoEnTodos(), () -> resultado.join().toString());
+        }
+        Map<String, MetricasCanal> metricas = difusor.getMetricas();
+        // El límite del SMS se cumple: 1.000 mensajes/s tras la ráfaga inicial.
+        assertTrue(nanos >= (mensajes - 100) * 1_000_000L, "El SMS ha superado su tasa");
+        assertTrue(metricas.get("correo").lotes() < mensajes / 10, "El correo no ha agrupado en lotes");
+        difusor.cerrar();
+        return new Carga(nanos, metricas);
+    }
+
+    /**
+     * Canal que tarda {@code latenciaMs} por llamada, sea de un mensaje o de un lote.
+     */
+    static class CanalSimulado implements ServicioDeNotificacion {
+        private final long latenciaMs;
+        private final int tamanoLote;
+
+        CanalSimulado(long latenciaMs, int tamanoLote) {
+            this.latenciaMs = latenciaMs;
+            this.tamanoLote = tamanoLote;
+        }
+
+        @Override
+        public void enviar(String mensaje) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(latenciaMs));
+        }
+
+        @Override
+        public void enviarLote(List<String> mensajes) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(latenciaMs));
+        }
+
+        @Override
+        public int tamanoMaximoLote() {
+            return tamanoLote;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.pf.pool;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.pf.deduplicacion.DeduplicadorDeNotificaciones;
+import com.example.pf.servicio.ServicioSMS;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PoolDeServiciosSMSTest {
+
+    private static final int MENSAJES = Integer.getInteger("notificaciones.sms.pool.mensajes", 20_000);
+    private static final Logger LOG_APLICACION = (Logger) LoggerFactory.getLogger("com.example.pf");
+    private static Level nivelAnterior;
+
+    @BeforeAll
+    static void silenciarLogs() {
+        // Un INFO por SMS enviado dominaría el tiempo medido.
+        nivelAnterior = LOG_APLICACION.getLevel();
+        LOG_APLICACION.setLevel(Level.WARN);
+    }
+
+    @AfterAll
+    static void restaurarLogs() {
+        LOG_APLICACION.setLevel(nivelAnterior);
+    }
+
+    @Test
+    void precalientaLasInstanciasYLasReutiliza() throws InterruptedException {
+        List<ServicioSMS> instancias = new ArrayList<>();
+        try (AnnotationConfigApplicationContext contexto = contexto(3)) {
+            PoolDeServiciosSMS pool = contexto.getBean(PoolDeServiciosSMS.class);
+            Set<Integer> ids = new HashSet<>();
+            for (int i = 0; i < 3; i++) {
+                ServicioSMS servicio = pool.tomar(1, TimeUnit.SECONDS);
+                assertTrue(servicio.estaConectado());
+                ids.add(servicio.getIdDeInstancia());
+                instancias.add(servicio);
+            }
+            assertEquals(3, ids.size());
+            assertEquals(0, pool.getDisponibles());
+            instancias.forEach(pool::devolver);
+
+            for (int i = 0; i < 100; i++) {
+                pool.enviar("SMS " + i);
+            }
+            assertEquals(100, instancias.stream().mapToLong(ServicioSMS::getEnviados).sum());
+            assertEquals(3, pool.getDisponibles());
+        }
+        // Al cerrar el contexto, el pool cierra la conexión de cada instancia.
+        instancias.forEach(servicio -> assertFalse(servicio.estaConectado()));
+    }
+
+    @Test
+    void esperaAQueSeDevuelvaUnaInstanciaYRechazaLasAjenas() throws Exception {
+        try (AnnotationConfigApplicationContext contexto = contexto(1)) {
+            PoolDeServiciosSMS pool = contexto.getBean(PoolDeServiciosSMS.class);
+            ServicioSMS prestada = pool.tomar();
+            assertNull(pool.tomar(10, TimeUnit.MILLISECONDS));
+
+            CompletableFuture<ServicioSMS> enEspera = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pool.tomar();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            pool.devolver(prestada);
+            assertSame(prestada, enEspera.get(5, TimeUnit.SECONDS));
+
+            ServicioSMS ajena = contexto.getBean(ServicioSMS.class);
+            assertThrows(IllegalArgumentException.class, () -> pool.devolver(ajena));
+        }
+    }
+
+    @Test
+    void rechazaDevolverDosVecesOUnaInstanciaQueNoEstaPrestada() throws InterruptedException {
+        try (AnnotationConfigApplicationContext contexto = contexto(2)) {
+            PoolDeServiciosSMS pool = contexto.getBean(PoolDeServiciosSMS.class);
+            ServicioSMS prestada = pool.tomar();
+            ServicioSMS libre = pool.tomar();
+            pool.devolver(libre);
+
+            // La que sigue libre no se puede devolver: la cola tendría la misma instancia dos veces.
+            assertThrows(IllegalStateException.class, () -> pool.devolver(libre));
+            pool.devolver(prestada);
+            assertThrows(IllegalStateException.class, () -> pool.devolver(prestada));
+            assertEquals(2, pool.getDisponibles());
+
+            // Tras volver a prestarla, la devolución se acepta de nuevo.
+            ServicioSMS otraVez = pool.tomar(1, TimeUnit.SECONDS);
+            pool.devolver(otraVez);
+            assertEquals(2, pool.getDisponibles());
+        }
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkPrototypePorMensajeFrenteAPool() {
+        try (AnnotationConfigApplicationContext contexto = contexto(4)) {
+            PoolDeServiciosSMS pool = contexto.getBean(PoolDeServiciosSMS.class);
+            // Calentamiento de ambos caminos antes de medir.
+            conGetBean(contexto, MENSAJES / 10);
+            conPool(pool, MENSAJES / 10);
+
+            long getBean = 0;
+            long reutilizando = 0;
+            for (int ronda = 0; ronda < 3; ronda++) {
+                getBean += conGetBean(contexto, MENSAJES);
+                reutilizando += conPool(pool, MENSAJES);
+            }
+            double porSegundoGetBean = 3.0 * MENSAJES * 1e9 / getBean;
+            double porSegundoPool = 3.0 * MENSAJES * 1e9 / reutilizando;
+            System.out.printf("BENCHMARK: %,d SMS x 3 rondas -> getBean por mensaje %,.0f SMS/s (%d ns/SMS), "
+                            + "pool de %d instancias %,.0f SMS/s (%d ns/SMS)%n",
+                    MENSAJES, porSegundoGetBean, getBean / (3L * MENSAJES),
+                    pool.getTamano(), porSegundoPool, reutilizando / (3L * MENSAJES));
+            assertTrue(porSegundoPool > porSegundoGetBean);
+        }
+    }
+
+    private static long conGetBean(AnnotationConfigApplicationContext contexto, int mensajes) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < mensajes; i++) {
+            ServicioSMS servicio = contexto.getBean("servicioSMS", ServicioSMS.class);
+            servicio.enviar("SMS " + i);
+            // Un prototype lo destruye quien lo pidió.
+            servicio.desconectar();
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private static long conPool(PoolDeServiciosSMS pool, int mensajes) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < mensajes; i++) {
+            pool.enviar("SMS " + i);
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    /**
+     * Contexto con la misma cadena de creación que la aplicación: post-procesadores de anotaciones
+     * y proxy de deduplicación sobre cada ServicioSMS.
+     */
+    private static AnnotationConfigApplicationContext contexto(int tamano) {
+        AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext();
+        contexto.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "notificaciones.sms.pool.tamano", String.valueOf(tamano),
+                "notificaciones.deduplicacion.ventana-ms", "1000")));
+        contexto.registerBean(DeduplicadorDeNotificaciones.class);
+        contexto.registerBean("servicioSMS", ServicioSMS.class);
+        contexto.registerBean(PoolDeServiciosSMS.class);
+        contexto.refresh();
+        return contexto;
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.p1.importacion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Importa productos en masa desde un CSV sin cargarlo entero en memoria ni crear un {@code Producto} por fila.
+ * <p>
+ * La entrada tiene una cabecera y una fila {@code nombre,descripcion,stock} por producto, con el stock
+ * como último campo y sin comillas. Los demás campos pueden ir entre comillas, pero no contener saltos de línea.
+ * La salida repite cada fila con su ID delante y su código de inventario detrás:
+ * {@code id,nombre,descripcion,stock,codigoInventario}.
+ * <p>
+ * El hilo que llama lee la entrada por bloques de bytes cortados en un salto de línea y los reparte entre
+ * los hilos de trabajo. Cada hilo:
+ * <ul>
+ *     <li>cuenta las filas de su bloque y reserva de una vez un rango de IDs consecutivos con
+ *     {@code reservarIds}, que es atómico y se comparte con el guardado de productos sueltos;</li>
+ *     <li>copia cada fila tal cual en un búfer de salida y escribe el ID y el código de inventario
+ *     directamente en bytes, a partir del prefijo y de los sufijos ya codificados.</li>
+ * </ul>
+ * El hilo que llama escribe los bloques terminados en el orden de la entrada, cada uno de una vez. Hay como
+ * mucho dos bloques por hilo en vuelo, así que la memoria no depende del tamaño del fichero. Los IDs son
+ * únicos y consecutivos dentro de cada bloque, pero dos bloques pueden recibir sus rangos en otro orden.
+ */
+public class ImportadorCsvProductos {
+
+    private static final byte[] CABECERA_SALIDA =
+            "id,nombre,descripcion,stock,codigoInventario\n".getBytes(StandardCharsets.US_ASCII);
+    // Máximo de bytes que una fila de salida añade a la de entrada, sin contar prefijo y sufijo:
+    // dos IDs de hasta 20 dígitos, una coma antes y otra después de la fila, y el salto de línea.
+    private static final int EXTRA_POR_FILA = 20 + 1 + 1 + 20 + 1;
+
+    private final byte[] prefijo;
+    private final byte[] sufijoActivo;
+    private final byte[] sufijoBajoStock;
+    private final int umbralBajoStock;
+    private final IntToLongFunction reservarIds;
+    private final int hilos;
+    private final int tamanoBloque;
+
+    /**
+     * @param reservarIds  Recibe un número de filas y devuelve el primero de otros tantos IDs consecutivos
+     *                     reservados para ellas.
+     * @param tamanoBloque Bytes de entrada que procesa cada tarea; una fila debe caber en un bloque.
+     */
+    public ImportadorCsvProductos(String prefijo, String sufijoActivo, String sufijoBajoStock, int umbralBajoStock,
+                                  IntToLongFunction reservarIds, int hilos, int tamanoBloque) {
+        if (hilos <= 0 || tamanoBloque <= 0) {
+            throw new IllegalArgumentException("Hilos y tamaño de bloque deben ser positivos: " + hilos + ", " + tamanoBloque);
+        }
+        this.prefijo = prefijo.getBytes(StandardCharsets.UTF_8);
+        this.sufijoActivo = ("-" + sufijoActivo).getBytes(StandardCharsets.UTF_8);
+        this.sufijoBajoStock = ("-" + sufijoBajoStock).getBytes(StandardCharsets.UTF_8);
+        this.umbralBajoStock = umbralBajoStock;
+        this.reservarIds = reservarIds;
+        this.hilos = hilos;
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    public ResultadoImportacion importar(Path origen, Path destino) throws IOException {
+        long inicio = System.nanoTime();
+        AtomicInteger numeroHilo = new AtomicInteger();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "importacion-" + numeroHilo.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long filas = 0;
+        long bajoStock = 0;
+        long leidos = 0;
+        long escritos = CABECERA_SALIDA.length;
+        try (InputStream entrada = Files.newInputStream(origen);
+             OutputStream salida = Files.newOutputStream(destino)) {
+            salida.write(CABECERA_SALIDA);
+            Deque<Future<Bloque>> enVuelo = new ArrayDeque<>();
+            byte[] pendiente = new byte[0];
+            boolean cabeceraSaltada = false;
+            while (true) {
+                byte[] datos = new byte[tamanoBloque];
+                int longitud = leer(entrada, datos, pendiente);
+                boolean fin = longitud < datos.length;
+                leidos += longitud - pendiente.length;
+                int corte = fin ? longitud : ultimoSaltoDeLinea(datos, longitud) + 1;
+                if (corte == 0 && !fin) {
+                    throw new IllegalArgumentException("Hay una fila de más de " + tamanoBloque + " bytes en " + origen);
+                }
+                pendiente = Arrays.copyOfRange(datos, corte, longitud);
+                int desde = 0;
+                if (!cabeceraSaltada) {
+                    desde = Math.min(corte, siguienteLinea(datos, 0, corte));
+                    cabeceraSaltada = true;
+                }
+                int desdeFinal = desde;
+                enVuelo.add(ejecutor.submit(() -> procesar(datos, desdeFinal, corte)));
+                while (enVuelo.size() >= 2 * hilos || (fin && !enVuelo.isEmpty())) {
+                    Bloque bloque = esperar(enVuelo.poll());
+                    salida.write(bloque.datos(), 0, bloque.longitud());
+                    filas += bloque.filas();
+                    bajoStock += bloque.bajoStock();
+                    escritos += bloque.longitud();
+                }
+                if (fin) {
+                    break;
+                }
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+        return new ResultadoImportacion(filas, bajoStock, leidos, escritos, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Genera la salida de las filas completas de {@code datos[desde, hasta)}.
+     */
+    Bloque procesar(byte[] datos, int desde, int hasta) {
+        int filas = 0;
+        for (int i = desde; i < hasta; i = siguienteLinea(datos, i, hasta)) {
+            if (finDeContenido(datos, i, hasta) > i) {
+                filas++;
+            }
+        }
+        int extra = EXTRA_POR_FILA + prefijo.length + Math.max(sufijoActivo.length, sufijoBajoStock.length);
+        byte[] salida = new byte[hasta - desde + filas * extra];
+        int escrito = 0;
+        int bajoStock = 0;
+        long id = filas == 0 ? 0 : reservarIds.applyAsLong(filas);
+        for (int i = desde; i < hasta; ) {
+            int siguiente = siguienteLinea(datos, i, hasta);
+            int fin = finDeContenido(datos, i, siguiente);
+            if (fin > i) {
+                boolean bajo = leerStock(datos, i, fin) <= umbralBajoStock;
+                escrito = escribirNumero(salida, escrito, id);
+                salida[escrito++] = ',';
+                System.arraycopy(datos, i, salida, escrito, fin - i);
+                escrito += fin - i;
+                salida[escrito++] = ',';
+                System.arraycopy(prefijo, 0, salida, escrito, prefijo.length);
+                escrito = escribirNumero(salida, escrito + prefijo.length, id);
+                byte[] sufijo = bajo ? sufijoBajoStock : sufijoActivo;
+                System.arraycopy(sufijo, 0, salida, escrito, sufijo.length);
+                escrito += sufijo.length;
+                salida[escrito++] = '\n';
+                id++;
+                if (bajo) {
+                    bajoStock++;
+                }
+            }
+            i = siguiente;
+        }
+        return new Bloque(salida, escrito, filas, bajoStock);
+    }
+
+    /**
+     * Lee el último campo de la fila {@code datos[desde, hasta)} como un entero.
+     */
+    private static int leerStock(byte[] datos, int desde, int hasta) {
+        int coma = hasta - 1;
+        while (coma >= desde && datos[coma] != ',') {
+            coma--;
+        }
+        int i = coma + 1;
+        boolean negativo = i < hasta && datos[i] == '-';
+        if (negativo) {
+            i++;
+        }
+        if (coma < desde || i == hasta || hasta - i > 9) {
+            throw filaNoValida(datos, desde, hasta);
+        }
+        int stock = 0;
+        for (; i < hasta; i++) {
+            int digito = datos[i] - '0';
+            if (digito < 0 || digito > 9) {
+                throw filaNoValida(datos, desde, hasta);
+            }
+            stock = stock * 10 + digito;
+        }
+        return negativo ? -stock : stock;
+    }
+
+    private static IllegalArgumentException filaNoValida(byte[] datos, int desde, int hasta) {
+        return new IllegalArgumentException("Fila de producto no válida (se esperaba 'nombre,descripcion,stock'): "
+                + new String(datos, desde, hasta - desde, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Escribe {@code valor} (no negativo) en decimal a partir de {@code posicion} y devuelve la posición siguiente.
+     */
+    private static int escribirNumero(byte[] destino, int posicion, long valor) {
+        int digitos = 1;
+        for (long resto = valor / 10; resto > 0; resto /= 10) {
+            digitos++;
+        }
+        int fin = posicion + digitos;
+        for (int i = fin - 1; i >= posicion; i--) {
+            destino[i] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        }
+        return fin;
+    }
+
+    private static int siguienteLinea(byte[] datos, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            if (datos[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return hasta;
+    }
+
+    /**
+     * Final del contenido de la línea que empieza en {@code desde}, sin el salto de línea ni un {@code \r}.
+     */
+    private static int finDeContenido(byte[] datos, int desde, int hasta) {
+        int fin = hasta;
+        if (fin > desde && datos[fin - 1] == '\n') {
+            fin--;
+        }
+        if (fin > desde && datos[fin - 1] == '\r') {
+            fin--;
+        }
+        return fin;
+    }
+
+    private static int ultimoSaltoDeLinea(byte[] datos, int longitud) {
+        for (int i = longitud - 1; i >= 0; i--) {
+            if (datos[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Copia el resto del bloque anterior al principio de {@code datos} y completa con la entrada.
+     *
+     * @return Bytes válidos en {@code datos}; menos que su tamaño solo al llegar al final de la entrada.
+     */
+    private static int leer(InputStream entrada, byte[] datos, byte[] pendiente) throws IOException {
+        System.arraycopy(pendiente, 0, datos, 0, pendiente.length);
+        return pendiente.length + entrada.readNBytes(datos, pendiente.length, datos.length - pendiente.length);
+    }
+
+    private static Bloque esperar(Future<Bloque> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    record Bloque(byte[] datos, int longitud, int filas, int bajoStock) {
+    }
+}
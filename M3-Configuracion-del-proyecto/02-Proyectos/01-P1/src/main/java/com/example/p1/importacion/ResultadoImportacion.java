@@ -0,0 +1,17 @@
+package com.example.p1.importacion;
+
+/**
+ * Resumen de una importación masiva de productos.
+ *
+ * @param filas          Productos importados.
+ * @param filasBajoStock Productos cuyo código lleva el sufijo de stock bajo.
+ * @param bytesLeidos    Tamaño del CSV de entrada.
+ * @param bytesEscritos  Tamaño del CSV de salida.
+ * @param nanos          Duración de la importación.
+ */
+public record ResultadoImportacion(long filas, long filasBajoStock, long bytesLeidos, long bytesEscritos, long nanos) {
+
+    public double filasPorSegundo() {
+        return nanos == 0 ? 0 : filas * 1e9 / nanos;
+    }
+}
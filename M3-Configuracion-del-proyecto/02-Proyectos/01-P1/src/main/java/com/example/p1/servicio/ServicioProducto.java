@@ -1,5 +1,7 @@
 package com.example.p1.servicio;
 
+import com.example.p1.importacion.ImportadorCsvProductos;
+import com.example.p1.importacion.ResultadoImportacion;
 import com.example.p1.modelo.Producto;
 import jakarta.annotation.PostConstruct; // Para ejecutar lógica después de la construcción del bean
 import org.springframework.beans.factory.annotation.Value;
@@ -9,6 +11,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment; // Para la Interfaz Environment
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
 @Service
 public class ServicioProducto {
 
@@ -27,11 +33,18 @@ public class ServicioProducto {
     @Value("${producto.inventario.umbral_bajo_stock}")
     private int umbralBajoStock; // Inyecta 10 como Integer
 
+    @Value("${producto.importacion.hilos:0}")
+    private int hilosImportacion; // 0 = uno por procesador
+
+    @Value("${producto.importacion.tamano_bloque_bytes:1048576}")
+    private int tamanoBloqueImportacion;
+
     // Inyección de la interfaz Environment para acceso programático a propiedades
     @Autowired
     private Environment entorno;
 
-    private Long contadorIdProductos = 0L; // Simula un generador de IDs
+    // Simula un generador de IDs; atómico porque la importación masiva reserva bloques desde varios hilos
+    private final AtomicLong contadorIdProductos = new AtomicLong();
 
     /**
      * Simula el guardado de un producto y genera su código de inventario.
@@ -42,7 +55,7 @@ public class ServicioProducto {
         REGISTRO.info("Preparando para guardar producto: {}", producto.getNombre());
 
         // Asignar un ID simulado para el producto
-        producto.setId(++contadorIdProductos);
+        producto.setId(contadorIdProductos.incrementAndGet());
 
         // Determinar el sufijo basado en el stock y el umbral inyectado
         String sufijoFinal;
@@ -62,6 +75,26 @@ public class ServicioProducto {
         return producto;
     }
 
+    /**
+     * Importa en masa los productos de un CSV ({@code nombre,descripcion,stock}, con cabecera) y escribe
+     * cada uno con su ID y su código de inventario en {@code destino}. Aplica las mismas reglas que
+     * {@link #guardarProducto(Producto)} y comparte con él el generador de IDs, pero en paralelo y sin
+     * cargar el fichero en memoria ni registrar cada producto en el log.
+     * @param origen  CSV de entrada.
+     * @param destino CSV de salida ({@code id,nombre,descripcion,stock,codigoInventario}).
+     * @return Resumen de la importación.
+     */
+    public ResultadoImportacion importarProductos(Path origen, Path destino) throws IOException {
+        int hilos = hilosImportacion > 0 ? hilosImportacion : Runtime.getRuntime().availableProcessors();
+        ImportadorCsvProductos importador = new ImportadorCsvProductos(prefijoCategoria, sufijoActivo, sufijoBajoStock,
+                umbralBajoStock, filas -> contadorIdProductos.getAndAdd(filas) + 1, hilos, tamanoBloqueImportacion);
+        REGISTRO.info("Importando productos de {} con {} hilos", origen, hilos);
+        ResultadoImportacion resultado = importador.importar(origen, destino);
+        REGISTRO.info("Importados {} productos ({} con stock bajo) en {} ms",
+                resultado.filas(), resultado.filasBajoStock(), resultado.nanos() / 1_000_000);
+        return resultado;
+    }
+
     /**
      * Método de inicialización que demuestra el acceso programático a propiedades
      * a través de la interfaz Environment.
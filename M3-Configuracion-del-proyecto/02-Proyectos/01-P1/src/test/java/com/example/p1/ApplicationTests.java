@@ -3,7 +3,8 @@ package com.example.p1;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Hay dos clases @SpringBootApplication en el paquete: se indica cuál arranca la aplicación.
+@SpringBootTest(classes = EcommerceApp.class)
 class ApplicationTests {
 
     @Test
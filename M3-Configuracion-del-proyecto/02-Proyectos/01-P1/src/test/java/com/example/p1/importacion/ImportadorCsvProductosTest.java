@@ -0,0 +1,130 @@
+package com.example.p1.importacion;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportadorCsvProductosTest {
+
+    private static final int FILAS_BENCHMARK = Integer.getInteger("productos.importacion.filas", 10_000_000);
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void generaIdsYCodigosConLasReglasDeGuardarProductoEnCualquierCorteDeBloques() throws IOException {
+        List<String> filas = List.of(
+                "Laptop Gamer 'Omega',Laptop de alto rendimiento para juegos,25",
+                "Ratón Ergonómico 'Precisión',\"Inalámbrico, ergonómico\",8",
+                "Teclado Mecánico 'Dominator',Teclado RGB retroiluminado,10",
+                "Monitor,Panel de 27 pulgadas,11");
+        Path origen = directorio.resolve("productos.csv");
+        // Un salto CRLF, una línea vacía y la última fila sin salto de línea.
+        Files.writeString(origen, "nombre,descripcion,stock\n" + filas.get(0) + "\r\n" + filas.get(1) + "\n\n"
+                + filas.get(2) + "\n" + filas.get(3));
+        AtomicLong contador = new AtomicLong(100);
+
+        // Bloques de 64 bytes: casi todas las filas quedan partidas entre dos lecturas.
+        ResultadoImportacion resultado = importador(contador, 3, 64).importar(origen, directorio.resolve("salida.csv"));
+
+        List<String> salida = Files.readAllLines(directorio.resolve("salida.csv"));
+        assertEquals("id,nombre,descripcion,stock,codigoInventario", salida.get(0));
+        assertEquals(filas.size() + 1, salida.size());
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < filas.size(); i++) {
+            String fila = salida.get(i + 1);
+            long id = Long.parseLong(fila.substring(0, fila.indexOf(',')));
+            String sufijo = i == 3 || i == 0 ? "EN_STOCK" : "STOCK_BAJO";
+            assertEquals(id + "," + filas.get(i) + ",CAT-" + id + "-" + sufijo, fila);
+            ids.add(id);
+        }
+        assertEquals(Set.of(101L, 102L, 103L, 104L), ids);
+        assertEquals(104, contador.get());
+        assertEquals(4, resultado.filas());
+        assertEquals(2, resultado.filasBajoStock());
+        assertEquals(Files.size(directorio.resolve("salida.csv")), resultado.bytesEscritos());
+    }
+
+    @Test
+    void rechazaFilasMalFormadasODemasiadoLargas() throws IOException {
+        Path origen = directorio.resolve("mal.csv");
+        Files.writeString(origen, "nombre,descripcion,stock\nLaptop,Sin stock,muchos\n");
+        assertThrows(IllegalArgumentException.class,
+                () -> importador(new AtomicLong(), 2, 1024).importar(origen, directorio.resolve("salida.csv")));
+
+        Files.writeString(origen, "nombre,descripcion,stock\nLaptop," + "x".repeat(100) + ",5\n");
+        assertThrows(IllegalArgumentException.class,
+                () -> importador(new AtomicLong(), 2, 64).importar(origen, directorio.resolve("salida.csv")));
+    }
+
+    @Tag("benchmark")
+    @Test
+    void benchmarkImportacionMasivaFrenteAGuardadoFilaAFila() throws IOException {
+        Path origen = directorio.resolve("productos.csv");
+        try (BufferedWriter escritor = Files.newBufferedWriter(origen)) {
+            escritor.write("nombre,descripcion,stock\n");
+            for (int i = 0; i < FILAS_BENCHMARK; i++) {
+                escritor.write("Producto " + i + ",Descripcion del producto " + i + "," + (i % 50) + "\n");
+            }
+        }
+
+        long inicio = System.nanoTime();
+        long filasFilaAFila = filaAFila(origen, directorio.resolve("fila-a-fila.csv"));
+        long nanosFilaAFila = System.nanoTime() - inicio;
+        Files.delete(directorio.resolve("fila-a-fila.csv"));
+
+        int hilos = Runtime.getRuntime().availableProcessors();
+        ResultadoImportacion resultado = importador(new AtomicLong(), hilos, 1 << 20)
+                .importar(origen, directorio.resolve("masiva.csv"));
+
+        double porSegundoFilaAFila = filasFilaAFila * 1e9 / nanosFilaAFila;
+        System.out.printf("BENCHMARK: %,d filas (%,d MB) -> fila a fila %,.0f filas/s, importación masiva con %d hilos "
+                        + "%,.0f filas/s%n",
+                FILAS_BENCHMARK, resultado.bytesLeidos() >> 20, porSegundoFilaAFila, hilos, resultado.filasPorSegundo());
+        assertEquals(FILAS_BENCHMARK, filasFilaAFila);
+        assertEquals(FILAS_BENCHMARK, resultado.filas());
+        assertTrue(resultado.filasPorSegundo() > porSegundoFilaAFila);
+    }
+
+    /**
+     * Lo que haría un bucle sobre guardarProducto: una cadena por campo y el código concatenado.
+     */
+    private static long filaAFila(Path origen, Path destino) throws IOException {
+        AtomicLong contador = new AtomicLong();
+        long filas = 0;
+        try (BufferedReader lector = Files.newBufferedReader(origen);
+             BufferedWriter escritor = Files.newBufferedWriter(destino)) {
+            lector.readLine();
+            escritor.write("id,nombre,descripcion,stock,codigoInventario\n");
+            for (String linea = lector.readLine(); linea != null; linea = lector.readLine()) {
+                String[] campos = linea.split(",");
+                long id = contador.incrementAndGet();
+                int stock = Integer.parseInt(campos[2]);
+                String codigo = "CAT-" + id + "-" + (stock <= 10 ? "STOCK_BAJO" : "EN_STOCK");
+                escritor.write(id + "," + campos[0] + "," + campos[1] + "," + stock + "," + codigo + "\n");
+                filas++;
+            }
+        }
+        return filas;
+    }
+
+    private static ImportadorCsvProductos importador(AtomicLong contador, int hilos, int tamanoBloque) {
+        return new ImportadorCsvProductos("CAT-", "EN_STOCK", "STOCK_BAJO", 10,
+                filas -> contador.getAndAdd(filas) + 1, hilos, tamanoBloque);
+    }
+}